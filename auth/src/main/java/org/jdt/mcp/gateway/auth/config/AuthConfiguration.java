@@ -5,6 +5,7 @@ import org.jdt.mcp.gateway.core.entity.AuthType;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Set;
 
@@ -40,4 +41,49 @@ public class AuthConfiguration {
 
     private AuthType authType= AuthType.db;
 
+    /**
+     * 本地认证结果缓存最大条目数
+     */
+    private long verdictCacheMaxSize = 100_000;
+
+    /**
+     * 有效key的本地缓存时间，不会超过key自身的过期时间
+     */
+    private Duration verdictCachePositiveTtl = Duration.ofMinutes(5);
+
+    /**
+     * 无效key的本地缓存时间
+     */
+    private Duration verdictCacheNegativeTtl = Duration.ofSeconds(30);
+
+    /**
+     * 最后使用时间批量写回间隔
+     */
+    private Duration touchFlushInterval = Duration.ofSeconds(5);
+
+    /**
+     * 最后使用时间单条批量UPDATE包含的key数
+     */
+    private int touchFlushBatchSize = 500;
+
+    /**
+     * 单次写回最多处理的key数，剩余的留到下一次
+     */
+    private int touchFlushMaxEntries = 20_000;
+
+    /**
+     * 是否记录请求body用于审计（debug日志开启时也会记录）
+     */
+    private boolean bodyCaptureEnabled = false;
+
+    /**
+     * 请求body记录的抽样比例，0~1
+     */
+    private double bodyCaptureSampleRate = 0.01;
+
+    /**
+     * 单个请求最多记录的body字节数
+     */
+    private int bodyCaptureMaxBytes = 4096;
+
 }
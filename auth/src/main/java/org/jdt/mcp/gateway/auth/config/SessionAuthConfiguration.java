@@ -54,6 +54,16 @@ public class SessionAuthConfiguration {
      */
     private boolean enableAccessLog = true;
 
+    /**
+     * 会话过期时间轮的tick间隔（毫秒）
+     */
+    private long wheelTickMillis = 1000;
+
+    /**
+     * 续期结果批量写入Redis的间隔（秒）
+     */
+    private long extendFlushIntervalSeconds = 5;
+
     /**
      * 获取默认TTL Duration对象
      */
@@ -68,6 +78,13 @@ public class SessionAuthConfiguration {
         return Duration.ofHours(maxTtlHours);
     }
 
+    /**
+     * 是否自动延长（getAutoExtendTtl已被Duration占用，lombok不会生成该方法）
+     */
+    public boolean isAutoExtendTtl() {
+        return autoExtendTtl;
+    }
+
     /**
      * 获取自动延长TTL Duration对象
      */
@@ -75,6 +92,13 @@ public class SessionAuthConfiguration {
         return Duration.ofHours(autoExtendHours);
     }
 
+    /**
+     * 获取续期写回间隔Duration对象
+     */
+    public Duration getExtendFlushInterval() {
+        return Duration.ofSeconds(extendFlushIntervalSeconds);
+    }
+
     /**
      * 获取清理间隔Duration对象
      */
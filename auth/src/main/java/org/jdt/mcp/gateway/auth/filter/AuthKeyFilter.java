@@ -1,24 +1,24 @@
 package org.jdt.mcp.gateway.auth.filter;
 
 import lombok.extern.slf4j.Slf4j;
+import org.jdt.mcp.gateway.auth.config.AuthConfiguration;
 import org.jdt.mcp.gateway.auth.service.AuthService;
+import org.jdt.mcp.gateway.auth.service.SessionRegistry;
+import org.jdt.mcp.gateway.auth.session.SessionBinding;
+import org.jdt.mcp.gateway.core.constant.AuthConstants;
+import org.jdt.mcp.gateway.core.entity.AuthKeyEntity;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
-import org.springframework.core.io.buffer.DataBuffer;
-import org.springframework.core.io.buffer.DataBufferUtils;
-import org.springframework.core.io.buffer.DefaultDataBufferFactory;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.server.reactive.ServerHttpRequest;
-import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
 import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.stereotype.Component;
 import org.springframework.web.server.ServerWebExchange;
 import org.springframework.web.server.WebFilter;
 import org.springframework.web.server.WebFilterChain;
-import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
-import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ThreadLocalRandom;
 
 import static org.jdt.mcp.gateway.auth.tool.AuthReqTool.*;
 
@@ -26,6 +26,7 @@ import static org.jdt.mcp.gateway.auth.tool.AuthReqTool.*;
  * authKey过滤器
  * 只会过滤基于webflux的请求
  * 增强功能：支持sessionId与authKey的关联鉴权
+ * 携带已绑定sessionId的请求按会话绑定的key鉴权，不需要重复携带key；会话绑定放入exchange属性sessionBinding供路由使用
  */
 @Component
 @Slf4j
@@ -33,9 +34,13 @@ import static org.jdt.mcp.gateway.auth.tool.AuthReqTool.*;
 public class AuthKeyFilter implements WebFilter {
 
     private final AuthService authService;
+    private final AuthConfiguration authConfig;
+    private final SessionRegistry sessionRegistry;
 
-    public AuthKeyFilter(AuthService authService) {
+    public AuthKeyFilter(AuthService authService, AuthConfiguration authConfig, SessionRegistry sessionRegistry) {
         this.authService = authService;
+        this.authConfig = authConfig;
+        this.sessionRegistry = sessionRegistry;
     }
 
     @Override
@@ -45,10 +50,12 @@ public class AuthKeyFilter implements WebFilter {
         String ip = getClientIp(request);
         String connectionId = generateConnectionId(request);
 
-        log.debug("#######\nProcessing request for path: {}, connectionId: {}", path, connectionId);
-        request.getQueryParams().forEach((key, value) -> log.debug("Param: {}, {}", key, value));
-        request.getHeaders().forEach((key, value) -> log.debug("Header: {}, {}", key, value));
-        log.debug("#######");
+        if (log.isDebugEnabled()) {
+            log.debug("#######\nProcessing request for path: {}, connectionId: {}", path, connectionId);
+            request.getQueryParams().forEach((key, value) -> log.debug("Param: {}, {}", key, value));
+            request.getHeaders().forEach((key, value) -> log.debug("Header: {}, {}", key, value));
+            log.debug("#######");
+        }
 
         // 提取认证信息 (key 或 sessionId)
         String authKey = extractAuthKey(request);
@@ -57,63 +64,25 @@ public class AuthKeyFilter implements WebFilter {
         log.debug("Extracted auth info - key: {}, sessionId: {}",
                 maskKey(authKey), sessionId);
 
-        // 确定使用哪种鉴权方式
-        return DataBufferUtils.join(request.getBody())
-                // 当请求没有body时(例如GET请求)，提供一个空的DataBuffer作为默认值
-                // 这可以确保后续的 .flatMap() 操作一定会被执行
-                .defaultIfEmpty(new DefaultDataBufferFactory().wrap(new byte[0]))
-                .flatMap(dataBuffer -> {
-                    // ************* FIX ENDS HERE *************
-                    // 1. 记录 Body 信息
-                    byte[] bytes = new byte[dataBuffer.readableByteCount()];
-                    dataBuffer.read(bytes);
-                    DataBufferUtils.release(dataBuffer); // 读取后释放资源
-                    String bodyAsString = new String(bytes, StandardCharsets.UTF_8);
-
-                    log.debug("#######\nProcessing request for path: {}, connectionId: {}", path, connectionId);
-                    request.getQueryParams().forEach((key, value) -> log.info("Param: {}, {}", key, value));
-                    request.getHeaders().forEach((key, value) -> log.info("Header: {}, {}", key, value));
-                    // 打印Body
-                    if (bodyAsString.isEmpty()) {
-                        log.debug("Body: [Empty]");
+        // 鉴权只依赖header和query参数，body原样透传给下游，不做缓冲和拷贝
+        return determineAuthMethod(exchange, path, ip, authKey, sessionId)
+                .flatMap(authResult -> {
+                    if (authResult.valid()) {
+                        log.info("Authentication successful for connectionId: {}, method: {}",
+                                connectionId, authResult.authMethod());
+
+                        ServerWebExchange authedExchange = withBodyCapture(exchange, connectionId);
+                        authedExchange.getAttributes().put("authKey", authResult.authKey());
+                        authedExchange.getAttributes().put("authMethod", authResult.authMethod());
+
+                        return resolveUserId(authResult.authKey())
+                                .doOnNext(userId -> authedExchange.getAttributes().put(AuthConstants.USER_ID, userId))
+                                .then(Mono.defer(() -> chain.filter(authedExchange)));
                     } else {
-                        log.debug("Body: {}", bodyAsString);
+                        log.warn("Authentication failed for connectionId: {}, method: {}, reason: {}",
+                                connectionId, authResult.authMethod(), authResult.failureReason());
+                        return handleUnauthorized(exchange, authResult.failureReason());
                     }
-                    log.debug("#######");
-
-                    // 2. 重新包装 Request
-                    ServerHttpRequest mutatedRequest = new ServerHttpRequestDecorator(request) {
-                        @Override
-                        public Flux<DataBuffer> getBody() {
-                            if (bytes.length == 0) {
-                                return Flux.empty();
-                            }
-                            return Flux.just(new DefaultDataBufferFactory().wrap(bytes));
-                        }
-                    };
-                    ServerWebExchange mutatedExchange = exchange.mutate().request(mutatedRequest).build();
-
-                    // 3. 执行原有的认证逻辑
-
-                    log.debug("Extracted auth info - key: {}, sessionId: {}",
-                            maskKey(authKey), sessionId);
-
-                    return determineAuthMethod(mutatedExchange, path, ip, authKey, sessionId)
-                            .flatMap(authResult -> {
-                                if (authResult.valid()) {
-                                    log.info("Authentication successful for connectionId: {}, method: {}",
-                                            connectionId, authResult.authMethod());
-
-                                    mutatedExchange.getAttributes().put("authKey", authResult.authKey());
-                                    mutatedExchange.getAttributes().put("authMethod", authResult.authMethod());
-
-                                    return chain.filter(mutatedExchange);
-                                } else {
-                                    log.warn("Authentication failed for connectionId: {}, method: {}, reason: {}",
-                                            connectionId, authResult.authMethod(), authResult.failureReason());
-                                    return handleUnauthorized(mutatedExchange, authResult.failureReason());
-                                }
-                            });
                 })
                 .onErrorResume(throwable -> {
                     log.error("Authentication error for connectionId: {}", connectionId, throwable);
@@ -121,6 +90,37 @@ public class AuthKeyFilter implements WebFilter {
                 });
     }
 
+    /**
+     * 鉴权通过的key所属用户，key刚校验过，实体直接从本地认证缓存取得，不访问数据库
+     * 静态key和白名单请求没有用户
+     */
+    private Mono<String> resolveUserId(String authKey) {
+        if (authKey == null) {
+            return Mono.empty();
+        }
+        return authService.getAuthKeyEntity(authKey)
+                .mapNotNull(AuthKeyEntity::getUserId)
+                .onErrorResume(error -> {
+                    log.warn("Failed to resolve user of auth key {}: {}", maskKey(authKey), error.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    /**
+     * 按配置抽样记录请求body，只在审计开启或debug日志开启时生效
+     * body仍然流式传递，只拷贝前bodyCaptureMaxBytes个字节
+     */
+    private ServerWebExchange withBodyCapture(ServerWebExchange exchange, String connectionId) {
+        boolean enabled = authConfig.isBodyCaptureEnabled() || log.isDebugEnabled();
+        if (!enabled || ThreadLocalRandom.current().nextDouble() >= authConfig.getBodyCaptureSampleRate()) {
+            return exchange;
+        }
+        ServerHttpRequest captured = new BodyCaptureRequestDecorator(exchange.getRequest(),
+                authConfig.getBodyCaptureMaxBytes(),
+                body -> log.info("Request body for connectionId: {}: {}", connectionId, body.isEmpty() ? "[Empty]" : body));
+        return exchange.mutate().request(captured).build();
+    }
+
     /**
      * 确定使用哪种鉴权方式
      */
@@ -139,7 +139,46 @@ public class AuthKeyFilter implements WebFilter {
             return Mono.just(AuthResult.failure("IP_WHITELIST", "IP不在白名单中"));
         }
 
-        // 3. 如果有authKey，使用key鉴权
+        // 3. 如果有已绑定的sessionId，按会话鉴权
+        if (sessionId != null && !sessionId.isBlank()) {
+            return sessionRegistry.lookup(sessionId)
+                    .flatMap(binding -> authenticateSession(exchange, path, authKey, binding))
+                    .switchIfEmpty(Mono.defer(() -> authenticateKey(authKey, sessionId)));
+        }
+        return authenticateKey(authKey, sessionId);
+    }
+
+    /**
+     * 会话鉴权：会话必须属于请求的服务；同时携带key时必须与会话绑定的key一致
+     * 绑定的key仍需通过校验（本地认证缓存），key被撤销后会话随之失效
+     */
+    private Mono<AuthResult> authenticateSession(ServerWebExchange exchange, String path, String authKey,
+                                                 SessionBinding binding) {
+        String servicePrefix = "/mcp/" + binding.getServiceId() + "/";
+        if (!path.startsWith(servicePrefix)) {
+            return Mono.just(AuthResult.failure("SESSION", "会话不属于该服务"));
+        }
+        String boundKey = binding.getAuthKey();
+        if (boundKey == null) {
+            exchange.getAttributes().put("sessionBinding", binding);
+            return authenticateKey(authKey, binding.getSessionId());
+        }
+        if (authKey != null && !authKey.trim().isEmpty() && !authKey.equals(boundKey)) {
+            return Mono.just(AuthResult.failure("SESSION", "认证key与会话不匹配"));
+        }
+        return authService.validateAuthKey(boundKey)
+                .map(isValid -> {
+                    if (isValid) {
+                        sessionRegistry.touch(binding);
+                        exchange.getAttributes().put("sessionBinding", binding);
+                        return AuthResult.success("SESSION", boundKey, binding.getSessionId());
+                    }
+                    return AuthResult.failure("SESSION", "会话绑定的认证key已失效");
+                });
+    }
+
+    private Mono<AuthResult> authenticateKey(String authKey, String sessionId) {
+        // 如果有authKey，使用key鉴权
         if (authKey != null && !authKey.trim().isEmpty()) {
             return authService.validateAuthKey(authKey)
                     .map(isValid -> {
@@ -150,7 +189,7 @@ public class AuthKeyFilter implements WebFilter {
                         }
                     });
         }
-        // 4. 既没有key也没有sessionId
+        // 既没有key也没有有效的sessionId
         return Mono.just(AuthResult.failure("NO_AUTH", "缺少认证信息"));
     }
 
@@ -164,7 +203,11 @@ public class AuthKeyFilter implements WebFilter {
             return sessionId.trim();
         }
 
-        // 从Header获取
+        // 从Header获取，Streamable HTTP传输使用Mcp-Session-Id
+        String headerSessionId = request.getHeaders().getFirst("Mcp-Session-Id");
+        if (headerSessionId != null && !headerSessionId.isBlank()) {
+            return headerSessionId.trim();
+        }
         return request.getHeaders().getFirst("X-Session-Id");
     }
 
@@ -0,0 +1,65 @@
+package org.jdt.mcp.gateway.auth.filter;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import reactor.core.publisher.Flux;
+
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+/**
+ * 旁路记录请求body的装饰器
+ * 原始DataBuffer不做修改直接向下游传递，只按字节拷贝前maxBytes个字节，body结束或取消时回调一次
+ */
+public class BodyCaptureRequestDecorator extends ServerHttpRequestDecorator {
+
+    private final int maxBytes;
+    private final Consumer<String> onCaptured;
+
+    public BodyCaptureRequestDecorator(ServerHttpRequest delegate, int maxBytes, Consumer<String> onCaptured) {
+        super(delegate);
+        this.maxBytes = Math.max(maxBytes, 0);
+        this.onCaptured = onCaptured;
+    }
+
+    @Override
+    public Flux<DataBuffer> getBody() {
+        return Flux.defer(() -> {
+            Capture capture = new Capture();
+            return super.getBody()
+                    .doOnNext(capture::append)
+                    .doFinally(signal -> onCaptured.accept(capture.content()));
+        });
+    }
+
+    private final class Capture {
+        private byte[] bytes;
+        private int length;
+        private long total;
+
+        void append(DataBuffer buffer) {
+            int readable = buffer.readableByteCount();
+            total += readable;
+            int count = Math.min(readable, maxBytes - length);
+            if (count <= 0) {
+                return;
+            }
+            if (bytes == null) {
+                bytes = new byte[maxBytes];
+            }
+            int start = buffer.readPosition();
+            for (int i = 0; i < count; i++) {
+                bytes[length++] = buffer.getByte(start + i);
+            }
+        }
+
+        String content() {
+            if (length == 0) {
+                return "";
+            }
+            String text = new String(bytes, 0, length, StandardCharsets.UTF_8);
+            return total > length ? text + "...(" + total + " bytes)" : text;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package org.jdt.mcp.gateway.auth.service;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * 认证key最后使用时间的写回缓冲
+ * 请求路径上只记录内存，按间隔批量写回数据库和Redis
+ */
+public interface AuthKeyTouchService {
+
+    /**
+     * 记录key被使用，同一key在一个写回周期内只保留最新时间
+     * @param authKey 认证key
+     */
+    void touch(String authKey);
+
+    /**
+     * 立即写回一批待更新记录
+     * @return 成功写回数据库的key数
+     */
+    Mono<Integer> flush();
+
+    /**
+     * 当前待写回的key数
+     */
+    int pendingCount();
+}
@@ -1,5 +1,6 @@
 package org.jdt.mcp.gateway.auth.service;
 
+import org.jdt.mcp.gateway.core.entity.AuthKeyEntity;
 import reactor.core.publisher.Mono;
 
 public interface AuthService {
@@ -9,6 +10,12 @@ public interface AuthService {
     Mono<Boolean> validateWithStaticKeys(String authKey);
     Mono<Boolean> validateWithDatabaseService(String authKey);
 
+    /**
+     * 获取有效key的实体信息，优先读取本地认证缓存
+     * @return 静态key、无效key或未启用数据库鉴权时返回空
+     */
+    Mono<AuthKeyEntity> getAuthKeyEntity(String authKey);
+
     /**
      * 综合鉴权检查
      * @param path 请求
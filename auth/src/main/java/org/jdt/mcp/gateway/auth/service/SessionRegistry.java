@@ -0,0 +1,44 @@
+package org.jdt.mcp.gateway.auth.service;
+
+import org.jdt.mcp.gateway.auth.session.SessionBinding;
+import reactor.core.publisher.Mono;
+
+/**
+ * MCP会话注册表
+ * 本地并发表保存会话绑定，复制到Redis供其他节点查询
+ */
+public interface SessionRegistry {
+
+    /**
+     * 绑定上游签发的sessionId，会话的SSE流在本节点
+     * @param authKey 建立会话时使用的key，未鉴权时为null
+     * 同一sessionId已有未过期的绑定且key或服务不同时拒绝绑定，返回已关闭、未登记的绑定
+     * @return 会话绑定，到期或移除时onClose完成
+     */
+    SessionBinding bind(String sessionId, String authKey, String serviceId, String instanceId);
+
+    /**
+     * 会话被使用，开启自动续期时延长过期时间（不超过最大TTL），续期结果批量写入Redis
+     */
+    void touch(SessionBinding binding);
+
+    /**
+     * 只查本地，未命中或已过期返回null
+     */
+    SessionBinding lookupLocal(String sessionId);
+
+    /**
+     * 先查本地，未命中时查Redis并缓存到本地
+     */
+    Mono<SessionBinding> lookup(String sessionId);
+
+    /**
+     * 移除会话并关闭
+     */
+    void remove(String sessionId);
+
+    /**
+     * 本地会话数
+     */
+    int size();
+}
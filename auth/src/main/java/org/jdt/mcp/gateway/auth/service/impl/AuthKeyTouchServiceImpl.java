@@ -0,0 +1,186 @@
+package org.jdt.mcp.gateway.auth.service.impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.jdt.mcp.gateway.auth.config.AuthConfiguration;
+import org.jdt.mcp.gateway.auth.service.AuthKeyTouchService;
+import org.jdt.mcp.gateway.core.entity.AuthKeyTouch;
+import org.jdt.mcp.gateway.mapper.AuthKeyMapper;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Slf4j
+@Service
+public class AuthKeyTouchServiceImpl implements AuthKeyTouchService {
+
+    private static final Duration SHUTDOWN_FLUSH_TIMEOUT = Duration.ofSeconds(10);
+
+    private final AuthConfiguration authConfig;
+    private final AuthKeyMapper authKeyMapper;
+
+    // authKey -> 最后使用时间（毫秒），写回时逐个移除
+    private final ConcurrentHashMap<String, Long> pending = new ConcurrentHashMap<>();
+
+    private final Counter flushedCounter;
+    private final Counter failedCounter;
+    private final Timer flushTimer;
+
+    private Disposable flushTask;
+
+    public AuthKeyTouchServiceImpl(AuthConfiguration authConfig,
+                                   AuthKeyMapper authKeyMapper,
+                                   MeterRegistry meterRegistry) {
+        this.authConfig = authConfig;
+        this.authKeyMapper = authKeyMapper;
+
+        Gauge.builder("auth.touch.pending", pending, Map::size)
+                .description("待写回最后使用时间的key数")
+                .register(meterRegistry);
+        this.flushedCounter = Counter.builder("auth.touch.flushed")
+                .description("已写回数据库的key数")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("auth.touch.failed")
+                .description("写回数据库失败、重新排队的key数")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("auth.touch.flush")
+                .description("单次写回耗时")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        Duration interval = authConfig.getTouchFlushInterval();
+        // concatMap保证写回串行执行，上一次未结束时丢弃本次tick
+        flushTask = Flux.interval(interval, interval)
+                .onBackpressureDrop()
+                .concatMap(tick -> flush()
+                        .onErrorResume(error -> {
+                            log.error("Failed to flush auth key last used times", error);
+                            return Mono.just(0);
+                        }))
+                .subscribe();
+        log.info("Auth key touch buffer started, flush interval: {}", interval);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (flushTask != null) {
+            flushTask.dispose();
+        }
+        // 停机前写回剩余记录，数据库不可用时不再重试
+        try {
+            Integer flushed = 1;
+            while (!pending.isEmpty() && flushed != null && flushed > 0) {
+                flushed = flush().block(SHUTDOWN_FLUSH_TIMEOUT);
+            }
+        } catch (Exception e) {
+            log.warn("Final flush of auth key last used times failed: {}", e.getMessage());
+        }
+        if (!pending.isEmpty()) {
+            log.warn("Dropped {} pending auth key last used times on shutdown", pending.size());
+        }
+    }
+
+    @Override
+    public void touch(String authKey) {
+        pending.merge(authKey, System.currentTimeMillis(), Math::max);
+    }
+
+    @Override
+    public Mono<Integer> flush() {
+        return Mono.defer(() -> {
+            Map<String, Long> drained = drain(authConfig.getTouchFlushMaxEntries());
+            if (drained.isEmpty()) {
+                return Mono.just(0);
+            }
+
+            long start = System.nanoTime();
+            return Mono.fromCallable(() -> writeDatabase(drained))
+                    .subscribeOn(Schedulers.boundedElastic())
+                    .doOnSuccess(written -> {
+                        flushTimer.record(Duration.ofNanos(System.nanoTime() - start));
+                        log.debug("Flushed last used time for {} of {} auth keys", written, drained.size());
+                    });
+        });
+    }
+
+    @Override
+    public int pendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * 从缓冲中取出最多limit个待写回记录
+     */
+    private Map<String, Long> drain(int limit) {
+        Map<String, Long> drained = new HashMap<>(Math.min(pending.size(), limit) * 2);
+        Iterator<String> iterator = pending.keySet().iterator();
+        while (iterator.hasNext() && drained.size() < limit) {
+            String authKey = iterator.next();
+            Long timestamp = pending.remove(authKey);
+            if (timestamp != null) {
+                drained.put(authKey, timestamp);
+            }
+        }
+        return drained;
+    }
+
+    /**
+     * 分批写回数据库，失败的批次重新放回缓冲等待下一次写回
+     * @return 写回成功的key数
+     */
+    private int writeDatabase(Map<String, Long> drained) {
+        int batchSize = Math.max(authConfig.getTouchFlushBatchSize(), 1);
+        List<AuthKeyTouch> batch = new ArrayList<>(Math.min(batchSize, drained.size()));
+        int written = 0;
+        for (Map.Entry<String, Long> entry : drained.entrySet()) {
+            batch.add(new AuthKeyTouch(entry.getKey(), toLocalDateTime(entry.getValue())));
+            if (batch.size() == batchSize) {
+                written += writeBatch(batch, drained);
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+        if (!batch.isEmpty()) {
+            written += writeBatch(batch, drained);
+        }
+        return written;
+    }
+
+    private int writeBatch(List<AuthKeyTouch> batch, Map<String, Long> drained) {
+        try {
+            authKeyMapper.batchUpdateLastUsedTime(batch);
+            flushedCounter.increment(batch.size());
+            return batch.size();
+        } catch (Exception e) {
+            log.warn("Failed to update last used time for {} auth keys, requeued: {}", batch.size(), e.getMessage());
+            failedCounter.increment(batch.size());
+            for (AuthKeyTouch touch : batch) {
+                pending.merge(touch.keyHash(), drained.get(touch.keyHash()), Math::max);
+            }
+            return 0;
+        }
+    }
+
+    private static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+}
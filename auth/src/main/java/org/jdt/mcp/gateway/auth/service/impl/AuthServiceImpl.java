@@ -1,8 +1,16 @@
 package org.jdt.mcp.gateway.auth.service.impl;
 
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.jdt.mcp.gateway.service.RedisAuthKeyService;
 import org.jdt.mcp.gateway.auth.config.AuthConfiguration;
+import org.jdt.mcp.gateway.auth.service.AuthKeyTouchService;
 import org.jdt.mcp.gateway.auth.service.AuthService;
 import org.jdt.mcp.gateway.core.entity.AuthCallRecord;
 import org.jdt.mcp.gateway.core.entity.AuthKeyEntity;
@@ -11,9 +19,14 @@ import org.jdt.mcp.gateway.mapper.AuthCallLogMapper;
 import org.jdt.mcp.gateway.mapper.AuthKeyMapper;
 import org.springframework.stereotype.Service;
 import org.springframework.util.AntPathMatcher;
+import reactor.core.Disposable;
 import reactor.core.publisher.Mono;
 import reactor.core.publisher.Sinks;
 import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
 
 @Slf4j
 @Service
@@ -24,23 +37,60 @@ public class AuthServiceImpl implements AuthService {
     private final AuthKeyMapper authKeyMapper;
     private final AuthCallLogMapper authCallLogMapper;
     private final RedisAuthKeyService redisAuthKeyService;
+    private final AuthKeyTouchService touchService;
 
     private final Sinks.Many<AuthCallRecord> logSink;
 
+    // 进程内认证结果缓存，有效/无效分别使用不同TTL；同一key的并发未命中只触发一次加载
+    private final AsyncCache<String, AuthVerdict> verdictCache;
+
+    private Disposable invalidationSubscription;
+
     public AuthServiceImpl(AuthConfiguration authConfig,
                            AuthKeyMapper authKeyMapper,
                            AuthCallLogMapper authCallLogMapper,
-                           RedisAuthKeyService redisAuthKeyService) {
+                           RedisAuthKeyService redisAuthKeyService,
+                           AuthKeyTouchService touchService,
+                           MeterRegistry meterRegistry) {
         this.authConfig = authConfig;
         this.pathMatcher = new AntPathMatcher();
         this.authKeyMapper = authKeyMapper;
         this.authCallLogMapper = authCallLogMapper;
         this.redisAuthKeyService = redisAuthKeyService;
+        this.touchService = touchService;
+        this.verdictCache = Caffeine.newBuilder()
+                .maximumSize(authConfig.getVerdictCacheMaxSize())
+                .expireAfter(Expiry.creating(this::verdictTtl))
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, verdictCache, "auth.verdict");
         // 初始化异步日志处理流
         this.logSink = Sinks.many().multicast().onBackpressureBuffer();
         setupAsyncLogProcessor();
     }
 
+    @PostConstruct
+    public void subscribeInvalidations() {
+        invalidationSubscription = redisAuthKeyService.subscribeInvalidations()
+                .doOnNext(authKey -> {
+                    verdictCache.synchronous().invalidate(authKey);
+                    log.debug("Evicted local auth verdict: {}", maskKey(authKey));
+                })
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1))
+                        .maxBackoff(Duration.ofSeconds(30))
+                        .doBeforeRetry(signal -> log.warn("Auth key invalidation subscription failed, retrying: {}",
+                                signal.failure().getMessage())))
+                .subscribe();
+        log.info("Subscribed to auth key invalidation channel");
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (invalidationSubscription != null) {
+            invalidationSubscription.dispose();
+        }
+    }
+
     @Override
     public boolean isWhitelistedPath(String path) {
         return authConfig.getWhitelist().stream()
@@ -87,40 +137,54 @@ public class AuthServiceImpl implements AuthService {
 
     @Override
     public Mono<Boolean> validateWithDatabaseService(String authKey) {
+        return getVerdict(authKey)
+                .map(verdict -> {
+                    // 每次都重新检查过期时间，缓存期间key到期也能立即失效
+                    boolean isValid = verdict.valid() && isAuthKeyValid(verdict.entity());
+                    if (isValid) {
+                        touchService.touch(authKey);
+                    }
+                    return isValid;
+                })
+                .onErrorResume(throwable -> {
+                    log.error("Database validation error for key: {}", maskKey(authKey), throwable);
+                    return Mono.just(false);
+                });
+    }
+
+    @Override
+    public Mono<AuthKeyEntity> getAuthKeyEntity(String authKey) {
+        if (!authConfig.isEnabled() || authConfig.getAuthType() == AuthType.staticKey
+                || authKey == null || authKey.isBlank()) {
+            return Mono.empty();
+        }
+        return getVerdict(authKey)
+                .filter(verdict -> verdict.valid() && isAuthKeyValid(verdict.entity()))
+                .map(AuthVerdict::entity);
+    }
+
+    private Mono<AuthVerdict> getVerdict(String authKey) {
+        // 取消订阅不取消共享的加载future，避免影响其他等待同一key的请求
+        return Mono.fromFuture(() -> verdictCache.get(authKey,
+                (key, executor) -> loadVerdict(key).toFuture()), true);
+    }
+
+    /**
+     * 本地缓存未命中时加载认证结果：Redis无效key标记 -> Redis缓存 -> 数据库
+     */
+    private Mono<AuthVerdict> loadVerdict(String authKey) {
         return redisAuthKeyService.isInvalidKeyCached(authKey)
                 .flatMap(isInvalid -> {
                     if (isInvalid) {
                         log.debug("Auth key found in invalid cache: {}", maskKey(authKey));
-                        return Mono.just(false);
+                        return Mono.just(AuthVerdict.INVALID);
                     }
 
                     // 从Redis缓存获取认证key信息
                     return redisAuthKeyService.getAuthKeyFromCache(authKey)
-                            .flatMap(cachedEntity -> {
+                            .map(cachedEntity -> {
                                 log.debug("Auth key found in cache: {}", maskKey(authKey));
-                                boolean isValid = isAuthKeyValid(cachedEntity);
-
-                                if (isValid) {
-                                    // 异步更新最后使用时间
-                                    redisAuthKeyService.updateLastUsedTime(authKey)
-                                            .doOnError(error -> log.warn("Failed to update last used time for cached key: {}",
-                                                    maskKey(authKey), error))
-                                            .subscribeOn(Schedulers.boundedElastic())
-                                            .subscribe();
-
-                                    // 异步更新数据库
-                                    Mono.fromRunnable(() -> {
-                                                try {
-                                                    authKeyMapper.updateLastUsedTime(authKey);
-                                                } catch (Exception e) {
-                                                    log.warn("Failed to update last used time in database for key: {}",
-                                                            maskKey(authKey), e);
-                                                }
-                                            }).subscribeOn(Schedulers.boundedElastic())
-                                            .subscribe();
-                                }
-
-                                return Mono.just(isValid);
+                                return AuthVerdict.of(cachedEntity, isAuthKeyValid(cachedEntity));
                             })
                             .switchIfEmpty(
                                     // 缓存未命中，查询数据库
@@ -135,7 +199,7 @@ public class AuthServiceImpl implements AuthService {
                                                     .doOnError(error -> log.warn("Failed to cache invalid key", error))
                                                     .subscribeOn(Schedulers.boundedElastic())
                                                     .subscribe();
-                                            return false;
+                                            return AuthVerdict.INVALID;
                                         }
 
                                         // 异步缓存到Redis
@@ -147,34 +211,12 @@ public class AuthServiceImpl implements AuthService {
                                         boolean isValid = isAuthKeyValid(dbEntity);
                                         if (isValid) {
                                             log.info("Database key validation successful for key: {}", maskKey(authKey));
-
-                                            // 异步更新最后使用时间
-                                            Mono.fromRunnable(() -> {
-                                                        try {
-                                                            authKeyMapper.updateLastUsedTime(authKey);
-                                                        } catch (Exception e) {
-                                                            log.warn("Failed to update last used time for key: {}",
-                                                                    maskKey(authKey), e);
-                                                        }
-                                                    }).subscribeOn(Schedulers.boundedElastic())
-                                                    .subscribe();
-
-                                            // 异步更新Redis缓存中的时间
-                                            redisAuthKeyService.updateLastUsedTime(authKey)
-                                                    .doOnError(error -> log.warn("Failed to update last used time in cache", error))
-                                                    .subscribeOn(Schedulers.boundedElastic())
-                                                    .subscribe();
                                         } else {
                                             log.warn("Database key validation failed for key: {}", maskKey(authKey));
                                         }
-
-                                        return isValid;
+                                        return AuthVerdict.of(dbEntity, isValid);
                                     }).subscribeOn(Schedulers.boundedElastic())
                             );
-                })
-                .onErrorResume(throwable -> {
-                    log.error("Database validation error for key: {}", maskKey(authKey), throwable);
-                    return Mono.just(false);
                 });
     }
 
@@ -228,7 +270,25 @@ public class AuthServiceImpl implements AuthService {
         }
 
         // 检查过期时间
-        return entity.getExpiresAt() == null || !entity.getExpiresAt().isBefore(java.time.LocalDateTime.now());
+        return entity.getExpiresAt() == null || !entity.getExpiresAt().isBefore(LocalDateTime.now());
+    }
+
+    /**
+     * 认证结果的本地缓存时间：有效key不超过其过期时间
+     */
+    private Duration verdictTtl(String authKey, AuthVerdict verdict) {
+        if (!verdict.valid()) {
+            return authConfig.getVerdictCacheNegativeTtl();
+        }
+        Duration ttl = authConfig.getVerdictCachePositiveTtl();
+        LocalDateTime expiresAt = verdict.entity().getExpiresAt();
+        if (expiresAt != null) {
+            Duration remaining = Duration.between(LocalDateTime.now(), expiresAt);
+            if (remaining.compareTo(ttl) < 0) {
+                return remaining.isNegative() ? Duration.ZERO : remaining;
+            }
+        }
+        return ttl;
     }
 
     /**
@@ -298,4 +358,16 @@ public class AuthServiceImpl implements AuthService {
         }
         return "***" + authKey.substring(authKey.length() - 4);
     }
+
+    /**
+     * 本地缓存的认证结果
+     */
+    private record AuthVerdict(boolean valid, AuthKeyEntity entity) {
+
+        static final AuthVerdict INVALID = new AuthVerdict(false, null);
+
+        static AuthVerdict of(AuthKeyEntity entity, boolean valid) {
+            return new AuthVerdict(valid, entity);
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,343 @@
+package org.jdt.mcp.gateway.auth.service.impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.jdt.mcp.gateway.auth.config.SessionAuthConfiguration;
+import org.jdt.mcp.gateway.auth.service.SessionRegistry;
+import org.jdt.mcp.gateway.auth.session.SessionBinding;
+import org.jdt.mcp.gateway.auth.session.TimingWheel;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Slf4j
+@Service
+public class SessionRegistryImpl implements SessionRegistry {
+
+    private static final String FIELD_AUTH_KEY = "authKey";
+    private static final String FIELD_SERVICE_ID = "serviceId";
+    private static final String FIELD_INSTANCE_ID = "instanceId";
+    private static final String FIELD_CREATED_AT = "createdAt";
+    private static final String FIELD_EXPIRES_AT = "expiresAt";
+
+    private static final int REDIS_CONCURRENCY = 64;
+    private static final Duration SHUTDOWN_FLUSH_TIMEOUT = Duration.ofSeconds(10);
+
+    private final SessionAuthConfiguration sessionConfig;
+    private final ReactiveStringRedisTemplate redisTemplate;
+
+    private final ConcurrentHashMap<String, SessionBinding> sessions = new ConcurrentHashMap<>();
+    private final TimingWheel expiryWheel;
+    // 已续期、待写入Redis的sessionId，同一会话在一个周期内多次续期只写一次
+    private final Set<String> pendingExtensions = ConcurrentHashMap.newKeySet();
+
+    private final Counter expiredCounter;
+    private final Counter extendedCounter;
+
+    private Disposable expiryTask;
+    private Disposable flushTask;
+
+    public SessionRegistryImpl(SessionAuthConfiguration sessionConfig,
+                               ReactiveStringRedisTemplate redisTemplate,
+                               MeterRegistry meterRegistry) {
+        this.sessionConfig = sessionConfig;
+        this.redisTemplate = redisTemplate;
+        this.expiryWheel = new TimingWheel(sessionConfig.getWheelTickMillis(), System.currentTimeMillis());
+
+        Gauge.builder("auth.session.local", sessions, Map::size)
+                .description("本地会话绑定数")
+                .register(meterRegistry);
+        Gauge.builder("auth.session.timers", expiryWheel, TimingWheel::size)
+                .description("时间轮中登记的会话到期任务数")
+                .register(meterRegistry);
+        this.expiredCounter = Counter.builder("auth.session.expired")
+                .description("到期关闭的本节点会话数")
+                .register(meterRegistry);
+        this.extendedCounter = Counter.builder("auth.session.extended")
+                .description("写入Redis的续期数")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!sessionConfig.isEnabled()) {
+            return;
+        }
+        Duration tick = Duration.ofMillis(sessionConfig.getWheelTickMillis());
+        expiryTask = Flux.interval(tick, tick)
+                .onBackpressureDrop()
+                .subscribe(
+                        unused -> expire(System.currentTimeMillis()),
+                        error -> log.error("Session expiry task stopped", error));
+
+        Duration flushInterval = sessionConfig.getExtendFlushInterval();
+        // concatMap保证写回串行执行，上一次未结束时丢弃本次tick
+        flushTask = Flux.interval(flushInterval, flushInterval)
+                .onBackpressureDrop()
+                .concatMap(unused -> flushExtensions()
+                        .onErrorResume(error -> {
+                            log.warn("Failed to flush session extensions: {}", error.getMessage());
+                            return Mono.empty();
+                        }))
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (expiryTask != null) {
+            expiryTask.dispose();
+        }
+        if (flushTask != null) {
+            flushTask.dispose();
+        }
+        try {
+            flushExtensions().block(SHUTDOWN_FLUSH_TIMEOUT);
+        } catch (Exception e) {
+            log.warn("Failed to flush session extensions on shutdown: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public SessionBinding bind(String sessionId, String authKey, String serviceId, String instanceId) {
+        long now = System.currentTimeMillis();
+        SessionBinding binding = new SessionBinding(sessionId, authKey, serviceId, instanceId,
+                now, now + sessionConfig.getDefaultTtl().toMillis(), true);
+        if (!sessionConfig.isEnabled()) {
+            return binding;
+        }
+        while (true) {
+            SessionBinding previous = sessions.putIfAbsent(sessionId, binding);
+            if (previous == null) {
+                break;
+            }
+            // 未过期的会话只能由同一个key、同一个服务重新绑定，防止被其他key的同名sessionId顶替
+            if (!previous.isExpired(now) && !isSameOwner(previous, authKey, serviceId)) {
+                log.warn("Refused to rebind session {} of service {} to service {} with a different key",
+                        sessionId, previous.getServiceId(), serviceId);
+                binding.close();
+                return binding;
+            }
+            if (sessions.replace(sessionId, previous, binding)) {
+                previous.close();
+                break;
+            }
+        }
+        expiryWheel.schedule(sessionId, binding.getExpiresAtMillis());
+        log.debug("Bound session {} to service {} instance {}", sessionId, serviceId, instanceId);
+
+        replicate(binding).subscribe(
+                unused -> { },
+                error -> log.warn("Failed to replicate session {}: {}", sessionId, error.getMessage()));
+        return binding;
+    }
+
+    /**
+     * 只更新本地过期时间并记入待写回集合，时间轮中的任务不移动
+     */
+    @Override
+    public void touch(SessionBinding binding) {
+        if (!sessionConfig.isAutoExtendTtl()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        long target = Math.min(now + sessionConfig.getAutoExtendTtl().toMillis(),
+                binding.getCreatedAtMillis() + sessionConfig.getMaxTtl().toMillis());
+        // 不足一个tick的延长不值得写回
+        if (target - binding.getExpiresAtMillis() < sessionConfig.getWheelTickMillis()) {
+            return;
+        }
+        binding.setExpiresAtMillis(target);
+        pendingExtensions.add(binding.getSessionId());
+    }
+
+    @Override
+    public SessionBinding lookupLocal(String sessionId) {
+        SessionBinding binding = sessions.get(sessionId);
+        if (binding == null || binding.isExpired(System.currentTimeMillis())) {
+            return null;
+        }
+        return binding;
+    }
+
+    @Override
+    public Mono<SessionBinding> lookup(String sessionId) {
+        if (!sessionConfig.isEnabled()) {
+            return Mono.empty();
+        }
+        SessionBinding local = lookupLocal(sessionId);
+        if (local != null) {
+            return Mono.just(local);
+        }
+        return loadFields(sessionId)
+                .mapNotNull(fields -> fromFields(sessionId, fields))
+                .map(binding -> {
+                    SessionBinding existing = sessions.putIfAbsent(sessionId, binding);
+                    if (existing != null) {
+                        return existing;
+                    }
+                    expiryWheel.schedule(sessionId, binding.getExpiresAtMillis());
+                    return binding;
+                })
+                .onErrorResume(error -> {
+                    log.warn("Failed to load session {} from Redis: {}", sessionId, error.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    @Override
+    public void remove(String sessionId) {
+        SessionBinding binding = sessions.remove(sessionId);
+        if (binding != null) {
+            binding.close();
+        }
+        pendingExtensions.remove(sessionId);
+        redisTemplate.delete(redisKey(sessionId)).subscribe(
+                unused -> { },
+                error -> log.warn("Failed to remove session {}: {}", sessionId, error.getMessage()));
+    }
+
+    @Override
+    public int size() {
+        return sessions.size();
+    }
+
+    /**
+     * 时间轮回调：已续期的按新的过期时间重新登记；其他节点的副本直接移除
+     * 本节点的会话可能在其他节点被续期，关闭前先用Redis中的过期时间确认
+     */
+    private void expire(long now) {
+        List<SessionBinding> candidates = new ArrayList<>();
+        expiryWheel.advance(now, sessionId -> {
+            SessionBinding binding = sessions.get(sessionId);
+            if (binding == null) {
+                return;
+            }
+            if (!binding.isExpired(now)) {
+                expiryWheel.schedule(sessionId, binding.getExpiresAtMillis());
+            } else if (binding.isOwned()) {
+                candidates.add(binding);
+            } else {
+                sessions.remove(sessionId, binding);
+            }
+        });
+        if (candidates.isEmpty()) {
+            return;
+        }
+        Flux.fromIterable(candidates)
+                .flatMap(this::confirmExpiry, REDIS_CONCURRENCY)
+                .subscribe(
+                        unused -> { },
+                        error -> log.warn("Failed to confirm session expiry: {}", error.getMessage()));
+    }
+
+    private Mono<Void> confirmExpiry(SessionBinding binding) {
+        String sessionId = binding.getSessionId();
+        return redisTemplate.<String, String>opsForHash().get(redisKey(sessionId), FIELD_EXPIRES_AT)
+                .map(Long::parseLong)
+                .onErrorResume(error -> Mono.empty())
+                .defaultIfEmpty(0L)
+                .doOnNext(remoteExpiresAt -> {
+                    long now = System.currentTimeMillis();
+                    long expiresAt = Math.max(remoteExpiresAt, binding.getExpiresAtMillis());
+                    if (expiresAt > now) {
+                        binding.setExpiresAtMillis(expiresAt);
+                        expiryWheel.schedule(sessionId, expiresAt);
+                    } else if (sessions.remove(sessionId, binding)) {
+                        binding.close();
+                        expiredCounter.increment();
+                        log.debug("Session expired: {}", sessionId);
+                    }
+                })
+                .then();
+    }
+
+    /**
+     * 把一个周期内的续期批量写入Redis，Lettuce在同一连接上流水线发送
+     */
+    private Mono<Void> flushExtensions() {
+        if (pendingExtensions.isEmpty()) {
+            return Mono.empty();
+        }
+        List<SessionBinding> batch = new ArrayList<>(pendingExtensions.size());
+        Iterator<String> iterator = pendingExtensions.iterator();
+        while (iterator.hasNext()) {
+            SessionBinding binding = sessions.get(iterator.next());
+            iterator.remove();
+            if (binding != null) {
+                batch.add(binding);
+            }
+        }
+        return Flux.fromIterable(batch)
+                .flatMap(binding -> {
+                    String key = redisKey(binding.getSessionId());
+                    return redisTemplate.opsForHash()
+                            .put(key, FIELD_EXPIRES_AT, Long.toString(binding.getExpiresAtMillis()))
+                            .then(redisTemplate.expireAt(key, Instant.ofEpochMilli(binding.getExpiresAtMillis())));
+                }, REDIS_CONCURRENCY)
+                .doOnComplete(() -> {
+                    extendedCounter.increment(batch.size());
+                    log.debug("Flushed {} session extensions", batch.size());
+                })
+                .then();
+    }
+
+    private Mono<Boolean> replicate(SessionBinding binding) {
+        Map<String, String> fields = new HashMap<>(8);
+        if (binding.getAuthKey() != null) {
+            fields.put(FIELD_AUTH_KEY, binding.getAuthKey());
+        }
+        fields.put(FIELD_SERVICE_ID, binding.getServiceId());
+        fields.put(FIELD_INSTANCE_ID, binding.getInstanceId());
+        fields.put(FIELD_CREATED_AT, Long.toString(binding.getCreatedAtMillis()));
+        fields.put(FIELD_EXPIRES_AT, Long.toString(binding.getExpiresAtMillis()));
+
+        String key = redisKey(binding.getSessionId());
+        return redisTemplate.opsForHash().putAll(key, fields)
+                .then(redisTemplate.expireAt(key, Instant.ofEpochMilli(binding.getExpiresAtMillis())));
+    }
+
+    private Mono<Map<String, String>> loadFields(String sessionId) {
+        return redisTemplate.<String, String>opsForHash().entries(redisKey(sessionId))
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue)
+                .filter(fields -> !fields.isEmpty());
+    }
+
+    private static SessionBinding fromFields(String sessionId, Map<String, String> fields) {
+        String serviceId = fields.get(FIELD_SERVICE_ID);
+        String expiresAt = fields.get(FIELD_EXPIRES_AT);
+        if (serviceId == null || expiresAt == null) {
+            return null;
+        }
+        long expiresAtMillis = Long.parseLong(expiresAt);
+        String createdAt = fields.get(FIELD_CREATED_AT);
+        SessionBinding binding = new SessionBinding(sessionId, fields.get(FIELD_AUTH_KEY), serviceId,
+                fields.get(FIELD_INSTANCE_ID), createdAt != null ? Long.parseLong(createdAt) : expiresAtMillis,
+                expiresAtMillis, false);
+        return binding.isExpired(System.currentTimeMillis()) ? null : binding;
+    }
+
+    private static boolean isSameOwner(SessionBinding binding, String authKey, String serviceId) {
+        return Objects.equals(binding.getAuthKey(), authKey) && binding.getServiceId().equals(serviceId);
+    }
+
+    private String redisKey(String sessionId) {
+        return sessionConfig.getKeyPrefix() + sessionId;
+    }
+}
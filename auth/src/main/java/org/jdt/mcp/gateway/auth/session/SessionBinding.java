@@ -0,0 +1,79 @@
+package org.jdt.mcp.gateway.auth.session;
+
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+/**
+ * MCP会话绑定：sessionId由哪个服务的哪个上游实例签发，属于哪个认证key
+ * 绑定信息不可变，只有过期时间会随续期更新
+ */
+public final class SessionBinding {
+
+    private final String sessionId;
+    private final String authKey;
+    private final String serviceId;
+    private final String instanceId;
+    private final long createdAtMillis;
+    // 会话的SSE流是否在本节点，只有本节点的会话到期时需要主动关闭
+    private final boolean owned;
+    private volatile long expiresAtMillis;
+    private final Sinks.Empty<Void> closed = Sinks.empty();
+
+    public SessionBinding(String sessionId, String authKey, String serviceId, String instanceId,
+                          long createdAtMillis, long expiresAtMillis, boolean owned) {
+        this.sessionId = sessionId;
+        this.authKey = authKey;
+        this.serviceId = serviceId;
+        this.instanceId = instanceId;
+        this.createdAtMillis = createdAtMillis;
+        this.expiresAtMillis = expiresAtMillis;
+        this.owned = owned;
+    }
+
+    public boolean isExpired(long nowMillis) {
+        return expiresAtMillis <= nowMillis;
+    }
+
+    /**
+     * 会话到期或被移除时完成
+     */
+    public Mono<Void> onClose() {
+        return closed.asMono();
+    }
+
+    public void close() {
+        closed.tryEmitEmpty();
+    }
+
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    public String getAuthKey() {
+        return authKey;
+    }
+
+    public String getServiceId() {
+        return serviceId;
+    }
+
+    public String getInstanceId() {
+        return instanceId;
+    }
+
+    public long getCreatedAtMillis() {
+        return createdAtMillis;
+    }
+
+    public boolean isOwned() {
+        return owned;
+    }
+
+    public long getExpiresAtMillis() {
+        return expiresAtMillis;
+    }
+
+    public void setExpiresAtMillis(long expiresAtMillis) {
+        this.expiresAtMillis = expiresAtMillis;
+    }
+}
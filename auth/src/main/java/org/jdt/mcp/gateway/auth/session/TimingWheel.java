@@ -0,0 +1,120 @@
+package org.jdt.mcp.gateway.auth.session;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * 分层哈希时间轮
+ * 每层64个槽位，第n层一个槽位覆盖64^n个tick；登记和到期都是O(1)，高层槽位到期时整体下沉到低层
+ * 登记可在任意线程进行，先进入无锁收件队列，由推进线程放入轮中，轮本身只被推进线程访问
+ * 到期回调只表示"可能到期"：续期时不移动任务，由调用方按最新的到期时间确认或重新登记
+ */
+public class TimingWheel {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+    // 最高层能表示的最大tick跨度，更远的任务先放在最远处，下沉后再重新放置
+    private static final long MAX_SPAN = 1L << (SLOT_BITS * LEVELS);
+
+    private final long tickMillis;
+    private final Queue<Timeout>[][] wheels;
+    private final Queue<Timeout> inbox = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+
+    // 已处理到的tick
+    private long currentTick;
+
+    @SuppressWarnings("unchecked")
+    public TimingWheel(long tickMillis, long nowMillis) {
+        this.tickMillis = tickMillis;
+        this.wheels = new Queue[LEVELS][SLOTS];
+        for (int level = 0; level < LEVELS; level++) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                wheels[level][slot] = new ArrayDeque<>();
+            }
+        }
+        this.currentTick = nowMillis / tickMillis;
+    }
+
+    /**
+     * 登记到期时间，线程安全
+     */
+    public void schedule(String key, long deadlineMillis) {
+        inbox.offer(new Timeout(key, deadlineMillis));
+        size.incrementAndGet();
+    }
+
+    /**
+     * 推进到当前时间，对到期的key回调；由单个线程定期调用
+     */
+    public synchronized void advance(long nowMillis, Consumer<String> onExpired) {
+        Timeout pending;
+        while ((pending = inbox.poll()) != null) {
+            place(pending);
+        }
+
+        long nowTick = nowMillis / tickMillis;
+        while (currentTick < nowTick) {
+            long tick = ++currentTick;
+            cascade(tick);
+            Queue<Timeout> slot = wheels[0][(int) (tick & SLOT_MASK)];
+            Timeout timeout;
+            while ((timeout = slot.poll()) != null) {
+                if (timeout.deadlineMillis() <= nowMillis) {
+                    size.decrementAndGet();
+                    onExpired.accept(timeout.key());
+                } else {
+                    place(timeout);
+                }
+            }
+        }
+    }
+
+    /**
+     * 登记中（含收件队列）的任务数
+     */
+    public int size() {
+        return size.get();
+    }
+
+    /**
+     * tick的低位全部为0时，把对应高层槽位中的任务下沉
+     */
+    private void cascade(long tick) {
+        for (int level = 1; level < LEVELS; level++) {
+            if ((tick & ((1L << (SLOT_BITS * level)) - 1)) != 0) {
+                return;
+            }
+            Queue<Timeout> slot = wheels[level][(int) ((tick >>> (SLOT_BITS * level)) & SLOT_MASK)];
+            int count = slot.size();
+            for (int i = 0; i < count; i++) {
+                place(slot.poll());
+            }
+        }
+    }
+
+    private void place(Timeout timeout) {
+        long deadlineTick = Math.max(timeout.deadlineMillis() / tickMillis, currentTick);
+        long ticks = Math.min(deadlineTick - currentTick, MAX_SPAN - 1);
+        if (ticks < SLOTS) {
+            // 已到期的放入当前tick之后的第一个槽位
+            long tick = ticks == 0 ? currentTick + 1 : deadlineTick;
+            wheels[0][(int) (tick & SLOT_MASK)].offer(timeout);
+            return;
+        }
+        int level = 1;
+        while (level < LEVELS - 1 && ticks >= 1L << (SLOT_BITS * (level + 1))) {
+            level++;
+        }
+        long tick = currentTick + ticks;
+        wheels[level][(int) ((tick >>> (SLOT_BITS * level)) & SLOT_MASK)].offer(timeout);
+    }
+
+    private record Timeout(String key, long deadlineMillis) {
+    }
+}
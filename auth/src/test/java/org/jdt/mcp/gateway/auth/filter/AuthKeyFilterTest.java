@@ -0,0 +1,64 @@
+package org.jdt.mcp.gateway.auth.filter;
+
+import org.jdt.mcp.gateway.auth.config.AuthConfiguration;
+import org.jdt.mcp.gateway.auth.service.AuthService;
+import org.jdt.mcp.gateway.auth.service.SessionRegistry;
+import org.jdt.mcp.gateway.core.constant.AuthConstants;
+import org.jdt.mcp.gateway.core.entity.AuthKeyEntity;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AuthKeyFilterTest {
+
+    private final AuthService authService = mock(AuthService.class);
+    private final AuthKeyFilter filter = new AuthKeyFilter(authService, new AuthConfiguration(),
+            mock(SessionRegistry.class));
+    private final AtomicReference<ServerWebExchange> passed = new AtomicReference<>();
+
+    @BeforeEach
+    void setUp() {
+        when(authService.isWhitelistedPath(anyString())).thenReturn(false);
+        when(authService.isAllowedIp(anyString())).thenReturn(true);
+    }
+
+    @Test
+    void putsUserIdOfCachedKeyEntity() {
+        AuthKeyEntity entity = new AuthKeyEntity();
+        entity.setUserId("alice");
+        when(authService.validateAuthKey("key-a")).thenReturn(Mono.just(true));
+        when(authService.getAuthKeyEntity("key-a")).thenReturn(Mono.just(entity));
+
+        filter(MockServerHttpRequest.post("/mcp/svc/mcp").header("Authorization", "Bearer key-a").build());
+
+        assertThat((String) passed.get().getAttribute(AuthConstants.USER_ID)).isEqualTo("alice");
+    }
+
+    @Test
+    void staticKeyPassesWithoutUserId() {
+        when(authService.validateAuthKey("static-key")).thenReturn(Mono.just(true));
+        when(authService.getAuthKeyEntity("static-key")).thenReturn(Mono.empty());
+
+        filter(MockServerHttpRequest.post("/mcp/svc/mcp").header("Authorization", "Bearer static-key").build());
+
+        assertThat(passed.get()).isNotNull();
+        assertThat((String) passed.get().getAttribute(AuthConstants.USER_ID)).isNull();
+    }
+
+    private void filter(MockServerHttpRequest request) {
+        filter.filter(MockServerWebExchange.from(request), exchange -> {
+            passed.set(exchange);
+            return Mono.empty();
+        }).block();
+    }
+}
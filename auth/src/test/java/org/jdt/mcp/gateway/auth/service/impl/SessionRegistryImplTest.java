@@ -0,0 +1,52 @@
+package org.jdt.mcp.gateway.auth.service.impl;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.jdt.mcp.gateway.auth.config.SessionAuthConfiguration;
+import org.jdt.mcp.gateway.auth.session.SessionBinding;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+
+class SessionRegistryImplTest {
+
+    private final SessionRegistryImpl registry = new SessionRegistryImpl(new SessionAuthConfiguration(),
+            mock(ReactiveStringRedisTemplate.class, RETURNS_DEEP_STUBS), new SimpleMeterRegistry());
+
+    @Test
+    void bindRefusesLiveSessionOfAnotherKey() {
+        SessionBinding victim = registry.bind("s1", "key-a", "svc", "i1");
+
+        SessionBinding attacker = registry.bind("s1", "key-b", "svc", "i1");
+
+        assertThat(registry.lookupLocal("s1")).isSameAs(victim);
+        assertThat(closed(victim)).isFalse();
+        assertThat(closed(attacker)).isTrue();
+    }
+
+    @Test
+    void bindRefusesLiveSessionOfAnotherService() {
+        SessionBinding original = registry.bind("s1", "key-a", "svc", "i1");
+
+        registry.bind("s1", "key-a", "other", "i1");
+
+        assertThat(registry.lookupLocal("s1")).isSameAs(original);
+    }
+
+    @Test
+    void bindReplacesSessionOfSameOwner() {
+        SessionBinding original = registry.bind("s1", "key-a", "svc", "i1");
+
+        SessionBinding rebound = registry.bind("s1", "key-a", "svc", "i2");
+
+        assertThat(registry.lookupLocal("s1")).isSameAs(rebound);
+        assertThat(closed(original)).isTrue();
+        assertThat(closed(rebound)).isFalse();
+    }
+
+    private static boolean closed(SessionBinding binding) {
+        return binding.onClose().toFuture().isDone();
+    }
+}
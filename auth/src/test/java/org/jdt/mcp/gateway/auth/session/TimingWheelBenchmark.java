@@ -0,0 +1,89 @@
+package org.jdt.mcp.gateway.auth.session;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 时间轮单次登记和到期续期的耗时，对比空轮与已登记50万会话的轮，两者应相当（与会话数无关）
+ * 轮中一批会话在一分钟内轮流到期，每次调用推进一分钟，全部到期并在回调中续期；其余会话七天后到期，运行期间不会到期
+ * 稳态下没有新任务累积，GC profiler的B/op即每次登记或续期的分配
+ * 运行：mvn -pl auth -am test -Pbenchmark -Dtest=TimingWheelBenchmark -Dsurefire.failIfNoSpecifiedTests=false
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TimingWheelBenchmark {
+
+    private static final int BATCH = 50_000;
+    private static final long TICK_MILLIS = 1000;
+    private static final long TTL_MILLIS = 7 * 24 * 3600 * 1000L;
+    private static final int WINDOW_TICKS = 60;
+
+    @Param({"0", "500000"})
+    public int sessions;
+
+    private TimingWheel wheel;
+    private long now;
+
+    @Setup
+    public void setUp() {
+        wheel = new TimingWheel(TICK_MILLIS, 0);
+        String[] population = keys("session-", sessions);
+        for (int i = 0; i < sessions; i++) {
+            // 到期时间分散在一小时内
+            wheel.schedule(population[i], TTL_MILLIS + i % 3600 * TICK_MILLIS);
+        }
+        String[] batch = keys("batch-", BATCH);
+        for (int i = 0; i < BATCH; i++) {
+            wheel.schedule(batch[i], (1 + i % WINDOW_TICKS) * TICK_MILLIS);
+        }
+        wheel.advance(0, key -> { });
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(2 * BATCH)
+    public int expireAndRenew() {
+        now += (WINDOW_TICKS + 1) * TICK_MILLIS;
+        // 每个会话续期到下一分钟内的不同时刻，保持每次调用到期的数量不变
+        wheel.advance(now, key ->
+                wheel.schedule(key, now + (1 + Math.floorMod(key.hashCode(), WINDOW_TICKS)) * TICK_MILLIS));
+        return wheel.size();
+    }
+
+    private static String[] keys(String prefix, int count) {
+        String[] keys = new String[count];
+        for (int i = 0; i < count; i++) {
+            keys[i] = prefix + i;
+        }
+        return keys;
+    }
+
+    @Tag("benchmark")
+    @Test
+    void run() throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(TimingWheelBenchmark.class.getName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
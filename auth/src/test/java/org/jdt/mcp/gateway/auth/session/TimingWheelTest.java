@@ -0,0 +1,103 @@
+package org.jdt.mcp.gateway.auth.session;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimingWheelTest {
+
+    // 起点不对齐64的倍数，覆盖槽位回绕
+    private static final long START = 1_000;
+
+    @Test
+    void expiresInDeadlineOrderAcrossLevelBoundaries() {
+        TimingWheel wheel = new TimingWheel(1, START);
+        // 各层边界附近的到期tick：第0层64，第1层4096，第2层262144，以及超出最高层跨度的任务
+        long[] offsets = {
+                1, 2, 63, 64, 65, 127, 128,
+                4_095, 4_096, 4_097, 8_191, 8_192,
+                262_143, 262_144, 262_145,
+                16_777_215, 16_777_216, 20_000_000
+        };
+        // 倒序登记，到期顺序不能依赖登记顺序
+        for (int i = offsets.length - 1; i >= 0; i--) {
+            wheel.schedule(Long.toString(offsets[i]), START + offsets[i]);
+        }
+
+        List<Long> fired = new ArrayList<>();
+        long now = START;
+        while (fired.size() < offsets.length) {
+            now++;
+            long tick = now;
+            wheel.advance(now, key -> {
+                long offset = Long.parseLong(key);
+                // 不早于到期时间，最多晚一个tick
+                assertThat(tick).isBetween(START + offset, START + offset + 1);
+                fired.add(offset);
+            });
+        }
+
+        assertThat(fired).containsExactly(Arrays.stream(offsets).boxed().toArray(Long[]::new));
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void pastDeadlineExpiresOnNextTick() {
+        TimingWheel wheel = new TimingWheel(1000, START * 1000);
+        wheel.schedule("late", START * 1000 - 5_000);
+
+        List<String> fired = new ArrayList<>();
+        wheel.advance(START * 1000 + 1000, fired::add);
+
+        assertThat(fired).containsExactly("late");
+    }
+
+    @Test
+    void deadlineWithinTickWaitsForThatTime() {
+        TimingWheel wheel = new TimingWheel(1000, 0);
+        wheel.schedule("s1", 2_500);
+
+        List<String> fired = new ArrayList<>();
+        wheel.advance(2_000, fired::add);
+        assertThat(fired).isEmpty();
+
+        wheel.advance(3_000, fired::add);
+        assertThat(fired).containsExactly("s1");
+    }
+
+    @Test
+    void renewalFromExpiryCallbackDoesNotAccumulateTimeouts() {
+        int sessions = 10_000;
+        long ttl = 7_200_000;
+        TimingWheel wheel = new TimingWheel(1000, 0);
+        for (int i = 0; i < sessions; i++) {
+            // 到期时间分散在一小时内
+            wheel.schedule("session-" + i, ttl + i % 3600 * 1000L);
+        }
+        // 推进一次，把收件队列中的任务放入轮中
+        wheel.advance(1000, key -> { });
+        assertThat(wheel.size()).isEqualTo(sessions);
+
+        // 所有会话续期一次：到期回调重新登记，任务数不增加
+        AtomicInteger renewed = new AtomicInteger();
+        long renewedDeadline = 2 * ttl + 3_600_000;
+        for (long now = 1000; renewed.get() < sessions; now += 1000) {
+            wheel.advance(now, key -> {
+                renewed.incrementAndGet();
+                wheel.schedule(key, renewedDeadline);
+            });
+            assertThat(wheel.size()).isEqualTo(sessions);
+        }
+        assertThat(renewed.get()).isEqualTo(sessions);
+
+        AtomicInteger expired = new AtomicInteger();
+        wheel.advance(renewedDeadline, key -> expired.incrementAndGet());
+        assertThat(expired.get()).isEqualTo(sessions);
+        assertThat(wheel.size()).isZero();
+    }
+}
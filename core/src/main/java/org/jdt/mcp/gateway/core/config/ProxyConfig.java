@@ -34,13 +34,190 @@ public class ProxyConfig {
      */
     private Duration readTimeout = Duration.ofSeconds(30);
 
+    /**
+     * 路由表全量刷新间隔
+     */
+    private Duration routeRefreshInterval = Duration.ofSeconds(60);
+
+    /**
+     * 上游请求最大重试次数，只重试幂等请求或连接阶段失败的请求，并受重试预算限制
+     */
+    private int retryMaxAttempts = 2;
+
+    /**
+     * 重试的初始退避时间
+     */
+    private Duration retryBackoff = Duration.ofMillis(100);
+
+    /**
+     * 每个上游服务的默认最大连接数
+     */
+    private int poolMaxConnections = 100;
+
+    /**
+     * 每个上游服务默认等待获取连接的最大请求数，超出后立即失败
+     */
+    private int poolPendingAcquireMaxCount = 1000;
+
+    /**
+     * 等待获取连接的超时时间
+     */
+    private Duration poolPendingAcquireTimeout = Duration.ofSeconds(5);
+
+    /**
+     * 连接默认最大空闲时间
+     */
+    private Duration poolMaxIdleTime = Duration.ofSeconds(30);
+
+    /**
+     * 连接默认最大存活时间
+     */
+    private Duration poolMaxLifeTime = Duration.ofMinutes(5);
+
+    /**
+     * 后台清理空闲/过期连接的间隔
+     */
+    private Duration poolEvictInterval = Duration.ofSeconds(30);
+
+    /**
+     * SSE流的上游空闲超时，期间上游没有任何数据（包括上游自己的心跳）时断开
+     */
+    private Duration sseIdleTimeout = Duration.ofMinutes(10);
+
+    /**
+     * SSE流的最长持续时间，到期后正常结束，由客户端重连
+     */
+    private Duration sseMaxDuration = Duration.ofHours(24);
+
+    /**
+     * 下游空闲多久后注入SSE注释心跳，防止中间代理断开空闲连接
+     */
+    private Duration sseHeartbeatInterval = Duration.ofSeconds(15);
+
+    /**
+     * 停机时等待SSE流自然结束的最长时间，超时后主动关闭
+     */
+    private Duration sseDrainTimeout = Duration.ofSeconds(30);
+
+    /**
+     * 每条SSE流为慢客户端缓冲的最大字节数，同时也是单个事件等待完整的最大字节数
+     */
+    private int sseBufferMaxBytes = 1024 * 1024; // 1MB
+
+    /**
+     * 每条SSE流为慢客户端缓冲的最大事件数
+     */
+    private int sseBufferMaxEvents = 1000;
+
+    /**
+     * SSE缓冲超限后的处理策略
+     */
+    private SseOverflowPolicy sseOverflowPolicy = SseOverflowPolicy.DISCONNECT;
+
+    /**
+     * 是否旁路解析请求body中的JSON-RPC信封（method、params.name、id）
+     */
+    private boolean jsonRpcParseEnabled = true;
+
+    /**
+     * 每个请求最多解析的body字节数，超过后放弃解析
+     */
+    private int jsonRpcScanMaxBytes = 2048;
+
+    /**
+     * 是否在网关缓存 tools/list、prompts/list、resources/list 的结果（仅Streamable HTTP的JSON响应）
+     * 依赖jsonRpcParseEnabled
+     */
+    private boolean catalogCacheEnabled = true;
+
+    /**
+     * 目录缓存过期时间，上游发出 list_changed 通知时提前失效
+     */
+    private Duration catalogCacheTtl = Duration.ofMinutes(5);
+
+    /**
+     * 目录缓存最大条目数
+     */
+    private long catalogCacheMaxSize = 10_000;
+
+    /**
+     * 可缓存的单个目录结果的最大字节数，超过的响应直接透传不缓存
+     */
+    private int catalogCacheMaxBytes = 1024 * 1024; // 1MB
+
+    /**
+     * 是否启用工具结果缓存，只对服务tool_policies中标记为cacheable的工具生效（仅Streamable HTTP的JSON响应）
+     */
+    private boolean toolCacheEnabled = true;
+
+    /**
+     * 工具结果缓存的默认时间，工具策略未配置cacheTtlSeconds时使用
+     */
+    private Duration toolCacheDefaultTtl = Duration.ofSeconds(60);
+
+    /**
+     * 单个工具结果的默认最大字节数，工具策略未配置cacheMaxEntryBytes时使用
+     */
+    private int toolCacheDefaultMaxEntryBytes = 256 * 1024; // 256KB
+
+    /**
+     * 本地工具结果缓存的总字节数上限
+     */
+    private long toolCacheMaxBytes = 64L * 1024 * 1024; // 64MB
+
+    /**
+     * 参与缓存的tools/call请求body的最大字节数（需要带Content-Length），超过的请求直接转发
+     */
+    private int toolCacheMaxRequestBytes = 64 * 1024; // 64KB
+
+    /**
+     * 是否启用Redis二级缓存，多个节点共享工具结果
+     */
+    private boolean toolCacheRedisEnabled = false;
+
+    /**
+     * 是否合并只读工具（tool_policies中标记为readOnly）并发的相同调用，同样受toolCacheMaxRequestBytes限制
+     */
+    private boolean toolCoalesceEnabled = true;
+
+    /**
+     * 本地服务缓存最大条目数
+     */
+    private long serviceCacheMaxSize = 10_000;
+
+    /**
+     * 本地服务缓存过期时间
+     */
+    private Duration serviceCacheTtl = Duration.ofMinutes(5);
+
     /**
      * 是否启用统计
      */
     private boolean enableStatistics = true;
 
+    /**
+     * 统计数据从本地累加器刷新到Redis的间隔
+     */
+    private Duration statsFlushInterval = Duration.ofSeconds(1);
+
+    /**
+     * 每个服务每天单独统计的工具数上限，超出的工具和无法识别的工具名归入 other
+     */
+    private int toolStatsMaxTools = 200;
+
     /**
      * 是否启用请求日志
      */
     private boolean enableRequestLogging = true;
+
+    public enum SseOverflowPolicy {
+        /**
+         * 断开慢客户端，客户端重连后重新建立会话
+         */
+        DISCONNECT,
+        /**
+         * 丢弃新到的通知事件（notifications/*），响应等其他事件仍超限时断开
+         */
+        DROP_NOTIFICATIONS
+    }
 }
\ No newline at end of file
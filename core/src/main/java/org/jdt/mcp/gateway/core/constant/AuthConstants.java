@@ -4,4 +4,6 @@ public class AuthConstants {
     public static final String AUTH_KEY = "auth_key";
     public static final String CONNECTION_ID = "connection_id";
     public static final String CLIENT_IP = "client_ip";
+    // 鉴权通过的key所属用户，由AuthKeyFilter从本地认证缓存中取得
+    public static final String USER_ID = "user_id";
 }
@@ -0,0 +1,18 @@
+package org.jdt.mcp.gateway.core.constant;
+
+/**
+ * 从MCP请求body中解析出的JSON-RPC信息，作为exchange属性保存
+ * 在请求body流经代理时填充，响应阶段（统计、日志）可以读取；body未读到对应字段时不存在
+ */
+public class JsonRpcAttributes {
+    // JSON-RPC method，例如 tools/call
+    public static final String METHOD = "jsonRpcMethod";
+    // params.name，tools/call的工具名或prompts/get的提示词名
+    public static final String TOOL_NAME = "jsonRpcToolName";
+    // JSON-RPC id的JSON字面量，字符串id带引号，可以直接写回响应；通知没有id
+    public static final String ID = "jsonRpcId";
+    // params.cursor，list类分页请求的游标
+    public static final String CURSOR = "jsonRpcCursor";
+    // 顶层对象已完整解析，不存在的字段确实不存在
+    public static final String PARSED = "jsonRpcParsed";
+}
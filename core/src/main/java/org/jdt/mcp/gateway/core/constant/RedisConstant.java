@@ -11,18 +11,48 @@ public class RedisConstant {
     // 认证Key状态缓存前缀（用于缓存无效key）
     public static final String AUTH_KEY_STATUS_PREFIX = "auth:status:";
 
+    // 认证Key失效广播频道
+    public static final String AUTH_KEY_INVALIDATION_CHANNEL = "auth:invalidate";
+
     // 服务缓存前缀
     public static final String SERVICE_CACHE_KEY_PREFIX = "service:cache:";
 
     // 活跃服务集合Key
     public static final String ACTIVE_SERVICES_SET_KEY = "service:active:set";
 
-    // 用户集合前缀（用于统计唯一用户）
-    public static final String USER_SET_KEY_PREFIX = "stats:users:";
+    // 服务缓存失效广播频道
+    public static final String SERVICE_INVALIDATION_CHANNEL = "service:invalidate";
+
+    // 目录缓存（tools/list等）失效广播频道，消息为 {serviceId}|{method}
+    public static final String CATALOG_INVALIDATION_CHANNEL = "catalog:invalidate";
+
+    // 用户HyperLogLog前缀（用于估算唯一用户）
+    public static final String USER_HLL_KEY_PREFIX = "stats:uv:";
+
+    // 旧版用户集合前缀（set，保留25小时），读取唯一用户数时合并到HyperLogLog后删除
+    public static final String LEGACY_USER_SET_KEY_PREFIX = "stats:users:";
 
     // 服务统计前缀
     public static final String SERVICE_STATS_PREFIX = "stats:service:";
 
+    // 服务响应时间直方图前缀（hash，field为节点ID，value为压缩编码的直方图）
+    public static final String SERVICE_LATENCY_PREFIX = "stats:latency:";
+
+    // 工具统计前缀（hash，field为 {工具名}|{指标}）
+    public static final String TOOL_STATS_PREFIX = "stats:tool:";
+
+    // 工具响应时间直方图前缀（hash，field为 {工具名}|{节点ID}）
+    public static final String TOOL_LATENCY_PREFIX = "stats:tool_latency:";
+
+    // 工具结果缓存前缀（cache:tool:{serviceId}:{工具名}:{参数哈希}，value为 {过期毫秒时间戳}|{result}）
+    public static final String TOOL_RESULT_CACHE_PREFIX = "cache:tool:";
+
+    // 服务限流令牌桶前缀（hash：tokens, ts）
+    public static final String RATE_LIMIT_BUCKET_PREFIX = "traffic:bucket:";
+
+    // 调用配额计数前缀（quota:{主体}:{窗口}:{窗口序号}）
+    public static final String QUOTA_COUNTER_PREFIX = "quota:";
+
     private RedisConstant() {
         // 工具类，禁止实例化
     }
@@ -16,4 +16,10 @@ public class AuthKeyApplyRequest {
     private Long expireHours; // null表示永不过期
 
     private String remarks; // 申请备注
+
+    @Positive(message = "Quota per minute must be positive")
+    private Integer quotaPerMinute; // null表示不限制
+
+    @Positive(message = "Quota per day must be positive")
+    private Integer quotaPerDay; // null表示不限制
 }
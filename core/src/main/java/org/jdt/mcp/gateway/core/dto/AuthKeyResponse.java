@@ -17,5 +17,7 @@ public class AuthKeyResponse {
     private Boolean isActive;
     private LocalDateTime createdAt;
     private LocalDateTime lastUsedAt;
+    private Integer quotaPerMinute;
+    private Integer quotaPerDay;
     private String remarks;
 }
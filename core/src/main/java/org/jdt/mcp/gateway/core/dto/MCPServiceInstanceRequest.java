@@ -0,0 +1,17 @@
+package org.jdt.mcp.gateway.core.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+@Data
+public class MCPServiceInstanceRequest {
+    @NotBlank(message = "Instance ID cannot be blank")
+    private String instanceId;
+
+    @NotBlank(message = "Endpoint cannot be blank")
+    private String endpoint;
+
+    private String healthCheckUrl;
+
+    private Boolean enabled = true;
+}
@@ -1,8 +1,14 @@
 package org.jdt.mcp.gateway.core.dto;
 
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.Positive;
 import lombok.Data;
+import org.jdt.mcp.gateway.core.entity.McpTransport;
 import org.jdt.mcp.gateway.core.entity.ServiceStatus;
+import org.jdt.mcp.gateway.core.entity.ToolPolicy;
+import org.jdt.mcp.gateway.core.entity.UpstreamProtocol;
+
+import java.util.Map;
 
 @Data
 public class MCPServiceUpdateRequest {
@@ -16,4 +22,25 @@ public class MCPServiceUpdateRequest {
 
     private String healthCheckUrl;
     private String documentation;
+
+    @Positive(message = "Max connections must be positive")
+    private Integer maxConnections;
+
+    @Positive(message = "Pending acquire max count must be positive")
+    private Integer pendingAcquireMaxCount;
+
+    @Positive(message = "Max idle time must be positive")
+    private Integer maxIdleTimeSeconds;
+
+    @Positive(message = "Max life time must be positive")
+    private Integer maxLifeTimeSeconds;
+
+    private UpstreamProtocol httpProtocol;
+
+    private McpTransport transport;
+
+    /**
+     * 按工具名配置的策略，例如结果缓存
+     */
+    private Map<String, @Valid ToolPolicy> toolPolicies;
 }
\ No newline at end of file
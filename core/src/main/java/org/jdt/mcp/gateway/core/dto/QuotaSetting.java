@@ -0,0 +1,20 @@
+package org.jdt.mcp.gateway.core.dto;
+
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 调用配额设置，字段为空表示该窗口不限制
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuotaSetting {
+    @Positive(message = "Quota per minute must be positive")
+    private Integer quotaPerMinute;
+
+    @Positive(message = "Quota per day must be positive")
+    private Integer quotaPerDay;
+}
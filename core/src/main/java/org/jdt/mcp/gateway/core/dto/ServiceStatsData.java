@@ -13,6 +13,10 @@ public class ServiceStatsData {
     private int failedCalls;
     private long avgResponseTimeMs;
     private long maxResponseTimeMs;
+    private long p50ResponseTimeMs;
+    private long p95ResponseTimeMs;
+    private long p99ResponseTimeMs;
+    // HyperLogLog估算值，标准误差约0.81%
     private int uniqueUsers;
     private LocalDateTime lastUpdateTime;
 
@@ -0,0 +1,22 @@
+package org.jdt.mcp.gateway.core.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class ToolStatsData {
+    private String toolName;
+    private int totalCalls;
+    private int successCalls;
+    private int failedCalls;
+    private long avgResponseTimeMs;
+    private long maxResponseTimeMs;
+    private long p50ResponseTimeMs;
+    private long p95ResponseTimeMs;
+    private long p99ResponseTimeMs;
+
+    public double getSuccessRate() {
+        return totalCalls > 0 ? (double) successCalls / totalCalls * 100 : 0;
+    }
+}
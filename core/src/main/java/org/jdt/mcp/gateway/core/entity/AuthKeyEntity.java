@@ -21,4 +21,7 @@ public class AuthKeyEntity {
     private Boolean isActive = true;
     private LocalDateTime createdAt;
     private LocalDateTime lastUsedAt;
+    // 调用配额，为空表示不限制
+    private Integer quotaPerMinute;
+    private Integer quotaPerDay;
 }
@@ -0,0 +1,10 @@
+package org.jdt.mcp.gateway.core.entity;
+
+import java.time.LocalDateTime;
+
+/**
+ * 认证key最后使用时间的待写入记录
+ */
+public record AuthKeyTouch(String keyHash, LocalDateTime lastUsedAt) {
+
+}
@@ -6,6 +6,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Data
 @Builder
@@ -20,7 +21,21 @@ public class MCPServiceEntity {
     private ServiceStatus status;
     private Integer maxQps;
     private String healthCheckUrl;
+    /** 主端点最近一次健康检查结果，为空视为健康 */
+    private Boolean healthy;
     private String documentation;
+    // 上游连接池配置，为空时使用代理全局配置
+    private Integer maxConnections;
+    private Integer pendingAcquireMaxCount;
+    private Integer maxIdleTimeSeconds;
+    private Integer maxLifeTimeSeconds;
+    private UpstreamProtocol httpProtocol;
+    // MCP传输方式，为空按SSE处理
+    private McpTransport transport;
+    // 按工具名配置的策略，JSON对象，key为工具名，value为ToolPolicy
+    private String toolPolicies;
+    // 额外的上游实例，不在mcp_services表中，加载服务时从mcp_service_instances表填充
+    private List<MCPServiceInstanceEntity> instances;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 }
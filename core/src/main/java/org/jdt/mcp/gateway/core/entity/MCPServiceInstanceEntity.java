@@ -0,0 +1,32 @@
+package org.jdt.mcp.gateway.core.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * MCP服务的上游实例
+ * 服务自身的endpoint视为默认实例，这里记录额外的实例
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MCPServiceInstanceEntity {
+    private Long id;
+    private String serviceId;
+    private String instanceId;
+    private String endpoint;
+    private String healthCheckUrl;
+    @Builder.Default
+    private Boolean enabled = true;
+    // 最近一次健康检查结果，只有健康的实例参与负载均衡
+    @Builder.Default
+    private Boolean healthy = true;
+    private LocalDateTime lastCheckedAt;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,15 @@
+package org.jdt.mcp.gateway.core.entity;
+
+/**
+ * 上游MCP服务使用的传输方式
+ */
+public enum McpTransport {
+    /**
+     * 旧版HTTP+SSE：GET /sse 建立长连接，endpoint事件下发消息地址，需要重写其中的路径
+     */
+    SSE,
+    /**
+     * Streamable HTTP：单一endpoint，会话通过Mcp-Session-Id请求头传递，响应体原样透传
+     */
+    STREAMABLE_HTTP
+}
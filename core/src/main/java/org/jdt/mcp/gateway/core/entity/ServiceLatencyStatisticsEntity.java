@@ -0,0 +1,72 @@
+package org.jdt.mcp.gateway.core.entity;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+public class ServiceLatencyStatisticsEntity {
+
+    private Long id;
+
+    /**
+     * 服务ID
+     */
+    private String serviceId;
+
+    /**
+     * 统计日期
+     */
+    private LocalDate dateKey;
+
+    /**
+     * 样本数
+     */
+    private Long sampleCount = 0L;
+
+    /**
+     * P50响应时间(毫秒)
+     */
+    private Integer p50ResponseTimeMs;
+
+    /**
+     * P95响应时间(毫秒)
+     */
+    private Integer p95ResponseTimeMs;
+
+    /**
+     * P99响应时间(毫秒)
+     */
+    private Integer p99ResponseTimeMs;
+
+    /**
+     * P99.9响应时间(毫秒)
+     */
+    private Integer p999ResponseTimeMs;
+
+    /**
+     * 最大响应时间(毫秒)
+     */
+    private Integer maxResponseTimeMs;
+
+    /**
+     * 压缩编码的HdrHistogram
+     */
+    private byte[] histogram;
+
+    /**
+     * 逻辑删除标识
+     */
+    private Integer isDeleted = 0;
+
+    /**
+     * 创建时间
+     */
+    private LocalDateTime createdAt;
+
+    /**
+     * 更新时间
+     */
+    private LocalDateTime updatedAt;
+}
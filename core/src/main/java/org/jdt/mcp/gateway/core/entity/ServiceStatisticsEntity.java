@@ -46,7 +46,7 @@ public class ServiceStatisticsEntity {
     private Integer maxResponseTimeMs;
 
     /**
-     * 独立用户数
+     * 独立用户数（HyperLogLog估算值，标准误差约0.81%）
      */
     private Integer uniqueUsers = 0;
 
@@ -0,0 +1,33 @@
+package org.jdt.mcp.gateway.core.entity;
+
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+
+/**
+ * 单个工具的代理策略，随服务定义保存在mcp_services.tool_policies中（JSON对象，key为工具名）
+ */
+@Data
+public class ToolPolicy {
+
+    /**
+     * 是否缓存tools/call的结果，只应对相同参数总是返回相同结果的查询类工具开启
+     */
+    private Boolean cacheable;
+
+    /**
+     * 结果缓存时间(秒)，为空使用全局配置
+     */
+    @Positive(message = "Cache TTL must be positive")
+    private Integer cacheTtlSeconds;
+
+    /**
+     * 可缓存的单个结果的最大字节数，为空使用全局配置
+     */
+    @Positive(message = "Cache max entry bytes must be positive")
+    private Integer cacheMaxEntryBytes;
+
+    /**
+     * 是否为只读工具，并发的相同调用（相同参数）合并为一次上游调用，结果分发给所有调用方
+     */
+    private Boolean readOnly;
+}
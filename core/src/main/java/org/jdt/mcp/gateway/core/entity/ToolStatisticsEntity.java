@@ -0,0 +1,87 @@
+package org.jdt.mcp.gateway.core.entity;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+public class ToolStatisticsEntity {
+
+    private Long id;
+
+    /**
+     * 服务ID
+     */
+    private String serviceId;
+
+    /**
+     * 工具名，超出基数上限或无法识别的工具为 other
+     */
+    private String toolName;
+
+    /**
+     * 统计日期
+     */
+    private LocalDate dateKey;
+
+    /**
+     * 总调用次数
+     */
+    private Integer totalCalls = 0;
+
+    /**
+     * 成功调用次数
+     */
+    private Integer successCalls = 0;
+
+    /**
+     * 失败调用次数
+     */
+    private Integer failedCalls = 0;
+
+    /**
+     * 平均响应时间(毫秒)
+     */
+    private Integer avgResponseTimeMs = 0;
+
+    /**
+     * 最大响应时间(毫秒)
+     */
+    private Integer maxResponseTimeMs = 0;
+
+    /**
+     * P50响应时间(毫秒)
+     */
+    private Integer p50ResponseTimeMs;
+
+    /**
+     * P95响应时间(毫秒)
+     */
+    private Integer p95ResponseTimeMs;
+
+    /**
+     * P99响应时间(毫秒)
+     */
+    private Integer p99ResponseTimeMs;
+
+    /**
+     * 压缩编码的HdrHistogram
+     */
+    private byte[] histogram;
+
+    /**
+     * 逻辑删除标识
+     */
+    private Integer isDeleted = 0;
+
+    /**
+     * 创建时间
+     */
+    private LocalDateTime createdAt;
+
+    /**
+     * 更新时间
+     */
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,19 @@
+package org.jdt.mcp.gateway.core.entity;
+
+/**
+ * 代理到上游MCP服务使用的HTTP协议
+ */
+public enum UpstreamProtocol {
+    /**
+     * HTTP/1.1
+     */
+    HTTP11,
+    /**
+     * 明文HTTP/2（prior knowledge），上游需支持h2c
+     */
+    H2C,
+    /**
+     * 基于TLS的HTTP/2，上游endpoint需为https
+     */
+    H2
+}
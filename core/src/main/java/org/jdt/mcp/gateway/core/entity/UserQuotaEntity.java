@@ -0,0 +1,24 @@
+package org.jdt.mcp.gateway.core.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 用户跨所有服务的调用配额
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UserQuotaEntity {
+    private Long id;
+    private String userId;
+    private Integer quotaPerMinute;
+    private Integer quotaPerDay;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
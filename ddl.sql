@@ -14,7 +14,16 @@ CREATE TABLE IF NOT EXISTS mcp_services (
     status ENUM('ACTIVE', 'INACTIVE', 'MAINTENANCE', 'DEPRECATED') NOT NULL DEFAULT 'ACTIVE' COMMENT '服务状态',
     max_qps INT NOT NULL DEFAULT 1000 COMMENT '最大QPS限制',
     health_check_url VARCHAR(500) COMMENT '健康检查URL',
+    healthy BOOLEAN NOT NULL DEFAULT TRUE COMMENT '主端点最近一次健康检查结果',
+    last_checked_at DATETIME NULL COMMENT '主端点最近一次健康检查时间',
     documentation TEXT COMMENT '服务文档',
+    max_connections INT COMMENT '上游最大连接数，为空使用全局配置',
+    pending_acquire_max_count INT COMMENT '等待获取连接的最大请求数，为空使用全局配置',
+    max_idle_time_seconds INT COMMENT '连接最大空闲时间(秒)，为空使用全局配置',
+    max_life_time_seconds INT COMMENT '连接最大存活时间(秒)，为空使用全局配置',
+    http_protocol ENUM('HTTP11', 'H2C', 'H2') NOT NULL DEFAULT 'HTTP11' COMMENT '上游HTTP协议',
+    transport ENUM('SSE', 'STREAMABLE_HTTP') NOT NULL DEFAULT 'SSE' COMMENT 'MCP传输方式',
+    tool_policies TEXT COMMENT '按工具名配置的策略(JSON对象，key为工具名)，例如结果缓存',
     is_deleted TINYINT(1) NOT NULL DEFAULT 0 COMMENT '逻辑删除标识：0-未删除，1-已删除',
     created_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
     updated_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
@@ -26,6 +35,24 @@ CREATE TABLE IF NOT EXISTS mcp_services (
     INDEX idx_status_deleted (status, is_deleted)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='MCP服务表';
 
+-- MCP服务实例表
+DROP TABLE IF EXISTS mcp_service_instances;
+CREATE TABLE IF NOT EXISTS mcp_service_instances (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY COMMENT '主键ID',
+    service_id VARCHAR(100) NOT NULL COMMENT '所属服务ID',
+    instance_id VARCHAR(100) NOT NULL COMMENT '实例标识，服务内唯一',
+    endpoint VARCHAR(500) NOT NULL COMMENT '实例端点URL',
+    health_check_url VARCHAR(500) COMMENT '健康检查URL，为空使用endpoint/health',
+    enabled BOOLEAN NOT NULL DEFAULT TRUE COMMENT '是否启用',
+    healthy BOOLEAN NOT NULL DEFAULT TRUE COMMENT '最近一次健康检查结果',
+    last_checked_at DATETIME NULL COMMENT '最近一次健康检查时间',
+    created_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+    updated_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+
+    UNIQUE KEY uk_service_instance (service_id, instance_id),
+    INDEX idx_service_id (service_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='MCP服务实例表';
+
 -- 认证密钥表
 DROP TABLE IF EXISTS auth_keys;
 CREATE TABLE IF NOT EXISTS auth_keys (
@@ -38,6 +65,8 @@ CREATE TABLE IF NOT EXISTS auth_keys (
      is_deleted TINYINT NOT NULL DEFAULT 0 COMMENT '逻辑删除标识：0-未删除，1-已删除',
      created_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
      last_used_at DATETIME NULL COMMENT '最后使用时间',
+     quota_per_minute INT NULL COMMENT '每分钟调用配额，NULL表示不限制',
+     quota_per_day INT NULL COMMENT '每天调用配额，NULL表示不限制',
 
      INDEX idx_key_hash (key_hash),
      INDEX idx_user_id (user_id),
@@ -100,6 +129,64 @@ CREATE TABLE IF NOT EXISTS service_statistics (
     INDEX idx_service_date_deleted (service_id, date_key, is_deleted)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='服务统计表';
 
+-- 服务响应时间分位数统计表
+DROP TABLE IF EXISTS service_latency_statistics;
+CREATE TABLE IF NOT EXISTS service_latency_statistics (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY COMMENT '主键ID',
+    service_id VARCHAR(100) NOT NULL COMMENT '服务ID',
+    date_key DATE NOT NULL COMMENT '统计日期',
+    sample_count BIGINT NOT NULL DEFAULT 0 COMMENT '样本数',
+    p50_response_time_ms INT COMMENT 'P50响应时间(毫秒)',
+    p95_response_time_ms INT COMMENT 'P95响应时间(毫秒)',
+    p99_response_time_ms INT COMMENT 'P99响应时间(毫秒)',
+    p999_response_time_ms INT COMMENT 'P99.9响应时间(毫秒)',
+    max_response_time_ms INT COMMENT '最大响应时间(毫秒)',
+    histogram MEDIUMBLOB COMMENT '压缩编码的HdrHistogram，可用于跨日合并',
+    is_deleted TINYINT NOT NULL DEFAULT 0 COMMENT '逻辑删除标识：0-未删除，1-已删除',
+    created_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+    updated_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+
+    UNIQUE KEY uk_service_date (service_id, date_key),
+    INDEX idx_date_key (date_key)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='服务响应时间分位数统计表';
+
+DROP TABLE IF EXISTS tool_statistics;
+CREATE TABLE IF NOT EXISTS tool_statistics (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY COMMENT '主键ID',
+    service_id VARCHAR(100) NOT NULL COMMENT '服务ID',
+    tool_name VARCHAR(128) NOT NULL COMMENT '工具名，超出基数上限或无法识别的工具为other',
+    date_key DATE NOT NULL COMMENT '统计日期',
+    total_calls INT NOT NULL DEFAULT 0 COMMENT '总调用次数',
+    success_calls INT NOT NULL DEFAULT 0 COMMENT '成功调用次数',
+    failed_calls INT NOT NULL DEFAULT 0 COMMENT '失败调用次数',
+    avg_response_time_ms INT NOT NULL DEFAULT 0 COMMENT '平均响应时间(毫秒)',
+    max_response_time_ms INT NOT NULL DEFAULT 0 COMMENT '最大响应时间(毫秒)',
+    p50_response_time_ms INT COMMENT 'P50响应时间(毫秒)',
+    p95_response_time_ms INT COMMENT 'P95响应时间(毫秒)',
+    p99_response_time_ms INT COMMENT 'P99响应时间(毫秒)',
+    histogram MEDIUMBLOB COMMENT '压缩编码的HdrHistogram，可用于跨日合并',
+    is_deleted TINYINT NOT NULL DEFAULT 0 COMMENT '逻辑删除标识：0-未删除，1-已删除',
+    created_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+    updated_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+
+    UNIQUE KEY uk_service_tool_date (service_id, tool_name, date_key),
+    INDEX idx_service_date (service_id, date_key),
+    INDEX idx_date_key (date_key)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='工具维度统计表';
+
+DROP TABLE IF EXISTS user_quotas;
+CREATE TABLE IF NOT EXISTS user_quotas (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY COMMENT '主键ID',
+    user_id VARCHAR(100) NOT NULL COMMENT '用户ID',
+    quota_per_minute INT NULL COMMENT '跨所有服务的每分钟调用配额，NULL表示不限制',
+    quota_per_day INT NULL COMMENT '跨所有服务的每天调用配额，NULL表示不限制',
+    is_deleted TINYINT NOT NULL DEFAULT 0 COMMENT '逻辑删除标识：0-未删除，1-已删除',
+    created_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+    updated_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+
+    UNIQUE KEY uk_user_id (user_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='用户调用配额表';
+
 -- 插入测试数据
 INSERT INTO mcp_services (service_id, name, description, endpoint, status, max_qps, health_check_url, documentation) VALUES
     ('hr-service', '人力服务', '提供查询工作单位的服务', 'http://localhost:8089', 'ACTIVE', 10, 'http://localhost:8089/', '支持按照人名手机号查询工作单位的服务');
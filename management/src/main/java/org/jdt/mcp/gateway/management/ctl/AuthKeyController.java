@@ -6,6 +6,7 @@ import org.jdt.mcp.gateway.core.dto.AuthKeyApplyRequest;
 import org.jdt.mcp.gateway.core.dto.AuthKeyResponse;
 import org.jdt.mcp.gateway.core.dto.BatchAuthKeyApplyRequest;
 import org.jdt.mcp.gateway.core.dto.BatchAuthKeyApplyResponse;
+import org.jdt.mcp.gateway.core.dto.QuotaSetting;
 import org.jdt.mcp.gateway.management.service.AuthKeyManagementService;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -110,4 +111,44 @@ public class AuthKeyController {
         return authKeyManagementService.revokeUserServiceKeys(userId, serviceId);
     }
 
+    /**
+     * 设置密钥调用配额
+     */
+    @PutMapping("/{keyId}/quota")
+    public Mono<AuthKeyResponse> updateKeyQuota(
+            @PathVariable Long keyId,
+            @Valid @RequestBody QuotaSetting quota) {
+        log.info("Updating auth key {} quota", keyId);
+        return authKeyManagementService.updateKeyQuota(keyId, quota);
+    }
+
+    /**
+     * 查询用户跨服务调用配额
+     */
+    @GetMapping("/user/{userId}/quota")
+    public Mono<QuotaSetting> getUserQuota(@PathVariable String userId) {
+        return authKeyManagementService.getUserQuota(userId);
+    }
+
+    /**
+     * 设置用户跨服务调用配额
+     */
+    @PutMapping("/user/{userId}/quota")
+    public Mono<QuotaSetting> setUserQuota(
+            @PathVariable String userId,
+            @Valid @RequestBody QuotaSetting quota) {
+        log.info("Setting quota for user {}", userId);
+        return authKeyManagementService.setUserQuota(userId, quota);
+    }
+
+    /**
+     * 删除用户跨服务调用配额
+     */
+    @DeleteMapping("/user/{userId}/quota")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public Mono<Void> deleteUserQuota(@PathVariable String userId) {
+        log.info("Deleting quota for user {}", userId);
+        return authKeyManagementService.deleteUserQuota(userId);
+    }
+
 }
\ No newline at end of file
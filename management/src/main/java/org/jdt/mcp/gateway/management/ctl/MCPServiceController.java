@@ -3,8 +3,10 @@ package org.jdt.mcp.gateway.management.ctl;
 import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
 import org.jdt.mcp.gateway.core.entity.MCPServiceEntity;
+import org.jdt.mcp.gateway.core.entity.MCPServiceInstanceEntity;
 import org.jdt.mcp.gateway.core.entity.ServiceStatus;
 import org.jdt.mcp.gateway.core.dto.MCPServiceCreateRequest;
+import org.jdt.mcp.gateway.core.dto.MCPServiceInstanceRequest;
 import org.jdt.mcp.gateway.core.dto.MCPServiceUpdateRequest;
 import org.jdt.mcp.gateway.management.service.MCPServiceManagementService;
 import org.springframework.data.domain.PageRequest;
@@ -102,4 +104,33 @@ public class MCPServiceController {
     public Mono<Boolean> healthCheck(@PathVariable String serviceId) {
         return serviceManagementService.performHealthCheck(serviceId);
     }
+
+    /**
+     * 查询服务的上游实例
+     */
+    @GetMapping("/{serviceId}/instances")
+    public Flux<MCPServiceInstanceEntity> getInstances(@PathVariable String serviceId) {
+        return serviceManagementService.getInstances(serviceId);
+    }
+
+    /**
+     * 新增或更新服务的上游实例
+     */
+    @PutMapping("/{serviceId}/instances")
+    public Mono<MCPServiceInstanceEntity> saveInstance(
+            @PathVariable String serviceId,
+            @Valid @RequestBody MCPServiceInstanceRequest request) {
+        log.info("Saving instance {} for service {}", request.getInstanceId(), serviceId);
+        return serviceManagementService.saveInstance(serviceId, request);
+    }
+
+    /**
+     * 删除服务的上游实例
+     */
+    @DeleteMapping("/{serviceId}/instances/{instanceId}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public Mono<Void> deleteInstance(@PathVariable String serviceId, @PathVariable String instanceId) {
+        log.info("Deleting instance {} of service {}", instanceId, serviceId);
+        return serviceManagementService.deleteInstance(serviceId, instanceId);
+    }
 }
\ No newline at end of file
@@ -4,6 +4,7 @@ import org.jdt.mcp.gateway.core.dto.AuthKeyApplyRequest;
 import org.jdt.mcp.gateway.core.dto.AuthKeyResponse;
 import org.jdt.mcp.gateway.core.dto.BatchAuthKeyApplyRequest;
 import org.jdt.mcp.gateway.core.dto.BatchAuthKeyApplyResponse;
+import org.jdt.mcp.gateway.core.dto.QuotaSetting;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import reactor.core.publisher.Flux;
@@ -18,4 +19,8 @@ public interface AuthKeyManagementService {
     Mono<AuthKeyResponse> updateKeyStatus(Long keyId, Boolean isActive);
     Mono<AuthKeyResponse> renewAuthKey(Long keyId, long extendHours);
     Mono<Integer> revokeUserServiceKeys(String userId, String serviceId);
+    Mono<AuthKeyResponse> updateKeyQuota(Long keyId, QuotaSetting quota);
+    Mono<QuotaSetting> getUserQuota(String userId);
+    Mono<QuotaSetting> setUserQuota(String userId, QuotaSetting quota);
+    Mono<Void> deleteUserQuota(String userId);
 }
\ No newline at end of file
@@ -1,8 +1,10 @@
 package org.jdt.mcp.gateway.management.service;
 
 import org.jdt.mcp.gateway.core.entity.MCPServiceEntity;
+import org.jdt.mcp.gateway.core.entity.MCPServiceInstanceEntity;
 import org.jdt.mcp.gateway.core.entity.ServiceStatus;
 import org.jdt.mcp.gateway.core.dto.MCPServiceCreateRequest;
+import org.jdt.mcp.gateway.core.dto.MCPServiceInstanceRequest;
 import org.jdt.mcp.gateway.core.dto.MCPServiceUpdateRequest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -18,4 +20,7 @@ public interface MCPServiceManagementService {
     Flux<MCPServiceEntity> getActiveServices();
     Mono<MCPServiceEntity> updateServiceStatus(String serviceId, ServiceStatus status);
     Mono<Boolean> performHealthCheck(String serviceId);
+    Flux<MCPServiceInstanceEntity> getInstances(String serviceId);
+    Mono<MCPServiceInstanceEntity> saveInstance(String serviceId, MCPServiceInstanceRequest request);
+    Mono<Void> deleteInstance(String serviceId, String instanceId);
 }
\ No newline at end of file
@@ -3,14 +3,18 @@ package org.jdt.mcp.gateway.management.service.impl;
 import lombok.extern.slf4j.Slf4j;
 import org.jdt.mcp.gateway.core.entity.AuthKeyEntity;
 import org.jdt.mcp.gateway.core.entity.MCPServiceEntity;
+import org.jdt.mcp.gateway.core.entity.UserQuotaEntity;
 import org.jdt.mcp.gateway.core.tool.AuthKeyGenerator;
 import org.jdt.mcp.gateway.core.dto.AuthKeyApplyRequest;
 import org.jdt.mcp.gateway.core.dto.AuthKeyResponse;
 import org.jdt.mcp.gateway.core.dto.BatchAuthKeyApplyRequest;
 import org.jdt.mcp.gateway.core.dto.BatchAuthKeyApplyResponse;
+import org.jdt.mcp.gateway.core.dto.QuotaSetting;
 import org.jdt.mcp.gateway.mapper.AuthKeyMapper;
 import org.jdt.mcp.gateway.mapper.MCPServiceMapper;
+import org.jdt.mcp.gateway.mapper.UserQuotaMapper;
 import org.jdt.mcp.gateway.management.service.AuthKeyManagementService;
+import org.jdt.mcp.gateway.service.RedisAuthKeyService;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
@@ -32,10 +36,15 @@ public class AuthKeyManagementServiceImpl implements AuthKeyManagementService {
 
     private final AuthKeyMapper authKeyMapper;
     private final MCPServiceMapper serviceMapper;
+    private final UserQuotaMapper userQuotaMapper;
+    private final RedisAuthKeyService redisAuthKeyService;
 
-    public AuthKeyManagementServiceImpl(AuthKeyMapper authKeyMapper, MCPServiceMapper serviceMapper) {
+    public AuthKeyManagementServiceImpl(AuthKeyMapper authKeyMapper, MCPServiceMapper serviceMapper,
+                                        UserQuotaMapper userQuotaMapper, RedisAuthKeyService redisAuthKeyService) {
         this.authKeyMapper = authKeyMapper;
         this.serviceMapper = serviceMapper;
+        this.userQuotaMapper = userQuotaMapper;
+        this.redisAuthKeyService = redisAuthKeyService;
     }
 
     @Override
@@ -60,6 +69,8 @@ public class AuthKeyManagementServiceImpl implements AuthKeyManagementService {
 
             // 生成新的密钥
             AuthKeyEntity authKey = generateAuthKey(request.getUserId(), request.getServiceId(), request.getExpireHours());
+            authKey.setQuotaPerMinute(request.getQuotaPerMinute());
+            authKey.setQuotaPerDay(request.getQuotaPerDay());
             authKeyMapper.insert(authKey);
             log.info("Generated auth key for user {} and service {}", request.getUserId(), request.getServiceId());
 
@@ -170,7 +181,7 @@ public class AuthKeyManagementServiceImpl implements AuthKeyManagementService {
 
     @Override
     public Mono<Void> revokeAuthKey(Long keyId) {
-        return Mono.fromRunnable(() -> {
+        return Mono.fromCallable(() -> {
             AuthKeyEntity key = authKeyMapper.findById(keyId);
             if (key == null) {
                 throw new IllegalArgumentException("Auth key not found: " + keyId);
@@ -178,7 +189,9 @@ public class AuthKeyManagementServiceImpl implements AuthKeyManagementService {
 
             authKeyMapper.deleteById(keyId);
             log.info("Revoked auth key: {}", keyId);
-        }).subscribeOn(Schedulers.boundedElastic()).then();
+            return key.getKeyHash();
+        }).subscribeOn(Schedulers.boundedElastic())
+                .flatMap(this::invalidateAuthKeyCache);
     }
 
     @Override
@@ -195,7 +208,8 @@ public class AuthKeyManagementServiceImpl implements AuthKeyManagementService {
 
             MCPServiceEntity service = serviceMapper.findByServiceId(key.getMCPServiceId());
             return buildAuthKeyResponse(key, service != null ? service.getName() : "Unknown");
-        }).subscribeOn(Schedulers.boundedElastic());
+        }).subscribeOn(Schedulers.boundedElastic())
+                .flatMap(response -> invalidateAuthKeyCache(response.getKeyHash()).thenReturn(response));
     }
 
     @Override
@@ -228,27 +242,93 @@ public class AuthKeyManagementServiceImpl implements AuthKeyManagementService {
 
             MCPServiceEntity service = serviceMapper.findByServiceId(key.getMCPServiceId());
             return buildAuthKeyResponse(key, service != null ? service.getName() : "Unknown");
-        }).subscribeOn(Schedulers.boundedElastic());
+        }).subscribeOn(Schedulers.boundedElastic())
+                .flatMap(response -> invalidateAuthKeyCache(response.getKeyHash()).thenReturn(response));
     }
 
     @Override
     public Mono<Integer> revokeUserServiceKeys(String userId, String serviceId) {
         return Mono.fromCallable(() -> {
             List<AuthKeyEntity> keys = authKeyMapper.findByUserIdAndServiceId(userId, serviceId);
-            int revokedCount = 0;
+            List<String> revokedKeys = new ArrayList<>();
 
             for (AuthKeyEntity key : keys) {
                 if (key.getIsActive()) {
                     authKeyMapper.deleteById(key.getId());
-                    revokedCount++;
+                    revokedKeys.add(key.getKeyHash());
                 }
             }
 
-            log.info("Revoked {} keys for user {} and service {}", revokedCount, userId, serviceId);
-            return revokedCount;
+            log.info("Revoked {} keys for user {} and service {}", revokedKeys.size(), userId, serviceId);
+            return revokedKeys;
+        }).subscribeOn(Schedulers.boundedElastic())
+                .flatMap(revokedKeys -> Flux.fromIterable(revokedKeys)
+                        .flatMap(this::invalidateAuthKeyCache)
+                        .then(Mono.just(revokedKeys.size())));
+    }
+
+    @Override
+    public Mono<AuthKeyResponse> updateKeyQuota(Long keyId, QuotaSetting quota) {
+        return Mono.fromCallable(() -> {
+            AuthKeyEntity key = authKeyMapper.findById(keyId);
+            if (key == null) {
+                throw new IllegalArgumentException("Auth key not found: " + keyId);
+            }
+
+            key.setQuotaPerMinute(quota.getQuotaPerMinute());
+            key.setQuotaPerDay(quota.getQuotaPerDay());
+            authKeyMapper.update(key);
+            log.info("Updated auth key {} quota to {}/min, {}/day", keyId, quota.getQuotaPerMinute(), quota.getQuotaPerDay());
+
+            MCPServiceEntity service = serviceMapper.findByServiceId(key.getMCPServiceId());
+            return buildAuthKeyResponse(key, service != null ? service.getName() : "Unknown");
+        }).subscribeOn(Schedulers.boundedElastic())
+                .flatMap(response -> invalidateAuthKeyCache(response.getKeyHash()).thenReturn(response));
+    }
+
+    @Override
+    public Mono<QuotaSetting> getUserQuota(String userId) {
+        return Mono.fromCallable(() -> {
+            UserQuotaEntity quota = userQuotaMapper.findByUserId(userId);
+            return quota != null ? new QuotaSetting(quota.getQuotaPerMinute(), quota.getQuotaPerDay()) : new QuotaSetting();
+        }).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * 设置用户配额，代理节点按本地缓存时间生效
+     */
+    @Override
+    public Mono<QuotaSetting> setUserQuota(String userId, QuotaSetting quota) {
+        return Mono.fromCallable(() -> {
+            userQuotaMapper.insertOrUpdate(UserQuotaEntity.builder()
+                    .userId(userId)
+                    .quotaPerMinute(quota.getQuotaPerMinute())
+                    .quotaPerDay(quota.getQuotaPerDay())
+                    .build());
+            log.info("Set quota for user {} to {}/min, {}/day", userId, quota.getQuotaPerMinute(), quota.getQuotaPerDay());
+            return quota;
         }).subscribeOn(Schedulers.boundedElastic());
     }
 
+    @Override
+    public Mono<Void> deleteUserQuota(String userId) {
+        return Mono.fromRunnable(() -> {
+            int deleted = userQuotaMapper.deleteByUserId(userId);
+            log.info("Deleted quota for user {}: {}", userId, deleted);
+        }).subscribeOn(Schedulers.boundedElastic()).then();
+    }
+
+    /**
+     * 清除认证key缓存并通知所有节点，失败不影响管理操作结果
+     */
+    private Mono<Void> invalidateAuthKeyCache(String authKey) {
+        return redisAuthKeyService.invalidateAuthKey(authKey)
+                .onErrorResume(error -> {
+                    log.warn("Failed to invalidate auth key cache: {}", error.getMessage());
+                    return Mono.empty();
+                });
+    }
+
     /**
      * 生成认证密钥实体
      */
@@ -271,6 +351,8 @@ public class AuthKeyManagementServiceImpl implements AuthKeyManagementService {
                 .isActive(key.getIsActive())
                 .createdAt(key.getCreatedAt())
                 .lastUsedAt(key.getLastUsedAt())
+                .quotaPerMinute(key.getQuotaPerMinute())
+                .quotaPerDay(key.getQuotaPerDay())
                 .build();
     }
 
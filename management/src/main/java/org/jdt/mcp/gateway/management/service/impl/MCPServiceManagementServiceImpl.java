@@ -1,12 +1,19 @@
 package org.jdt.mcp.gateway.management.service.impl;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
 import org.jdt.mcp.gateway.core.entity.MCPServiceEntity;
+import org.jdt.mcp.gateway.core.entity.MCPServiceInstanceEntity;
 import org.jdt.mcp.gateway.core.entity.ServiceStatus;
+import org.jdt.mcp.gateway.core.entity.ToolPolicy;
 import org.jdt.mcp.gateway.core.dto.MCPServiceCreateRequest;
+import org.jdt.mcp.gateway.core.dto.MCPServiceInstanceRequest;
 import org.jdt.mcp.gateway.core.dto.MCPServiceUpdateRequest;
+import org.jdt.mcp.gateway.mapper.MCPServiceInstanceMapper;
 import org.jdt.mcp.gateway.mapper.MCPServiceMapper;
 import org.jdt.mcp.gateway.management.service.MCPServiceManagementService;
+import org.jdt.mcp.gateway.service.RedisMCPServiceCacheService;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
@@ -20,6 +27,7 @@ import reactor.core.scheduler.Schedulers;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 @Service
 @Slf4j
@@ -27,11 +35,21 @@ import java.util.List;
 public class MCPServiceManagementServiceImpl implements MCPServiceManagementService {
 
     private final MCPServiceMapper serviceMapper;
+    private final MCPServiceInstanceMapper instanceMapper;
+    private final RedisMCPServiceCacheService serviceCacheService;
     private final WebClient webClient;
+    private final ObjectMapper objectMapper;
 
-    public MCPServiceManagementServiceImpl(MCPServiceMapper serviceMapper, WebClient webClient) {
+    public MCPServiceManagementServiceImpl(MCPServiceMapper serviceMapper,
+                                           MCPServiceInstanceMapper instanceMapper,
+                                           RedisMCPServiceCacheService serviceCacheService,
+                                           WebClient webClient,
+                                           ObjectMapper objectMapper) {
         this.serviceMapper = serviceMapper;
+        this.instanceMapper = instanceMapper;
+        this.serviceCacheService = serviceCacheService;
         this.webClient = webClient;
+        this.objectMapper = objectMapper;
     }
 
     @Override
@@ -51,6 +69,13 @@ public class MCPServiceManagementServiceImpl implements MCPServiceManagementServ
                     .maxQps(request.getMaxQps())
                     .healthCheckUrl(request.getHealthCheckUrl())
                     .documentation(request.getDocumentation())
+                    .maxConnections(request.getMaxConnections())
+                    .pendingAcquireMaxCount(request.getPendingAcquireMaxCount())
+                    .maxIdleTimeSeconds(request.getMaxIdleTimeSeconds())
+                    .maxLifeTimeSeconds(request.getMaxLifeTimeSeconds())
+                    .httpProtocol(request.getHttpProtocol())
+                    .transport(request.getTransport())
+                    .toolPolicies(serializeToolPolicies(request.getToolPolicies()))
                     .createdAt(LocalDateTime.now())
                     .updatedAt(LocalDateTime.now())
                     .build();
@@ -58,7 +83,8 @@ public class MCPServiceManagementServiceImpl implements MCPServiceManagementServ
             serviceMapper.insert(service);
             log.info("Created MCP service: {}", service.getServiceId());
             return service;
-        }).subscribeOn(Schedulers.boundedElastic());
+        }).subscribeOn(Schedulers.boundedElastic())
+                .flatMap(service -> invalidateServiceCache(service.getServiceId()).thenReturn(service));
     }
 
     @Override
@@ -73,12 +99,20 @@ public class MCPServiceManagementServiceImpl implements MCPServiceManagementServ
             if (request.getMaxQps() != null) existing.setMaxQps(request.getMaxQps());
             if (request.getHealthCheckUrl() != null) existing.setHealthCheckUrl(request.getHealthCheckUrl());
             if (request.getDocumentation() != null) existing.setDocumentation(request.getDocumentation());
+            if (request.getMaxConnections() != null) existing.setMaxConnections(request.getMaxConnections());
+            if (request.getPendingAcquireMaxCount() != null) existing.setPendingAcquireMaxCount(request.getPendingAcquireMaxCount());
+            if (request.getMaxIdleTimeSeconds() != null) existing.setMaxIdleTimeSeconds(request.getMaxIdleTimeSeconds());
+            if (request.getMaxLifeTimeSeconds() != null) existing.setMaxLifeTimeSeconds(request.getMaxLifeTimeSeconds());
+            if (request.getHttpProtocol() != null) existing.setHttpProtocol(request.getHttpProtocol());
+            if (request.getTransport() != null) existing.setTransport(request.getTransport());
+            if (request.getToolPolicies() != null) existing.setToolPolicies(serializeToolPolicies(request.getToolPolicies()));
             existing.setUpdatedAt(LocalDateTime.now());
 
             serviceMapper.update(existing);
             log.info("Updated MCP service: {}", serviceId);
             return existing;
-        }).subscribeOn(Schedulers.boundedElastic());
+        }).subscribeOn(Schedulers.boundedElastic())
+                .flatMap(service -> invalidateServiceCache(serviceId).thenReturn(service));
     }
 
     @Override
@@ -86,14 +120,19 @@ public class MCPServiceManagementServiceImpl implements MCPServiceManagementServ
         return Mono.fromRunnable(() -> {
             MCPServiceEntity existing = getServiceByServiceIdSync(serviceId);
             serviceMapper.deleteById(existing.getId());
+            instanceMapper.deleteByServiceId(serviceId);
             log.info("Deleted MCP service: {}", serviceId);
-        }).subscribeOn(Schedulers.boundedElastic()).then();
+        }).subscribeOn(Schedulers.boundedElastic())
+                .then(invalidateServiceCache(serviceId));
     }
 
     @Override
     public Mono<MCPServiceEntity> getServiceByServiceId(String serviceId) {
-        return Mono.fromCallable(() -> getServiceByServiceIdSync(serviceId))
-                .subscribeOn(Schedulers.boundedElastic());
+        return Mono.fromCallable(() -> {
+            MCPServiceEntity service = getServiceByServiceIdSync(serviceId);
+            service.setInstances(instanceMapper.findByServiceId(serviceId));
+            return service;
+        }).subscribeOn(Schedulers.boundedElastic());
     }
 
     @Override
@@ -122,9 +161,15 @@ public class MCPServiceManagementServiceImpl implements MCPServiceManagementServ
             serviceMapper.update(service);
             log.info("Updated service {} status to {}", serviceId, status);
             return service;
-        }).subscribeOn(Schedulers.boundedElastic());
+        }).subscribeOn(Schedulers.boundedElastic())
+                .flatMap(service -> invalidateServiceCache(serviceId).thenReturn(service));
     }
 
+    /**
+     * 检查服务默认endpoint和所有启用的实例
+     * 主端点和实例的检查结果分别写回服务表和实例表并通知代理节点，代理只把健康的目标纳入负载均衡
+     * 只有全部目标都不健康时才把服务标记为维护状态
+     */
     @Override
     public Mono<Boolean> performHealthCheck(String serviceId) {
         return getServiceByServiceId(serviceId)
@@ -134,15 +179,22 @@ public class MCPServiceManagementServiceImpl implements MCPServiceManagementServ
                         // 如果没有健康检查URL，直接ping主endpoint
                         healthCheckUrl = service.getEndpoint() + "/health";
                     }
+                    Mono<Boolean> primary = checkHealth(healthCheckUrl)
+                            .flatMap(healthy -> Mono.fromCallable(() -> {
+                                serviceMapper.updateHealth(serviceId, healthy, LocalDateTime.now());
+                                log.info("Health check for service {}: {}",
+                                        serviceId, healthy ? "HEALTHY" : "UNHEALTHY");
+                                return healthy;
+                            }).subscribeOn(Schedulers.boundedElastic()));
+
+                    Mono<Boolean> instances = Flux.fromIterable(service.getInstances())
+                            .filter(instance -> Boolean.TRUE.equals(instance.getEnabled()))
+                            .flatMap(this::checkInstanceHealth)
+                            .reduce(false, Boolean::logicalOr);
 
-                    return webClient.get()
-                            .uri(healthCheckUrl)
-                            .retrieve()
-                            .toBodilessEntity()
-                            .timeout(Duration.ofSeconds(10))
-                            .map(response -> {
-                                boolean isHealthy = response.getStatusCode().is2xxSuccessful();
-                                log.info("Health check for service {}: {}", serviceId, isHealthy ? "HEALTHY" : "UNHEALTHY");
+                    return Mono.zip(primary, instances)
+                            .map(results -> {
+                                boolean isHealthy = results.getT1() || results.getT2();
 
                                 // 根据健康检查结果更新服务状态（异步）
                                 if (!isHealthy && service.getStatus() == ServiceStatus.ACTIVE) {
@@ -150,15 +202,101 @@ public class MCPServiceManagementServiceImpl implements MCPServiceManagementServ
                                 } else if (isHealthy && service.getStatus() == ServiceStatus.MAINTENANCE) {
                                     updateServiceStatus(serviceId, ServiceStatus.ACTIVE).subscribe();
                                 }
-
                                 return isHealthy;
                             })
-                            .onErrorResume(error -> {
-                                log.error("Health check failed for service {}: {}", serviceId, error.getMessage());
-                                // 健康检查失败时标记为维护状态（异步）
-                                updateServiceStatus(serviceId, ServiceStatus.MAINTENANCE).subscribe();
-                                return Mono.just(false);
-                            });
+                            .flatMap(isHealthy -> invalidateServiceCache(serviceId).thenReturn(isHealthy));
+                });
+    }
+
+    @Override
+    public Flux<MCPServiceInstanceEntity> getInstances(String serviceId) {
+        return Mono.fromCallable(() -> instanceMapper.findByServiceId(serviceId))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMapMany(Flux::fromIterable);
+    }
+
+    @Override
+    public Mono<MCPServiceInstanceEntity> saveInstance(String serviceId, MCPServiceInstanceRequest request) {
+        return Mono.fromCallable(() -> {
+            getServiceByServiceIdSync(serviceId);
+            MCPServiceInstanceEntity existing = instanceMapper.findByInstanceId(serviceId, request.getInstanceId());
+            if (existing != null) {
+                existing.setEndpoint(request.getEndpoint());
+                existing.setHealthCheckUrl(request.getHealthCheckUrl());
+                if (request.getEnabled() != null) existing.setEnabled(request.getEnabled());
+                existing.setUpdatedAt(LocalDateTime.now());
+                instanceMapper.update(existing);
+                log.info("Updated instance {} of service {}", request.getInstanceId(), serviceId);
+                return existing;
+            }
+
+            MCPServiceInstanceEntity instance = MCPServiceInstanceEntity.builder()
+                    .serviceId(serviceId)
+                    .instanceId(request.getInstanceId())
+                    .endpoint(request.getEndpoint())
+                    .healthCheckUrl(request.getHealthCheckUrl())
+                    .enabled(request.getEnabled() == null || request.getEnabled())
+                    .createdAt(LocalDateTime.now())
+                    .updatedAt(LocalDateTime.now())
+                    .build();
+            instanceMapper.insert(instance);
+            log.info("Added instance {} to service {}", request.getInstanceId(), serviceId);
+            return instance;
+        }).subscribeOn(Schedulers.boundedElastic())
+                .flatMap(instance -> invalidateServiceCache(serviceId).thenReturn(instance));
+    }
+
+    @Override
+    public Mono<Void> deleteInstance(String serviceId, String instanceId) {
+        return Mono.fromRunnable(() -> {
+            MCPServiceInstanceEntity existing = instanceMapper.findByInstanceId(serviceId, instanceId);
+            if (existing == null) {
+                throw new IllegalArgumentException("Instance not found: " + serviceId + "/" + instanceId);
+            }
+            instanceMapper.deleteById(existing.getId());
+            log.info("Deleted instance {} of service {}", instanceId, serviceId);
+        }).subscribeOn(Schedulers.boundedElastic())
+                .then(invalidateServiceCache(serviceId));
+    }
+
+    /**
+     * 检查单个实例并记录结果
+     */
+    private Mono<Boolean> checkInstanceHealth(MCPServiceInstanceEntity instance) {
+        String healthCheckUrl = instance.getHealthCheckUrl();
+        if (healthCheckUrl == null || healthCheckUrl.trim().isEmpty()) {
+            healthCheckUrl = instance.getEndpoint() + "/health";
+        }
+        return checkHealth(healthCheckUrl)
+                .flatMap(healthy -> Mono.fromCallable(() -> {
+                    instanceMapper.updateHealth(instance.getId(), healthy, LocalDateTime.now());
+                    log.info("Health check for instance {}/{}: {}", instance.getServiceId(),
+                            instance.getInstanceId(), healthy ? "HEALTHY" : "UNHEALTHY");
+                    return healthy;
+                }).subscribeOn(Schedulers.boundedElastic()));
+    }
+
+    private Mono<Boolean> checkHealth(String healthCheckUrl) {
+        return webClient.get()
+                .uri(healthCheckUrl)
+                .retrieve()
+                .toBodilessEntity()
+                .timeout(Duration.ofSeconds(10))
+                .map(response -> response.getStatusCode().is2xxSuccessful())
+                .onErrorResume(error -> {
+                    log.error("Health check failed for {}: {}", healthCheckUrl, error.getMessage());
+                    return Mono.just(false);
+                });
+    }
+
+    /**
+     * 通知所有代理节点服务已变更，缓存失效失败不影响管理操作本身
+     */
+    private Mono<Void> invalidateServiceCache(String serviceId) {
+        return serviceCacheService.invalidateService(serviceId)
+                .onErrorResume(error -> {
+                    log.warn("Failed to invalidate cache for service {}: {}", serviceId, error.getMessage());
+                    return Mono.empty();
                 });
     }
 
@@ -169,4 +307,18 @@ public class MCPServiceManagementServiceImpl implements MCPServiceManagementServ
         }
         return service;
     }
-}
\ No newline at end of file
+
+    /**
+     * 工具策略序列化为JSON保存，空策略保存为null
+     */
+    private String serializeToolPolicies(Map<String, ToolPolicy> toolPolicies) {
+        if (toolPolicies == null || toolPolicies.isEmpty()) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(toolPolicies);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid tool policies: " + e.getMessage(), e);
+        }
+    }
+}
@@ -2,6 +2,7 @@ package org.jdt.mcp.gateway.mapper;
 
 import org.apache.ibatis.annotations.*;
 import org.jdt.mcp.gateway.core.entity.AuthKeyEntity;
+import org.jdt.mcp.gateway.core.entity.AuthKeyTouch;
 
 import java.util.List;
 
@@ -10,9 +11,9 @@ public interface AuthKeyMapper {
 
     @Insert("""
         INSERT INTO auth_keys (key_hash, user_id, mcp_service_id, expires_at, 
-                              is_active, created_at, last_used_at)
+                              is_active, created_at, last_used_at, quota_per_minute, quota_per_day)
         VALUES (#{keyHash}, #{userId}, #{MCPServiceId}, #{expiresAt}, 
-                #{isActive}, #{createdAt}, #{lastUsedAt})
+                #{isActive}, #{createdAt}, #{lastUsedAt}, #{quotaPerMinute}, #{quotaPerDay})
         """)
     @Options(useGeneratedKeys = true, keyProperty = "id")
     void insert(AuthKeyEntity authKey);
@@ -33,7 +34,8 @@ public interface AuthKeyMapper {
         UPDATE auth_keys 
         SET key_hash = #{keyHash}, user_id = #{userId}, mcp_service_id = #{MCPServiceId},
             expires_at = #{expiresAt}, is_active = #{isActive}, 
-            last_used_at = #{lastUsedAt}
+            last_used_at = #{lastUsedAt}, quota_per_minute = #{quotaPerMinute},
+            quota_per_day = #{quotaPerDay}
         WHERE id = #{id} AND is_deleted = 0
         """)
     void update(AuthKeyEntity authKey);
@@ -147,6 +149,22 @@ public interface AuthKeyMapper {
     @Update("UPDATE auth_keys SET last_used_at = NOW() WHERE key_hash = #{keyHash} AND is_deleted = 0")
     void updateLastUsedTime(String keyHash);
 
+    /**
+     * 批量更新key的最后使用时间，单条语句完成一批更新
+     */
+    @Update("""
+        <script>
+        UPDATE auth_keys
+        SET last_used_at = CASE key_hash
+            <foreach collection="touches" item="t">WHEN #{t.keyHash} THEN #{t.lastUsedAt} </foreach>
+            ELSE last_used_at
+        END
+        WHERE is_deleted = 0 AND key_hash IN
+        <foreach collection="touches" item="t" open="(" separator="," close=")">#{t.keyHash}</foreach>
+        </script>
+        """)
+    int batchUpdateLastUsedTime(@Param("touches") List<AuthKeyTouch> touches);
+
     /**
      * 检查key是否有效（激活且未过期，且关联服务未删除）
      */
@@ -0,0 +1,59 @@
+package org.jdt.mcp.gateway.mapper;
+
+import org.apache.ibatis.annotations.*;
+import org.jdt.mcp.gateway.core.entity.MCPServiceInstanceEntity;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Mapper
+public interface MCPServiceInstanceMapper {
+
+    @Insert("""
+        INSERT INTO mcp_service_instances (service_id, instance_id, endpoint, health_check_url,
+                                           enabled, healthy, created_at, updated_at)
+        VALUES (#{serviceId}, #{instanceId}, #{endpoint}, #{healthCheckUrl},
+                #{enabled}, #{healthy}, #{createdAt}, #{updatedAt})
+        """)
+    @Options(useGeneratedKeys = true, keyProperty = "id")
+    void insert(MCPServiceInstanceEntity instance);
+
+    @Update("""
+        UPDATE mcp_service_instances
+        SET endpoint = #{endpoint}, health_check_url = #{healthCheckUrl},
+            enabled = #{enabled}, updated_at = #{updatedAt}
+        WHERE id = #{id}
+        """)
+    void update(MCPServiceInstanceEntity instance);
+
+    /**
+     * 记录健康检查结果
+     */
+    @Update("""
+        UPDATE mcp_service_instances
+        SET healthy = #{healthy}, last_checked_at = #{checkedAt}
+        WHERE id = #{id}
+        """)
+    void updateHealth(@Param("id") Long id,
+                      @Param("healthy") boolean healthy,
+                      @Param("checkedAt") LocalDateTime checkedAt);
+
+    @Delete("DELETE FROM mcp_service_instances WHERE id = #{id}")
+    void deleteById(Long id);
+
+    @Delete("DELETE FROM mcp_service_instances WHERE service_id = #{serviceId}")
+    void deleteByServiceId(String serviceId);
+
+    @Select("SELECT * FROM mcp_service_instances WHERE service_id = #{serviceId} AND instance_id = #{instanceId}")
+    MCPServiceInstanceEntity findByInstanceId(@Param("serviceId") String serviceId,
+                                              @Param("instanceId") String instanceId);
+
+    @Select("SELECT * FROM mcp_service_instances WHERE service_id = #{serviceId} ORDER BY instance_id")
+    List<MCPServiceInstanceEntity> findByServiceId(String serviceId);
+
+    /**
+     * 所有启用的实例，用于全量重建路由
+     */
+    @Select("SELECT * FROM mcp_service_instances WHERE enabled = TRUE ORDER BY service_id, instance_id")
+    List<MCPServiceInstanceEntity> findAllEnabled();
+}
@@ -4,6 +4,7 @@ import org.apache.ibatis.annotations.*;
 import org.jdt.mcp.gateway.core.entity.MCPServiceEntity;
 import org.jdt.mcp.gateway.core.entity.ServiceStatus;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Mapper
@@ -11,9 +12,15 @@ public interface MCPServiceMapper {
 
     @Insert("""
         INSERT INTO mcp_services (service_id, name, description, endpoint, status, 
-                                 max_qps, health_check_url, documentation, created_at, updated_at)
+                                 max_qps, health_check_url, documentation,
+                                 max_connections, pending_acquire_max_count, max_idle_time_seconds,
+                                 max_life_time_seconds, http_protocol, transport, tool_policies,
+                                 created_at, updated_at)
         VALUES (#{serviceId}, #{name}, #{description}, #{endpoint}, #{status}, 
-                #{maxQps}, #{healthCheckUrl}, #{documentation}, #{createdAt}, #{updatedAt})
+                #{maxQps}, #{healthCheckUrl}, #{documentation},
+                #{maxConnections}, #{pendingAcquireMaxCount}, #{maxIdleTimeSeconds},
+                #{maxLifeTimeSeconds}, COALESCE(#{httpProtocol}, 'HTTP11'), COALESCE(#{transport}, 'SSE'),
+                #{toolPolicies}, #{createdAt}, #{updatedAt})
         """)
     @Options(useGeneratedKeys = true, keyProperty = "id")
     void insert(MCPServiceEntity service);
@@ -22,11 +29,27 @@ public interface MCPServiceMapper {
         UPDATE mcp_services 
         SET name = #{name}, description = #{description}, endpoint = #{endpoint},
             status = #{status}, max_qps = #{maxQps}, health_check_url = #{healthCheckUrl},
-            documentation = #{documentation}, updated_at = #{updatedAt}
+            documentation = #{documentation}, max_connections = #{maxConnections},
+            pending_acquire_max_count = #{pendingAcquireMaxCount}, max_idle_time_seconds = #{maxIdleTimeSeconds},
+            max_life_time_seconds = #{maxLifeTimeSeconds}, http_protocol = COALESCE(#{httpProtocol}, 'HTTP11'),
+            transport = COALESCE(#{transport}, 'SSE'), tool_policies = #{toolPolicies},
+            updated_at = #{updatedAt}
         WHERE id = #{id}
         """)
     void update(MCPServiceEntity service);
 
+    /**
+     * 记录主端点健康检查结果
+     */
+    @Update("""
+        UPDATE mcp_services
+        SET healthy = #{healthy}, last_checked_at = #{checkedAt}
+        WHERE service_id = #{serviceId}
+        """)
+    void updateHealth(@Param("serviceId") String serviceId,
+                      @Param("healthy") boolean healthy,
+                      @Param("checkedAt") LocalDateTime checkedAt);
+
     @Delete("DELETE FROM mcp_services WHERE id = #{id}")
     void deleteById(Long id);
 
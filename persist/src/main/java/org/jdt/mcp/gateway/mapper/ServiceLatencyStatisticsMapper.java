@@ -0,0 +1,48 @@
+package org.jdt.mcp.gateway.mapper;
+
+import org.apache.ibatis.annotations.*;
+import org.jdt.mcp.gateway.core.entity.ServiceLatencyStatisticsEntity;
+
+import java.time.LocalDate;
+
+@Mapper
+public interface ServiceLatencyStatisticsMapper {
+
+    /**
+     * 插入或更新服务响应时间分位数
+     * Redis中的直方图是当天累计值，因此直接覆盖
+     */
+    @Insert("""
+        INSERT INTO service_latency_statistics
+        (service_id, date_key, sample_count, p50_response_time_ms, p95_response_time_ms,
+         p99_response_time_ms, p999_response_time_ms, max_response_time_ms, histogram, created_at, updated_at)
+        VALUES (#{serviceId}, #{dateKey}, #{sampleCount}, #{p50ResponseTimeMs}, #{p95ResponseTimeMs},
+                #{p99ResponseTimeMs}, #{p999ResponseTimeMs}, #{maxResponseTimeMs}, #{histogram}, NOW(), NOW())
+        ON DUPLICATE KEY UPDATE
+        sample_count = VALUES(sample_count),
+        p50_response_time_ms = VALUES(p50_response_time_ms),
+        p95_response_time_ms = VALUES(p95_response_time_ms),
+        p99_response_time_ms = VALUES(p99_response_time_ms),
+        p999_response_time_ms = VALUES(p999_response_time_ms),
+        max_response_time_ms = VALUES(max_response_time_ms),
+        histogram = VALUES(histogram),
+        updated_at = NOW()
+        """)
+    void insertOrUpdate(ServiceLatencyStatisticsEntity statistics);
+
+    /**
+     * 根据服务ID和日期查询分位数统计
+     */
+    @Select("""
+        SELECT * FROM service_latency_statistics
+        WHERE service_id = #{serviceId} AND date_key = #{dateKey} AND is_deleted = 0
+        """)
+    ServiceLatencyStatisticsEntity findByServiceIdAndDate(@Param("serviceId") String serviceId,
+                                                          @Param("dateKey") LocalDate dateKey);
+
+    /**
+     * 删除过期统计数据（逻辑删除）
+     */
+    @Update("UPDATE service_latency_statistics SET is_deleted = 1 WHERE date_key < #{beforeDate}")
+    int deleteExpiredData(@Param("beforeDate") LocalDate beforeDate);
+}
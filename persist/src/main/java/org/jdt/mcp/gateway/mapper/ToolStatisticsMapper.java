@@ -0,0 +1,67 @@
+package org.jdt.mcp.gateway.mapper;
+
+import org.apache.ibatis.annotations.*;
+import org.jdt.mcp.gateway.core.entity.ToolStatisticsEntity;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Mapper
+public interface ToolStatisticsMapper {
+
+    /**
+     * 插入或更新工具统计
+     * Redis中的计数和直方图都是当天累计值，因此直接覆盖
+     */
+    @Insert("""
+        INSERT INTO tool_statistics
+        (service_id, tool_name, date_key, total_calls, success_calls, failed_calls, avg_response_time_ms,
+         max_response_time_ms, p50_response_time_ms, p95_response_time_ms, p99_response_time_ms, histogram,
+         created_at, updated_at)
+        VALUES (#{serviceId}, #{toolName}, #{dateKey}, #{totalCalls}, #{successCalls}, #{failedCalls},
+                #{avgResponseTimeMs}, #{maxResponseTimeMs}, #{p50ResponseTimeMs}, #{p95ResponseTimeMs},
+                #{p99ResponseTimeMs}, #{histogram}, NOW(), NOW())
+        ON DUPLICATE KEY UPDATE
+        total_calls = VALUES(total_calls),
+        success_calls = VALUES(success_calls),
+        failed_calls = VALUES(failed_calls),
+        avg_response_time_ms = VALUES(avg_response_time_ms),
+        max_response_time_ms = VALUES(max_response_time_ms),
+        p50_response_time_ms = VALUES(p50_response_time_ms),
+        p95_response_time_ms = VALUES(p95_response_time_ms),
+        p99_response_time_ms = VALUES(p99_response_time_ms),
+        histogram = VALUES(histogram),
+        updated_at = NOW()
+        """)
+    void insertOrUpdate(ToolStatisticsEntity statistics);
+
+    /**
+     * 查询服务某天所有工具的统计，按调用次数降序
+     */
+    @Select("""
+        SELECT * FROM tool_statistics
+        WHERE service_id = #{serviceId} AND date_key = #{dateKey} AND is_deleted = 0
+        ORDER BY total_calls DESC
+        """)
+    List<ToolStatisticsEntity> findByServiceIdAndDate(@Param("serviceId") String serviceId,
+                                                      @Param("dateKey") LocalDate dateKey);
+
+    /**
+     * 查询服务某天P95响应时间最高的工具
+     */
+    @Select("""
+        SELECT * FROM tool_statistics
+        WHERE service_id = #{serviceId} AND date_key = #{dateKey} AND is_deleted = 0
+        ORDER BY p95_response_time_ms DESC
+        LIMIT #{limit}
+        """)
+    List<ToolStatisticsEntity> findSlowest(@Param("serviceId") String serviceId,
+                                           @Param("dateKey") LocalDate dateKey,
+                                           @Param("limit") int limit);
+
+    /**
+     * 删除过期统计数据（逻辑删除）
+     */
+    @Update("UPDATE tool_statistics SET is_deleted = 1 WHERE date_key < #{beforeDate}")
+    int deleteExpiredData(@Param("beforeDate") LocalDate beforeDate);
+}
@@ -0,0 +1,31 @@
+package org.jdt.mcp.gateway.mapper;
+
+import org.apache.ibatis.annotations.*;
+import org.jdt.mcp.gateway.core.entity.UserQuotaEntity;
+
+@Mapper
+public interface UserQuotaMapper {
+
+    /**
+     * 设置用户配额，已删除的记录会被恢复
+     */
+    @Insert("""
+        INSERT INTO user_quotas (user_id, quota_per_minute, quota_per_day, created_at, updated_at)
+        VALUES (#{userId}, #{quotaPerMinute}, #{quotaPerDay}, NOW(), NOW())
+        ON DUPLICATE KEY UPDATE
+        quota_per_minute = VALUES(quota_per_minute),
+        quota_per_day = VALUES(quota_per_day),
+        is_deleted = 0,
+        updated_at = NOW()
+        """)
+    void insertOrUpdate(UserQuotaEntity quota);
+
+    @Select("SELECT * FROM user_quotas WHERE user_id = #{userId} AND is_deleted = 0")
+    UserQuotaEntity findByUserId(String userId);
+
+    /**
+     * 逻辑删除 - 软删除
+     */
+    @Update("UPDATE user_quotas SET is_deleted = 1 WHERE user_id = #{userId}")
+    int deleteByUserId(String userId);
+}
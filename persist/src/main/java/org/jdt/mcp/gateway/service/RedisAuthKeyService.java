@@ -1,6 +1,7 @@
 package org.jdt.mcp.gateway.service;
 
 import org.jdt.mcp.gateway.core.entity.AuthKeyEntity;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.time.Duration;
@@ -25,13 +26,6 @@ public interface RedisAuthKeyService {
      */
     Mono<AuthKeyEntity> getAuthKeyFromCache(String authKey);
 
-    /**
-     * 更新最后使用时间
-     * @param authKey 认证key
-     * @return Mono<Void>
-     */
-    Mono<Void> updateLastUsedTime(String authKey);
-
     /**
      * 缓存无效key
      * @param authKey 认证key
@@ -47,7 +41,7 @@ public interface RedisAuthKeyService {
     Mono<Boolean> isInvalidKeyCached(String authKey);
 
     /**
-     * 从缓存中移除key
+     * 从缓存中移除key，同时移除其最后使用时间
      * @param authKey 认证key
      * @return Mono<Void>
      */
@@ -86,4 +80,16 @@ public interface RedisAuthKeyService {
      * @return 是否成功
      */
     Mono<Boolean> extendCacheTTL(String authKey, Duration ttl);
-}
\ No newline at end of file
+
+    /**
+     * 移除缓存并广播失效消息，通知各节点清除本地认证缓存
+     * @param authKey 认证key
+     * @return Mono<Void>
+     */
+    Mono<Void> invalidateAuthKey(String authKey);
+
+    /**
+     * 订阅认证key失效消息，元素为authKey
+     */
+    Flux<String> subscribeInvalidations();
+}
@@ -0,0 +1,24 @@
+package org.jdt.mcp.gateway.service;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * 目录缓存失效广播
+ * 某个节点收到上游的 list_changed 通知后广播给所有节点，各节点清除本地的目录缓存
+ */
+public interface RedisCatalogInvalidationService {
+
+    /**
+     * 广播服务某个目录（例如 tools/list）失效
+     */
+    Mono<Void> publishInvalidation(String serviceId, String method);
+
+    /**
+     * 订阅目录失效消息
+     */
+    Flux<CatalogInvalidation> subscribeInvalidations();
+
+    record CatalogInvalidation(String serviceId, String method) {
+    }
+}
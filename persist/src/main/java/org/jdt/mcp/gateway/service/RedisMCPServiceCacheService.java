@@ -57,4 +57,14 @@ public interface RedisMCPServiceCacheService {
      * 获取服务缓存的TTL信息
      */
     Mono<Long> getServiceCacheTTL(String serviceId);
+
+    /**
+     * 移除服务缓存并向所有节点广播失效消息
+     */
+    Mono<Void> invalidateService(String serviceId);
+
+    /**
+     * 订阅服务失效消息，元素为serviceId
+     */
+    Flux<String> subscribeInvalidations();
 }
\ No newline at end of file
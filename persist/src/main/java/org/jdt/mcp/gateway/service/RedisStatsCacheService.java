@@ -1,5 +1,6 @@
 package org.jdt.mcp.gateway.service;
 
+import org.HdrHistogram.Histogram;
 import org.jdt.mcp.gateway.core.dto.ServiceStatsData;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -12,26 +13,47 @@ import java.util.Map;
  */
 public interface RedisStatsCacheService {
 
+    /**
+     * 唯一用户数基于Redis HyperLogLog估算，标准误差约0.81%
+     */
+    double UNIQUE_USERS_STANDARD_ERROR = 0.0081;
+
     /**
      * 记录请求统计数据
+     * 只累加到本地，由flushPendingStats批量写入Redis
      */
     Mono<Void> recordRequestStats(String serviceId, String userId, int statusCode, long responseTimeMs);
 
+    /**
+     * 将本地累加的统计数据写入Redis，每个服务每天一次脚本调用
+     */
+    Mono<Void> flushPendingStats();
+
     /**
      * 获取实时服务统计数据
      */
     Mono<ServiceStatsData> getRealtimeServiceStats(String serviceId);
 
+    /**
+     * 获取服务当天的响应时间直方图，由各节点写入的直方图合并得到
+     */
+    Mono<Histogram> getLatencyHistogram(String serviceId, LocalDate date);
+
     /**
      * 从缓存获取服务统计数据
      */
     Mono<Map<String, String>> getServiceStatsFromCache(String serviceId, LocalDate date);
 
     /**
-     * 获取唯一用户数量
+     * 获取唯一用户数量（估算值）
      */
     Mono<Long> getUniqueUsersCount(String serviceId, LocalDate date);
 
+    /**
+     * 获取日期区间内（含首尾）的唯一用户数量（估算值），由每日HyperLogLog合并得到
+     */
+    Mono<Long> getUniqueUsersCount(String serviceId, LocalDate from, LocalDate to);
+
     /**
      * 清空所有统计缓存
      */
@@ -0,0 +1,28 @@
+package org.jdt.mcp.gateway.service;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * 工具结果缓存的Redis二级缓存
+ * value带有绝对过期时间，各节点从Redis读到结果后按剩余时间写入本地缓存，不会延长结果的有效期
+ */
+public interface RedisToolResultCacheService {
+
+    /**
+     * 读取缓存的结果
+     * @return 未命中或已过期时为空
+     */
+    Mono<CachedResult> get(String serviceId, String toolName, String argumentsHash);
+
+    /**
+     * 写入结果
+     * @param expiresAtMillis 绝对过期时间（毫秒时间戳）
+     */
+    Mono<Void> put(String serviceId, String toolName, String argumentsHash, String result, long expiresAtMillis);
+
+    /**
+     * @param result JSON-RPC响应中result的原始JSON
+     */
+    record CachedResult(String result, long expiresAtMillis) {
+    }
+}
@@ -0,0 +1,53 @@
+package org.jdt.mcp.gateway.service;
+
+import org.HdrHistogram.Histogram;
+import org.jdt.mcp.gateway.core.dto.ToolStatsData;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * 工具维度的Redis统计缓存服务接口
+ * 按 (服务, 工具, 日期) 统计调用数、失败数和响应时间直方图
+ */
+public interface RedisToolStatsCacheService {
+
+    /**
+     * 超出基数上限或无法识别的工具名归入该桶
+     */
+    String OTHER_TOOL = "other";
+
+    /**
+     * 记录一次工具调用
+     * 只累加到本地，由flushPendingStats批量写入Redis
+     * @param toolName 工具名，为null或不合法时归入other
+     */
+    void recordToolStats(String serviceId, String toolName, int statusCode, long responseTimeMs);
+
+    /**
+     * 将本地累加的工具统计写入Redis，每个服务每次刷新一次脚本调用
+     */
+    Mono<Void> flushPendingStats();
+
+    /**
+     * 获取服务某天各工具的统计，由各节点写入的计数和直方图合并得到，按调用次数降序
+     */
+    Flux<ToolStatsData> getToolStats(String serviceId, LocalDate date);
+
+    /**
+     * 获取服务某天各工具合并后的响应时间直方图
+     */
+    Mono<Map<String, Histogram>> getLatencyHistograms(String serviceId, LocalDate date);
+
+    /**
+     * 获取所有工具统计缓存的键
+     */
+    Flux<String> getAllStatisticsKeys();
+
+    /**
+     * 清空所有工具统计缓存
+     */
+    Mono<Void> clearStats();
+}
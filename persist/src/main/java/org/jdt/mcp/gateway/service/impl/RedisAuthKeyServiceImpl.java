@@ -6,15 +6,17 @@ import lombok.extern.slf4j.Slf4j;
 import org.jdt.mcp.gateway.core.constant.RedisConstant;
 import org.jdt.mcp.gateway.service.RedisAuthKeyService;
 import org.jdt.mcp.gateway.core.entity.AuthKeyEntity;
+import org.springframework.data.redis.connection.ReactiveSubscription;
 import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.time.Duration;
-import java.time.LocalDateTime;
 import java.util.concurrent.TimeUnit;
 
+import static org.jdt.mcp.gateway.core.constant.RedisConstant.AUTH_KEY_INVALIDATION_CHANNEL;
 import static org.jdt.mcp.gateway.core.constant.RedisConstant.AUTH_KEY_PREFIX;
 import static org.jdt.mcp.gateway.core.constant.RedisConstant.AUTH_KEY_STATUS_PREFIX;
 
@@ -80,36 +82,6 @@ public class RedisAuthKeyServiceImpl implements RedisAuthKeyService {
                 .doOnError(error -> log.error("Error retrieving auth key from cache: {}", maskKey(authKey), error));
     }
 
-    @Override
-    public Mono<Void> updateLastUsedTime(String authKey) {
-        if (authKey == null) {
-            return Mono.empty();
-        }
-
-        String cacheKey = buildCacheKey(authKey);
-
-        return reactiveRedisTemplate.opsForValue().get(cacheKey)
-                .flatMap(jsonStr -> {
-                    try {
-                        AuthKeyEntity entity = objectMapper.readValue(jsonStr, AuthKeyEntity.class);
-                        entity.setLastUsedAt(LocalDateTime.now());
-
-                        String updatedJsonStr = objectMapper.writeValueAsString(entity);
-                        return reactiveRedisTemplate.opsForValue().set(cacheKey, updatedJsonStr, CACHE_TTL);
-                    } catch (JsonProcessingException e) {
-                        log.warn("Failed to update last used time in cache for key: {}", maskKey(authKey), e);
-                        return Mono.just(false);
-                    }
-                })
-                .doOnNext(success -> {
-                    if (Boolean.TRUE.equals(success)) {
-                        log.debug("Updated last used time in cache for key: {}", maskKey(authKey));
-                    }
-                })
-                .doOnError(error -> log.error("Error updating last used time in cache: {}", maskKey(authKey), error))
-                .then();
-    }
-
     @Override
     public Mono<Void> cacheInvalidKey(String authKey) {
         if (authKey == null) {
@@ -240,6 +212,26 @@ public class RedisAuthKeyServiceImpl implements RedisAuthKeyService {
                 .onErrorReturn(false);
     }
 
+    @Override
+    public Mono<Void> invalidateAuthKey(String authKey) {
+        if (authKey == null) {
+            return Mono.empty();
+        }
+
+        return removeFromCache(authKey)
+                .then(reactiveRedisTemplate.convertAndSend(AUTH_KEY_INVALIDATION_CHANNEL, authKey))
+                .doOnNext(receivers -> log.debug("Published invalidation for key {} to {} subscribers",
+                        maskKey(authKey), receivers))
+                .doOnError(error -> log.warn("Error publishing invalidation for key: {}", maskKey(authKey), error))
+                .then();
+    }
+
+    @Override
+    public Flux<String> subscribeInvalidations() {
+        return reactiveRedisTemplate.listenToChannel(AUTH_KEY_INVALIDATION_CHANNEL)
+                .map(ReactiveSubscription.Message::getMessage);
+    }
+
     /**
      * 构建缓存key
      */
@@ -0,0 +1,46 @@
+package org.jdt.mcp.gateway.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.jdt.mcp.gateway.service.RedisCatalogInvalidationService;
+import org.springframework.data.redis.connection.ReactiveSubscription;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import static org.jdt.mcp.gateway.core.constant.RedisConstant.CATALOG_INVALIDATION_CHANNEL;
+
+@Slf4j
+@Service
+public class RedisCatalogInvalidationServiceImpl implements RedisCatalogInvalidationService {
+
+    // 方法名不含该字符，serviceId按最后一个分隔符截取
+    private static final char SEPARATOR = '|';
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+
+    public RedisCatalogInvalidationServiceImpl(ReactiveStringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    @Override
+    public Mono<Void> publishInvalidation(String serviceId, String method) {
+        return redisTemplate.convertAndSend(CATALOG_INVALIDATION_CHANNEL, serviceId + SEPARATOR + method)
+                .doOnNext(receivers -> log.debug("Published catalog invalidation for service {} {} to {} subscribers",
+                        serviceId, method, receivers))
+                .doOnError(error -> log.warn("Error publishing catalog invalidation for service: {}", serviceId, error))
+                .then();
+    }
+
+    @Override
+    public Flux<CatalogInvalidation> subscribeInvalidations() {
+        return redisTemplate.listenToChannel(CATALOG_INVALIDATION_CHANNEL)
+                .map(ReactiveSubscription.Message::getMessage)
+                .mapNotNull(message -> {
+                    int separator = message.lastIndexOf(SEPARATOR);
+                    return separator > 0
+                            ? new CatalogInvalidation(message.substring(0, separator), message.substring(separator + 1))
+                            : null;
+                });
+    }
+}
@@ -6,6 +6,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.jdt.mcp.gateway.core.entity.MCPServiceEntity;
 import org.jdt.mcp.gateway.core.entity.ServiceStatus;
 import org.jdt.mcp.gateway.service.RedisMCPServiceCacheService;
+import org.springframework.data.redis.connection.ReactiveSubscription;
 import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
@@ -17,6 +18,7 @@ import java.util.Objects;
 
 import static org.jdt.mcp.gateway.core.constant.RedisConstant.ACTIVE_SERVICES_SET_KEY;
 import static org.jdt.mcp.gateway.core.constant.RedisConstant.SERVICE_CACHE_KEY_PREFIX;
+import static org.jdt.mcp.gateway.core.constant.RedisConstant.SERVICE_INVALIDATION_CHANNEL;
 
 @Slf4j
 @Service
@@ -146,6 +148,21 @@ public class RedisMCPServiceCacheServiceImpl implements RedisMCPServiceCacheServ
                 .doOnNext(ttl -> log.debug("Service {} cache TTL: {}", serviceId, ttl));
     }
 
+    @Override
+    public Mono<Void> invalidateService(String serviceId) {
+        return removeServiceFromCache(serviceId)
+                .then(redisTemplate.convertAndSend(SERVICE_INVALIDATION_CHANNEL, serviceId))
+                .doOnNext(receivers -> log.debug("Published invalidation for service {} to {} subscribers", serviceId, receivers))
+                .doOnError(error -> log.warn("Error publishing invalidation for service: {}", serviceId, error))
+                .then();
+    }
+
+    @Override
+    public Flux<String> subscribeInvalidations() {
+        return redisTemplate.listenToChannel(SERVICE_INVALIDATION_CHANNEL)
+                .map(ReactiveSubscription.Message::getMessage);
+    }
+
     /**
      * 序列化服务对象
      */
@@ -1,18 +1,33 @@
 package org.jdt.mcp.gateway.service.impl;
 
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
 import org.jdt.mcp.gateway.core.dto.ServiceStatsData;
 import org.jdt.mcp.gateway.service.RedisStatsCacheService;
 import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.nio.ByteBuffer;
 import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.HashMap;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.DataFormatException;
 
 import static org.jdt.mcp.gateway.core.constant.RedisConstant.*;
 
@@ -21,39 +36,138 @@ import static org.jdt.mcp.gateway.core.constant.RedisConstant.*;
 public class RedisStatsCacheServiceImpl implements RedisStatsCacheService {
 
     private static final Duration CACHE_EXPIRE = Duration.ofHours(25); // 25小时过期
+    // 每日唯一用户HLL保留到可以合并出月度数据
+    private static final Duration USER_HLL_EXPIRE = Duration.ofDays(32);
+    // 合并结果短暂缓存，避免重复PFMERGE
+    private static final Duration MERGED_HLL_EXPIRE = Duration.ofMinutes(1);
+    private static final int MAX_MERGE_DAYS = 31;
+    private static final Duration SHUTDOWN_FLUSH_TIMEOUT = Duration.ofSeconds(5);
+    // 直方图记录范围1ms~1小时，2位有效数字（相对误差1%）
+    private static final long MAX_TRACKABLE_RESPONSE_TIME_MS = Duration.ofHours(1).toMillis();
+    private static final int SIGNIFICANT_DIGITS = 2;
+
+    /**
+     * 合并写入一个服务一天的统计增量
+     * KEYS: 统计hash, 用户HyperLogLog, 响应时间直方图hash
+     * ARGV: 总调用, 成功, 失败, 总响应时间, 最大响应时间, 统计过期秒数, HLL过期秒数,
+     *       节点ID, 本节点当天累计直方图（为空表示无变化）, 用户...
+     */
+    private static final RedisScript<Long> FLUSH_STATS_SCRIPT = RedisScript.of("""
+            redis.call('HINCRBY', KEYS[1], 'total_calls', ARGV[1])
+            redis.call('HINCRBY', KEYS[1], 'success_calls', ARGV[2])
+            redis.call('HINCRBY', KEYS[1], 'failed_calls', ARGV[3])
+            redis.call('HINCRBY', KEYS[1], 'total_response_time', ARGV[4])
+            local max = tonumber(redis.call('HGET', KEYS[1], 'max_response_time') or '0')
+            if tonumber(ARGV[5]) > max then
+                redis.call('HSET', KEYS[1], 'max_response_time', ARGV[5])
+            end
+            redis.call('EXPIRE', KEYS[1], ARGV[6])
+            if ARGV[9] ~= '' then
+                redis.call('HSET', KEYS[3], ARGV[8], ARGV[9])
+                redis.call('EXPIRE', KEYS[3], ARGV[6])
+            end
+            if #ARGV > 9 then
+                for i = 10, #ARGV, 1000 do
+                    redis.call('PFADD', KEYS[2], unpack(ARGV, i, math.min(i + 999, #ARGV)))
+                end
+                redis.call('EXPIRE', KEYS[2], ARGV[7])
+            end
+            return 1
+            """, Long.class);
+
+    /**
+     * 把旧版用户集合合并到HyperLogLog后删除，返回唯一用户数
+     * KEYS: 用户HyperLogLog, 旧版用户集合
+     * ARGV: HLL过期秒数
+     */
+    private static final RedisScript<Long> MERGE_LEGACY_USERS_SCRIPT = RedisScript.of("""
+            if redis.call('EXISTS', KEYS[2]) == 1 then
+                local users = redis.call('SMEMBERS', KEYS[2])
+                for i = 1, #users, 1000 do
+                    redis.call('PFADD', KEYS[1], unpack(users, i, math.min(i + 999, #users)))
+                end
+                redis.call('EXPIRE', KEYS[1], ARGV[1])
+                redis.call('DEL', KEYS[2])
+            end
+            return redis.call('PFCOUNT', KEYS[1])
+            """, Long.class);
 
     private final ReactiveStringRedisTemplate redisTemplate;
 
+    // 本节点在直方图hash中的field，每次启动不同，重启不会覆盖之前写入的数据
+    private final String nodeId = UUID.randomUUID().toString();
+
+    // 按服务和日期的本地累加器，定时刷新到Redis
+    private final ConcurrentHashMap<StatsKey, StatsAccumulator> pending = new ConcurrentHashMap<>();
+
+    // 当天的累加器索引，请求路径上只按serviceId查找，不创建日期对象
+    private volatile DayBucket currentDay;
+
     public RedisStatsCacheServiceImpl(ReactiveStringRedisTemplate redisTemplate) {
         this.redisTemplate = redisTemplate;
+        this.currentDay = DayBucket.of(LocalDate.now());
     }
 
     @Override
     public Mono<Void> recordRequestStats(String serviceId, String userId, int statusCode, long responseTimeMs) {
-        String today = LocalDate.now().toString();
-        String statsKey = SERVICE_STATS_PREFIX + serviceId + ":" + today;
-        String userSetKey = USER_SET_KEY_PREFIX + serviceId + ":" + today;
-
-        return Mono.when(
-                        // 增加总调用数
-                        redisTemplate.opsForHash().increment(statsKey, "total_calls", 1),
-
-                        // 增加成功/失败调用数
-                        redisTemplate.opsForHash().increment(statsKey,
-                                statusCode >= 200 && statusCode < 300 ? "success_calls" : "failed_calls", 1),
+        DayBucket day = currentDay();
+        StatsAccumulator accumulator = day.accumulators.get(serviceId);
+        if (accumulator == null) {
+            accumulator = day.accumulators.computeIfAbsent(serviceId, id ->
+                    pending.computeIfAbsent(new StatsKey(id, day.date), StatsAccumulator::new));
+        }
+        accumulator.record(userId, statusCode >= 200 && statusCode < 300, responseTimeMs);
+        return Mono.empty();
+    }
 
-                        // 更新响应时间统计
-                        updateResponseTimeStats(statsKey, responseTimeMs),
+    @Override
+    public Mono<Histogram> getLatencyHistogram(String serviceId, LocalDate date) {
+        String latencyKey = SERVICE_LATENCY_PREFIX + serviceId + ":" + date.toString();
+
+        return redisTemplate.<String, String>opsForHash().values(latencyKey)
+                .reduce(newHistogram(), (merged, encoded) -> {
+                    try {
+                        merged.add(decodeHistogram(encoded));
+                    } catch (Exception e) {
+                        log.warn("Skipping corrupted latency histogram for service: {}", serviceId, e);
+                    }
+                    return merged;
+                })
+                .doOnError(error -> log.warn("Failed to get latency histogram: {}", serviceId, error));
+    }
 
-                        // 记录用户
-                        redisTemplate.opsForSet().add(userSetKey, userId),
+    @Override
+    public Mono<Void> flushPendingStats() {
+        LocalDate today = LocalDate.now();
+        // 各服务的脚本调用并发发出，由Lettuce在同一连接上流水线发送
+        return Flux.fromIterable(pending.values())
+                .flatMap(accumulator -> {
+                    StatsSnapshot snapshot = accumulator.drain();
+                    if (snapshot.isEmpty()) {
+                        // 跨天后空闲的累加器在连续两次空刷新后移除，避免与迟到的写入竞争
+                        if (accumulator.key.date().isBefore(today) && accumulator.idle()) {
+                            pending.remove(accumulator.key, accumulator);
+                        }
+                        return Mono.empty();
+                    }
+                    return writeSnapshot(accumulator.key, snapshot)
+                            .onErrorResume(error -> {
+                                log.warn("Failed to flush statistics for service: {}, requeued",
+                                        accumulator.key.serviceId(), error);
+                                accumulator.restore(snapshot);
+                                return Mono.empty();
+                            });
+                })
+                .then();
+    }
 
-                        // 设置过期时间
-                        redisTemplate.expire(statsKey, CACHE_EXPIRE),
-                        redisTemplate.expire(userSetKey, CACHE_EXPIRE)
-                ).then()
-                .doOnSuccess(v -> log.debug("Statistics recorded for service: {}", serviceId))
-                .doOnError(error -> log.warn("Failed to record statistics for service: {}", serviceId, error));
+    @PreDestroy
+    public void destroy() {
+        try {
+            flushPendingStats().block(SHUTDOWN_FLUSH_TIMEOUT);
+        } catch (Exception e) {
+            log.warn("Final statistics flush failed: {}", e.getMessage());
+        }
     }
 
     @Override
@@ -62,10 +176,12 @@ public class RedisStatsCacheServiceImpl implements RedisStatsCacheService {
 
         return Mono.zip(
                 getServiceStatsFromCache(serviceId, LocalDate.now()),
-                getUniqueUsersCount(serviceId, LocalDate.now())
+                getUniqueUsersCount(serviceId, LocalDate.now()),
+                getLatencyHistogram(serviceId, LocalDate.now())
         ).map(tuple -> {
             Map<String, String> stats = tuple.getT1();
             Long uniqueUsers = tuple.getT2();
+            Histogram latency = tuple.getT3();
 
             int totalCalls = getIntValue(stats, "total_calls");
             int successCalls = getIntValue(stats, "success_calls");
@@ -81,6 +197,9 @@ public class RedisStatsCacheServiceImpl implements RedisStatsCacheService {
                     .failedCalls(failedCalls)
                     .avgResponseTimeMs(avgResponseTime)
                     .maxResponseTimeMs(maxResponseTime)
+                    .p50ResponseTimeMs(latency.getValueAtPercentile(50))
+                    .p95ResponseTimeMs(latency.getValueAtPercentile(95))
+                    .p99ResponseTimeMs(latency.getValueAtPercentile(99))
                     .uniqueUsers(uniqueUsers.intValue())
                     .lastUpdateTime(LocalDateTime.now())
                     .build();
@@ -101,20 +220,50 @@ public class RedisStatsCacheServiceImpl implements RedisStatsCacheService {
 
     @Override
     public Mono<Long> getUniqueUsersCount(String serviceId, LocalDate date) {
-        String userSetKey = USER_SET_KEY_PREFIX + serviceId + ":" + date.toString();
+        String userHllKey = USER_HLL_KEY_PREFIX + serviceId + ":" + date.toString();
 
-        return redisTemplate.opsForSet().size(userSetKey)
+        if (hasLegacyUsers(date)) {
+            return mergeLegacyUsers(serviceId, date)
+                    .doOnError(error -> log.warn("Failed to get unique users count: {}", serviceId, error));
+        }
+        return redisTemplate.opsForHyperLogLog().size(userHllKey)
                 .doOnError(error -> log.warn("Failed to get unique users count: {}", serviceId, error));
     }
 
+    @Override
+    public Mono<Long> getUniqueUsersCount(String serviceId, LocalDate from, LocalDate to) {
+        if (to.isBefore(from) || from.plusDays(MAX_MERGE_DAYS).isBefore(to)) {
+            return Mono.error(new IllegalArgumentException(
+                    "Date range must be within " + MAX_MERGE_DAYS + " days: " + from + " ~ " + to));
+        }
+        if (from.equals(to)) {
+            return getUniqueUsersCount(serviceId, from);
+        }
+
+        String[] dailyKeys = from.datesUntil(to.plusDays(1))
+                .map(date -> USER_HLL_KEY_PREFIX + serviceId + ":" + date)
+                .toArray(String[]::new);
+        String mergedKey = USER_HLL_KEY_PREFIX + serviceId + ":" + from + "~" + to;
+
+        return Flux.fromStream(from.datesUntil(to.plusDays(1)))
+                .filter(RedisStatsCacheServiceImpl::hasLegacyUsers)
+                .concatMap(date -> mergeLegacyUsers(serviceId, date))
+                .then(redisTemplate.opsForHyperLogLog().union(mergedKey, dailyKeys))
+                .then(redisTemplate.expire(mergedKey, MERGED_HLL_EXPIRE))
+                .then(redisTemplate.opsForHyperLogLog().size(mergedKey))
+                .doOnError(error -> log.warn("Failed to get unique users count: {} {} ~ {}", serviceId, from, to, error));
+    }
+
     @Override
     public Mono<Void> clearStats() {
         String statsPattern = SERVICE_STATS_PREFIX + "*";
-        String userPattern = USER_SET_KEY_PREFIX + "*";
+        String userPattern = USER_HLL_KEY_PREFIX + "*";
+        String legacyUserPattern = LEGACY_USER_SET_KEY_PREFIX + "*";
 
         return Mono.when(
                         redisTemplate.keys(statsPattern).flatMap(redisTemplate::delete),
-                        redisTemplate.keys(userPattern).flatMap(redisTemplate::delete)
+                        redisTemplate.keys(userPattern).flatMap(redisTemplate::delete),
+                        redisTemplate.keys(legacyUserPattern).flatMap(redisTemplate::delete)
                 ).then()
                 .doOnSuccess(v -> log.info("Statistics cache cleared"))
                 .doOnError(error -> log.error("Failed to clear statistics cache", error));
@@ -136,39 +285,91 @@ public class RedisStatsCacheServiceImpl implements RedisStatsCacheService {
     public Mono<Void> deleteServiceStats(String serviceId, LocalDate date) {
         String today = date.toString();
         String statsKey = SERVICE_STATS_PREFIX + serviceId + ":" + today;
-        String userSetKey = USER_SET_KEY_PREFIX + serviceId + ":" + today;
+        String userHllKey = USER_HLL_KEY_PREFIX + serviceId + ":" + today;
+        String legacyUserSetKey = LEGACY_USER_SET_KEY_PREFIX + serviceId + ":" + today;
 
         return Mono.when(
                         redisTemplate.delete(statsKey),
-                        redisTemplate.delete(userSetKey)
+                        redisTemplate.delete(userHllKey, legacyUserSetKey)
                 ).then()
                 .doOnSuccess(v -> log.debug("Deleted service stats for: {} on {}", serviceId, date))
                 .doOnError(error -> log.warn("Failed to delete service stats: {}", serviceId, error));
     }
 
     /**
-     * 更新响应时间统计
+     * 旧版用户集合最多保留25小时，只有今天和昨天可能存在
      */
-    private Mono<Void> updateResponseTimeStats(String statsKey, long responseTimeMs) {
-        return redisTemplate.opsForHash().get(statsKey, "total_response_time")
-                .cast(String.class)
-                .defaultIfEmpty("0")
-                .zipWith(redisTemplate.opsForHash().get(statsKey, "max_response_time")
-                        .cast(String.class)
-                        .defaultIfEmpty("0"))
-                .flatMap(tuple -> {
-                    long currentTotal = Long.parseLong(tuple.getT1());
-                    long currentMax = Long.parseLong(tuple.getT2());
-
-                    Map<String, String> updateMap = new HashMap<>();
-                    updateMap.put("total_response_time", String.valueOf(currentTotal + responseTimeMs));
-
-                    if (responseTimeMs > currentMax) {
-                        updateMap.put("max_response_time", String.valueOf(responseTimeMs));
-                    }
+    private static boolean hasLegacyUsers(LocalDate date) {
+        return !date.isBefore(LocalDate.now().minusDays(1));
+    }
 
-                    return redisTemplate.opsForHash().putAll(statsKey, updateMap);
-                }).then();
+    private Mono<Long> mergeLegacyUsers(String serviceId, LocalDate date) {
+        String userHllKey = USER_HLL_KEY_PREFIX + serviceId + ":" + date;
+        String legacyUserSetKey = LEGACY_USER_SET_KEY_PREFIX + serviceId + ":" + date;
+        return redisTemplate.execute(MERGE_LEGACY_USERS_SCRIPT, List.of(userHllKey, legacyUserSetKey),
+                        List.of(String.valueOf(USER_HLL_EXPIRE.toSeconds())))
+                .next()
+                .defaultIfEmpty(0L);
+    }
+
+    /**
+     * 用一次脚本调用写入一个服务一天的增量
+     */
+    private Mono<Void> writeSnapshot(StatsKey key, StatsSnapshot snapshot) {
+        String today = key.date().toString();
+        String statsKey = SERVICE_STATS_PREFIX + key.serviceId() + ":" + today;
+        String userHllKey = USER_HLL_KEY_PREFIX + key.serviceId() + ":" + today;
+        String latencyKey = SERVICE_LATENCY_PREFIX + key.serviceId() + ":" + today;
+
+        List<String> args = new ArrayList<>(9 + snapshot.users().size());
+        args.add(String.valueOf(snapshot.totalCalls()));
+        args.add(String.valueOf(snapshot.successCalls()));
+        args.add(String.valueOf(snapshot.failedCalls()));
+        args.add(String.valueOf(snapshot.totalResponseTime()));
+        args.add(String.valueOf(snapshot.maxResponseTime()));
+        args.add(String.valueOf(CACHE_EXPIRE.toSeconds()));
+        args.add(String.valueOf(USER_HLL_EXPIRE.toSeconds()));
+        args.add(nodeId);
+        args.add(snapshot.latency() != null ? snapshot.latency() : "");
+        args.addAll(snapshot.users());
+
+        return redisTemplate.execute(FLUSH_STATS_SCRIPT, List.of(statsKey, userHllKey, latencyKey), args)
+                .then()
+                .doOnSuccess(v -> log.debug("Statistics flushed for service: {}, calls: {}",
+                        key.serviceId(), snapshot.totalCalls()));
+    }
+
+    /**
+     * 当前日期的累加器索引，跨天时切换
+     */
+    private DayBucket currentDay() {
+        DayBucket day = currentDay;
+        if (System.currentTimeMillis() < day.endMillis) {
+            return day;
+        }
+        synchronized (this) {
+            day = currentDay;
+            if (System.currentTimeMillis() >= day.endMillis) {
+                day = DayBucket.of(LocalDate.now());
+                currentDay = day;
+            }
+            return day;
+        }
+    }
+
+    private static Histogram newHistogram() {
+        return new Histogram(MAX_TRACKABLE_RESPONSE_TIME_MS, SIGNIFICANT_DIGITS);
+    }
+
+    private static String encodeHistogram(Histogram histogram) {
+        ByteBuffer buffer = ByteBuffer.allocate(histogram.getNeededByteBufferCapacity());
+        int length = histogram.encodeIntoCompressedByteBuffer(buffer);
+        return Base64.getEncoder().encodeToString(Arrays.copyOf(buffer.array(), length));
+    }
+
+    private static Histogram decodeHistogram(String encoded) throws DataFormatException {
+        ByteBuffer buffer = ByteBuffer.wrap(Base64.getDecoder().decode(encoded));
+        return Histogram.decodeFromCompressedByteBuffer(buffer, MAX_TRACKABLE_RESPONSE_TIME_MS);
     }
 
     private int getIntValue(Map<String, String> map, String key) {
@@ -180,4 +381,105 @@ public class RedisStatsCacheServiceImpl implements RedisStatsCacheService {
         String value = map.get(key);
         return value != null ? Long.parseLong(value) : 0L;
     }
-}
\ No newline at end of file
+
+    private record StatsKey(String serviceId, LocalDate date) {
+    }
+
+    private record DayBucket(LocalDate date, long endMillis, ConcurrentHashMap<String, StatsAccumulator> accumulators) {
+
+        static DayBucket of(LocalDate date) {
+            long endMillis = date.plusDays(1).atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            return new DayBucket(date, endMillis, new ConcurrentHashMap<>());
+        }
+    }
+
+    /**
+     * @param latency 本节点当天累计直方图的编码，本周期无新样本时为null
+     */
+    private record StatsSnapshot(long totalCalls, long successCalls, long failedCalls,
+                                 long totalResponseTime, long maxResponseTime, String latency, List<String> users) {
+
+        boolean isEmpty() {
+            return totalCalls == 0 && users.isEmpty();
+        }
+    }
+
+    /**
+     * 单个服务单日的统计累加器
+     * 计数使用LongAdder，刷新时sumThenReset逐个cell清零，并发写入只会计入本次或下次刷新
+     * 响应时间使用HdrHistogram Recorder，记录无锁且不分配内存；刷新时切换区间直方图并累加到当天直方图
+     * 定时刷新和停机刷新可能在不同线程上同时进行，drain和idle在累加器上同步
+     */
+    private static final class StatsAccumulator {
+
+        private final StatsKey key;
+        private final LongAdder totalCalls = new LongAdder();
+        private final LongAdder successCalls = new LongAdder();
+        private final LongAdder failedCalls = new LongAdder();
+        private final LongAdder totalResponseTime = new LongAdder();
+        private final LongAccumulator maxResponseTime = new LongAccumulator(Math::max, 0);
+        private final Recorder latencyRecorder = new Recorder(MAX_TRACKABLE_RESPONSE_TIME_MS, SIGNIFICANT_DIGITS);
+        // 以下字段只在持有累加器锁的drain和idle中访问
+        private final Histogram dayLatency = newHistogram();
+        private Histogram intervalLatency;
+        // 本周期内出现的用户（去重后批量PFADD），刷新时逐个移除
+        private final Set<String> users = ConcurrentHashMap.newKeySet();
+        private int idleFlushes;
+
+        StatsAccumulator(StatsKey key) {
+            this.key = key;
+        }
+
+        void record(String userId, boolean success, long responseTimeMs) {
+            totalCalls.increment();
+            (success ? successCalls : failedCalls).increment();
+            totalResponseTime.add(responseTimeMs);
+            maxResponseTime.accumulate(responseTimeMs);
+            latencyRecorder.recordValue(Math.min(Math.max(responseTimeMs, 0), MAX_TRACKABLE_RESPONSE_TIME_MS));
+            users.add(userId);
+        }
+
+        synchronized StatsSnapshot drain() {
+            intervalLatency = latencyRecorder.getIntervalHistogram(intervalLatency);
+            String latency = null;
+            if (intervalLatency.getTotalCount() > 0) {
+                dayLatency.add(intervalLatency);
+                latency = encodeHistogram(dayLatency);
+            }
+
+            List<String> drainedUsers = new ArrayList<>();
+            for (String user : users) {
+                if (users.remove(user)) {
+                    drainedUsers.add(user);
+                }
+            }
+            StatsSnapshot snapshot = new StatsSnapshot(
+                    totalCalls.sumThenReset(),
+                    successCalls.sumThenReset(),
+                    failedCalls.sumThenReset(),
+                    totalResponseTime.sumThenReset(),
+                    maxResponseTime.getThenReset(),
+                    latency,
+                    drainedUsers);
+            idleFlushes = snapshot.isEmpty() ? idleFlushes + 1 : 0;
+            return snapshot;
+        }
+
+        /**
+         * 写入失败时把增量放回，等待下次刷新
+         * 直方图已累加到当天直方图，下次刷新会整体重写，不需要放回
+         */
+        void restore(StatsSnapshot snapshot) {
+            totalCalls.add(snapshot.totalCalls());
+            successCalls.add(snapshot.successCalls());
+            failedCalls.add(snapshot.failedCalls());
+            totalResponseTime.add(snapshot.totalResponseTime());
+            maxResponseTime.accumulate(snapshot.maxResponseTime());
+            users.addAll(snapshot.users());
+        }
+
+        synchronized boolean idle() {
+            return idleFlushes >= 2;
+        }
+    }
+}
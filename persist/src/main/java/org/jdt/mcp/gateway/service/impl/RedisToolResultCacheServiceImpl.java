@@ -0,0 +1,56 @@
+package org.jdt.mcp.gateway.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.jdt.mcp.gateway.service.RedisToolResultCacheService;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+import static org.jdt.mcp.gateway.core.constant.RedisConstant.TOOL_RESULT_CACHE_PREFIX;
+
+@Slf4j
+@Service
+public class RedisToolResultCacheServiceImpl implements RedisToolResultCacheService {
+
+    private static final char SEPARATOR = '|';
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+
+    public RedisToolResultCacheServiceImpl(ReactiveStringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    @Override
+    public Mono<CachedResult> get(String serviceId, String toolName, String argumentsHash) {
+        return redisTemplate.opsForValue().get(cacheKey(serviceId, toolName, argumentsHash))
+                .mapNotNull(value -> {
+                    int separator = value.indexOf(SEPARATOR);
+                    if (separator <= 0) {
+                        return null;
+                    }
+                    long expiresAtMillis = Long.parseLong(value.substring(0, separator));
+                    return expiresAtMillis > System.currentTimeMillis()
+                            ? new CachedResult(value.substring(separator + 1), expiresAtMillis) : null;
+                })
+                .doOnError(error -> log.warn("Error reading tool result cache: {} {}", serviceId, toolName, error));
+    }
+
+    @Override
+    public Mono<Void> put(String serviceId, String toolName, String argumentsHash, String result,
+                          long expiresAtMillis) {
+        Duration ttl = Duration.ofMillis(expiresAtMillis - System.currentTimeMillis());
+        if (ttl.isNegative() || ttl.isZero()) {
+            return Mono.empty();
+        }
+        return redisTemplate.opsForValue()
+                .set(cacheKey(serviceId, toolName, argumentsHash), expiresAtMillis + String.valueOf(SEPARATOR) + result, ttl)
+                .doOnError(error -> log.warn("Error writing tool result cache: {} {}", serviceId, toolName, error))
+                .then();
+    }
+
+    private static String cacheKey(String serviceId, String toolName, String argumentsHash) {
+        return TOOL_RESULT_CACHE_PREFIX + serviceId + ":" + toolName + ":" + argumentsHash;
+    }
+}
@@ -0,0 +1,432 @@
+package org.jdt.mcp.gateway.service.impl;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.PackedHistogram;
+import org.HdrHistogram.Recorder;
+import org.jdt.mcp.gateway.core.config.ProxyConfig;
+import org.jdt.mcp.gateway.core.dto.ToolStatsData;
+import org.jdt.mcp.gateway.service.RedisToolStatsCacheService;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.DataFormatException;
+
+import static org.jdt.mcp.gateway.core.constant.RedisConstant.TOOL_LATENCY_PREFIX;
+import static org.jdt.mcp.gateway.core.constant.RedisConstant.TOOL_STATS_PREFIX;
+
+/**
+ * 工具维度统计缓存
+ * 请求路径上只累加到本地（按服务、工具两级索引），定时刷新时每个服务用一次脚本调用写入所有工具的增量
+ * 每个服务每天单独统计的工具数受toolStatsMaxTools限制，防止任意工具名撑大内存和Redis
+ */
+@Slf4j
+@Service
+public class RedisToolStatsCacheServiceImpl implements RedisToolStatsCacheService {
+
+    private static final Duration CACHE_EXPIRE = Duration.ofHours(25); // 25小时过期
+    private static final Duration SHUTDOWN_FLUSH_TIMEOUT = Duration.ofSeconds(5);
+    // 直方图记录上限1小时，2位有效数字（相对误差1%）；使用按需分配的packed直方图，工具多时内存可控
+    private static final long MAX_TRACKABLE_RESPONSE_TIME_MS = Duration.ofHours(1).toMillis();
+    private static final int SIGNIFICANT_DIGITS = 2;
+    private static final int MAX_TOOL_NAME_LENGTH = 128;
+    // field中工具名与指标名的分隔符，工具名不允许包含
+    private static final char FIELD_SEPARATOR = '|';
+    private static final int ARGS_PER_TOOL = 7;
+
+    /**
+     * 合并写入一个服务一天所有工具的统计增量
+     * KEYS: 工具统计hash, 工具直方图hash
+     * ARGV: 统计过期秒数, 节点ID, 之后每个工具7个参数：
+     *       工具名, 总调用, 成功, 失败, 总响应时间, 最大响应时间, 本节点当天累计直方图（为空表示无变化）
+     */
+    private static final RedisScript<Long> FLUSH_TOOL_STATS_SCRIPT = RedisScript.of("""
+            for i = 3, #ARGV, 7 do
+                local tool = ARGV[i]
+                redis.call('HINCRBY', KEYS[1], tool .. '|total_calls', ARGV[i + 1])
+                redis.call('HINCRBY', KEYS[1], tool .. '|success_calls', ARGV[i + 2])
+                redis.call('HINCRBY', KEYS[1], tool .. '|failed_calls', ARGV[i + 3])
+                redis.call('HINCRBY', KEYS[1], tool .. '|total_response_time', ARGV[i + 4])
+                local max = tonumber(redis.call('HGET', KEYS[1], tool .. '|max_response_time') or '0')
+                if tonumber(ARGV[i + 5]) > max then
+                    redis.call('HSET', KEYS[1], tool .. '|max_response_time', ARGV[i + 5])
+                end
+                if ARGV[i + 6] ~= '' then
+                    redis.call('HSET', KEYS[2], tool .. '|' .. ARGV[2], ARGV[i + 6])
+                end
+            end
+            redis.call('EXPIRE', KEYS[1], ARGV[1])
+            if redis.call('EXISTS', KEYS[2]) == 1 then
+                redis.call('EXPIRE', KEYS[2], ARGV[1])
+            end
+            return 1
+            """, Long.class);
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final ProxyConfig proxyConfig;
+
+    // 本节点在直方图hash中的field后缀，每次启动不同，重启不会覆盖之前写入的数据
+    private final String nodeId = UUID.randomUUID().toString();
+
+    // 按服务和日期的本地累加器，定时刷新到Redis
+    private final ConcurrentHashMap<StatsKey, ServiceTools> pending = new ConcurrentHashMap<>();
+
+    // 当天的累加器索引，请求路径上只按serviceId查找，不创建日期对象
+    private volatile DayBucket currentDay;
+
+    public RedisToolStatsCacheServiceImpl(ReactiveStringRedisTemplate redisTemplate, ProxyConfig proxyConfig) {
+        this.redisTemplate = redisTemplate;
+        this.proxyConfig = proxyConfig;
+        this.currentDay = DayBucket.of(LocalDate.now());
+    }
+
+    @Override
+    public void recordToolStats(String serviceId, String toolName, int statusCode, long responseTimeMs) {
+        DayBucket day = currentDay();
+        ServiceTools tools = day.services.get(serviceId);
+        if (tools == null) {
+            tools = day.services.computeIfAbsent(serviceId, id ->
+                    pending.computeIfAbsent(new StatsKey(id, day.date), ServiceTools::new));
+        }
+        tools.accumulator(toolName, proxyConfig.getToolStatsMaxTools())
+                .record(statusCode >= 200 && statusCode < 300, responseTimeMs);
+    }
+
+    @Override
+    public Mono<Void> flushPendingStats() {
+        LocalDate today = LocalDate.now();
+        return Flux.fromIterable(pending.values())
+                .flatMap(tools -> {
+                    List<ToolSnapshot> snapshots = tools.drain();
+                    if (snapshots.isEmpty()) {
+                        // 跨天后空闲的累加器在连续两次空刷新后移除，避免与迟到的写入竞争
+                        if (tools.key.date().isBefore(today) && tools.idle()) {
+                            pending.remove(tools.key, tools);
+                        }
+                        return Mono.empty();
+                    }
+                    return writeSnapshots(tools.key, snapshots)
+                            .onErrorResume(error -> {
+                                log.warn("Failed to flush tool statistics for service: {}, requeued",
+                                        tools.key.serviceId(), error);
+                                tools.restore(snapshots);
+                                return Mono.empty();
+                            });
+                })
+                .then();
+    }
+
+    @PreDestroy
+    public void destroy() {
+        try {
+            flushPendingStats().block(SHUTDOWN_FLUSH_TIMEOUT);
+        } catch (Exception e) {
+            log.warn("Final tool statistics flush failed: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public Flux<ToolStatsData> getToolStats(String serviceId, LocalDate date) {
+        String statsKey = TOOL_STATS_PREFIX + serviceId + ":" + date;
+
+        Mono<Map<String, Map<String, Long>>> counters = redisTemplate.<String, String>opsForHash().entries(statsKey)
+                .collect(HashMap::new, (Map<String, Map<String, Long>> byTool, Map.Entry<String, String> entry) -> {
+                    String field = entry.getKey();
+                    int separator = field.lastIndexOf(FIELD_SEPARATOR);
+                    if (separator > 0) {
+                        byTool.computeIfAbsent(field.substring(0, separator), tool -> new HashMap<>())
+                                .put(field.substring(separator + 1), Long.parseLong(entry.getValue()));
+                    }
+                });
+
+        return Mono.zip(counters, getLatencyHistograms(serviceId, date))
+                .flatMapMany(tuple -> {
+                    Map<String, Histogram> latencies = tuple.getT2();
+                    List<ToolStatsData> result = new ArrayList<>(tuple.getT1().size());
+                    tuple.getT1().forEach((tool, values) ->
+                            result.add(toToolStats(tool, values, latencies.get(tool))));
+                    result.sort(Comparator.comparingInt(ToolStatsData::getTotalCalls).reversed());
+                    return Flux.fromIterable(result);
+                })
+                .doOnError(error -> log.warn("Failed to get tool statistics: {}", serviceId, error));
+    }
+
+    @Override
+    public Mono<Map<String, Histogram>> getLatencyHistograms(String serviceId, LocalDate date) {
+        String latencyKey = TOOL_LATENCY_PREFIX + serviceId + ":" + date;
+
+        return redisTemplate.<String, String>opsForHash().entries(latencyKey)
+                .collect(HashMap::new, (Map<String, Histogram> byTool, Map.Entry<String, String> entry) -> {
+                    String field = entry.getKey();
+                    int separator = field.lastIndexOf(FIELD_SEPARATOR);
+                    if (separator <= 0) {
+                        return;
+                    }
+                    try {
+                        byTool.computeIfAbsent(field.substring(0, separator), tool -> newHistogram())
+                                .add(decodeHistogram(entry.getValue()));
+                    } catch (Exception e) {
+                        log.warn("Skipping corrupted tool latency histogram: {} {}", serviceId, field, e);
+                    }
+                });
+    }
+
+    @Override
+    public Flux<String> getAllStatisticsKeys() {
+        return redisTemplate.keys(TOOL_STATS_PREFIX + "*")
+                .doOnError(error -> log.warn("Failed to get tool statistics keys", error));
+    }
+
+    @Override
+    public Mono<Void> clearStats() {
+        return Mono.when(
+                        redisTemplate.keys(TOOL_STATS_PREFIX + "*").flatMap(redisTemplate::delete),
+                        redisTemplate.keys(TOOL_LATENCY_PREFIX + "*").flatMap(redisTemplate::delete)
+                ).then()
+                .doOnSuccess(v -> log.info("Tool statistics cache cleared"))
+                .doOnError(error -> log.error("Failed to clear tool statistics cache", error));
+    }
+
+    /**
+     * 用一次脚本调用写入一个服务一天所有工具的增量
+     */
+    private Mono<Void> writeSnapshots(StatsKey key, List<ToolSnapshot> snapshots) {
+        String statsKey = TOOL_STATS_PREFIX + key.serviceId() + ":" + key.date();
+        String latencyKey = TOOL_LATENCY_PREFIX + key.serviceId() + ":" + key.date();
+
+        List<String> args = new ArrayList<>(2 + snapshots.size() * ARGS_PER_TOOL);
+        args.add(String.valueOf(CACHE_EXPIRE.toSeconds()));
+        args.add(nodeId);
+        for (ToolSnapshot snapshot : snapshots) {
+            args.add(snapshot.toolName());
+            args.add(String.valueOf(snapshot.totalCalls()));
+            args.add(String.valueOf(snapshot.successCalls()));
+            args.add(String.valueOf(snapshot.failedCalls()));
+            args.add(String.valueOf(snapshot.totalResponseTime()));
+            args.add(String.valueOf(snapshot.maxResponseTime()));
+            args.add(snapshot.latency() != null ? snapshot.latency() : "");
+        }
+
+        return redisTemplate.execute(FLUSH_TOOL_STATS_SCRIPT, List.of(statsKey, latencyKey), args)
+                .then()
+                .doOnSuccess(v -> log.debug("Tool statistics flushed for service: {}, tools: {}",
+                        key.serviceId(), snapshots.size()));
+    }
+
+    private static ToolStatsData toToolStats(String tool, Map<String, Long> values, Histogram latency) {
+        int totalCalls = values.getOrDefault("total_calls", 0L).intValue();
+        long totalResponseTime = values.getOrDefault("total_response_time", 0L);
+        return ToolStatsData.builder()
+                .toolName(tool)
+                .totalCalls(totalCalls)
+                .successCalls(values.getOrDefault("success_calls", 0L).intValue())
+                .failedCalls(values.getOrDefault("failed_calls", 0L).intValue())
+                .avgResponseTimeMs(totalCalls > 0 ? totalResponseTime / totalCalls : 0)
+                .maxResponseTimeMs(values.getOrDefault("max_response_time", 0L))
+                .p50ResponseTimeMs(latency != null ? latency.getValueAtPercentile(50) : 0)
+                .p95ResponseTimeMs(latency != null ? latency.getValueAtPercentile(95) : 0)
+                .p99ResponseTimeMs(latency != null ? latency.getValueAtPercentile(99) : 0)
+                .build();
+    }
+
+    /**
+     * 当前日期的累加器索引，跨天时切换
+     */
+    private DayBucket currentDay() {
+        DayBucket day = currentDay;
+        if (System.currentTimeMillis() < day.endMillis) {
+            return day;
+        }
+        synchronized (this) {
+            day = currentDay;
+            if (System.currentTimeMillis() >= day.endMillis) {
+                day = DayBucket.of(LocalDate.now());
+                currentDay = day;
+            }
+            return day;
+        }
+    }
+
+    /**
+     * 工具名只允许可打印ASCII且不含分隔符，长度受限
+     */
+    private static boolean isValidToolName(String toolName) {
+        if (toolName == null || toolName.isEmpty() || toolName.length() > MAX_TOOL_NAME_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < toolName.length(); i++) {
+            char c = toolName.charAt(i);
+            if (c <= ' ' || c > '~' || c == FIELD_SEPARATOR) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Histogram newHistogram() {
+        return new PackedHistogram(SIGNIFICANT_DIGITS);
+    }
+
+    private static String encodeHistogram(Histogram histogram) {
+        ByteBuffer buffer = ByteBuffer.allocate(histogram.getNeededByteBufferCapacity());
+        int length = histogram.encodeIntoCompressedByteBuffer(buffer);
+        return Base64.getEncoder().encodeToString(Arrays.copyOf(buffer.array(), length));
+    }
+
+    private static Histogram decodeHistogram(String encoded) throws DataFormatException {
+        ByteBuffer buffer = ByteBuffer.wrap(Base64.getDecoder().decode(encoded));
+        return Histogram.decodeFromCompressedByteBuffer(buffer, MAX_TRACKABLE_RESPONSE_TIME_MS);
+    }
+
+    private record StatsKey(String serviceId, LocalDate date) {
+    }
+
+    private record DayBucket(LocalDate date, long endMillis, ConcurrentHashMap<String, ServiceTools> services) {
+
+        static DayBucket of(LocalDate date) {
+            long endMillis = date.plusDays(1).atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            return new DayBucket(date, endMillis, new ConcurrentHashMap<>());
+        }
+    }
+
+    /**
+     * @param latency 本节点当天累计直方图的编码，本周期无新样本时为null
+     */
+    private record ToolSnapshot(String toolName, long totalCalls, long successCalls, long failedCalls,
+                                long totalResponseTime, long maxResponseTime, String latency) {
+    }
+
+    /**
+     * 单个服务单日的工具累加器集合，带基数上限
+     */
+    private static final class ServiceTools {
+
+        private final StatsKey key;
+        private final ConcurrentHashMap<String, ToolAccumulator> tools = new ConcurrentHashMap<>();
+        // 只在串行的刷新中访问
+        private int idleFlushes;
+
+        ServiceTools(StatsKey key) {
+            this.key = key;
+        }
+
+        /**
+         * 超过上限后新出现的工具归入other，已统计的工具不受影响
+         */
+        ToolAccumulator accumulator(String toolName, int maxTools) {
+            String name = isValidToolName(toolName) ? toolName : OTHER_TOOL;
+            ToolAccumulator accumulator = tools.get(name);
+            if (accumulator != null) {
+                return accumulator;
+            }
+            if (tools.size() >= maxTools) {
+                name = OTHER_TOOL;
+            }
+            return tools.computeIfAbsent(name, ToolAccumulator::new);
+        }
+
+        List<ToolSnapshot> drain() {
+            List<ToolSnapshot> snapshots = new ArrayList<>();
+            for (ToolAccumulator accumulator : tools.values()) {
+                ToolSnapshot snapshot = accumulator.drain();
+                if (snapshot != null) {
+                    snapshots.add(snapshot);
+                }
+            }
+            idleFlushes = snapshots.isEmpty() ? idleFlushes + 1 : 0;
+            return snapshots;
+        }
+
+        void restore(List<ToolSnapshot> snapshots) {
+            for (ToolSnapshot snapshot : snapshots) {
+                tools.computeIfAbsent(snapshot.toolName(), ToolAccumulator::new).restore(snapshot);
+            }
+        }
+
+        boolean idle() {
+            return idleFlushes >= 2;
+        }
+    }
+
+    /**
+     * 单个工具的统计累加器，与服务统计相同：LongAdder计数，HdrHistogram Recorder记录响应时间
+     */
+    private static final class ToolAccumulator {
+
+        private final String toolName;
+        private final LongAdder totalCalls = new LongAdder();
+        private final LongAdder successCalls = new LongAdder();
+        private final LongAdder failedCalls = new LongAdder();
+        private final LongAdder totalResponseTime = new LongAdder();
+        private final LongAccumulator maxResponseTime = new LongAccumulator(Math::max, 0);
+        private final Recorder latencyRecorder = new Recorder(SIGNIFICANT_DIGITS, true);
+        // 以下字段只在串行的刷新中访问
+        private final Histogram dayLatency = newHistogram();
+        private Histogram intervalLatency;
+
+        ToolAccumulator(String toolName) {
+            this.toolName = toolName;
+        }
+
+        void record(boolean success, long responseTimeMs) {
+            totalCalls.increment();
+            (success ? successCalls : failedCalls).increment();
+            totalResponseTime.add(responseTimeMs);
+            maxResponseTime.accumulate(responseTimeMs);
+            latencyRecorder.recordValue(Math.min(Math.max(responseTimeMs, 0), MAX_TRACKABLE_RESPONSE_TIME_MS));
+        }
+
+        /**
+         * @return 本周期增量，没有新调用时返回null
+         */
+        ToolSnapshot drain() {
+            intervalLatency = latencyRecorder.getIntervalHistogram(intervalLatency);
+            String latency = null;
+            if (intervalLatency.getTotalCount() > 0) {
+                dayLatency.add(intervalLatency);
+                latency = encodeHistogram(dayLatency);
+            }
+            long calls = totalCalls.sumThenReset();
+            if (calls == 0 && latency == null) {
+                return null;
+            }
+            return new ToolSnapshot(toolName, calls,
+                    successCalls.sumThenReset(),
+                    failedCalls.sumThenReset(),
+                    totalResponseTime.sumThenReset(),
+                    maxResponseTime.getThenReset(),
+                    latency);
+        }
+
+        /**
+         * 写入失败时把增量放回，等待下次刷新
+         * 直方图已累加到当天直方图，下次刷新会整体重写，不需要放回
+         */
+        void restore(ToolSnapshot snapshot) {
+            totalCalls.add(snapshot.totalCalls());
+            successCalls.add(snapshot.successCalls());
+            failedCalls.add(snapshot.failedCalls());
+            totalResponseTime.add(snapshot.totalResponseTime());
+            maxResponseTime.accumulate(snapshot.maxResponseTime());
+        }
+    }
+}
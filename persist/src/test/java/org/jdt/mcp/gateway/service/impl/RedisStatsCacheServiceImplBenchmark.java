@@ -0,0 +1,92 @@
+package org.jdt.mcp.gateway.service.impl;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import reactor.core.publisher.Flux;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 4个线程并发记录请求统计，后台每秒刷新一次（Redis为mock）
+ * gc.alloc.rate.norm 应接近0：已出现过的服务和用户，记录路径不分配内存
+ * 运行：mvn -pl persist -am test -Pbenchmark -Dtest=RedisStatsCacheServiceImplBenchmark -Dsurefire.failIfNoSpecifiedTests=false
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class RedisStatsCacheServiceImplBenchmark {
+
+    private static final int USERS = 1024;
+    private static final String[] SERVICES = {"svc-a", "svc-b", "svc-c", "svc-d"};
+
+    private RedisStatsCacheServiceImpl service;
+    private ScheduledExecutorService flusher;
+    private String[] users;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        ReactiveStringRedisTemplate redisTemplate = mock(ReactiveStringRedisTemplate.class);
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), anyList())).thenReturn(Flux.just(1L));
+        service = new RedisStatsCacheServiceImpl(redisTemplate);
+        users = new String[USERS];
+        for (int i = 0; i < USERS; i++) {
+            users[i] = "user-" + i;
+        }
+        flusher = Executors.newSingleThreadScheduledExecutor();
+        flusher.scheduleAtFixedRate(() -> service.flushPendingStats().block(), 1, 1, TimeUnit.SECONDS);
+    }
+
+    @TearDown
+    public void tearDown() {
+        flusher.shutdownNow();
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Benchmark
+    public void recordRequestStats(Cursor cursor) {
+        int i = cursor.next++;
+        service.recordRequestStats(SERVICES[i & 3], users[i & (USERS - 1)], (i & 15) == 0 ? 500 : 200, i & 127);
+    }
+
+    @Tag("benchmark")
+    @Test
+    void run() throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(RedisStatsCacheServiceImplBenchmark.class.getName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,152 @@
+package org.jdt.mcp.gateway.service.impl;
+
+import com.sun.management.ThreadMXBean;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import reactor.core.publisher.Flux;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.util.Base64;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+class RedisStatsCacheServiceImplTest {
+
+    private static final int THREADS = 4;
+    private static final int REQUESTS_PER_THREAD = 25_000;
+    private static final int USERS = 500;
+
+    private final AtomicLong flushedTotal = new AtomicLong();
+    private final AtomicLong flushedSuccess = new AtomicLong();
+    private final AtomicLong flushedFailed = new AtomicLong();
+    private final AtomicLong flushedResponseTime = new AtomicLong();
+    private final Set<String> flushedUsers = ConcurrentHashMap.newKeySet();
+    // 本节点写入的当天累计直方图，取样本最多的一次（并发刷新的写入顺序不确定）
+    private final AtomicReference<Histogram> flushedLatency = new AtomicReference<>();
+
+    /**
+     * 4个线程共记录10万次请求，期间并发执行定时刷新和停机刷新
+     * 写入Redis的增量之和、直方图内容必须与记录的请求完全一致，既不丢失也不重复
+     * 吞吐量见RedisStatsCacheServiceImplBenchmark
+     */
+    @Test
+    void concurrentRecordingAndFlushingIsExact() throws Exception {
+        RedisStatsCacheServiceImpl service = new RedisStatsCacheServiceImpl(mockRedis());
+
+        ExecutorService recorders = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            recorders.submit(() -> {
+                start.await();
+                for (int i = 0; i < REQUESTS_PER_THREAD; i++) {
+                    int status = i % 10 == 0 ? 500 : 200;
+                    service.recordRequestStats("svc", "user-" + (i % USERS), status, i % 100);
+                }
+                return thread;
+            });
+        }
+
+        AtomicBoolean recording = new AtomicBoolean(true);
+        Thread scheduledFlush = flushLoop(service, recording);
+        Thread shutdownFlush = flushLoop(service, recording);
+        start.countDown();
+        recorders.shutdown();
+        assertThat(recorders.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+        recording.set(false);
+        scheduledFlush.join();
+        shutdownFlush.join();
+        service.flushPendingStats().block();
+
+        long total = (long) THREADS * REQUESTS_PER_THREAD;
+        assertThat(flushedTotal.get()).isEqualTo(total);
+        assertThat(flushedFailed.get()).isEqualTo(total / 10);
+        assertThat(flushedSuccess.get()).isEqualTo(total - total / 10);
+        // 每个线程的响应时间为 0..99 循环，REQUESTS_PER_THREAD是100的整数倍
+        assertThat(flushedResponseTime.get()).isEqualTo(THREADS * (REQUESTS_PER_THREAD / 100L) * 4950);
+        assertThat(flushedUsers).hasSize(USERS);
+
+        // 响应时间0..99各出现 total/100 次，2位有效数字下256以内的值精确记录
+        Histogram latency = flushedLatency.get();
+        assertThat(latency.getTotalCount()).isEqualTo(total);
+        for (int value = 0; value < 100; value++) {
+            assertThat(latency.getCountAtValue(value)).isEqualTo(total / 100);
+        }
+        assertThat(latency.getMaxValue()).isEqualTo(99);
+        assertThat(latency.getValueAtPercentile(50)).isEqualTo(49);
+    }
+
+    /**
+     * 已出现过的服务和用户，记录一次请求不分配内存
+     */
+    @Test
+    void recordingKnownUsersDoesNotAllocate() {
+        RedisStatsCacheServiceImpl service = new RedisStatsCacheServiceImpl(mockRedis());
+        String[] users = new String[USERS];
+        for (int i = 0; i < USERS; i++) {
+            users[i] = "user-" + i;
+        }
+        for (int i = 0; i < 20_000; i++) {
+            service.recordRequestStats("svc", users[i % USERS], 200, i % 100);
+        }
+
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < 100_000; i++) {
+            service.recordRequestStats("svc", users[i % USERS], i % 10 == 0 ? 500 : 200, i % 100);
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        // 留出测量调用本身的余量，远小于每次记录1字节
+        assertThat(allocated).isLessThan(4096);
+    }
+
+    private static Thread flushLoop(RedisStatsCacheServiceImpl service, AtomicBoolean recording) {
+        Thread thread = new Thread(() -> {
+            while (recording.get()) {
+                service.flushPendingStats().block();
+            }
+        });
+        thread.start();
+        return thread;
+    }
+
+    @SuppressWarnings("unchecked")
+    private ReactiveStringRedisTemplate mockRedis() {
+        ReactiveStringRedisTemplate redisTemplate = mock(ReactiveStringRedisTemplate.class);
+        doAnswer(invocation -> {
+            List<String> args = invocation.getArgument(2);
+            flushedTotal.addAndGet(Long.parseLong(args.get(0)));
+            flushedSuccess.addAndGet(Long.parseLong(args.get(1)));
+            flushedFailed.addAndGet(Long.parseLong(args.get(2)));
+            flushedResponseTime.addAndGet(Long.parseLong(args.get(3)));
+            flushedUsers.addAll(args.subList(9, args.size()));
+            if (!args.get(8).isEmpty()) {
+                Histogram latency = Histogram.decodeFromCompressedByteBuffer(
+                        ByteBuffer.wrap(Base64.getDecoder().decode(args.get(8))), 0);
+                flushedLatency.accumulateAndGet(latency, (current, next) ->
+                        current == null || next.getTotalCount() > current.getTotalCount() ? next : current);
+            }
+            return Flux.just(1L);
+        }).when(redisTemplate).execute(any(RedisScript.class), anyList(), anyList());
+        return redisTemplate;
+    }
+}
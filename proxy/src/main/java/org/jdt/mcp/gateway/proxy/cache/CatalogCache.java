@@ -0,0 +1,269 @@
+package org.jdt.mcp.gateway.proxy.cache;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.jdt.mcp.gateway.core.config.ProxyConfig;
+import org.jdt.mcp.gateway.core.constant.JsonRpcAttributes;
+import org.jdt.mcp.gateway.service.RedisCatalogInvalidationService;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * MCP目录缓存
+ * 缓存 tools/list、prompts/list、resources/list 响应中的result，按 (服务, 方法, 游标, 目录版本) 索引，命中时由网关直接响应
+ * 上游任一SSE流发出对应的 list_changed 通知时目录版本加一，旧版本条目不再命中，并广播给其他节点；条目另有TTL兜底
+ * 只缓存Streamable HTTP的JSON响应，旧版SSE传输的结果从GET流返回，无法与请求对应
+ */
+@Slf4j
+@Component
+public class CatalogCache {
+
+    /**
+     * 未命中的目录请求，响应阶段据此捕获结果
+     */
+    public static final String MISS_ATTRIBUTE = "catalogCacheMiss";
+
+    // list_changed 通知 -> 失效的目录方法
+    private static final Map<String, String> LIST_CHANGED_NOTIFICATIONS = Map.of(
+            "notifications/tools/list_changed", "tools/list",
+            "notifications/prompts/list_changed", "prompts/list",
+            "notifications/resources/list_changed", "resources/list"
+    );
+
+    private final ProxyConfig proxyConfig;
+    private final MeterRegistry meterRegistry;
+    private final RedisCatalogInvalidationService invalidationService;
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    private final Cache<CatalogKey, byte[]> cache;
+    // 目录版本，key为 {serviceId}|{method}
+    private final ConcurrentHashMap<String, CatalogVersion> versions = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, ServiceMetrics> metricsByService = new ConcurrentHashMap<>();
+
+    private Disposable invalidationSubscription;
+
+    public CatalogCache(ProxyConfig proxyConfig, MeterRegistry meterRegistry,
+                        RedisCatalogInvalidationService invalidationService) {
+        this.proxyConfig = proxyConfig;
+        this.meterRegistry = meterRegistry;
+        this.invalidationService = invalidationService;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(proxyConfig.getCatalogCacheMaxSize())
+                .expireAfterWrite(proxyConfig.getCatalogCacheTtl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "mcp.catalog");
+    }
+
+    @PostConstruct
+    public void subscribeInvalidations() {
+        if (!proxyConfig.isCatalogCacheEnabled()) {
+            return;
+        }
+        invalidationSubscription = invalidationService.subscribeInvalidations()
+                .doOnNext(invalidation -> invalidateLocal(invalidation.serviceId(), invalidation.method()))
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1))
+                        .maxBackoff(Duration.ofSeconds(30))
+                        .doBeforeRetry(signal -> log.warn("Catalog invalidation subscription failed, retrying: {}",
+                                signal.failure().getMessage())))
+                .subscribe();
+        log.info("Subscribed to catalog invalidation channel");
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (invalidationSubscription != null) {
+            invalidationSubscription.dispose();
+        }
+    }
+
+    public boolean isEnabled() {
+        return proxyConfig.isCatalogCacheEnabled();
+    }
+
+    /**
+     * 按请求body解析出的JSON-RPC信息查找目录缓存
+     * @return 不是可缓存的目录请求（方法不匹配、批量请求、信封未完整解析）时返回null
+     */
+    public Lookup lookup(String serviceId, Map<String, Object> attributes) {
+        if (!proxyConfig.isCatalogCacheEnabled()
+                || !(attributes.get(JsonRpcAttributes.METHOD) instanceof String method)
+                || !LIST_CHANGED_NOTIFICATIONS.containsValue(method)
+                || !(attributes.get(JsonRpcAttributes.ID) instanceof String id)
+                || !Boolean.TRUE.equals(attributes.get(JsonRpcAttributes.PARSED))) {
+            return null;
+        }
+        String cursor = (String) attributes.get(JsonRpcAttributes.CURSOR);
+        CatalogVersion version = versions.computeIfAbsent(versionKey(serviceId, method), k -> new CatalogVersion());
+        CatalogKey key = new CatalogKey(serviceId, method, cursor != null ? cursor : "", version.current.get());
+
+        byte[] result = cache.getIfPresent(key);
+        ServiceMetrics metrics = metrics(serviceId);
+        if (result != null) {
+            metrics.hits.increment();
+        } else {
+            metrics.misses.increment();
+        }
+        return new Lookup(key, version, id, result);
+    }
+
+    /**
+     * 用缓存的result响应请求，id取自当前请求
+     */
+    public Mono<Void> writeCached(ServerWebExchange exchange, Lookup lookup) {
+        return JsonRpcResponses.writeResult(exchange.getResponse(), lookup.id, lookup.result);
+    }
+
+    /**
+     * 透传上游的JSON响应，同时拷贝一份，响应结束后取出result写入缓存
+     * 超过catalogCacheMaxBytes或响应为JSON-RPC错误时不缓存
+     */
+    public Flux<DataBuffer> capture(Flux<DataBuffer> body, Lookup miss) {
+        return Flux.defer(() -> {
+            ResponseCapture capture = new ResponseCapture(proxyConfig.getCatalogCacheMaxBytes());
+            return body.doOnNext(capture::append)
+                    .doOnComplete(() -> store(miss, capture));
+        });
+    }
+
+    /**
+     * 上游SSE流发出通知时调用，list_changed 通知让对应目录失效
+     * 本节点确实缓存过该目录时才广播，同一次变更在多条流上重复出现只广播一次
+     */
+    public void onNotification(String serviceId, String notificationMethod) {
+        String method = LIST_CHANGED_NOTIFICATIONS.get(notificationMethod);
+        if (method == null) {
+            return;
+        }
+        if (invalidateLocal(serviceId, method)) {
+            invalidationService.publishInvalidation(serviceId, method).subscribe();
+        }
+    }
+
+    /**
+     * @return 失效前本节点是否缓存过该目录
+     */
+    private boolean invalidateLocal(String serviceId, String method) {
+        CatalogVersion version = versions.get(versionKey(serviceId, method));
+        if (version == null) {
+            return false;
+        }
+        version.current.incrementAndGet();
+        boolean cached = version.cached.getAndSet(false);
+        metrics(serviceId).invalidations.increment();
+        log.debug("Invalidated catalog cache for service {}: {}", serviceId, method);
+        return cached;
+    }
+
+    /**
+     * 请求期间目录已失效时，结果以旧版本写入，不会再被命中
+     */
+    private void store(Lookup miss, ResponseCapture capture) {
+        try {
+            byte[] result = capture.result(jsonFactory);
+            if (result != null) {
+                cache.put(miss.key, result);
+                miss.version.cached.set(true);
+            }
+        } catch (IOException | RuntimeException e) {
+            log.debug("Skipping catalog cache for service {}: {}", miss.key.serviceId(), e.getMessage());
+        }
+    }
+
+    private static String versionKey(String serviceId, String method) {
+        return serviceId + '|' + method;
+    }
+
+    private ServiceMetrics metrics(String serviceId) {
+        ServiceMetrics metrics = metricsByService.get(serviceId);
+        if (metrics == null) {
+            metrics = metricsByService.computeIfAbsent(serviceId, id -> new ServiceMetrics(meterRegistry, id));
+        }
+        return metrics;
+    }
+
+    private record CatalogKey(String serviceId, String method, String cursor, long version) {
+    }
+
+    private static final class CatalogVersion {
+        final AtomicLong current = new AtomicLong();
+        // 当前版本是否写入过缓存
+        final AtomicBoolean cached = new AtomicBoolean();
+    }
+
+    /**
+     * 一次目录缓存查找的结果，未命中时保存到exchange属性，响应阶段据此写入缓存
+     */
+    public static final class Lookup {
+        private final CatalogKey key;
+        private final CatalogVersion version;
+        private final String id;
+        private final byte[] result;
+
+        private Lookup(CatalogKey key, CatalogVersion version, String id, byte[] result) {
+            this.key = key;
+            this.version = version;
+            this.id = id;
+            this.result = result;
+        }
+
+        public boolean isHit() {
+            return result != null;
+        }
+    }
+
+    /**
+     * 单个服务的目录缓存指标，命中次数即节省的上游调用次数
+     */
+    private static final class ServiceMetrics {
+        final Counter hits;
+        final Counter misses;
+        final Counter invalidations;
+
+        ServiceMetrics(MeterRegistry meterRegistry, String serviceId) {
+            hits = Counter.builder("proxy.catalog.requests")
+                    .description("目录请求数，命中即节省的上游调用")
+                    .tag("service", serviceId)
+                    .tag("result", "hit")
+                    .register(meterRegistry);
+            misses = Counter.builder("proxy.catalog.requests")
+                    .description("目录请求数，命中即节省的上游调用")
+                    .tag("service", serviceId)
+                    .tag("result", "miss")
+                    .register(meterRegistry);
+            invalidations = Counter.builder("proxy.catalog.invalidations")
+                    .description("收到 list_changed 后的目录失效次数")
+                    .tag("service", serviceId)
+                    .register(meterRegistry);
+            Gauge.builder("proxy.catalog.hit.ratio", this, ServiceMetrics::hitRatio)
+                    .description("目录缓存命中率")
+                    .tag("service", serviceId)
+                    .register(meterRegistry);
+        }
+
+        double hitRatio() {
+            double total = hits.count() + misses.count();
+            return total > 0 ? hits.count() / total : 0;
+        }
+    }
+}
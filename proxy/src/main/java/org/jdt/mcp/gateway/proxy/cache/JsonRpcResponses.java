@@ -0,0 +1,41 @@
+package org.jdt.mcp.gateway.proxy.cache;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 由网关直接生成的JSON-RPC响应
+ */
+final class JsonRpcResponses {
+
+    private static final byte[] RESPONSE_PREFIX = "{\"jsonrpc\":\"2.0\",\"id\":".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] RESULT_FIELD = ",\"result\":".getBytes(StandardCharsets.US_ASCII);
+
+    private JsonRpcResponses() {
+    }
+
+    /**
+     * 用缓存的result响应请求
+     * @param id 当前请求id的JSON字面量
+     */
+    static Mono<Void> writeResult(ServerHttpResponse response, String id, byte[] result) {
+        byte[] idBytes = id.getBytes(StandardCharsets.UTF_8);
+        int length = RESPONSE_PREFIX.length + idBytes.length + RESULT_FIELD.length + result.length + 1;
+
+        response.setStatusCode(HttpStatus.OK);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        response.getHeaders().setContentLength(length);
+        DataBuffer buffer = response.bufferFactory().allocateBuffer(length)
+                .write(RESPONSE_PREFIX)
+                .write(idBytes)
+                .write(RESULT_FIELD)
+                .write(result)
+                .write((byte) '}');
+        return response.writeWith(Mono.just(buffer));
+    }
+}
@@ -0,0 +1,83 @@
+package org.jdt.mcp.gateway.proxy.cache;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.springframework.core.io.buffer.DataBuffer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * 透传中的JSON-RPC响应body的拷贝，超过上限后放弃
+ * 响应结束后取出顶层result的原始字节写入缓存，每个响应一个实例，非线程安全
+ */
+final class ResponseCapture {
+
+    private static final int INITIAL_CAPACITY = 4096;
+
+    private final int maxBytes;
+    private byte[] bytes = new byte[INITIAL_CAPACITY];
+    private int size;
+    private boolean overflow;
+
+    ResponseCapture(int maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    void append(DataBuffer buffer) {
+        if (overflow) {
+            return;
+        }
+        int length = buffer.readableByteCount();
+        if (size + length > maxBytes) {
+            overflow = true;
+            bytes = null;
+            return;
+        }
+        if (size + length > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.min(maxBytes, Math.max(size + length, bytes.length * 2)));
+        }
+        try (DataBuffer.ByteBufferIterator iterator = buffer.readableByteBuffers()) {
+            while (iterator.hasNext()) {
+                ByteBuffer view = iterator.next();
+                int remaining = view.remaining();
+                view.get(bytes, size, remaining);
+                size += remaining;
+            }
+        }
+    }
+
+    /**
+     * 顶层result对象的原始字节
+     * @return 超过上限、响应包含error或没有result对象时返回null
+     */
+    byte[] result(JsonFactory jsonFactory) throws IOException {
+        if (overflow) {
+            return null;
+        }
+        try (JsonParser parser = jsonFactory.createParser(bytes, 0, size)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            byte[] result = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("error".equals(field)) {
+                    return null;
+                }
+                if ("result".equals(field) && value == JsonToken.START_OBJECT) {
+                    int start = (int) parser.currentTokenLocation().getByteOffset();
+                    parser.skipChildren();
+                    int end = (int) parser.currentLocation().getByteOffset();
+                    result = Arrays.copyOfRange(bytes, start, end);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            return result;
+        }
+    }
+}
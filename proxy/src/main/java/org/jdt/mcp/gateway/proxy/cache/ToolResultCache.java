@@ -0,0 +1,452 @@
+package org.jdt.mcp.gateway.proxy.cache;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.cfg.JsonNodeFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.jdt.mcp.gateway.core.config.ProxyConfig;
+import org.jdt.mcp.gateway.core.entity.ToolPolicy;
+import org.jdt.mcp.gateway.service.RedisToolResultCacheService;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 工具结果缓存
+ * 只缓存服务tool_policies中标记为cacheable的工具，key为 (服务, 工具, 规范化参数的SHA-256)
+ * 本地按字节数限制大小，可选Redis二级缓存在节点间共享；条目按工具策略的TTL过期
+ * JSON-RPC错误和 isError 为true的工具结果不缓存
+ * 请求头 Cache-Control: no-cache 或 X-MCP-Cache-Bypass（工具名列表，* 表示全部）跳过缓存读取，结果仍会写入
+ * 标记为readOnly的工具在缓存之后再做并发合并：相同key的调用同时只有一个发往上游，其余调用等待其结果并用各自的id响应
+ */
+@Slf4j
+@Component
+public class ToolResultCache {
+
+    /**
+     * 未命中（或跳过）缓存、或合并调用中负责请求上游的工具调用，响应阶段据此写入缓存并分发结果
+     */
+    public static final String MISS_ATTRIBUTE = "toolCacheMiss";
+
+    /**
+     * 响应头，取值 HIT、MISS、BYPASS、COALESCED
+     */
+    public static final String CACHE_STATUS_HEADER = "X-MCP-Cache";
+
+    /**
+     * 请求头，逗号分隔的工具名，* 表示所有工具
+     */
+    public static final String BYPASS_HEADER = "X-MCP-Cache-Bypass";
+
+    private final ProxyConfig proxyConfig;
+    private final MeterRegistry meterRegistry;
+    private final RedisToolResultCacheService redisCacheService;
+    private final JsonFactory jsonFactory = new JsonFactory();
+    // 对象字段按名称排序输出，参数字段顺序不同也得到相同的哈希
+    private final ObjectMapper canonicalMapper = JsonMapper.builder()
+            .enable(JsonNodeFeature.WRITE_PROPERTIES_SORTED)
+            .build();
+
+    private final Cache<ToolKey, CachedResult> cache;
+    // 进行中的只读工具调用
+    private final ConcurrentHashMap<ToolKey, Flight> inFlight = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, ToolMetrics> metricsByTool = new ConcurrentHashMap<>();
+
+    public ToolResultCache(ProxyConfig proxyConfig, MeterRegistry meterRegistry,
+                           RedisToolResultCacheService redisCacheService) {
+        this.proxyConfig = proxyConfig;
+        this.meterRegistry = meterRegistry;
+        this.redisCacheService = redisCacheService;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(proxyConfig.getToolCacheMaxBytes())
+                .<ToolKey, CachedResult>weigher((key, value) -> value.result().length)
+                .expireAfter(Expiry.creating((ToolKey key, CachedResult value) ->
+                        Duration.ofMillis(Math.max(0, value.expiresAtMillis() - System.currentTimeMillis()))))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "mcp.tool.result");
+    }
+
+    /**
+     * 可能命中缓存或参与合并的请求：工具开启了缓存或标记为只读，并且body大小已知且不超过toolCacheMaxRequestBytes
+     */
+    public boolean isCandidate(ServerHttpRequest request, ToolPolicy policy) {
+        if (!isCacheable(policy) && !isCoalescable(policy)) {
+            return false;
+        }
+        long contentLength = request.getHeaders().getContentLength();
+        return contentLength > 0 && contentLength <= proxyConfig.getToolCacheMaxRequestBytes();
+    }
+
+    /**
+     * 解析完整的请求body，依次查找本地缓存和Redis
+     * @param body 完整的请求body
+     * @return 总是有值，无法解析的请求返回不可缓存的结果
+     */
+    public Mono<Lookup> lookup(ServerWebExchange exchange, String serviceId, String toolName, ToolPolicy policy,
+                               byte[] body) {
+        Lookup lookup;
+        try {
+            lookup = parse(exchange.getRequest(), serviceId, toolName, policy, body);
+        } catch (IOException | RuntimeException e) {
+            log.debug("Skipping tool result cache for service {} tool {}: {}", serviceId, toolName, e.getMessage());
+            return Mono.just(Lookup.UNCACHEABLE);
+        }
+        if (lookup == Lookup.UNCACHEABLE || !isCacheable(policy)) {
+            return Mono.just(lookup);
+        }
+
+        ToolMetrics metrics = metrics(serviceId, toolName);
+        if (lookup.status == CacheStatus.BYPASS) {
+            metrics.bypasses.increment();
+            return Mono.just(lookup);
+        }
+        CachedResult cached = cache.getIfPresent(lookup.key);
+        if (cached != null) {
+            metrics.localHits.increment();
+            return Mono.just(lookup.hit(cached.result()));
+        }
+        if (!proxyConfig.isToolCacheRedisEnabled()) {
+            metrics.misses.increment();
+            return Mono.just(lookup);
+        }
+        ToolKey key = lookup.key;
+        return redisCacheService.get(key.serviceId(), key.toolName(), key.argumentsHash())
+                .map(remote -> {
+                    byte[] result = remote.result().getBytes(StandardCharsets.UTF_8);
+                    cache.put(key, new CachedResult(result, remote.expiresAtMillis()));
+                    metrics.redisHits.increment();
+                    return lookup.hit(result);
+                })
+                .onErrorResume(error -> Mono.empty())
+                .switchIfEmpty(Mono.fromSupplier(() -> {
+                    metrics.misses.increment();
+                    return lookup;
+                }));
+    }
+
+    /**
+     * 用缓存的result响应请求，id取自当前请求
+     */
+    public Mono<Void> writeCached(ServerWebExchange exchange, Lookup lookup) {
+        exchange.getResponse().getHeaders().set(CACHE_STATUS_HEADER, CacheStatus.HIT.name());
+        return JsonRpcResponses.writeResult(exchange.getResponse(), lookup.id, lookup.result);
+    }
+
+    /**
+     * 只读工具未命中缓存时加入同key的进行中调用
+     * @return 第一个调用成为leader，由它请求上游并在结束后调用release；其余调用成为follower，等待leader的结果；
+     *         不参与合并时原样返回
+     */
+    public Lookup join(Lookup lookup) {
+        if (!lookup.isCacheable() || !isCoalescable(lookup.policy)) {
+            return lookup;
+        }
+        Flight flight = new Flight();
+        Flight existing = inFlight.putIfAbsent(lookup.key, flight);
+        return existing == null ? lookup.withFlight(flight, true) : lookup.withFlight(existing, false);
+    }
+
+    /**
+     * follower等待leader的结果，用自己的id响应
+     * @return 是否已响应，leader没有拿到可分发的结果（上游失败、JSON-RPC错误、SSE响应、结果过大）时返回false，由调用方自行转发
+     */
+    public Mono<Boolean> awaitLeader(ServerWebExchange exchange, Lookup follower) {
+        return follower.flight.result.asMono()
+                .flatMap(result -> {
+                    if (result.isEmpty()) {
+                        return Mono.just(false);
+                    }
+                    metrics(follower.key.serviceId(), follower.key.toolName()).coalesced.increment();
+                    exchange.getResponse().getHeaders().set(CACHE_STATUS_HEADER, CacheStatus.COALESCED.name());
+                    return JsonRpcResponses.writeResult(exchange.getResponse(), follower.id, result.get())
+                            .thenReturn(true);
+                });
+    }
+
+    /**
+     * leader结束，没有分发过结果时通知follower自行转发，之后的相同调用发起新的合并
+     */
+    public void release(Lookup lookup) {
+        if (lookup.leader) {
+            complete(lookup, null);
+        }
+    }
+
+    /**
+     * 响应头标识缓存状态，只有开启了缓存的工具才有
+     */
+    public void setStatusHeader(ServerWebExchange exchange, Lookup miss) {
+        if (isCacheable(miss.policy)) {
+            exchange.getResponse().getHeaders().set(CACHE_STATUS_HEADER, miss.status.name());
+        }
+    }
+
+    /**
+     * 透传上游的JSON响应，同时拷贝一份，响应结束后取出result写入缓存并分发给follower
+     */
+    public Flux<DataBuffer> capture(Flux<DataBuffer> body, Lookup miss) {
+        int maxEntryBytes = miss.policy.getCacheMaxEntryBytes() != null
+                ? miss.policy.getCacheMaxEntryBytes() : proxyConfig.getToolCacheDefaultMaxEntryBytes();
+        return Flux.defer(() -> {
+            // result外还有jsonrpc和id字段，留出余量
+            ResponseCapture capture = new ResponseCapture(maxEntryBytes + 256);
+            return body.doOnNext(capture::append)
+                    .doOnComplete(() -> store(miss, capture, maxEntryBytes));
+        });
+    }
+
+    private Lookup parse(ServerHttpRequest request, String serviceId, String toolName, ToolPolicy policy,
+                         byte[] body) throws IOException {
+        JsonNode root = canonicalMapper.readTree(body);
+        JsonNode id = root.path("id");
+        JsonNode params = root.path("params");
+        if (!"tools/call".equals(root.path("method").asText()) || !toolName.equals(params.path("name").asText())
+                || !(id.isTextual() || id.isIntegralNumber())) {
+            return Lookup.UNCACHEABLE;
+        }
+        JsonNode arguments = params.path("arguments");
+        if (arguments.isMissingNode() || arguments.isNull()) {
+            arguments = JsonNodeFactory.instance.objectNode();
+        }
+        String argumentsHash = sha256(canonicalMapper.writeValueAsBytes(arguments));
+        CacheStatus status = isBypassed(request.getHeaders(), toolName) ? CacheStatus.BYPASS : CacheStatus.MISS;
+        return new Lookup(new ToolKey(serviceId, toolName, argumentsHash), policy, id.toString(), null, status);
+    }
+
+    private static boolean isBypassed(HttpHeaders headers, String toolName) {
+        String cacheControl = headers.getCacheControl();
+        if (cacheControl != null && cacheControl.contains("no-cache")) {
+            return true;
+        }
+        String bypass = headers.getFirst(BYPASS_HEADER);
+        if (bypass == null) {
+            return false;
+        }
+        for (String tool : bypass.split(",")) {
+            String trimmed = tool.trim();
+            if ("*".equals(trimmed) || toolName.equals(trimmed)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void store(Lookup miss, ResponseCapture capture, int maxEntryBytes) {
+        try {
+            byte[] result = capture.result(jsonFactory);
+            if (result == null || result.length > maxEntryBytes) {
+                return;
+            }
+            // isError的结果同样是这次调用的结果，可以分发，但不缓存
+            complete(miss, result);
+            if (!isCacheable(miss.policy) || isToolError(result)) {
+                return;
+            }
+            Duration ttl = miss.policy.getCacheTtlSeconds() != null
+                    ? Duration.ofSeconds(miss.policy.getCacheTtlSeconds()) : proxyConfig.getToolCacheDefaultTtl();
+            long expiresAtMillis = System.currentTimeMillis() + ttl.toMillis();
+            ToolKey key = miss.key;
+            cache.put(key, new CachedResult(result, expiresAtMillis));
+            if (proxyConfig.isToolCacheRedisEnabled()) {
+                redisCacheService.put(key.serviceId(), key.toolName(), key.argumentsHash(),
+                                new String(result, StandardCharsets.UTF_8), expiresAtMillis)
+                        .onErrorResume(error -> Mono.empty())
+                        .subscribe();
+            }
+        } catch (IOException | RuntimeException e) {
+            log.debug("Skipping tool result cache for service {} tool {}: {}",
+                    miss.key.serviceId(), miss.key.toolName(), e.getMessage());
+        }
+    }
+
+    private void complete(Lookup lookup, byte[] result) {
+        Flight flight = lookup.flight;
+        if (flight == null || !lookup.leader) {
+            return;
+        }
+        // 先移除，之后到达的相同调用不会再拿到已结束的合并
+        inFlight.remove(lookup.key, flight);
+        flight.result.tryEmitValue(Optional.ofNullable(result));
+    }
+
+    private boolean isCacheable(ToolPolicy policy) {
+        return proxyConfig.isToolCacheEnabled() && policy != null && Boolean.TRUE.equals(policy.getCacheable());
+    }
+
+    private boolean isCoalescable(ToolPolicy policy) {
+        return proxyConfig.isToolCoalesceEnabled() && policy != null && Boolean.TRUE.equals(policy.getReadOnly());
+    }
+
+    /**
+     * 工具执行失败时MCP返回 isError 为true的result，不缓存
+     */
+    private boolean isToolError(byte[] result) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(result)) {
+            parser.nextToken();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("isError".equals(field)) {
+                    return value == JsonToken.VALUE_TRUE;
+                }
+                parser.skipChildren();
+            }
+            return false;
+        }
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private ToolMetrics metrics(String serviceId, String toolName) {
+        String key = serviceId + '|' + toolName;
+        ToolMetrics metrics = metricsByTool.get(key);
+        if (metrics == null) {
+            metrics = metricsByTool.computeIfAbsent(key, k -> new ToolMetrics(meterRegistry, serviceId, toolName));
+        }
+        return metrics;
+    }
+
+    private record ToolKey(String serviceId, String toolName, String argumentsHash) {
+    }
+
+    private record CachedResult(byte[] result, long expiresAtMillis) {
+    }
+
+    public enum CacheStatus {
+        HIT, MISS, BYPASS, COALESCED
+    }
+
+    /**
+     * 一次进行中的上游调用，leader结束时发出结果，没有可分发的结果时为空
+     */
+    private static final class Flight {
+        final Sinks.One<Optional<byte[]>> result = Sinks.one();
+    }
+
+    /**
+     * 一次工具结果缓存查找的结果，未命中时保存到exchange属性，响应阶段据此写入缓存
+     */
+    public static final class Lookup {
+
+        static final Lookup UNCACHEABLE = new Lookup(null, null, null, null, null, null, false);
+
+        private final ToolKey key;
+        private final ToolPolicy policy;
+        private final String id;
+        private final byte[] result;
+        private final CacheStatus status;
+        private final Flight flight;
+        private final boolean leader;
+
+        private Lookup(ToolKey key, ToolPolicy policy, String id, byte[] result, CacheStatus status,
+                       Flight flight, boolean leader) {
+            this.key = key;
+            this.policy = policy;
+            this.id = id;
+            this.result = result;
+            this.status = status;
+            this.flight = flight;
+            this.leader = leader;
+        }
+
+        private Lookup(ToolKey key, ToolPolicy policy, String id, byte[] result, CacheStatus status) {
+            this(key, policy, id, result, status, null, false);
+        }
+
+        private Lookup hit(byte[] result) {
+            return new Lookup(key, policy, id, result, CacheStatus.HIT);
+        }
+
+        private Lookup withFlight(Flight flight, boolean leader) {
+            return new Lookup(key, policy, id, result, status, flight, leader);
+        }
+
+        /**
+         * 请求可以解析出缓存key
+         */
+        public boolean isCacheable() {
+            return key != null;
+        }
+
+        public boolean isLeader() {
+            return leader;
+        }
+
+        public boolean isFollower() {
+            return flight != null && !leader;
+        }
+
+        public boolean isHit() {
+            return result != null;
+        }
+
+        public CacheStatus getStatus() {
+            return status;
+        }
+    }
+
+    /**
+     * 单个工具的缓存指标，hit即节省的上游调用
+     */
+    private static final class ToolMetrics {
+        final Counter localHits;
+        final Counter redisHits;
+        final Counter misses;
+        final Counter bypasses;
+        final Counter coalesced;
+
+        ToolMetrics(MeterRegistry meterRegistry, String serviceId, String toolName) {
+            localHits = counter(meterRegistry, serviceId, toolName, "hit_local");
+            redisHits = counter(meterRegistry, serviceId, toolName, "hit_redis");
+            misses = counter(meterRegistry, serviceId, toolName, "miss");
+            bypasses = counter(meterRegistry, serviceId, toolName, "bypass");
+            coalesced = Counter.builder("proxy.tool.coalesced")
+                    .description("合并到进行中调用的工具调用次数，即节省的上游调用")
+                    .tag("service", serviceId)
+                    .tag("tool", toolName)
+                    .register(meterRegistry);
+        }
+
+        private static Counter counter(MeterRegistry meterRegistry, String serviceId, String toolName,
+                                       String result) {
+            return Counter.builder("proxy.tool.cache.requests")
+                    .description("可缓存工具的调用次数，按缓存结果区分")
+                    .tag("service", serviceId)
+                    .tag("tool", toolName)
+                    .tag("result", result)
+                    .register(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package org.jdt.mcp.gateway.proxy.client;
+
+import io.netty.channel.ChannelOption;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.jdt.mcp.gateway.core.config.ProxyConfig;
+import org.jdt.mcp.gateway.core.entity.MCPServiceEntity;
+import org.jdt.mcp.gateway.core.entity.UpstreamProtocol;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 上游服务HTTP客户端注册表
+ * 每个MCP服务独占一个连接池，避免慢服务耗尽其他服务的连接
+ * 连接池配置未变化时复用已有客户端；配置变化或服务下线时旧连接池延迟一个请求超时周期后释放
+ */
+@Slf4j
+@Component
+public class UpstreamClientRegistry {
+
+    private final ProxyConfig proxyConfig;
+    private final Map<String, UpstreamClient> clients = new ConcurrentHashMap<>();
+
+    public UpstreamClientRegistry(ProxyConfig proxyConfig) {
+        this.proxyConfig = proxyConfig;
+    }
+
+    /**
+     * 获取服务对应的WebClient，必要时创建或按新配置重建连接池
+     */
+    public WebClient clientFor(MCPServiceEntity service) {
+        PoolSettings settings = PoolSettings.of(service, proxyConfig);
+        UpstreamClient client = clients.compute(service.getServiceId(), (serviceId, existing) -> {
+            if (existing != null && existing.settings().equals(settings)) {
+                return existing;
+            }
+            if (existing != null) {
+                log.info("Connection pool settings changed for service {}: {}", serviceId, settings);
+                disposeLater(serviceId, existing);
+            }
+            return create(serviceId, settings);
+        });
+        return client.webClient();
+    }
+
+    /**
+     * 释放服务的连接池
+     */
+    public void release(String serviceId) {
+        UpstreamClient removed = clients.remove(serviceId);
+        if (removed != null) {
+            disposeLater(serviceId, removed);
+        }
+    }
+
+    /**
+     * 只保留给定服务的连接池，其余释放
+     */
+    public void retainAll(Collection<String> serviceIds) {
+        Set<String> retained = Set.copyOf(serviceIds);
+        for (String serviceId : clients.keySet()) {
+            if (!retained.contains(serviceId)) {
+                release(serviceId);
+            }
+        }
+    }
+
+    public int size() {
+        return clients.size();
+    }
+
+    @PreDestroy
+    public void destroy() {
+        clients.forEach((serviceId, client) -> client.provider().dispose());
+        clients.clear();
+    }
+
+    private UpstreamClient create(String serviceId, PoolSettings settings) {
+        ConnectionProvider provider = ConnectionProvider.builder("mcp-" + serviceId)
+                .maxConnections(settings.maxConnections())
+                .pendingAcquireMaxCount(settings.pendingAcquireMaxCount())
+                .pendingAcquireTimeout(proxyConfig.getPoolPendingAcquireTimeout())
+                .maxIdleTime(settings.maxIdleTime())
+                .maxLifeTime(settings.maxLifeTime())
+                .evictInBackground(proxyConfig.getPoolEvictInterval())
+                .metrics(true)
+                .build();
+
+        HttpClient httpClient = HttpClient.create(provider)
+                .responseTimeout(proxyConfig.getTimeout())
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) proxyConfig.getConnectTimeout().toMillis());
+        httpClient = switch (settings.protocol()) {
+            case H2C -> httpClient.protocol(HttpProtocol.H2C);
+            case H2 -> httpClient.protocol(HttpProtocol.H2).secure();
+            default -> httpClient.protocol(HttpProtocol.HTTP11);
+        };
+
+        WebClient webClient = WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .codecs(configurer -> configurer.defaultCodecs()
+                        .maxInMemorySize((int) proxyConfig.getMaxInMemorySize()))
+                .build();
+
+        log.info("Created connection pool for service {}: {}", serviceId, settings);
+        return new UpstreamClient(settings, provider, webClient);
+    }
+
+    /**
+     * 等待使用旧连接池的请求完成后再释放，最长一个请求超时周期
+     */
+    private void disposeLater(String serviceId, UpstreamClient client) {
+        Mono.delay(proxyConfig.getTimeout())
+                .then(client.provider().disposeLater())
+                .subscribe(
+                        unused -> { },
+                        error -> log.warn("Failed to dispose connection pool for service {}: {}",
+                                serviceId, error.getMessage()),
+                        () -> log.debug("Disposed connection pool for service {}", serviceId));
+    }
+
+    private record UpstreamClient(PoolSettings settings, ConnectionProvider provider, WebClient webClient) {
+    }
+
+    /**
+     * 连接池配置，服务未配置的项使用全局默认值
+     */
+    record PoolSettings(int maxConnections, int pendingAcquireMaxCount,
+                        Duration maxIdleTime, Duration maxLifeTime, UpstreamProtocol protocol) {
+
+        static PoolSettings of(MCPServiceEntity service, ProxyConfig config) {
+            return new PoolSettings(
+                    service.getMaxConnections() != null ? service.getMaxConnections() : config.getPoolMaxConnections(),
+                    service.getPendingAcquireMaxCount() != null
+                            ? service.getPendingAcquireMaxCount() : config.getPoolPendingAcquireMaxCount(),
+                    service.getMaxIdleTimeSeconds() != null
+                            ? Duration.ofSeconds(service.getMaxIdleTimeSeconds()) : config.getPoolMaxIdleTime(),
+                    service.getMaxLifeTimeSeconds() != null
+                            ? Duration.ofSeconds(service.getMaxLifeTimeSeconds()) : config.getPoolMaxLifeTime(),
+                    service.getHttpProtocol() != null ? service.getHttpProtocol() : UpstreamProtocol.HTTP11);
+        }
+    }
+}
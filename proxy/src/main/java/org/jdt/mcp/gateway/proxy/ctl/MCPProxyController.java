@@ -1,14 +1,19 @@
 package org.jdt.mcp.gateway.proxy.ctl;
 
 import lombok.extern.slf4j.Slf4j;
+import org.jdt.mcp.gateway.core.dto.ToolStatsData;
 import org.jdt.mcp.gateway.proxy.handler.McpProxyHandler;
 import org.jdt.mcp.gateway.proxy.service.MCPDiscoveryService;
 import org.jdt.mcp.gateway.proxy.service.StatisticsService;
+import org.jdt.mcp.gateway.service.RedisStatsCacheService;
 import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
 
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 @Slf4j
@@ -45,18 +50,7 @@ public class MCPProxyController {
     @GetMapping(value = "/stats/{serviceId}/realtime", produces = MediaType.APPLICATION_JSON_VALUE)
     public Mono<Map<String, Object>> getRealtimeServiceStats(@PathVariable String serviceId) {
         return statisticsService.getRealtimeServiceStats(serviceId)
-                .map(stats -> Map.of(
-                        "serviceId", serviceId,
-                        "source", "realtime",
-                        "totalCalls", stats.getTotalCalls(),
-                        "successCalls", stats.getSuccessCalls(),
-                        "failedCalls", stats.getFailedCalls(),
-                        "successRate", stats.getSuccessRate(),
-                        "averageResponseTime", stats.getAverageResponseTime(),
-                        "maxResponseTime", stats.getMaxResponseTime(),
-                        "uniqueUsers", stats.getUniqueUsers(),
-                        "lastCallTime", stats.getLastCallTime() != null ? stats.getLastCallTime().toString() : null
-                ));
+                .map(stats -> toStatsResponse(serviceId, "realtime", stats));
     }
 
     /**
@@ -65,17 +59,63 @@ public class MCPProxyController {
     @GetMapping(value = "/stats/{serviceId}", produces = MediaType.APPLICATION_JSON_VALUE)
     public Mono<Map<String, Object>> getServiceStats(@PathVariable String serviceId) {
         return statisticsService.getServiceStats(serviceId)
-                .map(stats -> Map.of(
+                .map(stats -> toStatsResponse(serviceId, "database", stats));
+    }
+
+    /**
+     * 获取服务当天各工具的实时统计（从Redis缓存）
+     */
+    @GetMapping(value = "/stats/{serviceId}/tools/realtime", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<Map<String, Object>> getRealtimeToolStats(@PathVariable String serviceId) {
+        return statisticsService.getRealtimeToolStats(serviceId)
+                .map(tools -> toToolStatsResponse(serviceId, "realtime", tools));
+    }
+
+    /**
+     * 获取服务当天各工具的统计（从数据库）
+     */
+    @GetMapping(value = "/stats/{serviceId}/tools", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<Map<String, Object>> getToolStats(@PathVariable String serviceId) {
+        return statisticsService.getToolStats(serviceId)
+                .map(tools -> toToolStatsResponse(serviceId, "database", tools));
+    }
+
+    /**
+     * 获取服务当天P95响应时间最高的工具（从数据库）
+     */
+    @GetMapping(value = "/stats/{serviceId}/tools/slowest", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<Map<String, Object>> getSlowestTools(@PathVariable String serviceId,
+                                                     @RequestParam(defaultValue = "10") int limit) {
+        return statisticsService.getSlowestTools(serviceId, Math.max(1, Math.min(limit, 100)))
+                .map(tools -> toToolStatsResponse(serviceId, "database", tools));
+    }
+
+    /**
+     * 获取服务唯一用户数（HyperLogLog估算值）
+     * period: day 当天, week 最近7天, month 最近30天
+     */
+    @GetMapping(value = "/stats/{serviceId}/uniques", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<Map<String, Object>> getUniqueUsers(@PathVariable String serviceId,
+                                                    @RequestParam(defaultValue = "day") String period) {
+        LocalDate to = LocalDate.now();
+        LocalDate from = switch (period) {
+            case "day" -> to;
+            case "week" -> to.minusDays(6);
+            case "month" -> to.minusDays(29);
+            default -> null;
+        };
+        if (from == null) {
+            return Mono.just(Map.of("status", "error", "message", "Unsupported period: " + period));
+        }
+
+        return statisticsService.getUniqueUsers(serviceId, from, to)
+                .map(uniqueUsers -> Map.of(
                         "serviceId", serviceId,
-                        "source", "database",
-                        "totalCalls", stats.getTotalCalls(),
-                        "successCalls", stats.getSuccessCalls(),
-                        "failedCalls", stats.getFailedCalls(),
-                        "successRate", stats.getSuccessRate(),
-                        "averageResponseTime", stats.getAverageResponseTime(),
-                        "maxResponseTime", stats.getMaxResponseTime(),
-                        "uniqueUsers", stats.getUniqueUsers(),
-                        "lastCallTime", stats.getLastCallTime() != null ? stats.getLastCallTime().toString() : null
+                        "period", period,
+                        "from", from.toString(),
+                        "to", to.toString(),
+                        "uniqueUsers", uniqueUsers,
+                        "standardError", RedisStatsCacheService.UNIQUE_USERS_STANDARD_ERROR
                 ));
     }
 
@@ -121,6 +161,35 @@ public class MCPProxyController {
                 .onErrorReturn(Map.of("status", "error", "message", "Failed to clear statistics cache"));
     }
 
+    private Map<String, Object> toToolStatsResponse(String serviceId, String source, List<ToolStatsData> tools) {
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("serviceId", serviceId);
+        response.put("source", source);
+        response.put("tools", tools);
+        response.put("count", tools.size());
+        return response;
+    }
+
+    private Map<String, Object> toStatsResponse(String serviceId, String source,
+                                                StatisticsService.ServiceStats stats) {
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("serviceId", serviceId);
+        response.put("source", source);
+        response.put("totalCalls", stats.getTotalCalls());
+        response.put("successCalls", stats.getSuccessCalls());
+        response.put("failedCalls", stats.getFailedCalls());
+        response.put("successRate", stats.getSuccessRate());
+        response.put("averageResponseTime", stats.getAverageResponseTime());
+        response.put("maxResponseTime", stats.getMaxResponseTime());
+        response.put("p50ResponseTime", stats.getP50ResponseTime());
+        response.put("p95ResponseTime", stats.getP95ResponseTime());
+        response.put("p99ResponseTime", stats.getP99ResponseTime());
+        response.put("uniqueUsers", stats.getUniqueUsers());
+        response.put("uniqueUsersStandardError", RedisStatsCacheService.UNIQUE_USERS_STANDARD_ERROR);
+        response.put("lastCallTime", stats.getLastCallTime() != null ? stats.getLastCallTime().toString() : null);
+        return response;
+    }
+
     /**
      * 健康检查端点
      */
@@ -0,0 +1,51 @@
+package org.jdt.mcp.gateway.proxy.filter;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import org.jdt.mcp.gateway.core.config.ProxyConfig;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * JSON-RPC信封解析过滤器
+ * 在鉴权之后、限流之前执行，只装饰发往 /mcp/ 的JSON POST请求
+ * 解析结果在body流经代理时写入exchange属性，见JsonRpcAttributes
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 5)
+public class JsonRpcEnvelopeFilter implements WebFilter {
+
+    private static final String PROXY_PREFIX = "/mcp/";
+
+    private final ProxyConfig proxyConfig;
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    public JsonRpcEnvelopeFilter(ProxyConfig proxyConfig) {
+        this.proxyConfig = proxyConfig;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        if (!proxyConfig.isJsonRpcParseEnabled()
+                || request.getMethod() != HttpMethod.POST
+                || !request.getPath().value().startsWith(PROXY_PREFIX)
+                || !isJson(request.getHeaders().getContentType())) {
+            return chain.filter(exchange);
+        }
+        ServerHttpRequest decorated = new JsonRpcEnvelopeRequestDecorator(request, jsonFactory,
+                proxyConfig.getJsonRpcScanMaxBytes(), exchange.getAttributes());
+        return chain.filter(exchange.mutate().request(decorated).build());
+    }
+
+    private static boolean isJson(MediaType contentType) {
+        return contentType == null || MediaType.APPLICATION_JSON.isCompatibleWith(contentType);
+    }
+}
@@ -0,0 +1,187 @@
+package org.jdt.mcp.gateway.proxy.filter;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteBufferFeeder;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import lombok.extern.slf4j.Slf4j;
+import org.jdt.mcp.gateway.core.constant.JsonRpcAttributes;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Map;
+
+/**
+ * 旁路解析JSON-RPC信封的请求装饰器
+ * 原始DataBuffer不做修改直接向下游传递，用非阻塞解析器读取buffer的只读视图，不缓冲也不拷贝body
+ * 只解析顶层的 method、id 和 params.name/params.cursor，拿到所需字段、顶层对象结束或超过maxBytes后停止
+ * 目录类的list请求解析到顶层对象结束，供目录缓存确认没有游标
+ */
+@Slf4j
+public class JsonRpcEnvelopeRequestDecorator extends ServerHttpRequestDecorator {
+
+    private final JsonFactory jsonFactory;
+    private final int maxBytes;
+    private final Map<String, Object> attributes;
+
+    public JsonRpcEnvelopeRequestDecorator(ServerHttpRequest delegate, JsonFactory jsonFactory, int maxBytes,
+                                           Map<String, Object> attributes) {
+        super(delegate);
+        this.jsonFactory = jsonFactory;
+        this.maxBytes = maxBytes;
+        this.attributes = attributes;
+    }
+
+    @Override
+    public Flux<DataBuffer> getBody() {
+        return Flux.defer(() -> {
+            EnvelopeScanner scanner = new EnvelopeScanner();
+            return super.getBody()
+                    .doOnNext(scanner::feed)
+                    .doFinally(signal -> scanner.stop());
+        });
+    }
+
+    /**
+     * 需要params.name才能确定调用对象的方法
+     */
+    private static boolean hasNamedTarget(String method) {
+        return "tools/call".equals(method) || "prompts/get".equals(method);
+    }
+
+    /**
+     * 需要解析完整个请求才能确定有没有params.cursor的方法
+     */
+    private static boolean isListMethod(String method) {
+        return method.endsWith("/list");
+    }
+
+    private final class EnvelopeScanner {
+        private JsonParser parser;
+        private int scanned;
+        private int depth;
+        private boolean inParams;
+        private String field;
+        private String method;
+        private String toolName;
+        private String id;
+        private boolean list;
+        private boolean done;
+
+        void feed(DataBuffer buffer) {
+            if (done) {
+                return;
+            }
+            try (DataBuffer.ByteBufferIterator iterator = buffer.readableByteBuffers()) {
+                while (!done && iterator.hasNext()) {
+                    ByteBuffer view = iterator.next();
+                    int allowed = maxBytes - scanned;
+                    if (view.remaining() > allowed) {
+                        view.limit(view.position() + allowed);
+                    }
+                    scanned += view.remaining();
+                    if (parser == null) {
+                        parser = jsonFactory.createNonBlockingByteBufferParser();
+                    }
+                    ((ByteBufferFeeder) parser.getNonBlockingInputFeeder()).feedInput(view);
+                    parse();
+                    if (scanned >= maxBytes) {
+                        stop();
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                // body不是合法的JSON-RPC，不影响代理
+                log.debug("Stopped JSON-RPC envelope parsing: {}", e.getMessage());
+                stop();
+            }
+        }
+
+        private void parse() throws IOException {
+            JsonToken token;
+            while (!done && (token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+                switch (token) {
+                    case START_OBJECT -> {
+                        if (++depth == 2) {
+                            inParams = "params".equals(field);
+                        }
+                    }
+                    case START_ARRAY -> {
+                        if (depth == 0) {
+                            // 批量请求不解析
+                            stop();
+                            return;
+                        }
+                        depth++;
+                    }
+                    case END_OBJECT, END_ARRAY -> {
+                        if (--depth == 0) {
+                            attributes.put(JsonRpcAttributes.PARSED, Boolean.TRUE);
+                            stop();
+                            return;
+                        }
+                        if (depth == 1) {
+                            inParams = false;
+                        }
+                    }
+                    case FIELD_NAME -> {
+                        if (depth == 1 || (depth == 2 && inParams)) {
+                            field = parser.currentName();
+                        }
+                    }
+                    case VALUE_STRING, VALUE_NUMBER_INT -> onValue(token);
+                    default -> {
+                        if (depth == 0) {
+                            stop();
+                            return;
+                        }
+                    }
+                }
+            }
+        }
+
+        private void onValue(JsonToken token) throws IOException {
+            if (depth == 1) {
+                if ("method".equals(field) && token == JsonToken.VALUE_STRING) {
+                    method = parser.getText();
+                    list = isListMethod(method);
+                    attributes.put(JsonRpcAttributes.METHOD, method);
+                } else if ("id".equals(field)) {
+                    id = token == JsonToken.VALUE_STRING
+                            ? '"' + new String(JsonStringEncoder.getInstance().quoteAsString(parser.getText())) + '"'
+                            : parser.getText();
+                    attributes.put(JsonRpcAttributes.ID, id);
+                }
+            } else if (depth == 2 && inParams && token == JsonToken.VALUE_STRING) {
+                if ("name".equals(field)) {
+                    toolName = parser.getText();
+                    attributes.put(JsonRpcAttributes.TOOL_NAME, toolName);
+                } else if ("cursor".equals(field)) {
+                    attributes.put(JsonRpcAttributes.CURSOR, parser.getText());
+                }
+            }
+            if (method != null && id != null && !list && (toolName != null || !hasNamedTarget(method))) {
+                stop();
+            }
+        }
+
+        void stop() {
+            if (done) {
+                return;
+            }
+            done = true;
+            if (parser != null) {
+                try {
+                    parser.close();
+                } catch (IOException ignored) {
+                    // 只释放解析器内部缓冲
+                }
+                parser = null;
+            }
+        }
+    }
+}
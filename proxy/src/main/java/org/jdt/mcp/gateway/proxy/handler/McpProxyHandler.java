@@ -1,40 +1,74 @@
 package org.jdt.mcp.gateway.proxy.handler;
 
 import lombok.extern.slf4j.Slf4j;
+import org.jdt.mcp.gateway.auth.service.SessionRegistry;
+import org.jdt.mcp.gateway.auth.session.SessionBinding;
 import org.jdt.mcp.gateway.auth.tool.AuthContextHelper;
-import org.jdt.mcp.gateway.core.entity.MCPServiceEntity;
+import org.jdt.mcp.gateway.core.config.ProxyConfig;
+import org.jdt.mcp.gateway.core.entity.McpTransport;
+import org.jdt.mcp.gateway.core.constant.JsonRpcAttributes;
+import org.jdt.mcp.gateway.proxy.cache.CatalogCache;
+import org.jdt.mcp.gateway.proxy.cache.ToolResultCache;
+import org.jdt.mcp.gateway.proxy.route.ServiceRoute;
+import org.jdt.mcp.gateway.proxy.route.ServiceRouteTable;
+import org.jdt.mcp.gateway.proxy.route.UpstreamInstance;
 import org.jdt.mcp.gateway.proxy.service.MCPDiscoveryService;
 import org.jdt.mcp.gateway.proxy.service.StatisticsService;
+import org.jdt.mcp.gateway.proxy.sse.SseEndpointRewriter;
+import org.jdt.mcp.gateway.proxy.sse.SseStream;
+import org.jdt.mcp.gateway.proxy.sse.SseStreamRegistry;
+import org.jdt.mcp.gateway.traffic.breaker.CircuitBreaker;
+import org.jdt.mcp.gateway.traffic.breaker.CircuitOpenException;
+import org.jdt.mcp.gateway.traffic.breaker.RetryBudget;
+import org.jdt.mcp.gateway.traffic.concurrency.ConcurrencyPermit;
+import org.jdt.mcp.gateway.traffic.concurrency.LimitExceededException;
+import org.jdt.mcp.gateway.traffic.service.CircuitBreakerService;
+import org.jdt.mcp.gateway.traffic.service.ConcurrencyLimitService;
 import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
 import org.springframework.http.MediaType;
 import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
 import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.BodyInserters;
 import org.springframework.web.reactive.function.client.ClientResponse;
-import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClientRequest;
+import reactor.netty.internal.shaded.reactor.pool.PoolAcquirePendingLimitException;
+import reactor.netty.internal.shaded.reactor.pool.PoolAcquireTimeoutException;
 import reactor.util.retry.Retry;
 
-import java.nio.charset.StandardCharsets;
+import java.net.ConnectException;
+import java.net.URI;
+import java.net.UnknownHostException;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Slf4j
 @Component
 public class McpProxyHandler {
 
-    private final WebClient webClient;
     private final MCPDiscoveryService mcpDiscoveryService;
     private final StatisticsService statisticsService;
+    private final ServiceRouteTable routeTable;
+    private final SessionRegistry sessionRegistry;
+    private final ConcurrencyLimitService concurrencyLimitService;
+    private final CircuitBreakerService circuitBreakerService;
+    private final SseStreamRegistry sseStreamRegistry;
+    private final CatalogCache catalogCache;
+    private final ToolResultCache toolResultCache;
+    private final ProxyConfig proxyConfig;
 
     // 需要过滤的请求头
     private static final List<String> FILTERED_HEADERS = List.of(
@@ -42,22 +76,35 @@ public class McpProxyHandler {
             "proxy-connection", "proxy-authorization", "te", "trailers", "transfer-encoding"
     );
 
-    // 用于匹配响应中sessionId的正则表达式
-    private static final Pattern SESSION_ID_PATTERN = Pattern.compile("sessionId=([a-f0-9\\-]{36})");
+    // Streamable HTTP传输的会话头
+    private static final String MCP_SESSION_ID_HEADER = "Mcp-Session-Id";
 
-    // 用于匹配需要重写的URL模式，例如：data:/mcp/message?sessionId=xxx
-    private static final Pattern URL_REWRITE_PATTERN = Pattern.compile("(data:)?/mcp/([^?\\s]+)(\\?[^\\s]*)?(\\s|$|\"|\')");
-
-    // SSE响应的默认会话过期时间：2小时
-    private static final Duration DEFAULT_SESSION_TTL = Duration.ofHours(2);
+    // 可以安全重试的幂等方法（仅限没有body的请求），其余请求只在连接阶段失败（请求未发出）时重试
+    private static final Set<HttpMethod> IDEMPOTENT_METHODS = Set.of(
+            HttpMethod.GET, HttpMethod.HEAD, HttpMethod.OPTIONS, HttpMethod.PUT, HttpMethod.DELETE, HttpMethod.TRACE
+    );
 
-    public McpProxyHandler(WebClient webClient,
-                           MCPDiscoveryService mcpDiscoveryService,
+    public McpProxyHandler(MCPDiscoveryService mcpDiscoveryService,
                            StatisticsService statisticsService,
+                           ServiceRouteTable routeTable,
+                           SessionRegistry sessionRegistry,
+                           ConcurrencyLimitService concurrencyLimitService,
+                           CircuitBreakerService circuitBreakerService,
+                           SseStreamRegistry sseStreamRegistry,
+                           CatalogCache catalogCache,
+                           ToolResultCache toolResultCache,
+                           ProxyConfig proxyConfig,
                            AuthContextHelper authContextHelper) {
-        this.webClient = webClient;
         this.mcpDiscoveryService = mcpDiscoveryService;
         this.statisticsService = statisticsService;
+        this.routeTable = routeTable;
+        this.sessionRegistry = sessionRegistry;
+        this.concurrencyLimitService = concurrencyLimitService;
+        this.circuitBreakerService = circuitBreakerService;
+        this.sseStreamRegistry = sseStreamRegistry;
+        this.catalogCache = catalogCache;
+        this.toolResultCache = toolResultCache;
+        this.proxyConfig = proxyConfig;
     }
 
     /**
@@ -71,55 +118,302 @@ public class McpProxyHandler {
         String path = request.getPath().value();
         log.debug("Processing proxy request: {}", path);
 
-        // 提取服务ID（路径格式：/mcp/{serviceId}/...）
-        String serviceId = extractServiceId(path);
+        // 优先从进程内路由表解析，未命中时再提取服务ID（路径格式：/mcp/{serviceId}/...）
+        ServiceRoute cachedRoute = routeTable.resolve(path);
+        String serviceId = cachedRoute != null ? cachedRoute.getServiceId() : extractServiceId(path);
         if (serviceId == null) {
             return handleError(response, HttpStatus.BAD_REQUEST, "Invalid path format");
         }
 
         Instant startTime = Instant.now();
 
-        return mcpDiscoveryService.getService(serviceId)
+        Mono<ServiceRoute> route = cachedRoute != null ? Mono.just(cachedRoute) : loadRoute(serviceId);
+
+        return route
                 .switchIfEmpty(Mono.defer(() ->
                         handleError(response, HttpStatus.NOT_FOUND, "Service not found: " + serviceId)
                                 .then(Mono.empty())))
-                .flatMap(service -> proxyRequest(exchange, service, startTime))
+                .flatMap(serviceRoute -> {
+                    // 停机排空期间不再接受新的SSE流（包括Streamable HTTP可能升级为SSE的POST），普通请求照常处理
+                    if (sseStreamRegistry.isDraining() && isEventStreamRequest(request, serviceRoute)) {
+                        response.getHeaders().set(HttpHeaders.RETRY_AFTER, "1");
+                        return handleError(response, HttpStatus.SERVICE_UNAVAILABLE, "Gateway is shutting down");
+                    }
+                    return isCacheCandidate(request, serviceRoute)
+                            ? proxyCacheableRequest(exchange, serviceRoute, startTime)
+                            : proxyWithTrafficControl(exchange, serviceRoute, startTime);
+                })
+                .onErrorResume(CircuitOpenException.class, e -> {
+                    Duration responseTime = Duration.between(startTime, Instant.now());
+                    long retryAfterSeconds = Math.max(1, (e.getRetryAfterMillis() + 999) / 1000);
+                    response.getHeaders().set(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+                    statisticsService.recordRequest(exchange, serviceId, 503, responseTime);
+                    return handleError(response, HttpStatus.SERVICE_UNAVAILABLE,
+                            "Service unavailable: " + serviceId);
+                })
+                .onErrorResume(LimitExceededException.class, e -> {
+                    log.debug("Shedding request for service {}: {}", serviceId, e.getMessage());
+                    Duration responseTime = Duration.between(startTime, Instant.now());
+                    response.getHeaders().set(HttpHeaders.RETRY_AFTER, "1");
+                    statisticsService.recordRequest(exchange, serviceId, 503, responseTime);
+                    return handleError(response, HttpStatus.SERVICE_UNAVAILABLE,
+                            "Service overloaded: " + serviceId);
+                })
                 .onErrorResume(throwable -> {
                     log.error("Proxy error for service {}: {}", serviceId, throwable.getMessage());
                     Duration responseTime = Duration.between(startTime, Instant.now());
-                    return statisticsService.recordRequest(exchange, serviceId, 500, responseTime)
-                            .then(handleError(response, HttpStatus.INTERNAL_SERVER_ERROR,
-                                    "Proxy error: " + throwable.getMessage()));
+                    statisticsService.recordRequest(exchange, serviceId, 500, responseTime);
+                    return handleError(response, HttpStatus.INTERNAL_SERVER_ERROR,
+                            "Proxy error: " + throwable.getMessage());
+                });
+    }
+
+    /**
+     * 路由表未命中时加载服务并写入路由表
+     * 先记录失效版本，加载期间收到该服务的失效通知时不写入，避免已失效的服务被重新装回路由表
+     * 服务不存在或已下线时释放其连接池
+     */
+    private Mono<ServiceRoute> loadRoute(String serviceId) {
+        return Mono.defer(() -> {
+            long version = routeTable.version(serviceId);
+            return mcpDiscoveryService.getService(serviceId)
+                    .mapNotNull(service -> routeTable.put(service, version))
+                    .switchIfEmpty(Mono.fromRunnable(() -> routeTable.release(serviceId)));
+        });
+    }
+
+    /**
+     * 可能命中目录缓存或工具结果缓存的请求：Streamable HTTP的POST，结果在POST响应中返回
+     */
+    private boolean isCacheCandidate(ServerHttpRequest request, ServiceRoute route) {
+        return (catalogCache.isEnabled() || proxyConfig.isToolCacheEnabled()) && proxyConfig.isJsonRpcParseEnabled()
+                && request.getMethod() == HttpMethod.POST
+                && (route.getTransport() == McpTransport.STREAMABLE_HTTP
+                || request.getHeaders().containsKey(MCP_SESSION_ID_HEADER));
+    }
+
+    /**
+     * 读到第一个body分片（信封解析器随之填充JSON-RPC属性）后查找目录缓存
+     * 命中时由网关直接响应，不占用上游的熔断和并发额度；未命中时把已读的分片和剩余body一起转发给上游
+     * 可缓存工具的tools/call需要完整的参数计算缓存key，读完整个body后再查找工具结果缓存
+     */
+    private Mono<Void> proxyCacheableRequest(ServerWebExchange exchange, ServiceRoute route, Instant startTime) {
+        ServerHttpRequest request = exchange.getRequest();
+        return request.getBody()
+                .switchOnFirst((first, body) -> {
+                    CatalogCache.Lookup lookup = first.hasValue()
+                            ? catalogCache.lookup(route.getServiceId(), exchange.getAttributes()) : null;
+                    if (lookup != null && lookup.isHit()) {
+                        log.debug("Serving catalog from cache for service {}", route.getServiceId());
+                        return catalogCache.writeCached(exchange, lookup);
+                    }
+                    if (lookup != null) {
+                        exchange.getAttributes().put(CatalogCache.MISS_ATTRIBUTE, lookup);
+                    }
+                    String toolName = exchange.getAttribute(JsonRpcAttributes.TOOL_NAME);
+                    if (first.hasValue() && toolName != null
+                            && "tools/call".equals(exchange.getAttribute(JsonRpcAttributes.METHOD))
+                            && toolResultCache.isCandidate(request, route.getToolPolicy(toolName))) {
+                        return proxyToolCallRequest(exchange, route, startTime, toolName, body);
+                    }
+                    return proxyWithTrafficControl(exchange.mutate().request(replay(request, body)).build(),
+                            route, startTime);
+                })
+                .doOnDiscard(DataBuffer.class, DataBufferUtils::release)
+                .then();
+    }
+
+    /**
+     * 聚合完整的tools/call请求body（大小已由Content-Length限制）后查找工具结果缓存
+     * 命中时由网关直接响应；未命中时转发聚合后的body，响应阶段写入缓存
+     * 只读工具未命中时再合并并发的相同调用，只有leader转发给上游，follower等待leader的结果
+     */
+    private Mono<Void> proxyToolCallRequest(ServerWebExchange exchange, ServiceRoute route, Instant startTime,
+                                            String toolName, Flux<DataBuffer> body) {
+        ServerHttpRequest request = exchange.getRequest();
+        return DataBufferUtils.join(body, proxyConfig.getToolCacheMaxRequestBytes())
+                .map(joined -> {
+                    byte[] bytes = new byte[joined.readableByteCount()];
+                    joined.read(bytes);
+                    DataBufferUtils.release(joined);
+                    return bytes;
+                })
+                .flatMap(bytes -> toolResultCache
+                        .lookup(exchange, route.getServiceId(), toolName, route.getToolPolicy(toolName), bytes)
+                        .flatMap(lookup -> {
+                            if (lookup.isHit()) {
+                                log.debug("Serving tool {} from cache for service {}", toolName, route.getServiceId());
+                                return toolResultCache.writeCached(exchange, lookup);
+                            }
+                            Flux<DataBuffer> replayBody = Flux.defer(() ->
+                                    Mono.just(exchange.getResponse().bufferFactory().wrap(bytes)));
+                            ServerWebExchange forwarded = exchange.mutate().request(replay(request, replayBody)).build();
+                            ToolResultCache.Lookup joined = toolResultCache.join(lookup);
+                            if (joined.isFollower()) {
+                                return toolResultCache.awaitLeader(exchange, joined)
+                                        .flatMap(served -> served ? Mono.<Void>empty()
+                                                : proxyWithTrafficControl(forwarded, route, startTime));
+                            }
+                            if (joined.isCacheable()) {
+                                exchange.getAttributes().put(ToolResultCache.MISS_ATTRIBUTE, joined);
+                            }
+                            return proxyWithTrafficControl(forwarded, route, startTime)
+                                    .doFinally(signal -> toolResultCache.release(joined));
+                        }));
+    }
+
+    private static ServerHttpRequest replay(ServerHttpRequest request, Flux<DataBuffer> body) {
+        return new ServerHttpRequestDecorator(request) {
+            @Override
+            public Flux<DataBuffer> getBody() {
+                return body;
+            }
+        };
+    }
+
+    /**
+     * 经过熔断器和自适应并发上限后执行代理请求
+     * 熔断打开时直接失败，不占用并发额度也不等待连接超时
+     * 普通响应在写完后释放许可，SSE响应在收到响应头时释放，长连接不占用并发额度
+     */
+    private Mono<Void> proxyWithTrafficControl(ServerWebExchange exchange, ServiceRoute route, Instant startTime) {
+        String serviceId = route.getServiceId();
+        CircuitBreaker breaker = circuitBreakerService.getBreaker(serviceId);
+        if (breaker != null && !breaker.tryAcquire()) {
+            return Mono.error(new CircuitOpenException(serviceId, breaker.remainingOpenMillis()));
+        }
+        RetryBudget retryBudget = circuitBreakerService.getRetryBudget(serviceId);
+        retryBudget.deposit();
+
+        return concurrencyLimitService.acquire(serviceId)
+                .doOnError(throwable -> {
+                    if (breaker != null) {
+                        breaker.onIgnored();
+                    }
+                })
+                .flatMap(permit -> {
+                    UpstreamCall call = new UpstreamCall(permit, breaker);
+                    return proxyRequest(exchange, route, startTime, call, retryBudget)
+                            .doOnError(throwable -> call.onError())
+                            .doFinally(signal -> call.release());
                 });
     }
 
     /**
      * 代理请求到目标服务
+     * 每次尝试（包括重试）重新选择实例；携带已绑定sessionId的请求固定发往签发该会话的实例
      */
-    private Mono<Void> proxyRequest(ServerWebExchange exchange, MCPServiceEntity service, Instant startTime) {
+    private Mono<Void> proxyRequest(ServerWebExchange exchange, ServiceRoute route, Instant startTime,
+                                    UpstreamCall call, RetryBudget retryBudget) {
         ServerHttpRequest request = exchange.getRequest();
+        boolean eventStreamRequest = isEventStreamRequest(request, route);
+
+        String serviceId = route.getServiceId();
+        // 鉴权过滤器已按sessionId查到会话绑定
+        SessionBinding binding = exchange.getAttribute("sessionBinding");
+        String stickyInstanceId = binding != null && binding.getServiceId().equals(serviceId)
+                ? binding.getInstanceId() : null;
+
+        return Mono.defer(() -> {
+                    UpstreamInstance instance = route.choose(stickyInstanceId);
+                    URI targetUri = route.targetUri(instance, request.getPath().value(), request.getURI().getRawQuery());
+                    log.debug("Proxying request to instance {}: {}", instance.getInstanceId(), targetUri);
+
+                    UpstreamInstance.Lease lease = instance.begin();
+                    // 每个服务使用独立连接池，互不抢占
+                    return route.getWebClient()
+                            .method(request.getMethod())
+                            .uri(targetUri)
+                            .headers(headers -> copyHeaders(request.getHeaders(), headers))
+                            .body(BodyInserters.fromDataBuffers(request.getBody()))
+                            .httpRequest(clientRequest -> {
+                                if (eventStreamRequest) {
+                                    // SSE流的空闲超时单独配置，不受普通请求的响应超时限制
+                                    HttpClientRequest nativeRequest = clientRequest.getNativeRequest();
+                                    nativeRequest.responseTimeout(proxyConfig.getSseIdleTimeout());
+                                }
+                            })
+                            .exchangeToMono(clientResponse -> handleClientResponse(exchange, clientResponse, route,
+                                    instance, startTime, call, lease))
+                            .doOnError(throwable -> lease.onError())
+                            .doFinally(signal -> lease.release());
+                })
+                .retryWhen(Retry.backoff(proxyConfig.getRetryMaxAttempts(), proxyConfig.getRetryBackoff())
+                        .filter(throwable -> isRetryable(exchange, throwable) && retryBudget.tryWithdraw()));
+    }
+
+    /**
+     * 可能返回SSE流的请求：期望SSE响应的GET请求（旧版 /sse 长连接和Streamable HTTP通知流），
+     * 以及Streamable HTTP服务上接受SSE响应的POST请求（上游可以把响应升级为SSE流）
+     */
+    private static boolean isEventStreamRequest(ServerHttpRequest request, ServiceRoute route) {
+        if (request.getMethod() != HttpMethod.GET
+                && (request.getMethod() != HttpMethod.POST || route.getTransport() != McpTransport.STREAMABLE_HTTP)) {
+            return false;
+        }
+        for (MediaType accept : request.getHeaders().getAccept()) {
+            if (MediaType.TEXT_EVENT_STREAM.isCompatibleWith(accept) && !accept.isWildcardType()) {
+                return true;
+            }
+        }
+        return false;
+    }
 
-        String serviceId = service.getServiceId();
-        String targetUrl = buildTargetUrl(service, request);
+    /**
+     * 只有响应尚未提交，且请求是没有body的幂等请求或者在连接阶段就失败（请求未发出）时才重试
+     * 非幂等的POST（例如tools/call）在请求已发出后失败不重试，避免重复执行
+     * 请求body是只能订阅一次的流，请求发出后body已被消费，带body的PUT/DELETE同样不重试
+     */
+    private boolean isRetryable(ServerWebExchange exchange, Throwable throwable) {
+        if (throwable instanceof IllegalArgumentException || exchange.getResponse().isCommitted()) {
+            return false;
+        }
+        ServerHttpRequest request = exchange.getRequest();
+        return (IDEMPOTENT_METHODS.contains(request.getMethod()) && !hasBody(request)) || isConnectFailure(throwable);
+    }
 
-        log.debug("Proxying request to: {}", targetUrl);
+    private static boolean hasBody(ServerHttpRequest request) {
+        HttpHeaders headers = request.getHeaders();
+        return headers.getContentLength() > 0 || headers.containsKey(HttpHeaders.TRANSFER_ENCODING);
+    }
 
-        return webClient
-                .method(request.getMethod())
-                .uri(targetUrl)
-                .headers(headers -> copyHeaders(request.getHeaders(), headers))
-                .body(BodyInserters.fromDataBuffers(request.getBody()))
-                .exchangeToMono(clientResponse -> handleClientResponse(exchange, clientResponse, serviceId, startTime))
-                .retryWhen(Retry.backoff(2, Duration.ofMillis(100))
-                        .filter(throwable -> !(throwable instanceof IllegalArgumentException)));
+    /**
+     * 连接建立失败或连接池获取连接失败，请求一定没有发出
+     * 连接在请求发出前被关闭（PrematureCloseException）由reactor-netty内部重试，传到这里的无法区分请求是否已发出
+     */
+    private static boolean isConnectFailure(Throwable throwable) {
+        for (Throwable cause = throwable; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConnectException || cause instanceof UnknownHostException
+                    || cause instanceof PoolAcquireTimeoutException
+                    || cause instanceof PoolAcquirePendingLimitException) {
+                return true;
+            }
+            if (cause.getCause() == cause) {
+                break;
+            }
+        }
+        return false;
     }
 
     /**
      * 处理客户端响应
      */
     private Mono<Void> handleClientResponse(ServerWebExchange exchange, ClientResponse clientResponse,
-                                            String serviceId, Instant startTime) {
+                                            ServiceRoute route, UpstreamInstance instance, Instant startTime,
+                                            UpstreamCall call, UpstreamInstance.Lease lease) {
         ServerHttpResponse response = exchange.getResponse();
+        String serviceId = route.getServiceId();
+
+        // 响应头到达即记录调用结果和实例延迟
+        call.onResponse(clientResponse.statusCode().value());
+        lease.onResponse();
+        boolean eventStream = clientResponse.headers().contentType()
+                .map(MediaType.TEXT_EVENT_STREAM::isCompatibleWith)
+                .orElse(false);
+        if (eventStream) {
+            call.releasePermit();
+            lease.release();
+        }
 
         // 复制响应状态和头
         response.setStatusCode(clientResponse.statusCode());
@@ -137,112 +431,142 @@ public class McpProxyHandler {
         // 获取响应体 Flux
         Flux<DataBuffer> body = clientResponse.bodyToFlux(DataBuffer.class);
 
-        // 处理响应内容，提取sessionId并重写URL
-        body = processResponseBodyWithUrlRewrite(body, authKey, serviceId, exchange);
+        if (isStreamableHttp(route, exchange.getRequest(), clientResponse)) {
+            // Streamable HTTP：会话由响应头签发，响应体不需要重写
+            trackStreamableSession(exchange, clientResponse, authKey, serviceId, instance.getInstanceId());
+            body = processStreamableResponseBody(body, serviceId, exchange);
+        } else {
+            // 处理响应内容，提取sessionId并重写URL
+            body = processResponseBodyWithUrlRewrite(body, authKey, serviceId, instance.getInstanceId(), exchange);
+        }
 
         // 流式复制响应体
         return response.writeWith(body);
     }
 
     /**
-     * 处理响应体，提取sessionId并重写URL路径
+     * 服务配置为Streamable HTTP，或请求/响应携带Mcp-Session-Id头（上游实际使用Streamable HTTP）
      */
-    private Flux<DataBuffer> processResponseBodyWithUrlRewrite(Flux<DataBuffer> body, String authKey,
-                                                               String serviceId, ServerWebExchange exchange) {
-        if (authKey == null) {
-            log.debug("No authKey found, skipping sessionId extraction but still rewriting URLs");
-        }
-
-        return body.map(buffer -> {
-                    try {
-                        // 将 DataBuffer 转换为字符串进行处理
-                        String content = DataBufferUtils.retain(buffer).toString(StandardCharsets.UTF_8);
-                        log.debug("Processing response content for service {}: {}", serviceId, content);
-
-
-                        // 重写URL路径
-                        String rewrittenContent = rewriteUrlPaths(content, serviceId);
-
-                        if (!content.equals(rewrittenContent)) {
-                            log.debug("URL rewritten from: {} to: {}", content, rewrittenContent);
-
-                            // 释放原buffer并创建新的buffer
-                            DataBufferUtils.release(buffer);
-                            return exchange.getResponse().bufferFactory().wrap(rewrittenContent.getBytes(StandardCharsets.UTF_8));
-                        }
-
-                        return buffer;
-
-                    } catch (Exception e) {
-                        log.error("Error processing response content for URL rewrite: {}", e.getMessage());
-                        return buffer;
-                    }
-                }).doOnComplete(() -> log.debug("Response streaming completed"))
-                .doOnError(throwable -> log.error("Error during response streaming: {}", throwable.getMessage()));
+    private static boolean isStreamableHttp(ServiceRoute route, ServerHttpRequest request,
+                                            ClientResponse clientResponse) {
+        return route.getTransport() == McpTransport.STREAMABLE_HTTP
+                || request.getHeaders().containsKey(MCP_SESSION_ID_HEADER)
+                || clientResponse.headers().asHttpHeaders().containsKey(MCP_SESSION_ID_HEADER);
     }
 
     /**
-     * 重写响应中的URL路径，添加serviceId前缀
+     * 登记上游在响应头中签发的会话，后续携带Mcp-Session-Id的请求按会话鉴权并固定到签发的实例
+     * 客户端DELETE会话成功或上游返回404（会话已不存在）时移除会话
      */
-    private String rewriteUrlPaths(String content, String serviceId) {
-        if (content == null || content.trim().isEmpty()) {
-            return content;
+    private void trackStreamableSession(ServerWebExchange exchange, ClientResponse clientResponse, String authKey,
+                                        String serviceId, String instanceId) {
+        HttpStatusCode status = clientResponse.statusCode();
+        SessionBinding binding = exchange.getAttribute("sessionBinding");
+        if (binding != null && (status.value() == HttpStatus.NOT_FOUND.value()
+                || (status.is2xxSuccessful() && exchange.getRequest().getMethod() == HttpMethod.DELETE))) {
+            sessionRegistry.remove(binding.getSessionId());
+            return;
+        }
+        String sessionId = clientResponse.headers().asHttpHeaders().getFirst(MCP_SESSION_ID_HEADER);
+        if (sessionId != null && !sessionId.isBlank() && status.is2xxSuccessful()
+                && (binding == null || !binding.getSessionId().equals(sessionId))) {
+            sessionRegistry.bind(sessionId, authKey, serviceId, instanceId);
         }
+    }
 
-        Matcher matcher = URL_REWRITE_PATTERN.matcher(content);
-        StringBuilder sb = new StringBuilder();
-
-        while (matcher.find()) {
-            String prefix = matcher.group(1) != null ? matcher.group(1) : ""; // data: 前缀
-            String pathPart = matcher.group(2); // /mcp/ 后的路径部分
-            String queryPart = matcher.group(3) != null ? matcher.group(3) : ""; // 查询参数
-            String suffix = matcher.group(4); // 结尾符号
-
-            // 重写URL：/mcp/message -> /mcp/{serviceId}/message
-            String mcpProxyPath="/mcp/" + serviceId;
-            String rewrittenUrl;
-            if (pathPart.equals(serviceId)){
-                rewrittenUrl=prefix + "/mcp/" + pathPart + queryPart + suffix;
-            }else {
-                rewrittenUrl = prefix + mcpProxyPath + "/mcp/" + pathPart + queryPart + suffix;
+    /**
+     * Streamable HTTP响应体原样透传，未命中目录缓存或工具结果缓存的JSON响应同时写入缓存
+     * SSE响应（POST升级或GET通知流）只登记到流注册表做心跳、缓冲上限和停机排空，会话关闭时结束
+     */
+    private Flux<DataBuffer> processStreamableResponseBody(Flux<DataBuffer> body, String serviceId,
+                                                           ServerWebExchange exchange) {
+        MediaType contentType = exchange.getResponse().getHeaders().getContentType();
+        if (contentType == null || !MediaType.TEXT_EVENT_STREAM.isCompatibleWith(contentType)) {
+            CatalogCache.Lookup miss = exchange.getAttribute(CatalogCache.MISS_ATTRIBUTE);
+            boolean cacheable = miss != null && contentType != null
+                    && MediaType.APPLICATION_JSON.isCompatibleWith(contentType)
+                    && HttpStatus.OK.equals(exchange.getResponse().getStatusCode());
+            if (cacheable) {
+                return catalogCache.capture(body, miss);
+            }
+            ToolResultCache.Lookup toolMiss = exchange.getAttribute(ToolResultCache.MISS_ATTRIBUTE);
+            if (toolMiss == null) {
+                return body;
+            }
+            toolResultCache.setStatusHeader(exchange, toolMiss);
+            boolean toolCacheable = contentType != null && MediaType.APPLICATION_JSON.isCompatibleWith(contentType)
+                    && HttpStatus.OK.equals(exchange.getResponse().getStatusCode());
+            if (toolCacheable) {
+                return toolResultCache.capture(body, toolMiss);
             }
+            toolResultCache.release(toolMiss);
+            return body;
+        }
 
-            log.debug("Rewriting URL: {} -> {}", matcher.group(0), rewrittenUrl);
-            matcher.appendReplacement(sb, Matcher.quoteReplacement(rewrittenUrl));
+        // POST升级为SSE时结果在流中返回，不等流结束，立即让合并的follower自行转发
+        ToolResultCache.Lookup toolMiss = exchange.getAttribute(ToolResultCache.MISS_ATTRIBUTE);
+        if (toolMiss != null) {
+            toolResultCache.release(toolMiss);
         }
-        matcher.appendTail(sb);
 
-        return sb.toString();
+        SessionBinding binding = exchange.getAttribute("sessionBinding");
+        return Flux.defer(() -> {
+                    SseStream stream = sseStreamRegistry.register(serviceId, exchange.getResponse().bufferFactory());
+                    if (binding != null) {
+                        stream.closeOn(binding.onClose());
+                    }
+                    return stream.decorate(body, proxyConfig.getSseMaxDuration());
+                })
+                .doOnComplete(() -> log.debug("Response streaming completed"))
+                .doOnError(throwable -> log.error("Error during response streaming: {}", throwable.getMessage()));
     }
 
-
     /**
-     * 构建目标URL
+     * 处理响应体，流式重写SSE endpoint事件中的URL路径，并把endpoint事件中的sessionId登记到会话注册表
+     * SSE流登记到流注册表，空闲时注入心跳，超过最长持续时间或停机排空超时后关闭
+     * 会话到期或被移除时结束SSE流，取消上游响应以释放连接；SSE流结束时移除它签发的会话
+     * 非SSE响应直接透传
      */
-    private String buildTargetUrl(MCPServiceEntity service, ServerHttpRequest request) {
-        String endpoint = service.getEndpoint();
-        String path = request.getPath().value();
-
-        // 移除/mcp/{serviceId}前缀
-        String servicePath = path.replaceFirst("/mcp/" + service.getServiceId(), "");
-        if (!servicePath.startsWith("/")) {
-            servicePath = "/" + servicePath;
+    private Flux<DataBuffer> processResponseBodyWithUrlRewrite(Flux<DataBuffer> body, String authKey,
+                                                               String serviceId, String instanceId,
+                                                               ServerWebExchange exchange) {
+        if (authKey == null) {
+            log.debug("No authKey found, skipping sessionId extraction but still rewriting URLs");
         }
 
-        // 确保endpoint不以/结尾
-        if (endpoint.endsWith("/")) {
-            endpoint = endpoint.substring(0, endpoint.length() - 1);
+        MediaType contentType = exchange.getResponse().getHeaders().getContentType();
+        if (contentType == null || !MediaType.TEXT_EVENT_STREAM.isCompatibleWith(contentType)) {
+            return body;
         }
 
-        String targetUrl = endpoint + servicePath;
+        // 订阅时才登记，保证登记与注销成对出现
+        return Flux.defer(() -> {
+                    SseStream stream = sseStreamRegistry.register(serviceId, exchange.getResponse().bufferFactory());
+                    AtomicReference<SessionBinding> issued = new AtomicReference<>();
+                    SseEndpointRewriter rewriter = new SseEndpointRewriter(exchange.getResponse().bufferFactory(),
+                            serviceId, sessionId -> {
+                                SessionBinding binding = sessionRegistry.bind(sessionId, authKey, serviceId,
+                                        instanceId);
+                                issued.set(binding);
+                                stream.closeOn(binding.onClose());
+                            });
+                    Flux<DataBuffer> rewritten = body.mapNotNull(rewriter::rewrite)
+                            .concatWith(Mono.fromSupplier(rewriter::finish));
+                    // 旧版SSE会话依附于签发它的流，流结束后会话不再可用，立即移除而不是等到过期
+                    return stream.decorate(rewritten, proxyConfig.getSseMaxDuration())
+                            .doFinally(signal -> removeIssuedSession(issued.get()));
+                })
+                .doOnComplete(() -> log.debug("Response streaming completed"))
+                .doOnError(throwable -> log.error("Error during response streaming: {}", throwable.getMessage()));
+    }
 
-        // 添加查询参数
-        String query = request.getURI().getQuery();
-        if (query != null && !query.isEmpty()) {
-            targetUrl += "?" + query;
+    /**
+     * 会话仍是本流签发的绑定时移除，已被同一key重新绑定或已移除的不处理
+     */
+    private void removeIssuedSession(SessionBinding binding) {
+        if (binding != null && sessionRegistry.lookupLocal(binding.getSessionId()) == binding) {
+            sessionRegistry.remove(binding.getSessionId());
         }
-
-        return targetUrl;
     }
 
     /**
@@ -292,6 +616,71 @@ public class McpProxyHandler {
         return response.writeWith(Mono.just(buffer));
     }
 
+    /**
+     * 一次上游调用的流量控制状态：并发许可和熔断器结果只记录一次
+     */
+    private static final class UpstreamCall {
+
+        private final ConcurrencyPermit permit;
+        private final CircuitBreaker breaker;
+        private final long startNanos = System.nanoTime();
+        private final AtomicBoolean recorded = new AtomicBoolean();
+
+        UpstreamCall(ConcurrencyPermit permit, CircuitBreaker breaker) {
+            this.permit = permit;
+            this.breaker = breaker;
+        }
+
+        /**
+         * 上游过载的响应（5xx、429）让并发上限收缩，5xx计入熔断错误率
+         */
+        void onResponse(int status) {
+            if (!recorded.compareAndSet(false, true)) {
+                return;
+            }
+            long duration = System.nanoTime() - startNanos;
+            if (status >= 500 || status == HttpStatus.TOO_MANY_REQUESTS.value()) {
+                permit.onDropped();
+            } else {
+                permit.onSuccess();
+            }
+            if (breaker != null) {
+                if (status >= 500) {
+                    breaker.onError(duration);
+                } else {
+                    breaker.onSuccess(duration);
+                }
+            }
+        }
+
+        /**
+         * 连接失败、超时等未拿到响应的错误
+         */
+        void onError() {
+            if (!recorded.compareAndSet(false, true)) {
+                return;
+            }
+            permit.onDropped();
+            if (breaker != null) {
+                breaker.onError(System.nanoTime() - startNanos);
+            }
+        }
+
+        void releasePermit() {
+            permit.release();
+        }
+
+        /**
+         * 请求结束，被取消而没有结果时不计入熔断统计
+         */
+        void release() {
+            if (recorded.compareAndSet(false, true) && breaker != null) {
+                breaker.onIgnored();
+            }
+            permit.release();
+        }
+    }
+
     /**
      * 脱敏显示key
      */
@@ -0,0 +1,178 @@
+package org.jdt.mcp.gateway.proxy.route;
+
+import org.jdt.mcp.gateway.core.entity.MCPServiceEntity;
+import org.jdt.mcp.gateway.core.entity.MCPServiceInstanceEntity;
+import org.jdt.mcp.gateway.core.entity.McpTransport;
+import org.jdt.mcp.gateway.core.entity.ToolPolicy;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 预解析的服务路由
+ * 在服务加载时解析一次upstream地址，请求路径上只做定长切片和拼接
+ * 服务endpoint作为默认实例，加上启用的额外实例，按P2C（随机取两个，选负载得分低的）分发请求
+ */
+public final class ServiceRoute {
+
+    private static final String PROXY_PREFIX = "/mcp/";
+
+    private final String serviceId;
+    private final MCPServiceEntity service;
+    private final URI upstream;
+    private final McpTransport transport;
+    // 按工具名的策略，服务加载时解析一次
+    private final Map<String, ToolPolicy> toolPolicies;
+    // 代理路径前缀 /mcp/{serviceId} 的长度
+    private final int prefixLength;
+    // 该服务独占连接池的客户端，连接池内按实例地址分别建连
+    private final WebClient webClient;
+    private final UpstreamInstance[] instances;
+    // 健康的实例；全部不健康时退化为所有实例，由熔断器兜底
+    private final UpstreamInstance[] candidates;
+
+    /**
+     * @param previous 同一服务的旧路由，用于沿用实例的负载统计，可以为null
+     * @param toolPolicies 解析后的工具策略，没有配置时为空map
+     */
+    public ServiceRoute(MCPServiceEntity service, WebClient webClient, ServiceRoute previous,
+                        Map<String, ToolPolicy> toolPolicies) {
+        String endpoint = normalize(service.getEndpoint(), service.getServiceId());
+
+        this.serviceId = service.getServiceId();
+        this.service = service;
+        this.upstream = URI.create(endpoint);
+        this.transport = service.getTransport() != null ? service.getTransport() : McpTransport.SSE;
+        this.toolPolicies = toolPolicies;
+        this.prefixLength = PROXY_PREFIX.length() + serviceId.length();
+        this.webClient = webClient;
+
+        List<UpstreamInstance> all = new ArrayList<>();
+        all.add(new UpstreamInstance(UpstreamInstance.DEFAULT_INSTANCE_ID, endpoint,
+                !Boolean.FALSE.equals(service.getHealthy()),
+                previous != null ? previous.findInstance(UpstreamInstance.DEFAULT_INSTANCE_ID) : null));
+        if (service.getInstances() != null) {
+            for (MCPServiceInstanceEntity instance : service.getInstances()) {
+                if (Boolean.FALSE.equals(instance.getEnabled())
+                        || UpstreamInstance.DEFAULT_INSTANCE_ID.equals(instance.getInstanceId())) {
+                    continue;
+                }
+                String instanceEndpoint = normalize(instance.getEndpoint(), serviceId);
+                all.add(new UpstreamInstance(instance.getInstanceId(), instanceEndpoint,
+                        !Boolean.FALSE.equals(instance.getHealthy()),
+                        previous != null ? previous.findInstance(instance.getInstanceId()) : null));
+            }
+        }
+        this.instances = all.toArray(new UpstreamInstance[0]);
+        UpstreamInstance[] healthy = all.stream().filter(UpstreamInstance::isHealthy).toArray(UpstreamInstance[]::new);
+        this.candidates = healthy.length > 0 ? healthy : instances;
+    }
+
+    private static String normalize(String endpoint, String serviceId) {
+        if (endpoint == null || endpoint.isBlank()) {
+            throw new IllegalArgumentException("Service endpoint is empty: " + serviceId);
+        }
+        endpoint = endpoint.trim();
+        if (endpoint.endsWith("/")) {
+            endpoint = endpoint.substring(0, endpoint.length() - 1);
+        }
+        return endpoint;
+    }
+
+    /**
+     * 选择上游实例
+     * @param stickyInstanceId 会话绑定的实例，仍在路由中时优先使用（不论健康状态，会话状态只在该实例上），可以为null
+     */
+    public UpstreamInstance choose(String stickyInstanceId) {
+        if (stickyInstanceId != null) {
+            UpstreamInstance sticky = findInstance(stickyInstanceId);
+            if (sticky != null) {
+                return sticky;
+            }
+        }
+        int n = candidates.length;
+        if (n == 1) {
+            return candidates[0];
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int i = random.nextInt(n);
+        int j = random.nextInt(n - 1);
+        if (j >= i) {
+            j++;
+        }
+        UpstreamInstance a = candidates[i];
+        UpstreamInstance b = candidates[j];
+        return a.score() <= b.score() ? a : b;
+    }
+
+    public UpstreamInstance findInstance(String instanceId) {
+        for (UpstreamInstance instance : instances) {
+            if (instance.getInstanceId().equals(instanceId)) {
+                return instance;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 构建目标URI：实例upstream + 去掉 /mcp/{serviceId} 的原始路径 + 原始查询参数
+     * 使用未解码的path和query，避免二次编码
+     */
+    public URI targetUri(UpstreamInstance instance, String rawPath, String rawQuery) {
+        String upstreamBase = instance.getUpstreamBase();
+        int pathLength = rawPath.length() - prefixLength;
+        int queryLength = rawQuery != null ? rawQuery.length() + 1 : 0;
+
+        StringBuilder url = new StringBuilder(upstreamBase.length() + Math.max(pathLength, 0) + 1 + queryLength);
+        url.append(upstreamBase);
+        if (pathLength <= 0 || rawPath.charAt(prefixLength) != '/') {
+            url.append('/');
+        }
+        if (pathLength > 0) {
+            url.append(rawPath, prefixLength, rawPath.length());
+        }
+        if (rawQuery != null && !rawQuery.isEmpty()) {
+            url.append('?').append(rawQuery);
+        }
+        return URI.create(url.toString());
+    }
+
+    public String getServiceId() {
+        return serviceId;
+    }
+
+    public MCPServiceEntity getService() {
+        return service;
+    }
+
+    public URI getUpstream() {
+        return upstream;
+    }
+
+    public McpTransport getTransport() {
+        return transport;
+    }
+
+    /**
+     * 工具策略，没有配置时返回null
+     */
+    public ToolPolicy getToolPolicy(String toolName) {
+        return toolName != null ? toolPolicies.get(toolName) : null;
+    }
+
+    public int getPrefixLength() {
+        return prefixLength;
+    }
+
+    public WebClient getWebClient() {
+        return webClient;
+    }
+
+    public int getInstanceCount() {
+        return instances.length;
+    }
+}
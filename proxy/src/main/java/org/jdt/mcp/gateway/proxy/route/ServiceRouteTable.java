@@ -0,0 +1,261 @@
+package org.jdt.mcp.gateway.proxy.route;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.jdt.mcp.gateway.core.entity.MCPServiceEntity;
+import org.jdt.mcp.gateway.core.entity.ServiceStatus;
+import org.jdt.mcp.gateway.core.entity.ToolPolicy;
+import org.jdt.mcp.gateway.proxy.client.UpstreamClientRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 进程内服务路由表
+ * 不可变快照 + volatile引用整体替换，读路径无锁；写操作复制快照后原子切换
+ * 按 /mcp/{serviceId}/... 路径中的serviceId区间直接计算哈希查找，不截取子串
+ * 整表重建和单个服务移除时递增失效版本，按需加载的路由只有在加载期间没有发生失效时才写入
+ */
+@Slf4j
+@Component
+public class ServiceRouteTable {
+
+    private static final String PROXY_PREFIX = "/mcp/";
+    private static final TypeReference<Map<String, ToolPolicy>> TOOL_POLICIES_TYPE = new TypeReference<>() {
+    };
+
+    private final UpstreamClientRegistry clientRegistry;
+    private final ObjectMapper objectMapper;
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    // 失效序号，整表重建和单个服务移除时递增，只在持有锁时修改
+    private long sequence;
+    // 最近一次整表重建的失效序号
+    private volatile long generation;
+    // 最近一次整表重建之后被移除过的服务及其移除时的失效序号，整表重建时清空
+    private final Map<String, Long> removals = new ConcurrentHashMap<>();
+
+    public ServiceRouteTable(UpstreamClientRegistry clientRegistry, ObjectMapper objectMapper) {
+        this.clientRegistry = clientRegistry;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * 根据请求路径解析路由，未命中返回null
+     */
+    public ServiceRoute resolve(String path) {
+        if (!path.startsWith(PROXY_PREFIX)) {
+            return null;
+        }
+        int start = PROXY_PREFIX.length();
+        int end = path.indexOf('/', start);
+        if (end < 0) {
+            end = path.length();
+        }
+        if (end == start) {
+            return null;
+        }
+        return snapshot.get(path, start, end);
+    }
+
+    /**
+     * 根据serviceId获取路由，未命中返回null
+     */
+    public ServiceRoute get(String serviceId) {
+        return snapshot.get(serviceId, 0, serviceId.length());
+    }
+
+    /**
+     * 用活跃服务列表整体替换路由表
+     */
+    public synchronized void replaceAll(Collection<MCPServiceEntity> services) {
+        List<ServiceRoute> routes = new ArrayList<>(services.size());
+        for (MCPServiceEntity service : services) {
+            ServiceRoute route = toRoute(service);
+            if (route != null) {
+                routes.add(route);
+            }
+        }
+        snapshot = Snapshot.of(routes);
+        // 新的重建序号大于此前所有移除序号，清空后各服务的版本仍然单调递增
+        generation = ++sequence;
+        removals.clear();
+        clientRegistry.retainAll(routes.stream().map(ServiceRoute::getServiceId).toList());
+        log.info("Service route table rebuilt with {} routes", routes.size());
+    }
+
+    /**
+     * 服务路由的失效版本，开始加载服务前获取，写入时传给put(MCPServiceEntity, long)
+     */
+    public long version(String serviceId) {
+        Long removal = removals.get(serviceId);
+        return removal != null ? removal : generation;
+    }
+
+    /**
+     * 加载期间服务没有被失效时写入路由；否则加载结果可能已过期，只构建路由供本次请求使用，不写入路由表
+     * @param version 开始加载前的version(serviceId)
+     */
+    public synchronized ServiceRoute put(MCPServiceEntity service, long version) {
+        if (service != null && version != version(service.getServiceId())) {
+            log.debug("Service {} was invalidated while loading, not caching its route", service.getServiceId());
+            return toRoute(service);
+        }
+        return put(service);
+    }
+
+    /**
+     * 新增或更新单个服务路由，非活跃服务会被移除并释放连接池
+     */
+    public synchronized ServiceRoute put(MCPServiceEntity service) {
+        ServiceRoute route = toRoute(service);
+        if (route == null) {
+            release(service.getServiceId());
+            return null;
+        }
+        List<ServiceRoute> routes = snapshot.routes();
+        routes.removeIf(existing -> existing.getServiceId().equals(route.getServiceId()));
+        routes.add(route);
+        snapshot = Snapshot.of(routes);
+        return route;
+    }
+
+    /**
+     * 移除服务路由（服务缓存失效），连接池保留，服务重新加载且连接池配置未变时继续使用
+     */
+    public synchronized void remove(String serviceId) {
+        removals.put(serviceId, ++sequence);
+        if (get(serviceId) == null) {
+            return;
+        }
+        List<ServiceRoute> routes = snapshot.routes();
+        routes.removeIf(existing -> existing.getServiceId().equals(serviceId));
+        snapshot = Snapshot.of(routes);
+    }
+
+    /**
+     * 服务已删除或下线时移除路由并释放连接池
+     * 没有再被请求的已删除服务由整表重建时释放
+     */
+    public synchronized void release(String serviceId) {
+        clientRegistry.release(serviceId);
+        if (get(serviceId) != null) {
+            remove(serviceId);
+        }
+    }
+
+    public int size() {
+        return snapshot.size;
+    }
+
+    private ServiceRoute toRoute(MCPServiceEntity service) {
+        if (service == null || service.getStatus() != ServiceStatus.ACTIVE) {
+            return null;
+        }
+        try {
+            return new ServiceRoute(service, clientRegistry.clientFor(service), get(service.getServiceId()),
+                    parseToolPolicies(service));
+        } catch (IllegalArgumentException e) {
+            log.warn("Skipping invalid route for service {}: {}", service.getServiceId(), e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 解析服务的工具策略，格式错误时忽略策略，不影响路由
+     */
+    private Map<String, ToolPolicy> parseToolPolicies(MCPServiceEntity service) {
+        String toolPolicies = service.getToolPolicies();
+        if (toolPolicies == null || toolPolicies.isBlank()) {
+            return Map.of();
+        }
+        try {
+            Map<String, ToolPolicy> policies = objectMapper.readValue(toolPolicies, TOOL_POLICIES_TYPE);
+            return policies != null ? Map.copyOf(policies) : Map.of();
+        } catch (JsonProcessingException | NullPointerException e) {
+            log.warn("Ignoring invalid tool policies for service {}: {}", service.getServiceId(), e.getMessage());
+            return Map.of();
+        }
+    }
+
+    /**
+     * 开放寻址哈希表快照，容量为2的幂且负载因子不超过0.5
+     */
+    private static final class Snapshot {
+
+        static final Snapshot EMPTY = new Snapshot(new String[1], new ServiceRoute[1], 0);
+
+        final String[] keys;
+        final ServiceRoute[] values;
+        final int size;
+        final int mask;
+
+        private Snapshot(String[] keys, ServiceRoute[] values, int size) {
+            this.keys = keys;
+            this.values = values;
+            this.size = size;
+            this.mask = keys.length - 1;
+        }
+
+        static Snapshot of(List<ServiceRoute> routes) {
+            int capacity = Integer.highestOneBit(Math.max(routes.size(), 1) * 4 - 1);
+            String[] keys = new String[capacity];
+            ServiceRoute[] values = new ServiceRoute[capacity];
+            int mask = capacity - 1;
+            for (ServiceRoute route : routes) {
+                String key = route.getServiceId();
+                int slot = hash(key, 0, key.length()) & mask;
+                while (keys[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = key;
+                values[slot] = route;
+            }
+            return new Snapshot(keys, values, routes.size());
+        }
+
+        ServiceRoute get(String source, int start, int end) {
+            int length = end - start;
+            int slot = hash(source, start, end) & mask;
+            String key;
+            while ((key = keys[slot]) != null) {
+                if (key.length() == length && source.regionMatches(start, key, 0, length)) {
+                    return values[slot];
+                }
+                slot = (slot + 1) & mask;
+            }
+            return null;
+        }
+
+        List<ServiceRoute> routes() {
+            List<ServiceRoute> routes = new ArrayList<>(size + 1);
+            for (ServiceRoute value : values) {
+                if (value != null) {
+                    routes.add(value);
+                }
+            }
+            return routes;
+        }
+
+        /**
+         * 与String.hashCode相同的算法，再做一次murmur3的末尾混合
+         * 顺序编号的serviceId（service-1、service-2...）哈希值也是连续的，不混合时线性探测会聚集成长链
+         */
+        static int hash(String source, int start, int end) {
+            int h = 0;
+            for (int i = start; i < end; i++) {
+                h = 31 * h + source.charAt(i);
+            }
+            h ^= h >>> 16;
+            h *= 0x85ebca6b;
+            return h ^ (h >>> 13);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package org.jdt.mcp.gateway.proxy.route;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 服务的一个上游实例
+ * 地址和健康状态随路由重建而替换，负载统计（进行中请求数、延迟EWMA）在同地址的新旧实例间共享
+ */
+public final class UpstreamInstance {
+
+    // 服务自身endpoint对应的默认实例ID
+    public static final String DEFAULT_INSTANCE_ID = "default";
+
+    // EWMA平滑系数
+    private static final double EWMA_ALPHA = 0.3;
+    // 请求失败时按此延迟计入EWMA，避免快速失败的实例吸引更多流量
+    private static final long FAILURE_PENALTY_NANOS = 1_000_000_000L;
+
+    private final String instanceId;
+    private final String upstreamBase;
+    private final boolean healthy;
+    private final Load load;
+
+    UpstreamInstance(String instanceId, String upstreamBase, boolean healthy, UpstreamInstance previous) {
+        this.instanceId = instanceId;
+        this.upstreamBase = upstreamBase;
+        this.healthy = healthy;
+        this.load = previous != null && previous.upstreamBase.equals(upstreamBase) ? previous.load : new Load();
+    }
+
+    /**
+     * 负载得分，越小越优先：(进行中请求数 + 1) * 延迟EWMA(微秒)
+     */
+    double score() {
+        return (load.inflight.get() + 1) * (Double.longBitsToDouble(load.ewmaNanos.get()) / 1000 + 1);
+    }
+
+    /**
+     * 开始一次请求，返回的租约必须释放
+     */
+    public Lease begin() {
+        load.inflight.incrementAndGet();
+        return new Lease(load);
+    }
+
+    public String getInstanceId() {
+        return instanceId;
+    }
+
+    public String getUpstreamBase() {
+        return upstreamBase;
+    }
+
+    public boolean isHealthy() {
+        return healthy;
+    }
+
+    public int getInflight() {
+        return load.inflight.get();
+    }
+
+    public long getLatencyEwmaNanos() {
+        return (long) Double.longBitsToDouble(load.ewmaNanos.get());
+    }
+
+    private static final class Load {
+        final AtomicInteger inflight = new AtomicInteger();
+        final AtomicLong ewmaNanos = new AtomicLong(Double.doubleToLongBits(0));
+
+        void sample(long nanos) {
+            long current;
+            long next;
+            do {
+                current = ewmaNanos.get();
+                double ewma = Double.longBitsToDouble(current);
+                next = Double.doubleToLongBits(ewma == 0 ? nanos : ewma + EWMA_ALPHA * (nanos - ewma));
+            } while (!ewmaNanos.compareAndSet(current, next));
+        }
+    }
+
+    /**
+     * 一次请求对实例的占用，延迟只采样一次，进行中计数只释放一次
+     */
+    public static final class Lease {
+
+        private final Load load;
+        private final long startNanos = System.nanoTime();
+        private final AtomicBoolean sampled = new AtomicBoolean();
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Lease(Load load) {
+            this.load = load;
+        }
+
+        /**
+         * 收到响应头，记录延迟
+         */
+        public void onResponse() {
+            if (sampled.compareAndSet(false, true)) {
+                load.sample(System.nanoTime() - startNanos);
+            }
+        }
+
+        /**
+         * 未拿到响应，按惩罚延迟记录
+         */
+        public void onError() {
+            if (sampled.compareAndSet(false, true)) {
+                load.sample(Math.max(System.nanoTime() - startNanos, FAILURE_PENALTY_NANOS));
+            }
+        }
+
+        public void release() {
+            if (released.compareAndSet(false, true)) {
+                load.inflight.decrementAndGet();
+            }
+        }
+    }
+}
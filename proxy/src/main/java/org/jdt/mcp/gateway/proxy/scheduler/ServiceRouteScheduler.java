@@ -0,0 +1,28 @@
+package org.jdt.mcp.gateway.proxy.scheduler;
+
+import lombok.extern.slf4j.Slf4j;
+import org.jdt.mcp.gateway.proxy.service.MCPDiscoveryService;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 路由表定时刷新任务
+ * 定期从数据库重建进程内路由表，兜底处理服务变更
+ */
+@Slf4j
+@Component
+public class ServiceRouteScheduler {
+
+    private final MCPDiscoveryService mcpDiscoveryService;
+
+    public ServiceRouteScheduler(MCPDiscoveryService mcpDiscoveryService) {
+        this.mcpDiscoveryService = mcpDiscoveryService;
+    }
+
+    @Scheduled(initialDelayString = "#{@proxyConfig.routeRefreshInterval.toMillis()}",
+            fixedDelayString = "#{@proxyConfig.routeRefreshInterval.toMillis()}")
+    public void refreshRoutes() {
+        log.debug("Starting scheduled service route refresh");
+        mcpDiscoveryService.refreshServiceCache();
+    }
+}
@@ -2,10 +2,15 @@ package org.jdt.mcp.gateway.proxy.scheduler;
 
 import lombok.extern.slf4j.Slf4j;
 import org.jdt.mcp.gateway.proxy.service.StatisticsService;
+import org.jdt.mcp.gateway.service.RedisStatsCacheService;
+import org.jdt.mcp.gateway.service.RedisToolStatsCacheService;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
 
 /**
  * 统计数据定时任务调度器
@@ -17,10 +22,33 @@ import org.springframework.stereotype.Component;
 @ConditionalOnProperty(name = "jdt.mcp.proxy.enable-statistics", havingValue = "true", matchIfMissing = true)
 public class StatisticsScheduler {
 
+    private static final Duration PENDING_FLUSH_TIMEOUT = Duration.ofSeconds(10);
+
     private final StatisticsService statisticsService;
+    private final RedisStatsCacheService redisStatsService;
+    private final RedisToolStatsCacheService redisToolStatsService;
 
-    public StatisticsScheduler(StatisticsService statisticsService) {
+    public StatisticsScheduler(StatisticsService statisticsService,
+                               RedisStatsCacheService redisStatsService,
+                               RedisToolStatsCacheService redisToolStatsService) {
         this.statisticsService = statisticsService;
+        this.redisStatsService = redisStatsService;
+        this.redisToolStatsService = redisToolStatsService;
+    }
+
+    /**
+     * 将本地累加的统计增量刷新到Redis
+     * 同步等待完成，fixedDelay保证两次刷新不会重叠
+     */
+    @Scheduled(initialDelayString = "#{@proxyConfig.statsFlushInterval.toMillis()}",
+            fixedDelayString = "#{@proxyConfig.statsFlushInterval.toMillis()}")
+    public void flushPendingStats() {
+        try {
+            Mono.when(redisStatsService.flushPendingStats(), redisToolStatsService.flushPendingStats())
+                    .block(PENDING_FLUSH_TIMEOUT);
+        } catch (Exception e) {
+            log.error("Pending statistics flush failed", e);
+        }
     }
 
     /**
@@ -1,10 +1,13 @@
 package org.jdt.mcp.gateway.proxy.service;
 
+import org.jdt.mcp.gateway.core.dto.ToolStatsData;
 import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
 
 import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * 统计服务接口
@@ -12,15 +15,14 @@ import java.time.LocalDateTime;
 public interface StatisticsService {
 
     /**
-     * 记录请求统计
+     * 记录请求统计，在调用线程上同步记入本地累加器，不阻塞
      * @param exchange Web交换对象
      * @param serviceId 服务ID
      * @param statusCode 状态码
      * @param responseTime 响应时间
-     * @return Mono<Void>
      */
-    Mono<Void> recordRequest(ServerWebExchange exchange, String serviceId,
-                             int statusCode, Duration responseTime);
+    void recordRequest(ServerWebExchange exchange, String serviceId,
+                       int statusCode, Duration responseTime);
 
     /**
      * 获取服务统计信息
@@ -36,6 +38,37 @@ public interface StatisticsService {
      */
     Mono<ServiceStats> getRealtimeServiceStats(String serviceId);
 
+    /**
+     * 获取日期区间内（含首尾）的唯一用户数（估算值）
+     * @param serviceId 服务ID
+     * @param from 开始日期
+     * @param to 结束日期
+     * @return 唯一用户数
+     */
+    Mono<Long> getUniqueUsers(String serviceId, LocalDate from, LocalDate to);
+
+    /**
+     * 获取服务当天各工具的实时统计（从Redis缓存），按调用次数降序
+     * @param serviceId 服务ID
+     * @return 工具统计列表
+     */
+    Mono<List<ToolStatsData>> getRealtimeToolStats(String serviceId);
+
+    /**
+     * 获取服务当天各工具的统计（从数据库），按调用次数降序
+     * @param serviceId 服务ID
+     * @return 工具统计列表
+     */
+    Mono<List<ToolStatsData>> getToolStats(String serviceId);
+
+    /**
+     * 获取服务当天P95响应时间最高的工具（从数据库）
+     * @param serviceId 服务ID
+     * @param limit 返回数量
+     * @return 工具统计列表
+     */
+    Mono<List<ToolStatsData>> getSlowestTools(String serviceId, int limit);
+
     /**
      * 清理统计数据
      */
@@ -55,17 +88,24 @@ public interface StatisticsService {
         private final int failedCalls;
         private final long avgResponseTimeMs;
         private final long maxResponseTimeMs;
+        private final long p50ResponseTimeMs;
+        private final long p95ResponseTimeMs;
+        private final long p99ResponseTimeMs;
         private final int uniqueUsers;
         private final LocalDateTime lastCallTime;
 
         public ServiceStats(int totalCalls, int successCalls, int failedCalls,
                             long avgResponseTimeMs, long maxResponseTimeMs,
+                            long p50ResponseTimeMs, long p95ResponseTimeMs, long p99ResponseTimeMs,
                             int uniqueUsers, LocalDateTime lastCallTime) {
             this.totalCalls = totalCalls;
             this.successCalls = successCalls;
             this.failedCalls = failedCalls;
             this.avgResponseTimeMs = avgResponseTimeMs;
             this.maxResponseTimeMs = maxResponseTimeMs;
+            this.p50ResponseTimeMs = p50ResponseTimeMs;
+            this.p95ResponseTimeMs = p95ResponseTimeMs;
+            this.p99ResponseTimeMs = p99ResponseTimeMs;
             this.uniqueUsers = uniqueUsers;
             this.lastCallTime = lastCallTime;
         }
@@ -76,6 +116,9 @@ public interface StatisticsService {
         public int getFailedCalls() { return failedCalls; }
         public long getAverageResponseTime() { return avgResponseTimeMs; }
         public long getMaxResponseTime() { return maxResponseTimeMs; }
+        public long getP50ResponseTime() { return p50ResponseTimeMs; }
+        public long getP95ResponseTime() { return p95ResponseTimeMs; }
+        public long getP99ResponseTime() { return p99ResponseTimeMs; }
         public int getUniqueUsers() { return uniqueUsers; }
         public LocalDateTime getLastCallTime() { return lastCallTime; }
 
@@ -85,7 +128,7 @@ public interface StatisticsService {
 
         // 创建空统计对象
         public static ServiceStats empty() {
-            return new ServiceStats(0, 0, 0, 0, 0, 0, null);
+            return new ServiceStats(0, 0, 0, 0, 0, 0, 0, 0, 0, null);
         }
     }
 }
\ No newline at end of file
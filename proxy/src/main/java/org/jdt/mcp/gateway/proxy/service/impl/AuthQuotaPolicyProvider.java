@@ -0,0 +1,76 @@
+package org.jdt.mcp.gateway.proxy.service.impl;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.jdt.mcp.gateway.auth.service.AuthService;
+import org.jdt.mcp.gateway.core.entity.AuthKeyEntity;
+import org.jdt.mcp.gateway.core.entity.UserQuotaEntity;
+import org.jdt.mcp.gateway.mapper.UserQuotaMapper;
+import org.jdt.mcp.gateway.traffic.config.TrafficConfiguration;
+import org.jdt.mcp.gateway.traffic.quota.QuotaPolicy;
+import org.jdt.mcp.gateway.traffic.quota.QuotaWindow;
+import org.jdt.mcp.gateway.traffic.service.QuotaPolicyProvider;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 配额规则：key配额来自认证缓存中的AuthKeyEntity，用户配额来自user_quotas表并在本地缓存
+ */
+@Service
+public class AuthQuotaPolicyProvider implements QuotaPolicyProvider {
+
+    private static final int USER_QUOTA_CACHE_MAX_SIZE = 100_000;
+
+    private final AuthService authService;
+    private final UserQuotaMapper userQuotaMapper;
+    private final AsyncCache<String, Optional<UserQuotaEntity>> userQuotaCache;
+
+    public AuthQuotaPolicyProvider(AuthService authService,
+                                   UserQuotaMapper userQuotaMapper,
+                                   TrafficConfiguration trafficConfig) {
+        this.authService = authService;
+        this.userQuotaMapper = userQuotaMapper;
+        this.userQuotaCache = Caffeine.newBuilder()
+                .maximumSize(USER_QUOTA_CACHE_MAX_SIZE)
+                .expireAfterWrite(trafficConfig.getQuotaPolicyCacheTtl())
+                .buildAsync();
+    }
+
+    @Override
+    public Mono<List<QuotaPolicy>> getPolicies(String authKey) {
+        return authService.getAuthKeyEntity(authKey)
+                .flatMap(key -> getUserQuota(key.getUserId())
+                        .map(userQuota -> buildPolicies(key, userQuota.orElse(null))));
+    }
+
+    private Mono<Optional<UserQuotaEntity>> getUserQuota(String userId) {
+        return Mono.fromFuture(() -> userQuotaCache.get(userId, (id, executor) ->
+                Mono.fromCallable(() -> Optional.ofNullable(userQuotaMapper.findByUserId(id)))
+                        .subscribeOn(Schedulers.boundedElastic())
+                        .toFuture()), true);
+    }
+
+    private List<QuotaPolicy> buildPolicies(AuthKeyEntity key, UserQuotaEntity userQuota) {
+        List<QuotaPolicy> policies = new ArrayList<>(4);
+        String keySubject = "key:" + key.getId();
+        addPolicy(policies, keySubject, QuotaWindow.MINUTE, key.getQuotaPerMinute());
+        addPolicy(policies, keySubject, QuotaWindow.DAY, key.getQuotaPerDay());
+        if (userQuota != null) {
+            String userSubject = "user:" + key.getUserId();
+            addPolicy(policies, userSubject, QuotaWindow.MINUTE, userQuota.getQuotaPerMinute());
+            addPolicy(policies, userSubject, QuotaWindow.DAY, userQuota.getQuotaPerDay());
+        }
+        return policies;
+    }
+
+    private void addPolicy(List<QuotaPolicy> policies, String subject, QuotaWindow window, Integer limit) {
+        if (limit != null && limit > 0) {
+            policies.add(new QuotaPolicy(subject, window, limit));
+        }
+    }
+}
@@ -1,43 +1,84 @@
 package org.jdt.mcp.gateway.proxy.service.impl;
 
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.jdt.mcp.gateway.core.config.ProxyConfig;
 import org.jdt.mcp.gateway.core.entity.MCPServiceEntity;
+import org.jdt.mcp.gateway.core.entity.MCPServiceInstanceEntity;
 import org.jdt.mcp.gateway.core.entity.ServiceStatus;
+import org.jdt.mcp.gateway.mapper.MCPServiceInstanceMapper;
 import org.jdt.mcp.gateway.mapper.MCPServiceMapper;
+import org.jdt.mcp.gateway.proxy.route.ServiceRouteTable;
 import org.jdt.mcp.gateway.proxy.service.MCPDiscoveryService;
 import org.jdt.mcp.gateway.service.RedisMCPServiceCacheService;
 import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
 
 import java.time.Duration;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 public class RedisBasedMCPDiscoveryServiceImpl implements MCPDiscoveryService {
 
     private final MCPServiceMapper mcpServiceMapper;
+    private final MCPServiceInstanceMapper instanceMapper;
     private final RedisMCPServiceCacheService redisCacheService;
+    private final ServiceRouteTable routeTable;
+
+    // 进程内一级缓存（L1），Redis为二级缓存（L2）；同一serviceId的并发未命中只触发一次加载
+    private final AsyncCache<String, MCPServiceEntity> localCache;
+
+    private Disposable invalidationSubscription;
 
     public RedisBasedMCPDiscoveryServiceImpl(MCPServiceMapper mcpServiceMapper,
-                                             RedisMCPServiceCacheService redisCacheService) {
+                                             MCPServiceInstanceMapper instanceMapper,
+                                             RedisMCPServiceCacheService redisCacheService,
+                                             ServiceRouteTable routeTable,
+                                             ProxyConfig proxyConfig,
+                                             MeterRegistry meterRegistry) {
         this.mcpServiceMapper = mcpServiceMapper;
+        this.instanceMapper = instanceMapper;
         this.redisCacheService = redisCacheService;
+        this.routeTable = routeTable;
+        this.localCache = Caffeine.newBuilder()
+                .maximumSize(proxyConfig.getServiceCacheMaxSize())
+                .expireAfterWrite(proxyConfig.getServiceCacheTtl())
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, localCache, "mcp.service.local");
     }
 
     @PostConstruct
     public void initializeServiceCache() {
         refreshServiceCache();
+        subscribeInvalidations();
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (invalidationSubscription != null) {
+            invalidationSubscription.dispose();
+        }
     }
 
     @Override
     public Mono<MCPServiceEntity> getService(String serviceId) {
-        return redisCacheService.getServiceFromCache(serviceId)
-                .filter(service -> service.getStatus() == ServiceStatus.ACTIVE)
-                .switchIfEmpty(loadServiceFromDatabase(serviceId))
+        // 取消订阅不取消共享的加载future，避免影响其他等待同一serviceId的请求
+        return Mono.fromFuture(() -> localCache.get(serviceId,
+                        (id, executor) -> loadService(id).toFuture()), true)
                 .doOnNext(service -> log.debug("Retrieved service: {}", serviceId))
                 .doOnError(error -> log.warn("Error retrieving service {}: {}", serviceId, error.getMessage()));
     }
@@ -74,6 +115,16 @@ public class RedisBasedMCPDiscoveryServiceImpl implements MCPDiscoveryService {
         Mono.fromRunnable(() -> {
             try {
                 List<MCPServiceEntity> activeServices = mcpServiceMapper.findByStatus(ServiceStatus.ACTIVE);
+                Map<String, List<MCPServiceInstanceEntity>> instances = instanceMapper.findAllEnabled().stream()
+                        .collect(Collectors.groupingBy(MCPServiceInstanceEntity::getServiceId));
+                activeServices.forEach(service -> service.setInstances(
+                        instances.getOrDefault(service.getServiceId(), List.of())));
+
+                // 重建进程内路由表和本地缓存
+                routeTable.replaceAll(activeServices);
+                localCache.synchronous().invalidateAll();
+                localCache.synchronous().putAll(activeServices.stream()
+                        .collect(Collectors.toMap(MCPServiceEntity::getServiceId, Function.identity(), (a, b) -> b)));
 
                 redisCacheService.refreshServiceCache(activeServices)
                         .doOnSuccess(v -> log.info("Service cache refreshed, loaded {} active services", activeServices.size()))
@@ -86,11 +137,43 @@ public class RedisBasedMCPDiscoveryServiceImpl implements MCPDiscoveryService {
         }).subscribeOn(Schedulers.boundedElastic()).subscribe();
     }
 
+    /**
+     * 订阅服务失效通知，清除本地缓存和路由；连接断开后退避重连
+     */
+    private void subscribeInvalidations() {
+        invalidationSubscription = redisCacheService.subscribeInvalidations()
+                .doOnNext(this::evictLocal)
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1))
+                        .maxBackoff(Duration.ofSeconds(30))
+                        .doBeforeRetry(signal -> log.warn("Service invalidation subscription failed, retrying: {}",
+                                signal.failure().getMessage())))
+                .subscribe();
+        log.info("Subscribed to service invalidation channel");
+    }
+
+    /**
+     * 清除单个服务的本地缓存和路由
+     */
+    private void evictLocal(String serviceId) {
+        localCache.synchronous().invalidate(serviceId);
+        routeTable.remove(serviceId);
+        log.debug("Evicted local service cache: {}", serviceId);
+    }
+
+    /**
+     * L1未命中时的加载：先查Redis，再降级到数据库
+     */
+    private Mono<MCPServiceEntity> loadService(String serviceId) {
+        return redisCacheService.getServiceFromCache(serviceId)
+                .filter(service -> service.getStatus() == ServiceStatus.ACTIVE)
+                .switchIfEmpty(loadServiceFromDatabase(serviceId));
+    }
+
     /**
      * 从数据库加载服务并缓存
      */
     private Mono<MCPServiceEntity> loadServiceFromDatabase(String serviceId) {
-        return Mono.fromCallable(() -> mcpServiceMapper.findByServiceId(serviceId))
+        return Mono.fromCallable(() -> withInstances(mcpServiceMapper.findByServiceId(serviceId)))
                 .subscribeOn(Schedulers.boundedElastic())
                 .doOnNext(service -> {
                     if (service != null) {
@@ -109,18 +192,31 @@ public class RedisBasedMCPDiscoveryServiceImpl implements MCPDiscoveryService {
         return Mono.fromCallable(() -> mcpServiceMapper.findByStatus(ServiceStatus.ACTIVE))
                 .subscribeOn(Schedulers.boundedElastic())
                 .flatMapMany(Flux::fromIterable)
+                .map(this::withInstances)
                 .doOnNext(service -> {
                     // 异步缓存每个服务
                     redisCacheService.cacheService(service).subscribe();
                 });
     }
 
+    /**
+     * 填充服务的启用实例，随服务一起缓存到Redis
+     */
+    private MCPServiceEntity withInstances(MCPServiceEntity service) {
+        if (service != null) {
+            service.setInstances(instanceMapper.findByServiceId(service.getServiceId()).stream()
+                    .filter(instance -> Boolean.TRUE.equals(instance.getEnabled()))
+                    .toList());
+        }
+        return service;
+    }
+
     /**
      * 数据库降级查询
      */
     private boolean fallbackToDatabase(String serviceId) {
         try {
-            MCPServiceEntity service = mcpServiceMapper.findByServiceId(serviceId);
+            MCPServiceEntity service = withInstances(mcpServiceMapper.findByServiceId(serviceId));
             boolean isActive = service != null && service.getStatus() == ServiceStatus.ACTIVE;
 
             if (service != null) {
@@ -139,7 +235,8 @@ public class RedisBasedMCPDiscoveryServiceImpl implements MCPDiscoveryService {
      * 更新单个服务缓存
      */
     public Mono<Void> updateServiceCache(String serviceId) {
-        return Mono.fromCallable(() -> mcpServiceMapper.findByServiceId(serviceId))
+        evictLocal(serviceId);
+        return Mono.fromCallable(() -> withInstances(mcpServiceMapper.findByServiceId(serviceId)))
                 .subscribeOn(Schedulers.boundedElastic())
                 .flatMap(service -> {
                     if (service == null) {
@@ -167,6 +264,7 @@ public class RedisBasedMCPDiscoveryServiceImpl implements MCPDiscoveryService {
      * 移除服务缓存
      */
     public Mono<Void> removeServiceFromCache(String serviceId) {
+        evictLocal(serviceId);
         return redisCacheService.removeServiceFromCache(serviceId)
                 .doOnSuccess(v -> log.info("Removed service from cache: {}", serviceId))
                 .doOnError(error -> log.warn("Error removing service from cache: {}", serviceId, error));
@@ -191,6 +289,7 @@ public class RedisBasedMCPDiscoveryServiceImpl implements MCPDiscoveryService {
      * 清空所有服务缓存
      */
     public Mono<Void> clearAllServiceCache() {
+        localCache.synchronous().invalidateAll();
         return redisCacheService.clearAllServiceCache()
                 .doOnSuccess(v -> log.info("Cleared all service caches"))
                 .doOnError(error -> log.error("Failed to clear service caches", error));
@@ -1,66 +1,87 @@
 package org.jdt.mcp.gateway.proxy.service.impl;
 
 import lombok.extern.slf4j.Slf4j;
-import org.jdt.mcp.gateway.auth.tool.AuthContextHelper;
+import org.HdrHistogram.Histogram;
+import org.jdt.mcp.gateway.core.constant.AuthConstants;
+import org.jdt.mcp.gateway.core.constant.JsonRpcAttributes;
 import org.jdt.mcp.gateway.core.dto.ServiceStatsData;
+import org.jdt.mcp.gateway.core.dto.ToolStatsData;
+import org.jdt.mcp.gateway.core.entity.ServiceLatencyStatisticsEntity;
 import org.jdt.mcp.gateway.core.entity.ServiceStatisticsEntity;
-import org.jdt.mcp.gateway.mapper.AuthKeyMapper;
+import org.jdt.mcp.gateway.core.entity.ToolStatisticsEntity;
+import org.jdt.mcp.gateway.mapper.ServiceLatencyStatisticsMapper;
 import org.jdt.mcp.gateway.mapper.ServiceStatisticsMapper;
+import org.jdt.mcp.gateway.mapper.ToolStatisticsMapper;
 import org.jdt.mcp.gateway.core.config.ProxyConfig;
 import org.jdt.mcp.gateway.proxy.service.StatisticsService;
 import org.jdt.mcp.gateway.service.RedisStatsCacheService;
+import org.jdt.mcp.gateway.service.RedisToolStatsCacheService;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Schedulers;
 
+import java.nio.ByteBuffer;
 import java.time.Duration;
 import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.jdt.mcp.gateway.core.constant.RedisConstant.TOOL_STATS_PREFIX;
 
 @Slf4j
 @Service
 public class RedisStatisticsServiceImpl implements StatisticsService {
 
+    private static final String TOOLS_CALL_METHOD = "tools/call";
+
     private final ProxyConfig proxyConfig;
-    private final AuthContextHelper authContextHelper;
     private final RedisStatsCacheService redisStatsService;
     private final ServiceStatisticsMapper statisticsMapper;
-    private final AuthKeyMapper authKeyMapper;
+    private final ServiceLatencyStatisticsMapper latencyStatisticsMapper;
+    private final RedisToolStatsCacheService redisToolStatsService;
+    private final ToolStatisticsMapper toolStatisticsMapper;
 
     public RedisStatisticsServiceImpl(ProxyConfig proxyConfig,
-                                      AuthContextHelper authContextHelper,
                                       RedisStatsCacheService redisStatsService,
                                       ServiceStatisticsMapper statisticsMapper,
-                                      AuthKeyMapper authKeyMapper) {
+                                      ServiceLatencyStatisticsMapper latencyStatisticsMapper,
+                                      RedisToolStatsCacheService redisToolStatsService,
+                                      ToolStatisticsMapper toolStatisticsMapper) {
         this.proxyConfig = proxyConfig;
-        this.authContextHelper = authContextHelper;
         this.redisStatsService = redisStatsService;
         this.statisticsMapper = statisticsMapper;
-        this.authKeyMapper = authKeyMapper;
+        this.latencyStatisticsMapper = latencyStatisticsMapper;
+        this.redisToolStatsService = redisToolStatsService;
+        this.toolStatisticsMapper = toolStatisticsMapper;
     }
 
     @Override
-    public Mono<Void> recordRequest(ServerWebExchange exchange, String serviceId,
-                                    int statusCode, Duration responseTime) {
+    public void recordRequest(ServerWebExchange exchange, String serviceId,
+                              int statusCode, Duration responseTime) {
         if (!proxyConfig.isEnableStatistics()) {
-            return Mono.empty();
+            return;
         }
 
-        return Mono.fromRunnable(() -> {
-            try {
-                // 提取用户信息
-                String userId = extractUserId(exchange);
-
-                // 异步记录统计
-                redisStatsService.recordRequestStats(serviceId, userId, statusCode, responseTime.toMillis())
-                        .doOnSuccess(v -> log.debug("Statistics recorded for service: {}", serviceId))
-                        .doOnError(error -> log.warn("Failed to record statistics for service: {}", serviceId, error))
-                        .subscribe();
-
-            } catch (Exception e) {
-                log.warn("Failed to process statistics recording for service: {}", serviceId, e);
+        try {
+            // 提取用户信息
+            String userId = extractUserId(exchange);
+
+            redisStatsService.recordRequestStats(serviceId, userId, statusCode, responseTime.toMillis())
+                    .doOnSuccess(v -> log.debug("Statistics recorded for service: {}", serviceId))
+                    .doOnError(error -> log.warn("Failed to record statistics for service: {}", serviceId, error))
+                    .subscribe();
+
+            // tools/call按工具名再统计一份，工具名由JsonRpcEnvelopeFilter在请求body流经时解析
+            if (TOOLS_CALL_METHOD.equals(exchange.getAttribute(JsonRpcAttributes.METHOD))) {
+                redisToolStatsService.recordToolStats(serviceId,
+                        exchange.getAttribute(JsonRpcAttributes.TOOL_NAME), statusCode, responseTime.toMillis());
             }
-        }).then();
+
+        } catch (Exception e) {
+            log.warn("Failed to process statistics recording for service: {}", serviceId, e);
+        }
     }
 
     @Override
@@ -72,7 +93,9 @@ public class RedisStatisticsServiceImpl implements StatisticsService {
                         return ServiceStats.empty();
                     }
 
-                    return convertToServiceStats(entity);
+                    ServiceLatencyStatisticsEntity latency =
+                            latencyStatisticsMapper.findByServiceIdAndDate(serviceId, LocalDate.now());
+                    return convertToServiceStats(entity, latency);
                 }).subscribeOn(Schedulers.boundedElastic())
                 .doOnError(error -> log.warn("Error getting service stats from database: {}", serviceId, error));
     }
@@ -85,41 +108,59 @@ public class RedisStatisticsServiceImpl implements StatisticsService {
                 .doOnError(error -> log.warn("Error getting realtime service stats: {}", serviceId, error));
     }
 
+    @Override
+    public Mono<Long> getUniqueUsers(String serviceId, LocalDate from, LocalDate to) {
+        return redisStatsService.getUniqueUsersCount(serviceId, from, to)
+                .defaultIfEmpty(0L)
+                .doOnError(error -> log.warn("Error getting unique users: {}", serviceId, error));
+    }
+
+    @Override
+    public Mono<List<ToolStatsData>> getRealtimeToolStats(String serviceId) {
+        return redisToolStatsService.getToolStats(serviceId, LocalDate.now())
+                .collectList()
+                .onErrorReturn(List.of());
+    }
+
+    @Override
+    public Mono<List<ToolStatsData>> getToolStats(String serviceId) {
+        return Mono.fromCallable(() -> toolStatisticsMapper.findByServiceIdAndDate(serviceId, LocalDate.now())
+                        .stream().map(this::convertToToolStats).toList())
+                .subscribeOn(Schedulers.boundedElastic())
+                .doOnError(error -> log.warn("Error getting tool stats from database: {}", serviceId, error));
+    }
+
+    @Override
+    public Mono<List<ToolStatsData>> getSlowestTools(String serviceId, int limit) {
+        return Mono.fromCallable(() -> toolStatisticsMapper.findSlowest(serviceId, LocalDate.now(), limit)
+                        .stream().map(this::convertToToolStats).toList())
+                .subscribeOn(Schedulers.boundedElastic())
+                .doOnError(error -> log.warn("Error getting slowest tools from database: {}", serviceId, error));
+    }
+
     @Override
     public Mono<Void> clearStats() {
-        return redisStatsService.clearStats()
+        return Mono.when(redisStatsService.clearStats(), redisToolStatsService.clearStats())
                 .doOnSuccess(v -> log.info("Statistics cache cleared"))
                 .doOnError(error -> log.error("Failed to clear statistics cache", error));
     }
 
     @Override
     public Mono<Void> flushStatisticsToDatabase() {
-        return redisStatsService.getAllStatisticsKeys()
-                .flatMap(this::flushSingleServiceStats)
+        return Flux.merge(
+                        redisStatsService.getAllStatisticsKeys().flatMap(this::flushSingleServiceStats),
+                        redisToolStatsService.getAllStatisticsKeys().flatMap(this::flushSingleServiceToolStats))
                 .then()
                 .doOnSuccess(v -> log.info("Statistics flushed to database"))
                 .doOnError(e -> log.error("Failed to flush statistics to database", e));
     }
 
     /**
-     * 提取用户ID
+     * 提取用户ID，由AuthKeyFilter鉴权时从本地认证缓存放入exchange属性，记录统计时不访问数据库
      */
     private String extractUserId(ServerWebExchange exchange) {
-        try {
-            AuthContextHelper.AuthInfo authInfo = authContextHelper.getAuthInfoFromExchange(exchange);
-            String authKey = authInfo != null ? authInfo.authKey() : null;
-
-            if (authKey != null) {
-                var authEntity = authKeyMapper.findByKeyHash(authKey);
-                if (authEntity != null) {
-                    return authEntity.getUserId();
-                }
-            }
-        } catch (Exception e) {
-            log.warn("Failed to extract user ID from exchange", e);
-        }
-
-        return "anonymous";
+        String userId = exchange.getAttribute(AuthConstants.USER_ID);
+        return userId != null ? userId : "anonymous";
     }
 
     /**
@@ -132,6 +173,9 @@ public class RedisStatisticsServiceImpl implements StatisticsService {
                 data.getFailedCalls(),
                 data.getAvgResponseTimeMs(),
                 data.getMaxResponseTimeMs(),
+                data.getP50ResponseTimeMs(),
+                data.getP95ResponseTimeMs(),
+                data.getP99ResponseTimeMs(),
                 data.getUniqueUsers(),
                 data.getLastUpdateTime()
         );
@@ -140,13 +184,16 @@ public class RedisStatisticsServiceImpl implements StatisticsService {
     /**
      * 转换为ServiceStats对象 (从数据库实体)
      */
-    private ServiceStats convertToServiceStats(ServiceStatisticsEntity entity) {
+    private ServiceStats convertToServiceStats(ServiceStatisticsEntity entity, ServiceLatencyStatisticsEntity latency) {
         return new ServiceStats(
                 entity.getTotalCalls(),
                 entity.getSuccessCalls(),
                 entity.getFailedCalls(),
                 entity.getAvgResponseTimeMs(),
                 entity.getMaxResponseTimeMs(),
+                latency != null && latency.getP50ResponseTimeMs() != null ? latency.getP50ResponseTimeMs() : 0,
+                latency != null && latency.getP95ResponseTimeMs() != null ? latency.getP95ResponseTimeMs() : 0,
+                latency != null && latency.getP99ResponseTimeMs() != null ? latency.getP99ResponseTimeMs() : 0,
                 entity.getUniqueUsers(),
                 entity.getUpdatedAt()
         );
@@ -166,12 +213,14 @@ public class RedisStatisticsServiceImpl implements StatisticsService {
                 LocalDate dateKey = LocalDate.parse(parts[1]);
 
                 // 从Redis获取统计数据并保存到数据库
-                redisStatsService.getServiceStatsFromCache(serviceId, dateKey)
-                        .zipWith(redisStatsService.getUniqueUsersCount(serviceId, dateKey))
+                Mono.zip(redisStatsService.getServiceStatsFromCache(serviceId, dateKey),
+                                redisStatsService.getUniqueUsersCount(serviceId, dateKey),
+                                redisStatsService.getLatencyHistogram(serviceId, dateKey))
                         .subscribe(tuple -> {
                             try {
                                 var stats = tuple.getT1();
                                 Long uniqueUsers = tuple.getT2();
+                                Histogram latency = tuple.getT3();
 
                                 int totalCalls = getIntValue(stats, "total_calls");
                                 if (totalCalls == 0) return; // 没有调用数据，跳过
@@ -180,6 +229,10 @@ public class RedisStatisticsServiceImpl implements StatisticsService {
                                         serviceId, dateKey, stats, uniqueUsers);
 
                                 statisticsMapper.insertOrUpdate(entity);
+                                if (latency.getTotalCount() > 0) {
+                                    latencyStatisticsMapper.insertOrUpdate(
+                                            buildLatencyStatisticsEntity(serviceId, dateKey, latency));
+                                }
                                 log.debug("Flushed statistics to DB for service: {} on {}", serviceId, dateKey);
                             } catch (Exception e) {
                                 log.error("Failed to save statistics to database for service: {}", serviceId, e);
@@ -192,6 +245,48 @@ public class RedisStatisticsServiceImpl implements StatisticsService {
         }).subscribeOn(Schedulers.boundedElastic()).then();
     }
 
+    /**
+     * 刷新单个服务单日的工具统计到数据库
+     */
+    private Mono<Void> flushSingleServiceToolStats(String statsKey) {
+        String[] parts = statsKey.replace(TOOL_STATS_PREFIX, "").split(":");
+        if (parts.length < 2) {
+            return Mono.empty();
+        }
+        String serviceId = parts[0];
+        LocalDate dateKey;
+        try {
+            dateKey = LocalDate.parse(parts[1]);
+        } catch (Exception e) {
+            log.warn("Error processing tool statistics key: {}", statsKey, e);
+            return Mono.empty();
+        }
+
+        return Mono.zip(redisToolStatsService.getToolStats(serviceId, dateKey).collectList(),
+                        redisToolStatsService.getLatencyHistograms(serviceId, dateKey))
+                .publishOn(Schedulers.boundedElastic())
+                .doOnNext(tuple -> {
+                    for (ToolStatsData stats : tuple.getT1()) {
+                        if (stats.getTotalCalls() == 0) {
+                            continue;
+                        }
+                        try {
+                            toolStatisticsMapper.insertOrUpdate(buildToolStatisticsEntity(
+                                    serviceId, dateKey, stats, tuple.getT2().get(stats.getToolName())));
+                        } catch (Exception e) {
+                            log.error("Failed to save tool statistics to database for service: {}, tool: {}",
+                                    serviceId, stats.getToolName(), e);
+                        }
+                    }
+                    log.debug("Flushed tool statistics to DB for service: {} on {}", serviceId, dateKey);
+                })
+                .onErrorResume(error -> {
+                    log.warn("Error flushing tool statistics for key: {}", statsKey, error);
+                    return Mono.empty();
+                })
+                .then();
+    }
+
     /**
      * 构建统计实体
      */
@@ -218,6 +313,66 @@ public class RedisStatisticsServiceImpl implements StatisticsService {
         return entity;
     }
 
+    /**
+     * 构建响应时间分位数实体
+     */
+    private ServiceLatencyStatisticsEntity buildLatencyStatisticsEntity(String serviceId, LocalDate dateKey,
+                                                                        Histogram latency) {
+        ByteBuffer buffer = ByteBuffer.allocate(latency.getNeededByteBufferCapacity());
+        int length = latency.encodeIntoCompressedByteBuffer(buffer);
+
+        ServiceLatencyStatisticsEntity entity = new ServiceLatencyStatisticsEntity();
+        entity.setServiceId(serviceId);
+        entity.setDateKey(dateKey);
+        entity.setSampleCount(latency.getTotalCount());
+        entity.setP50ResponseTimeMs((int) latency.getValueAtPercentile(50));
+        entity.setP95ResponseTimeMs((int) latency.getValueAtPercentile(95));
+        entity.setP99ResponseTimeMs((int) latency.getValueAtPercentile(99));
+        entity.setP999ResponseTimeMs((int) latency.getValueAtPercentile(99.9));
+        entity.setMaxResponseTimeMs((int) latency.getMaxValue());
+        entity.setHistogram(Arrays.copyOf(buffer.array(), length));
+        return entity;
+    }
+
+    /**
+     * 构建工具统计实体
+     */
+    private ToolStatisticsEntity buildToolStatisticsEntity(String serviceId, LocalDate dateKey,
+                                                           ToolStatsData stats, Histogram latency) {
+        ToolStatisticsEntity entity = new ToolStatisticsEntity();
+        entity.setServiceId(serviceId);
+        entity.setToolName(stats.getToolName());
+        entity.setDateKey(dateKey);
+        entity.setTotalCalls(stats.getTotalCalls());
+        entity.setSuccessCalls(stats.getSuccessCalls());
+        entity.setFailedCalls(stats.getFailedCalls());
+        entity.setAvgResponseTimeMs((int) stats.getAvgResponseTimeMs());
+        entity.setMaxResponseTimeMs((int) stats.getMaxResponseTimeMs());
+        entity.setP50ResponseTimeMs((int) stats.getP50ResponseTimeMs());
+        entity.setP95ResponseTimeMs((int) stats.getP95ResponseTimeMs());
+        entity.setP99ResponseTimeMs((int) stats.getP99ResponseTimeMs());
+        if (latency != null && latency.getTotalCount() > 0) {
+            ByteBuffer buffer = ByteBuffer.allocate(latency.getNeededByteBufferCapacity());
+            int length = latency.encodeIntoCompressedByteBuffer(buffer);
+            entity.setHistogram(Arrays.copyOf(buffer.array(), length));
+        }
+        return entity;
+    }
+
+    private ToolStatsData convertToToolStats(ToolStatisticsEntity entity) {
+        return ToolStatsData.builder()
+                .toolName(entity.getToolName())
+                .totalCalls(entity.getTotalCalls())
+                .successCalls(entity.getSuccessCalls())
+                .failedCalls(entity.getFailedCalls())
+                .avgResponseTimeMs(entity.getAvgResponseTimeMs())
+                .maxResponseTimeMs(entity.getMaxResponseTimeMs())
+                .p50ResponseTimeMs(entity.getP50ResponseTimeMs() != null ? entity.getP50ResponseTimeMs() : 0)
+                .p95ResponseTimeMs(entity.getP95ResponseTimeMs() != null ? entity.getP95ResponseTimeMs() : 0)
+                .p99ResponseTimeMs(entity.getP99ResponseTimeMs() != null ? entity.getP99ResponseTimeMs() : 0)
+                .build();
+    }
+
     /**
      * 获取缓存统计信息 (业务层方法)
      */
@@ -0,0 +1,33 @@
+package org.jdt.mcp.gateway.proxy.service.impl;
+
+import org.jdt.mcp.gateway.core.entity.MCPServiceEntity;
+import org.jdt.mcp.gateway.proxy.route.ServiceRoute;
+import org.jdt.mcp.gateway.proxy.route.ServiceRouteTable;
+import org.jdt.mcp.gateway.proxy.service.MCPDiscoveryService;
+import org.jdt.mcp.gateway.traffic.service.ServiceLimitProvider;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+/**
+ * 从路由表读取服务maxQps，未命中时走服务发现
+ */
+@Service
+public class RouteServiceLimitProvider implements ServiceLimitProvider {
+
+    private final ServiceRouteTable routeTable;
+    private final MCPDiscoveryService discoveryService;
+
+    public RouteServiceLimitProvider(ServiceRouteTable routeTable, MCPDiscoveryService discoveryService) {
+        this.routeTable = routeTable;
+        this.discoveryService = discoveryService;
+    }
+
+    @Override
+    public Mono<Integer> getMaxQps(String serviceId) {
+        ServiceRoute route = routeTable.get(serviceId);
+        if (route != null) {
+            return Mono.justOrEmpty(route.getService().getMaxQps());
+        }
+        return discoveryService.getService(serviceId).mapNotNull(MCPServiceEntity::getMaxQps);
+    }
+}
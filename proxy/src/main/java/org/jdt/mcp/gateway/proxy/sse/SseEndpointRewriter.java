@@ -0,0 +1,390 @@
+package org.jdt.mcp.gateway.proxy.sse;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * SSE endpoint URL流式重写器
+ * 按字节解析SSE行，只处理值为 /mcp/... 路径的 data 行，在路径前插入 /mcp/{serviceId}
+ * 例如：data:/mcp/message?sessionId=xxx -> data:/mcp/{serviceId}/mcp/message?sessionId=xxx
+ * 跨chunk的半行通过状态机延续；被挂起的字节一定是 "/mcp/{serviceId}" 的前缀，因此只需记录长度
+ * 没有需要重写的内容时原样返回buffer，不做解码和拷贝
+ * 同一遍扫描中提取第一个事件（endpoint事件）data行里的 sessionId= 参数值交给监听器，跨chunk同样有效
+ * 第一个事件结束后不再提取，避免后续消息内容里的 sessionId= 被当作会话绑定
+ * 每个响应流对应一个实例，非线程安全
+ */
+@Slf4j
+public class SseEndpointRewriter {
+
+    private static final byte[] DATA_FIELD = "data:".getBytes(StandardCharsets.US_ASCII);
+    private static final int MCP_PREFIX_LENGTH = "/mcp/".length();
+    private static final byte[] SESSION_PARAM = "sessionId=".getBytes(StandardCharsets.US_ASCII);
+    // SESSION_PARAM的KMP失配表
+    private static final int[] SESSION_PARAM_FAILURE = failureTable(SESSION_PARAM);
+    private static final int SESSION_ID_MAX_LENGTH = 128;
+
+    // 行首，匹配 "data:" 字段名
+    private static final int FIELD = 0;
+    // "data:" 之后，跳过可选空格
+    private static final int VALUE_START = 1;
+    // 绝对URL的scheme部分
+    private static final int SCHEME = 2;
+    // scheme之后的 "//"
+    private static final int SLASHES = 3;
+    // 绝对URL的host部分
+    private static final int HOST = 4;
+    // 匹配路径 /mcp/{serviceId}，匹配中的字节被挂起
+    private static final int PATH = 5;
+    // 跳过当前行剩余部分
+    private static final int SKIP = 6;
+
+    private final DataBufferFactory bufferFactory;
+    private final String serviceId;
+    // "/mcp/{serviceId}"，既是匹配模式也是要插入的前缀
+    private final byte[] pattern;
+
+    private int state = FIELD;
+    private int matched;
+    private boolean spaceSkipped;
+
+    // sessionId提取：找到或第一个事件结束后置空监听器停止提取
+    private Consumer<String> sessionIdListener;
+    private boolean dataLine;
+    // 当前行是否还没有字节、是否为注释行（心跳），以及上一个字节是否为\r
+    private boolean lineStart = true;
+    private boolean commentLine;
+    private boolean afterCr;
+    // 第一个事件是否已有字段行
+    private boolean eventStarted;
+    private int paramMatched;
+    private byte[] sessionId;
+    private int sessionIdLength = -1;
+
+    public SseEndpointRewriter(DataBufferFactory bufferFactory, String serviceId) {
+        this(bufferFactory, serviceId, null);
+    }
+
+    /**
+     * @param sessionIdListener 收到endpoint事件中的sessionId时回调一次，可以为null
+     */
+    public SseEndpointRewriter(DataBufferFactory bufferFactory, String serviceId, Consumer<String> sessionIdListener) {
+        this.bufferFactory = bufferFactory;
+        this.serviceId = serviceId;
+        this.pattern = ("/mcp/" + serviceId).getBytes(StandardCharsets.UTF_8);
+        this.sessionIdListener = sessionIdListener;
+    }
+
+    /**
+     * 处理一个上游chunk
+     * @return 重写后的buffer；若本chunk全部字节都被挂起则返回null（原buffer已释放）
+     */
+    public DataBuffer rewrite(DataBuffer buffer) {
+        int start = buffer.readPosition();
+        int end = buffer.writePosition();
+
+        // 尚未输出的原始字节起点
+        int emitFrom = start;
+        // 本chunk内被挂起字节的起点
+        int holdFrom = state == PATH ? start : -1;
+        // 之前chunk挂起、尚未输出的字节数
+        int carried = state == PATH ? matched : 0;
+        Segments out = null;
+
+        // 按ByteBuffer视图扫描，避免DataBuffer.getByte每个字节的索引校验开销；i为buffer中的绝对位置
+        int i = start;
+        try (DataBuffer.ByteBufferIterator views = buffer.readableByteBuffers()) {
+            while (views.hasNext()) {
+                ByteBuffer view = views.next();
+                for (int p = view.position(), limit = view.limit(); p < limit; p++, i++) {
+                    byte b = view.get(p);
+                    if (sessionIdListener != null) {
+                        captureSessionId(b);
+                    }
+
+                    if (state == PATH) {
+                        if (matched < pattern.length && b == pattern[matched]) {
+                            matched++;
+                            continue;
+                        }
+                        boolean insert = shouldInsert(b);
+                        if (insert || carried > 0) {
+                            if (out == null) {
+                                out = new Segments();
+                            }
+                            out.range(emitFrom, holdFrom);
+                            if (insert) {
+                                out.bytes(pattern.length);
+                                log.debug("Rewriting SSE endpoint for service {}", serviceId);
+                            }
+                            out.bytes(carried);
+                            emitFrom = holdFrom;
+                        }
+                        carried = 0;
+                        holdFrom = -1;
+                        state = SKIP;
+                    }
+
+                    if (b == '\n' || b == '\r') {
+                        state = FIELD;
+                        matched = 0;
+                        continue;
+                    }
+
+                    switch (state) {
+                        case FIELD -> {
+                            if (b == DATA_FIELD[matched]) {
+                                if (++matched == DATA_FIELD.length) {
+                                    state = VALUE_START;
+                                    spaceSkipped = false;
+                                    dataLine = true;
+                                }
+                            } else {
+                                state = SKIP;
+                            }
+                        }
+                        case VALUE_START -> {
+                            if (b == ' ' && !spaceSkipped) {
+                                spaceSkipped = true;
+                            } else if (b == '/') {
+                                state = PATH;
+                                matched = 1;
+                                holdFrom = i;
+                            } else {
+                                state = isSchemeChar(b) ? SCHEME : SKIP;
+                            }
+                        }
+                        case SCHEME -> {
+                            if (b == ':') {
+                                state = SLASHES;
+                                matched = 0;
+                            } else if (!isSchemeChar(b)) {
+                                state = SKIP;
+                            }
+                        }
+                        case SLASHES -> {
+                            if (b != '/') {
+                                state = SKIP;
+                            } else if (++matched == 2) {
+                                state = HOST;
+                            }
+                        }
+                        case HOST -> {
+                            if (b == '/') {
+                                state = PATH;
+                                matched = 1;
+                                holdFrom = i;
+                            } else if (b == '?' || b == '#' || b == ' ') {
+                                state = SKIP;
+                            }
+                        }
+                        default -> {
+                            // SKIP：等待行结束
+                        }
+                    }
+                }
+            }
+        }
+
+        if (state == PATH) {
+            // 行在chunk末尾未结束，挂起匹配中的字节，等待下一个chunk决定是否插入前缀
+            if (out == null) {
+                out = new Segments();
+            }
+            out.range(emitFrom, holdFrom);
+            emitFrom = end;
+        }
+
+        if (out == null) {
+            return buffer;
+        }
+        out.range(emitFrom, end);
+        return out.build(buffer);
+    }
+
+    /**
+     * 流结束时输出仍被挂起的字节
+     * @return 剩余字节，没有则返回null
+     */
+    public DataBuffer finish() {
+        if (sessionIdListener != null && sessionIdLength > 0) {
+            emitSessionId();
+        }
+        if (state != PATH || matched == 0) {
+            return null;
+        }
+        boolean insert = shouldInsert((byte) '\n');
+        int length = (insert ? pattern.length : 0) + matched;
+        DataBuffer tail = bufferFactory.allocateBuffer(length);
+        if (insert) {
+            tail.write(pattern);
+        }
+        tail.write(pattern, 0, matched);
+        state = FIELD;
+        matched = 0;
+        return tail;
+    }
+
+    /**
+     * 在第一个事件的data行中匹配 sessionId= 并收集参数值，直到遇到分隔符
+     * 第一个事件以空行结束，之后停止提取；事件之前的注释行（心跳）不算事件内容
+     */
+    private void captureSessionId(byte b) {
+        if (b == '\n' && afterCr) {
+            // \r\n 只算一个行结束
+            afterCr = false;
+            return;
+        }
+        afterCr = b == '\r';
+        boolean lineEnd = b == '\n' || b == '\r';
+        if (sessionIdLength >= 0) {
+            if (lineEnd || b == '&' || b == '#' || b == ' ' || b == '"' || b == '\'') {
+                emitSessionId();
+                if (sessionIdListener == null || !lineEnd) {
+                    return;
+                }
+            } else {
+                if (sessionIdLength < SESSION_ID_MAX_LENGTH) {
+                    sessionId[sessionIdLength++] = b;
+                } else {
+                    // 超长的值不是sessionId，放弃本次匹配
+                    sessionIdLength = -1;
+                }
+                return;
+            }
+        }
+        if (lineEnd) {
+            if (lineStart && eventStarted) {
+                // 空行：第一个事件结束，其中没有sessionId
+                sessionIdListener = null;
+            }
+            eventStarted |= !lineStart && !commentLine;
+            lineStart = true;
+            commentLine = false;
+            dataLine = false;
+            paramMatched = 0;
+            return;
+        }
+        if (lineStart) {
+            lineStart = false;
+            commentLine = b == ':';
+        }
+        if (!dataLine) {
+            return;
+        }
+        while (paramMatched > 0 && b != SESSION_PARAM[paramMatched]) {
+            paramMatched = SESSION_PARAM_FAILURE[paramMatched - 1];
+        }
+        if (b == SESSION_PARAM[paramMatched] && ++paramMatched == SESSION_PARAM.length) {
+            paramMatched = 0;
+            if (sessionId == null) {
+                sessionId = new byte[SESSION_ID_MAX_LENGTH];
+            }
+            sessionIdLength = 0;
+        }
+    }
+
+    private void emitSessionId() {
+        int length = sessionIdLength;
+        sessionIdLength = -1;
+        if (length == 0) {
+            return;
+        }
+        Consumer<String> listener = sessionIdListener;
+        sessionIdListener = null;
+        listener.accept(new String(sessionId, 0, length, StandardCharsets.UTF_8));
+    }
+
+    private static int[] failureTable(byte[] pattern) {
+        int[] failure = new int[pattern.length];
+        for (int i = 1, k = 0; i < pattern.length; i++) {
+            while (k > 0 && pattern[i] != pattern[k]) {
+                k = failure[k - 1];
+            }
+            if (pattern[i] == pattern[k]) {
+                k++;
+            }
+            failure[i] = k;
+        }
+        return failure;
+    }
+
+    /**
+     * 路径匹配结束时判断是否需要插入 /mcp/{serviceId} 前缀
+     * 与原正则保持一致：/mcp/ 之后的路径恰好等于serviceId时不重写
+     */
+    private boolean shouldInsert(byte next) {
+        if (matched == pattern.length) {
+            return !isPathEnd(next);
+        }
+        return matched > MCP_PREFIX_LENGTH
+                || (matched == MCP_PREFIX_LENGTH && !isPathEnd(next));
+    }
+
+    private static boolean isPathEnd(byte b) {
+        return b == '?' || b == ' ' || b == '\t' || b == '"' || b == '\'' || b == '\r' || b == '\n';
+    }
+
+    private static boolean isSchemeChar(byte b) {
+        return (b >= 'a' && b <= 'z') || (b >= 'A' && b <= 'Z') || (b >= '0' && b <= '9')
+                || b == '+' || b == '-' || b == '.';
+    }
+
+    /**
+     * 输出片段：原buffer中的区间，或pattern的前缀
+     * 只有一段原始区间时直接调整原buffer的读写位置，否则拷贝到新buffer
+     */
+    private final class Segments {
+        // 区间用 [from, to) 表示；from为负数时表示pattern的前 -from 个字节
+        private final List<int[]> parts = new ArrayList<>(4);
+        private int length;
+
+        void range(int from, int to) {
+            if (to > from) {
+                parts.add(new int[]{from, to});
+                length += to - from;
+            }
+        }
+
+        void bytes(int count) {
+            if (count > 0) {
+                parts.add(new int[]{-count, 0});
+                length += count;
+            }
+        }
+
+        DataBuffer build(DataBuffer source) {
+            if (length == 0) {
+                DataBufferUtils.release(source);
+                return null;
+            }
+            if (parts.size() == 1 && parts.get(0)[0] >= 0) {
+                int[] part = parts.get(0);
+                source.readPosition(part[0]);
+                source.writePosition(part[1]);
+                return source;
+            }
+            byte[] target = new byte[length];
+            ByteBuffer dest = ByteBuffer.wrap(target);
+            int position = 0;
+            for (int[] part : parts) {
+                if (part[0] < 0) {
+                    System.arraycopy(pattern, 0, target, position, -part[0]);
+                    position -= part[0];
+                } else {
+                    source.toByteBuffer(part[0], dest, position, part[1] - part[0]);
+                    position += part[1] - part[0];
+                }
+            }
+            DataBufferUtils.release(source);
+            return bufferFactory.wrap(target);
+        }
+    }
+}
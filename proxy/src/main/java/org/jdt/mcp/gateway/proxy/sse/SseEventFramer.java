@@ -0,0 +1,220 @@
+package org.jdt.mcp.gateway.proxy.sse;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * SSE事件切分器
+ * 按空行把上游chunk切成完整事件，chunk内的事件用split切片不拷贝，跨chunk的事件才合并
+ * 未结束的事件超过maxEventBytes时不再等待，按原chunk透传并标记为不完整，不完整的片段不能丢弃
+ * 每个响应流对应一个实例，非线程安全
+ */
+final class SseEventFramer {
+
+    private static final byte[] METHOD_KEY = "\"method\"".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] NOTIFICATION_PREFIX = "\"notifications/".getBytes(StandardCharsets.US_ASCII);
+
+    private final DataBufferFactory bufferFactory;
+    private final int maxEventBytes;
+
+    // 当前事件已收到、尚未输出的部分
+    private final List<DataBuffer> pending = new ArrayList<>(2);
+    private int pendingBytes;
+
+    private boolean atLineStart = true;
+    private boolean lastCr;
+    // 当前事件是否有空行以外的内容，只有空行的部分并入下一个事件
+    private boolean hasContent;
+    // 当前事件已按不完整片段透传
+    private boolean passthrough;
+
+    SseEventFramer(DataBufferFactory bufferFactory, int maxEventBytes) {
+        this.bufferFactory = bufferFactory;
+        this.maxEventBytes = maxEventBytes;
+    }
+
+    /**
+     * 切分一个chunk
+     * @return 本chunk内结束的事件（及透传的不完整片段），按顺序排列
+     */
+    List<Event> frame(DataBuffer buffer) {
+        List<Event> events = null;
+        int offset = buffer.readPosition();
+        int end = buffer.writePosition();
+        for (int i = offset; i < end; i++) {
+            byte b = buffer.getByte(i);
+            if (b == '\n' && lastCr) {
+                lastCr = false;
+                continue;
+            }
+            if (b != '\n' && b != '\r') {
+                atLineStart = false;
+                lastCr = false;
+                hasContent = true;
+                continue;
+            }
+            lastCr = b == '\r';
+            if (!atLineStart || !hasContent) {
+                atLineStart = true;
+                continue;
+            }
+            // 空行，事件在此结束；\r\n 的 \n 在同一chunk内时一并切入
+            int cut = i + 1;
+            if (lastCr && cut < end && buffer.getByte(cut) == '\n') {
+                lastCr = false;
+                cut++;
+                i++;
+            }
+            DataBuffer head = buffer.split(cut);
+            if (events == null) {
+                events = new ArrayList<>(2);
+            }
+            events.add(takePending(head, !passthrough));
+            passthrough = false;
+            hasContent = false;
+            // split之后剩余部分的下标从0开始
+            end -= cut;
+            i -= cut;
+        }
+
+        if (buffer.readableByteCount() == 0) {
+            DataBufferUtils.release(buffer);
+        } else if (passthrough || pendingBytes + buffer.readableByteCount() > maxEventBytes) {
+            if (events == null) {
+                events = new ArrayList<>(1);
+            }
+            events.add(takePending(buffer, false));
+            passthrough = true;
+        } else {
+            pending.add(buffer);
+            pendingBytes += buffer.readableByteCount();
+        }
+        return events != null ? events : Collections.emptyList();
+    }
+
+    /**
+     * 流结束时输出未结束的事件
+     * @return 剩余字节，没有则返回null
+     */
+    DataBuffer finish() {
+        if (pending.isEmpty()) {
+            return null;
+        }
+        DataBuffer rest = pending.size() == 1 ? pending.get(0) : bufferFactory.join(pending);
+        pending.clear();
+        pendingBytes = 0;
+        return rest;
+    }
+
+    /**
+     * 释放未输出的字节，流被取消时调用
+     */
+    void discard() {
+        pending.forEach(DataBufferUtils::release);
+        pending.clear();
+        pendingBytes = 0;
+    }
+
+    private Event takePending(DataBuffer tail, boolean whole) {
+        if (pending.isEmpty()) {
+            return new Event(tail, whole);
+        }
+        pending.add(tail);
+        DataBuffer joined = bufferFactory.join(pending);
+        pending.clear();
+        pendingBytes = 0;
+        return new Event(joined, whole);
+    }
+
+    /**
+     * 是否为JSON-RPC通知事件，即 "method" 的值以 notifications/ 开头
+     */
+    static boolean isNotification(DataBuffer event) {
+        int end = event.writePosition();
+        int value = methodValue(event, end);
+        return value >= 0 && regionMatches(event, value, end, NOTIFICATION_PREFIX);
+    }
+
+    /**
+     * 通知事件的方法名，只在事件的前scanBytes个字节中查找
+     * @return 不是通知或 "method" 不在查找范围内时返回null
+     */
+    static String notificationMethod(DataBuffer event, int scanBytes) {
+        int end = Math.min(event.writePosition(), event.readPosition() + scanBytes);
+        int value = methodValue(event, end);
+        if (value < 0 || !regionMatches(event, value, end, NOTIFICATION_PREFIX)) {
+            return null;
+        }
+        // 方法名不含转义字符，遇到引号即结束
+        for (int i = value + 1; i < end; i++) {
+            if (event.getByte(i) == '"') {
+                byte[] name = new byte[i - value - 1];
+                for (int k = 0; k < name.length; k++) {
+                    name[k] = event.getByte(value + 1 + k);
+                }
+                return new String(name, StandardCharsets.US_ASCII);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 第一个 "method" 字段值的起始下标（指向值的首字符），没有则返回-1
+     */
+    private static int methodValue(DataBuffer event, int end) {
+        int i = indexOf(event, METHOD_KEY, event.readPosition(), end);
+        while (i >= 0) {
+            int j = i + METHOD_KEY.length;
+            while (j < end && isJsonSpace(event.getByte(j))) {
+                j++;
+            }
+            if (j < end && event.getByte(j) == ':') {
+                j++;
+                while (j < end && isJsonSpace(event.getByte(j))) {
+                    j++;
+                }
+                return j;
+            }
+            i = indexOf(event, METHOD_KEY, j, end);
+        }
+        return -1;
+    }
+
+    private static int indexOf(DataBuffer buffer, byte[] target, int from, int end) {
+        for (int i = from, last = end - target.length; i <= last; i++) {
+            if (regionMatches(buffer, i, end, target)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean regionMatches(DataBuffer buffer, int from, int end, byte[] target) {
+        if (end - from < target.length) {
+            return false;
+        }
+        for (int k = 0; k < target.length; k++) {
+            if (buffer.getByte(from + k) != target[k]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isJsonSpace(byte b) {
+        return b == ' ' || b == '\t' || b == '\r' || b == '\n';
+    }
+
+    /**
+     * 切分结果
+     * @param whole 是否为完整事件，不完整的片段不能丢弃
+     */
+    record Event(DataBuffer buffer, boolean whole) {
+    }
+}
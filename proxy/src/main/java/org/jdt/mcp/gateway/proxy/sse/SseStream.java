@@ -0,0 +1,207 @@
+package org.jdt.mcp.gateway.proxy.sse;
+
+import lombok.extern.slf4j.Slf4j;
+import org.jdt.mcp.gateway.core.config.ProxyConfig.SseOverflowPolicy;
+import org.jdt.mcp.gateway.proxy.cache.CatalogCache;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 一条被代理的SSE流（下游响应 + 上游响应）
+ * 心跳信号与上游数据合并后串行处理，只在行首注入注释行，不会插进半行或提前结束事件
+ * 流结束时从注册表注销；关闭信号到达时结束下游并取消上游，释放上游连接
+ * 上游按事件切分后持续读入有界缓冲，慢客户端不会反压到上游连接；缓冲超限时按策略丢弃通知事件或断开客户端
+ * 上游的 list_changed 通知让网关的目录缓存失效
+ */
+@Slf4j
+public final class SseStream {
+
+    private static final byte[] HEARTBEAT = ": heartbeat\n".getBytes(StandardCharsets.US_ASCII);
+    // 心跳信号标记，只比较引用，不会写出
+    private static final DataBuffer HEARTBEAT_TICK = DefaultDataBufferFactory.sharedInstance.wrap(new byte[0]);
+    // 通知的method字段在事件开头，只检查前256个字节
+    private static final int NOTIFICATION_SCAN_BYTES = 256;
+
+    private final SseStreamRegistry registry;
+    private final SseStreamRegistry.ServiceMetrics metrics;
+    private final String serviceId;
+    private final DataBufferFactory bufferFactory;
+    private final int maxBufferedBytes;
+    private final int maxBufferedEvents;
+    private final SseOverflowPolicy overflowPolicy;
+    private final CatalogCache catalogCache;
+    private final long openedAtNanos = System.nanoTime();
+
+    private final Sinks.Many<DataBuffer> heartbeats = Sinks.many().multicast().directBestEffort();
+    private final Sinks.Empty<Void> closed = Sinks.empty();
+    private final Disposable.Swap closeWatch = Disposables.swap();
+
+    private volatile long lastWriteNanos = openedAtNanos;
+    // 最后写出的字节是否为换行，只在串行处理阶段读写
+    private boolean atLineStart = true;
+
+    // 已从上游读入、尚未写给下游的字节数和事件数
+    private final AtomicLong bufferedBytes = new AtomicLong();
+    private final AtomicInteger bufferedEvents = new AtomicInteger();
+    // 以下只在上游处理阶段读写
+    private long peakBufferedBytes;
+    private boolean evicted;
+
+    SseStream(SseStreamRegistry registry, SseStreamRegistry.ServiceMetrics metrics, String serviceId,
+              DataBufferFactory bufferFactory, int maxBufferedBytes, int maxBufferedEvents,
+              SseOverflowPolicy overflowPolicy, CatalogCache catalogCache) {
+        this.registry = registry;
+        this.metrics = metrics;
+        this.serviceId = serviceId;
+        this.bufferFactory = bufferFactory;
+        this.maxBufferedBytes = maxBufferedBytes;
+        this.maxBufferedEvents = maxBufferedEvents;
+        this.overflowPolicy = overflowPolicy;
+        this.catalogCache = catalogCache;
+    }
+
+    /**
+     * 给响应体加上心跳、最长持续时间和关闭信号
+     */
+    public Flux<DataBuffer> decorate(Flux<DataBuffer> body, Duration maxDuration) {
+        SseEventFramer framer = new SseEventFramer(bufferFactory, maxBufferedBytes);
+        Flux<DataBuffer> buffered = body
+                .concatMapIterable(framer::frame)
+                .concatWith(Mono.fromSupplier(framer::finish).map(rest -> new SseEventFramer.Event(rest, false)))
+                .doFinally(signal -> framer.discard())
+                .doOnNext(this::inspect)
+                .filter(this::admit)
+                .map(SseEventFramer.Event::buffer)
+                // 容量由admit按字节数和事件数限制
+                .onBackpressureBuffer();
+
+        // prefetch为1，不在合并处额外缓冲上游数据
+        return Flux.merge(1, buffered, heartbeats.asFlux())
+                .<DataBuffer>handle((buffer, sink) -> {
+                    if (buffer != HEARTBEAT_TICK) {
+                        int length = buffer.readableByteCount();
+                        release(length);
+                        if (length > 0) {
+                            atLineStart = buffer.getByte(buffer.readPosition() + length - 1) == '\n';
+                        }
+                        lastWriteNanos = System.nanoTime();
+                        sink.next(buffer);
+                    } else if (atLineStart) {
+                        lastWriteNanos = System.nanoTime();
+                        sink.next(bufferFactory.wrap(HEARTBEAT));
+                    }
+                })
+                .take(maxDuration)
+                .takeUntilOther(closed.asMono())
+                .doOnDiscard(SseEventFramer.Event.class, event -> DataBufferUtils.release(event.buffer()))
+                .doOnDiscard(DataBuffer.class, DataBufferUtils::release)
+                .doFinally(signal -> {
+                    closeWatch.dispose();
+                    metrics.buffered.add(-bufferedBytes.getAndSet(0));
+                    metrics.peakBuffered.record(peakBufferedBytes);
+                    registry.unregister(this);
+                });
+    }
+
+    /**
+     * 在事件进入缓冲前检查，缓冲超限被丢弃的通知也能让目录缓存失效
+     */
+    private void inspect(SseEventFramer.Event event) {
+        if (!event.whole() || !catalogCache.isEnabled()) {
+            return;
+        }
+        String method = SseEventFramer.notificationMethod(event.buffer(), NOTIFICATION_SCAN_BYTES);
+        if (method != null) {
+            catalogCache.onNotification(serviceId, method);
+        }
+    }
+
+    /**
+     * 事件进入缓冲前检查容量，缓冲为空时总是接收，保证单个大事件可以通过
+     * @return false表示事件已丢弃（buffer已释放）
+     */
+    private boolean admit(SseEventFramer.Event event) {
+        DataBuffer buffer = event.buffer();
+        int length = buffer.readableByteCount();
+        int events = bufferedEvents.get();
+        if (evicted || (events > 0
+                && (events >= maxBufferedEvents || bufferedBytes.get() + length > maxBufferedBytes))) {
+            overflow(event);
+            DataBufferUtils.release(buffer);
+            return false;
+        }
+        bufferedEvents.incrementAndGet();
+        long total = bufferedBytes.addAndGet(length);
+        metrics.buffered.add(length);
+        if (total > peakBufferedBytes) {
+            peakBufferedBytes = total;
+        }
+        return true;
+    }
+
+    private void overflow(SseEventFramer.Event event) {
+        if (evicted) {
+            return;
+        }
+        if (overflowPolicy == SseOverflowPolicy.DROP_NOTIFICATIONS && event.whole()
+                && SseEventFramer.isNotification(event.buffer())) {
+            metrics.dropped.increment();
+            return;
+        }
+        evicted = true;
+        metrics.evicted.increment();
+        log.warn("Evicting slow SSE consumer for service {}: {} events / {} bytes buffered",
+                serviceId, bufferedEvents.get(), bufferedBytes.get());
+        close();
+    }
+
+    private void release(int length) {
+        bufferedEvents.decrementAndGet();
+        bufferedBytes.addAndGet(-length);
+        metrics.buffered.add(-length);
+    }
+
+    /**
+     * 外部信号完成时关闭流，例如会话到期；重复调用替换之前的信号
+     */
+    public void closeOn(Mono<Void> signal) {
+        closeWatch.update(signal.subscribe(null, null, this::close));
+    }
+
+    public void close() {
+        closed.tryEmitEmpty();
+    }
+
+    /**
+     * 下游空闲超过间隔时发出心跳信号；下游没有需求时直接丢弃
+     */
+    void heartbeatIfIdle(long nowNanos, long intervalNanos) {
+        if (nowNanos - lastWriteNanos >= intervalNanos) {
+            heartbeats.tryEmitNext(HEARTBEAT_TICK);
+        }
+    }
+
+    public String getServiceId() {
+        return serviceId;
+    }
+
+    public long getBufferedBytes() {
+        return bufferedBytes.get();
+    }
+
+    public Duration getAge() {
+        return Duration.ofNanos(System.nanoTime() - openedAtNanos);
+    }
+}
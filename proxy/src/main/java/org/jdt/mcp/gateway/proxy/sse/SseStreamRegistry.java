@@ -0,0 +1,183 @@
+package org.jdt.mcp.gateway.proxy.sse;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.jdt.mcp.gateway.core.config.ProxyConfig;
+import org.jdt.mcp.gateway.proxy.cache.CatalogCache;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * SSE流注册表
+ * 记录所有打开的代理SSE流，统一调度心跳；停机时先拒绝新的SSE流，等待已有流结束，超时后主动关闭
+ * 默认phase最先停止，早于Web服务器的优雅停机
+ * 按服务统计打开的流数、缓冲字节数、单流缓冲峰值以及丢弃/驱逐次数
+ */
+@Slf4j
+@Component
+public class SseStreamRegistry implements SmartLifecycle {
+
+    private static final Duration DRAIN_POLL_INTERVAL = Duration.ofMillis(200);
+
+    private final ProxyConfig proxyConfig;
+    private final MeterRegistry meterRegistry;
+    private final CatalogCache catalogCache;
+
+    private final Set<SseStream> streams = ConcurrentHashMap.newKeySet();
+    private final ConcurrentHashMap<String, ServiceMetrics> metricsByService = new ConcurrentHashMap<>();
+
+    private volatile boolean running;
+    private volatile boolean draining;
+    private Disposable heartbeatTask;
+
+    public SseStreamRegistry(ProxyConfig proxyConfig, MeterRegistry meterRegistry, CatalogCache catalogCache) {
+        this.proxyConfig = proxyConfig;
+        this.meterRegistry = meterRegistry;
+        this.catalogCache = catalogCache;
+        Gauge.builder("proxy.sse.open.total", streams, Set::size)
+                .description("打开的SSE流总数")
+                .register(meterRegistry);
+        Gauge.builder("proxy.sse.buffered.bytes.total", metricsByService,
+                        map -> map.values().stream().mapToLong(metrics -> metrics.buffered.sum()).sum())
+                .description("所有SSE流缓冲的字节总数")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 登记一条新的SSE流
+     */
+    public SseStream register(String serviceId, DataBufferFactory bufferFactory) {
+        ServiceMetrics metrics = metrics(serviceId);
+        SseStream stream = new SseStream(this, metrics, serviceId, bufferFactory,
+                proxyConfig.getSseBufferMaxBytes(), proxyConfig.getSseBufferMaxEvents(),
+                proxyConfig.getSseOverflowPolicy(), catalogCache);
+        streams.add(stream);
+        metrics.open.incrementAndGet();
+        return stream;
+    }
+
+    void unregister(SseStream stream) {
+        if (streams.remove(stream)) {
+            metrics(stream.getServiceId()).open.decrementAndGet();
+        }
+    }
+
+    /**
+     * 停机排空中，不再接受新的SSE流
+     */
+    public boolean isDraining() {
+        return draining;
+    }
+
+    public int size() {
+        return streams.size();
+    }
+
+    @Override
+    public void start() {
+        Duration interval = proxyConfig.getSseHeartbeatInterval();
+        long intervalNanos = interval.toNanos();
+        Duration tick = interval.dividedBy(2);
+        heartbeatTask = Flux.interval(tick, tick)
+                .onBackpressureDrop()
+                .subscribe(unused -> {
+                    long now = System.nanoTime();
+                    for (SseStream stream : streams) {
+                        stream.heartbeatIfIdle(now, intervalNanos);
+                    }
+                }, error -> log.error("SSE heartbeat task stopped", error));
+        draining = false;
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        stop(() -> { });
+    }
+
+    @Override
+    public void stop(Runnable callback) {
+        draining = true;
+        log.info("Draining {} SSE streams, timeout {}", streams.size(), proxyConfig.getSseDrainTimeout());
+        Flux.interval(Duration.ZERO, DRAIN_POLL_INTERVAL)
+                .filter(tick -> streams.isEmpty())
+                .next()
+                .timeout(proxyConfig.getSseDrainTimeout(), Mono.fromRunnable(() -> {
+                    log.info("SSE drain timed out, closing {} remaining streams", streams.size());
+                    streams.forEach(SseStream::close);
+                }))
+                .doFinally(signal -> {
+                    if (heartbeatTask != null) {
+                        heartbeatTask.dispose();
+                    }
+                    running = false;
+                    callback.run();
+                })
+                .subscribe();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private ServiceMetrics metrics(String serviceId) {
+        ServiceMetrics metrics = metricsByService.get(serviceId);
+        if (metrics == null) {
+            metrics = metricsByService.computeIfAbsent(serviceId, id -> new ServiceMetrics(meterRegistry, id));
+        }
+        return metrics;
+    }
+
+    /**
+     * 单个服务的SSE流指标
+     */
+    static final class ServiceMetrics {
+        final AtomicInteger open = new AtomicInteger();
+        final LongAdder buffered = new LongAdder();
+        final Counter dropped;
+        final Counter evicted;
+        final DistributionSummary peakBuffered;
+
+        ServiceMetrics(MeterRegistry meterRegistry, String serviceId) {
+            Gauge.builder("proxy.sse.open", open, AtomicInteger::get)
+                    .description("服务打开的SSE流数")
+                    .tag("service", serviceId)
+                    .register(meterRegistry);
+            Gauge.builder("proxy.sse.buffered.bytes", buffered, LongAdder::sum)
+                    .description("服务SSE流缓冲的字节数")
+                    .tag("service", serviceId)
+                    .baseUnit("bytes")
+                    .register(meterRegistry);
+            dropped = Counter.builder("proxy.sse.overflow")
+                    .description("SSE缓冲超限的处理次数")
+                    .tag("service", serviceId)
+                    .tag("action", "dropped")
+                    .register(meterRegistry);
+            evicted = Counter.builder("proxy.sse.overflow")
+                    .description("SSE缓冲超限的处理次数")
+                    .tag("service", serviceId)
+                    .tag("action", "evicted")
+                    .register(meterRegistry);
+            peakBuffered = DistributionSummary.builder("proxy.sse.stream.buffered.peak")
+                    .description("单条SSE流缓冲字节数的峰值")
+                    .tag("service", serviceId)
+                    .baseUnit("bytes")
+                    .register(meterRegistry);
+        }
+    }
+}
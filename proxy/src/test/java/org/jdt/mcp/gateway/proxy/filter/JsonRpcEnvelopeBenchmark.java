@@ -0,0 +1,94 @@
+package org.jdt.mcp.gateway.proxy.filter;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import reactor.core.publisher.Flux;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 每个请求解析JSON-RPC信封的额外耗时：envelope与passThrough之差，包括装饰器和解析器的创建
+ * call为带嵌套参数的tools/call，argumentsFirst的params.name排在4KB参数之后、超过扫描上限，list需要解析到顶层对象结束
+ * 运行：mvn -pl proxy -am test -Pbenchmark -Dtest=JsonRpcEnvelopeBenchmark -Dsurefire.failIfNoSpecifiedTests=false
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonRpcEnvelopeBenchmark {
+
+    private static final int SCAN_MAX_BYTES = 2048;
+
+    @Param({"call", "argumentsFirst", "list"})
+    public String body;
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private MockServerHttpRequest request;
+
+    @Setup
+    public void setUp() {
+        byte[] bytes = json(body).getBytes(StandardCharsets.UTF_8);
+        // 每次订阅产生新的DataBuffer，与网络读一致
+        request = MockServerHttpRequest.post("/mcp/hr-service/message")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(Flux.defer(() -> Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(bytes))));
+    }
+
+    @Benchmark
+    public void passThrough(Blackhole blackhole) {
+        request.getBody().subscribe(blackhole::consume);
+    }
+
+    @Benchmark
+    public Map<String, Object> envelope(Blackhole blackhole) {
+        Map<String, Object> attributes = new HashMap<>();
+        new JsonRpcEnvelopeRequestDecorator(request, jsonFactory, SCAN_MAX_BYTES, attributes)
+                .getBody().subscribe(blackhole::consume);
+        return attributes;
+    }
+
+    private static String json(String body) {
+        String arguments = "{\"query\":\"zhang san\",\"filters\":{\"department\":\"engineering\",\"limit\":10}}";
+        return switch (body) {
+            case "call" -> "{\"jsonrpc\":\"2.0\",\"id\":42,\"method\":\"tools/call\","
+                    + "\"params\":{\"name\":\"search_employee\",\"arguments\":" + arguments + "}}";
+            case "argumentsFirst" -> "{\"jsonrpc\":\"2.0\",\"id\":42,\"method\":\"tools/call\","
+                    + "\"params\":{\"arguments\":{\"text\":\"" + "x".repeat(4096) + "\"},\"name\":\"summarize\"}}";
+            case "list" -> "{\"jsonrpc\":\"2.0\",\"id\":\"req-7\",\"method\":\"tools/list\",\"params\":{}}";
+            default -> throw new IllegalArgumentException(body);
+        };
+    }
+
+    @Tag("benchmark")
+    @Test
+    void run() throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(JsonRpcEnvelopeBenchmark.class.getName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,281 @@
+package org.jdt.mcp.gateway.proxy.handler;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.jdt.mcp.gateway.auth.service.SessionRegistry;
+import org.jdt.mcp.gateway.auth.tool.AuthContextHelper;
+import org.jdt.mcp.gateway.core.config.ProxyConfig;
+import org.jdt.mcp.gateway.core.entity.MCPServiceEntity;
+import org.jdt.mcp.gateway.core.entity.McpTransport;
+import org.jdt.mcp.gateway.core.entity.ServiceStatus;
+import org.jdt.mcp.gateway.proxy.cache.CatalogCache;
+import org.jdt.mcp.gateway.proxy.cache.ToolResultCache;
+import org.jdt.mcp.gateway.proxy.client.UpstreamClientRegistry;
+import org.jdt.mcp.gateway.proxy.filter.JsonRpcEnvelopeFilter;
+import org.jdt.mcp.gateway.proxy.route.ServiceRouteTable;
+import org.jdt.mcp.gateway.proxy.service.MCPDiscoveryService;
+import org.jdt.mcp.gateway.proxy.service.StatisticsService;
+import org.jdt.mcp.gateway.proxy.sse.SseStreamRegistry;
+import org.jdt.mcp.gateway.service.RedisCatalogInvalidationService;
+import org.jdt.mcp.gateway.service.RedisToolResultCacheService;
+import org.jdt.mcp.gateway.traffic.breaker.RetryBudget;
+import org.jdt.mcp.gateway.traffic.concurrency.ConcurrencyPermit;
+import org.jdt.mcp.gateway.traffic.service.CircuitBreakerService;
+import org.jdt.mcp.gateway.traffic.service.ConcurrencyLimitService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.http.server.reactive.HttpHandler;
+import org.springframework.http.server.reactive.ReactorHttpHandlerAdapter;
+import org.springframework.test.web.reactive.server.EntityExchangeResult;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.server.adapter.WebHttpHandlerBuilder;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 只读工具并发调用合并的端到端测试：WebTestClient -> 网关（过滤器 + McpProxyHandler） -> 桩上游
+ */
+class McpProxyHandlerCoalesceTest {
+
+    private static final int CALLERS = 100;
+    private static final String RESULT = "{\"content\":[{\"type\":\"text\",\"text\":\"42\"}],\"isError\":false}";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AtomicInteger upstreamHits = new AtomicInteger();
+    // 到达网关的调用数
+    private final AtomicInteger gatewayArrivals = new AtomicInteger();
+    // 第一个上游请求在放行前挂起，保证其余调用在它进行中到达
+    private final CountDownLatch releaseLeader = new CountDownLatch(1);
+    private volatile boolean failLeader;
+    // 放行leader时上游收到的请求数，follower都在等待时为1
+    private int hitsBeforeRelease;
+
+    private DisposableServer upstream;
+    private DisposableServer gateway;
+    private UpstreamClientRegistry clientRegistry;
+    private ConnectionProvider connections;
+    private WebTestClient client;
+
+    @BeforeEach
+    void setUp() {
+        upstream = HttpServer.create()
+                .host("localhost")
+                .port(0)
+                .handle((request, response) -> request.receive().aggregate().asString()
+                        .flatMap(body -> {
+                            int hit = upstreamHits.incrementAndGet();
+                            Mono<Void> gate = hit == 1
+                                    ? Mono.<Void>fromRunnable(this::awaitRelease)
+                                    .subscribeOn(Schedulers.boundedElastic())
+                                    : Mono.empty();
+                            if (hit == 1 && failLeader) {
+                                return gate.then(response.status(HttpStatus.INTERNAL_SERVER_ERROR.value())
+                                        .sendString(Mono.just("upstream failed")).then());
+                            }
+                            String json = "{\"jsonrpc\":\"2.0\",\"id\":" + readTree(body).get("id")
+                                    + ",\"result\":" + RESULT + "}";
+                            return gate.then(response.header("Content-Type", MediaType.APPLICATION_JSON_VALUE)
+                                    .sendString(Mono.just(json)).then());
+                        }))
+                .bindNow();
+
+        ProxyConfig proxyConfig = new ProxyConfig();
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        clientRegistry = new UpstreamClientRegistry(proxyConfig);
+        ServiceRouteTable routeTable = new ServiceRouteTable(clientRegistry, objectMapper);
+        routeTable.put(service());
+
+        StatisticsService statisticsService = mock(StatisticsService.class);
+        ConcurrencyLimitService concurrencyLimitService = mock(ConcurrencyLimitService.class);
+        when(concurrencyLimitService.acquire(anyString())).thenReturn(Mono.just(ConcurrencyPermit.NOOP));
+        CircuitBreakerService circuitBreakerService = mock(CircuitBreakerService.class);
+        when(circuitBreakerService.getRetryBudget(anyString())).thenReturn(new RetryBudget(0.2, 10, 100));
+        CatalogCache catalogCache = new CatalogCache(proxyConfig, meterRegistry,
+                mock(RedisCatalogInvalidationService.class));
+
+        McpProxyHandler handler = new McpProxyHandler(
+                mock(MCPDiscoveryService.class),
+                statisticsService,
+                routeTable,
+                mock(SessionRegistry.class),
+                concurrencyLimitService,
+                circuitBreakerService,
+                new SseStreamRegistry(proxyConfig, meterRegistry, catalogCache),
+                catalogCache,
+                new ToolResultCache(proxyConfig, meterRegistry, mock(RedisToolResultCacheService.class)),
+                proxyConfig,
+                mock(AuthContextHelper.class));
+        // 网关运行在真实的Reactor Netty服务器上，响应在body写完后才结束，与生产环境一致
+        HttpHandler httpHandler = WebHttpHandlerBuilder.webHandler(handler::handleProxy)
+                .filter((exchange, chain) -> {
+                    gatewayArrivals.incrementAndGet();
+                    return chain.filter(exchange);
+                })
+                .filter(new JsonRpcEnvelopeFilter(proxyConfig))
+                .build();
+        gateway = HttpServer.create()
+                .host("localhost")
+                .port(0)
+                .handle(new ReactorHttpHandlerAdapter(httpHandler))
+                .bindNow();
+        // 客户端连接池容纳全部并发调用，默认的池会让多出的调用排队或被拒绝
+        connections = ConnectionProvider.builder("coalesce-test")
+                .maxConnections(CALLERS)
+                .build();
+        client = WebTestClient.bindToServer(new ReactorClientHttpConnector(HttpClient.create(connections)))
+                .baseUrl("http://localhost:" + gateway.port())
+                .responseTimeout(Duration.ofSeconds(30))
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        releaseLeader.countDown();
+        connections.disposeLater().block();
+        gateway.disposeNow();
+        clientRegistry.destroy();
+        upstream.disposeNow();
+    }
+
+    @Test
+    void concurrentIdenticalCallsHitUpstreamOnce() throws Exception {
+        List<EntityExchangeResult<byte[]>> results = callConcurrently();
+
+        assertThat(upstreamHits.get()).isEqualTo(1);
+        assertThat(results).hasSize(CALLERS);
+        for (int i = 0; i < CALLERS; i++) {
+            EntityExchangeResult<byte[]> result = results.get(i);
+            assertThat(result.getStatus()).isEqualTo(HttpStatus.OK);
+            JsonNode response = readTree(new String(result.getResponseBody(), StandardCharsets.UTF_8));
+            assertThat(response.get("id").asText()).isEqualTo("call-" + i);
+            assertThat(response.get("result")).isEqualTo(readTree(RESULT));
+        }
+        long coalesced = results.stream()
+                .filter(result -> "COALESCED".equals(result.getResponseHeaders()
+                        .getFirst(ToolResultCache.CACHE_STATUS_HEADER)))
+                .count();
+        assertThat(coalesced).isEqualTo(CALLERS - 1);
+    }
+
+    @Test
+    void followersForwardTheirOwnRequestWhenLeaderFails() throws Exception {
+        failLeader = true;
+
+        List<EntityExchangeResult<byte[]>> results = callConcurrently();
+
+        // follower先等待leader，leader失败后各自转发一次
+        assertThat(hitsBeforeRelease).isEqualTo(1);
+        assertThat(upstreamHits.get()).isEqualTo(CALLERS);
+        int failed = 0;
+        for (int i = 0; i < CALLERS; i++) {
+            EntityExchangeResult<byte[]> result = results.get(i);
+            if (result.getStatus() == HttpStatus.INTERNAL_SERVER_ERROR) {
+                failed++;
+                continue;
+            }
+            assertThat(result.getStatus()).isEqualTo(HttpStatus.OK);
+            JsonNode response = readTree(new String(result.getResponseBody(), StandardCharsets.UTF_8));
+            assertThat(response.get("id").asText()).isEqualTo("call-" + i);
+            assertThat(result.getResponseHeaders().getFirst(ToolResultCache.CACHE_STATUS_HEADER))
+                    .isNotEqualTo("COALESCED");
+        }
+        assertThat(failed).isEqualTo(1);
+    }
+
+    /**
+     * CALLERS个线程同时发起参数相同、id不同的只读工具调用，全部发出后再放行leader的上游响应
+     */
+    private List<EntityExchangeResult<byte[]>> callConcurrently() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+        try {
+            List<Future<EntityExchangeResult<byte[]>>> futures = new ArrayList<>();
+            for (int i = 0; i < CALLERS; i++) {
+                String id = "call-" + i;
+                futures.add(executor.submit(() -> call(id)));
+            }
+            // 等第一个调用到达上游、全部调用到达网关，再给其余调用留出读取body并加入合并的时间
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(20);
+            while ((upstreamHits.get() == 0 || gatewayArrivals.get() < CALLERS) && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            Thread.sleep(500);
+            hitsBeforeRelease = upstreamHits.get();
+            releaseLeader.countDown();
+
+            List<EntityExchangeResult<byte[]>> results = new ArrayList<>();
+            for (Future<EntityExchangeResult<byte[]>> future : futures) {
+                results.add(future.get(30, TimeUnit.SECONDS));
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private EntityExchangeResult<byte[]> call(String id) {
+        String body = "{\"jsonrpc\":\"2.0\",\"id\":\"" + id + "\",\"method\":\"tools/call\","
+                + "\"params\":{\"name\":\"search\",\"arguments\":{\"q\":\"answer\"}}}";
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        // 只有Content-Length已知的请求才参与合并
+        return client.post()
+                .uri("/mcp/svc/mcp")
+                .contentType(MediaType.APPLICATION_JSON)
+                .contentLength(bytes.length)
+                .accept(MediaType.APPLICATION_JSON, MediaType.TEXT_EVENT_STREAM)
+                .bodyValue(bytes)
+                .exchange()
+                .expectBody()
+                .returnResult();
+    }
+
+    private MCPServiceEntity service() {
+        MCPServiceEntity service = new MCPServiceEntity();
+        service.setServiceId("svc");
+        service.setEndpoint("http://localhost:" + upstream.port());
+        service.setStatus(ServiceStatus.ACTIVE);
+        service.setTransport(McpTransport.STREAMABLE_HTTP);
+        service.setToolPolicies("{\"search\":{\"readOnly\":true}}");
+        return service;
+    }
+
+    private void awaitRelease() {
+        try {
+            releaseLeader.await(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private JsonNode readTree(String json) {
+        try {
+            return objectMapper.readTree(json);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
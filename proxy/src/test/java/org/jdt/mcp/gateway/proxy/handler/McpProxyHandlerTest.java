@@ -0,0 +1,194 @@
+package org.jdt.mcp.gateway.proxy.handler;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.jdt.mcp.gateway.auth.service.SessionRegistry;
+import org.jdt.mcp.gateway.auth.tool.AuthContextHelper;
+import org.jdt.mcp.gateway.core.config.ProxyConfig;
+import org.jdt.mcp.gateway.core.entity.MCPServiceEntity;
+import org.jdt.mcp.gateway.core.entity.ServiceStatus;
+import org.jdt.mcp.gateway.mapper.ServiceLatencyStatisticsMapper;
+import org.jdt.mcp.gateway.mapper.ServiceStatisticsMapper;
+import org.jdt.mcp.gateway.mapper.ToolStatisticsMapper;
+import org.jdt.mcp.gateway.proxy.cache.CatalogCache;
+import org.jdt.mcp.gateway.proxy.cache.ToolResultCache;
+import org.jdt.mcp.gateway.proxy.client.UpstreamClientRegistry;
+import org.jdt.mcp.gateway.proxy.filter.JsonRpcEnvelopeFilter;
+import org.jdt.mcp.gateway.proxy.route.ServiceRouteTable;
+import org.jdt.mcp.gateway.proxy.service.MCPDiscoveryService;
+import org.jdt.mcp.gateway.proxy.service.StatisticsService;
+import org.jdt.mcp.gateway.proxy.service.impl.RedisStatisticsServiceImpl;
+import org.jdt.mcp.gateway.proxy.sse.SseStreamRegistry;
+import org.jdt.mcp.gateway.service.RedisCatalogInvalidationService;
+import org.jdt.mcp.gateway.service.RedisStatsCacheService;
+import org.jdt.mcp.gateway.service.RedisToolResultCacheService;
+import org.jdt.mcp.gateway.service.RedisToolStatsCacheService;
+import org.jdt.mcp.gateway.traffic.breaker.RetryBudget;
+import org.jdt.mcp.gateway.traffic.concurrency.ConcurrencyPermit;
+import org.jdt.mcp.gateway.traffic.service.CircuitBreakerService;
+import org.jdt.mcp.gateway.traffic.service.ConcurrencyLimitService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.HttpHandler;
+import org.springframework.http.server.reactive.ReactorHttpHandlerAdapter;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.server.adapter.WebHttpHandlerBuilder;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 代理转发的端到端测试：WebTestClient -> 网关（过滤器 + McpProxyHandler） -> 桩上游
+ * 上游的第一个请求默认不响应，直到网关的响应超时，用于触发重试
+ */
+class McpProxyHandlerTest {
+
+    private static final Duration UPSTREAM_TIMEOUT = Duration.ofMillis(300);
+
+    // 上游收到的请求，记录方法和body
+    private final List<String> upstreamRequests = new CopyOnWriteArrayList<>();
+    private final RedisToolStatsCacheService toolStatsService = mock(RedisToolStatsCacheService.class);
+    private volatile boolean stallFirstRequest = true;
+
+    private DisposableServer upstream;
+    private DisposableServer gateway;
+    private UpstreamClientRegistry clientRegistry;
+    private WebTestClient client;
+
+    @BeforeEach
+    void setUp() {
+        upstream = HttpServer.create()
+                .host("localhost")
+                .port(0)
+                .handle((request, response) -> request.receive().aggregate().asString().defaultIfEmpty("")
+                        .flatMap(body -> {
+                            upstreamRequests.add(request.method().name() + " " + body);
+                            if (stallFirstRequest && upstreamRequests.size() == 1) {
+                                return Mono.never();
+                            }
+                            return response.header("Content-Type", MediaType.APPLICATION_JSON_VALUE)
+                                    .sendString(Mono.just("{\"ok\":true}")).then();
+                        }))
+                .bindNow();
+
+        ProxyConfig proxyConfig = new ProxyConfig();
+        proxyConfig.setTimeout(UPSTREAM_TIMEOUT);
+        proxyConfig.setRetryBackoff(Duration.ofMillis(10));
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        clientRegistry = new UpstreamClientRegistry(proxyConfig);
+        ServiceRouteTable routeTable = new ServiceRouteTable(clientRegistry, new ObjectMapper());
+        routeTable.put(service());
+
+        RedisStatsCacheService redisStatsService = mock(RedisStatsCacheService.class);
+        when(redisStatsService.recordRequestStats(anyString(), anyString(), anyInt(), anyLong()))
+                .thenReturn(Mono.empty());
+        StatisticsService statisticsService = new RedisStatisticsServiceImpl(proxyConfig, redisStatsService,
+                mock(ServiceStatisticsMapper.class), mock(ServiceLatencyStatisticsMapper.class),
+                toolStatsService, mock(ToolStatisticsMapper.class));
+        ConcurrencyLimitService concurrencyLimitService = mock(ConcurrencyLimitService.class);
+        when(concurrencyLimitService.acquire(anyString())).thenReturn(Mono.just(ConcurrencyPermit.NOOP));
+        CircuitBreakerService circuitBreakerService = mock(CircuitBreakerService.class);
+        when(circuitBreakerService.getRetryBudget(anyString())).thenReturn(new RetryBudget(0.2, 10, 100));
+        CatalogCache catalogCache = new CatalogCache(proxyConfig, meterRegistry,
+                mock(RedisCatalogInvalidationService.class));
+
+        McpProxyHandler handler = new McpProxyHandler(
+                mock(MCPDiscoveryService.class),
+                statisticsService,
+                routeTable,
+                mock(SessionRegistry.class),
+                concurrencyLimitService,
+                circuitBreakerService,
+                new SseStreamRegistry(proxyConfig, meterRegistry, catalogCache),
+                catalogCache,
+                new ToolResultCache(proxyConfig, meterRegistry, mock(RedisToolResultCacheService.class)),
+                proxyConfig,
+                mock(AuthContextHelper.class));
+        HttpHandler httpHandler = WebHttpHandlerBuilder.webHandler(handler::handleProxy)
+                .filter(new JsonRpcEnvelopeFilter(proxyConfig))
+                .build();
+        gateway = HttpServer.create()
+                .host("localhost")
+                .port(0)
+                .handle(new ReactorHttpHandlerAdapter(httpHandler))
+                .bindNow();
+        client = WebTestClient.bindToServer()
+                .baseUrl("http://localhost:" + gateway.port())
+                .responseTimeout(Duration.ofSeconds(10))
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        gateway.disposeNow();
+        clientRegistry.destroy();
+        upstream.disposeNow();
+    }
+
+    @Test
+    void bodilessIdempotentRequestIsRetriedAfterTimeout() {
+        client.get()
+                .uri("/mcp/svc/items/1")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).isEqualTo("{\"ok\":true}");
+
+        assertThat(upstreamRequests).containsExactly("GET ", "GET ");
+    }
+
+    @Test
+    void idempotentRequestWithBodyIsNotRetriedOnceSent() {
+        byte[] body = "{\"name\":\"item\"}".getBytes(StandardCharsets.UTF_8);
+
+        client.put()
+                .uri("/mcp/svc/items/1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(body)
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR);
+
+        // 重试会重新订阅已被消费的请求body，上游会收到body为空的第二个请求
+        assertThat(upstreamRequests).containsExactly("PUT {\"name\":\"item\"}");
+    }
+
+    @Test
+    void successfulToolCallIsRecordedInToolStats() {
+        stallFirstRequest = false;
+
+        client.post()
+                .uri("/mcp/svc/message")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"jsonrpc\":\"2.0\",\"id\":1,\"method\":\"tools/call\","
+                        + "\"params\":{\"name\":\"search\",\"arguments\":{}}}")
+                .exchange()
+                .expectStatus().isOk();
+
+        verify(toolStatsService).recordToolStats(eq("svc"), eq("search"), eq(200), anyLong());
+    }
+
+    private MCPServiceEntity service() {
+        MCPServiceEntity service = new MCPServiceEntity();
+        service.setServiceId("svc");
+        service.setEndpoint("http://localhost:" + upstream.port());
+        service.setStatus(ServiceStatus.ACTIVE);
+        return service;
+    }
+}
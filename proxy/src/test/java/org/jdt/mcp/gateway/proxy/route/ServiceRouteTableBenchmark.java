@@ -0,0 +1,124 @@
+package org.jdt.mcp.gateway.proxy.route;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.jdt.mcp.gateway.core.config.ProxyConfig;
+import org.jdt.mcp.gateway.core.entity.MCPServiceEntity;
+import org.jdt.mcp.gateway.core.entity.ServiceStatus;
+import org.jdt.mcp.gateway.proxy.client.UpstreamClientRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 10k路由下的路径解析：路由表按路径区间直接查找，对比截取serviceId子串后查ConcurrentHashMap
+ * 运行：mvn -pl proxy -am test -Pbenchmark -Dtest=ServiceRouteTableBenchmark -Dsurefire.failIfNoSpecifiedTests=false
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ServiceRouteTableBenchmark {
+
+    private static final int ROUTES = 10_000;
+    private static final int PATHS = 1024;
+
+    private ServiceRouteTable routeTable;
+    private Map<String, ServiceRoute> substringMap;
+    private String[] hitPaths;
+    private String[] missPaths;
+
+    @Setup
+    public void setUp() {
+        routeTable = new ServiceRouteTable(new UpstreamClientRegistry(new ProxyConfig()) {
+            @Override
+            public WebClient clientFor(MCPServiceEntity service) {
+                return null;
+            }
+        }, new ObjectMapper());
+        List<MCPServiceEntity> services = new ArrayList<>(ROUTES);
+        for (int i = 0; i < ROUTES; i++) {
+            MCPServiceEntity service = new MCPServiceEntity();
+            service.setServiceId("service-" + i);
+            service.setEndpoint("http://10.0." + (i / 250) + "." + (i % 250) + ":8080");
+            service.setStatus(ServiceStatus.ACTIVE);
+            services.add(service);
+        }
+        routeTable.replaceAll(services);
+
+        substringMap = new ConcurrentHashMap<>();
+        for (MCPServiceEntity service : services) {
+            substringMap.put(service.getServiceId(), routeTable.get(service.getServiceId()));
+        }
+
+        hitPaths = new String[PATHS];
+        missPaths = new String[PATHS];
+        for (int i = 0; i < PATHS; i++) {
+            hitPaths[i] = "/mcp/service-" + (i * 7919 % ROUTES) + "/mcp/message?sessionId=abc";
+            missPaths[i] = "/mcp/unknown-" + i + "/mcp/message?sessionId=abc";
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+
+        int advance() {
+            return next = (next + 1) & (PATHS - 1);
+        }
+    }
+
+    @Benchmark
+    public ServiceRoute resolveHit(Cursor cursor) {
+        return routeTable.resolve(hitPaths[cursor.advance()]);
+    }
+
+    @Benchmark
+    public ServiceRoute resolveMiss(Cursor cursor) {
+        return routeTable.resolve(missPaths[cursor.advance()]);
+    }
+
+    @Benchmark
+    public ServiceRoute substringLookupHit(Cursor cursor) {
+        return substringLookup(hitPaths[cursor.advance()]);
+    }
+
+    @Benchmark
+    public ServiceRoute substringLookupMiss(Cursor cursor) {
+        return substringLookup(missPaths[cursor.advance()]);
+    }
+
+    private ServiceRoute substringLookup(String path) {
+        int end = path.indexOf('/', "/mcp/".length());
+        return substringMap.get(path.substring("/mcp/".length(), end < 0 ? path.length() : end));
+    }
+
+    @Tag("benchmark")
+    @Test
+    void run() throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(ServiceRouteTableBenchmark.class.getName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,182 @@
+package org.jdt.mcp.gateway.proxy.route;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.jdt.mcp.gateway.core.config.ProxyConfig;
+import org.jdt.mcp.gateway.core.entity.MCPServiceEntity;
+import org.jdt.mcp.gateway.core.entity.ServiceStatus;
+import org.jdt.mcp.gateway.proxy.client.UpstreamClientRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ServiceRouteTableTest {
+
+    private UpstreamClientRegistry clientRegistry;
+    private ServiceRouteTable routeTable;
+
+    @BeforeEach
+    void setUp() {
+        clientRegistry = new UpstreamClientRegistry(new ProxyConfig());
+        routeTable = new ServiceRouteTable(clientRegistry, new ObjectMapper());
+    }
+
+    @AfterEach
+    void tearDown() {
+        clientRegistry.destroy();
+    }
+
+    @Test
+    void putInstallsRouteWhenNotInvalidatedDuringLoad() {
+        long version = routeTable.version("svc");
+
+        ServiceRoute route = routeTable.put(service("svc"), version);
+
+        assertThat(route).isNotNull();
+        assertThat(routeTable.resolve("/mcp/svc/sse")).isSameAs(route);
+    }
+
+    @Test
+    void putDoesNotReinstallRouteRemovedDuringLoad() {
+        long version = routeTable.version("svc");
+        routeTable.remove("svc");
+
+        ServiceRoute route = routeTable.put(service("svc"), version);
+
+        assertThat(route).isNotNull();
+        assertThat(routeTable.resolve("/mcp/svc/sse")).isNull();
+        assertThat(routeTable.put(service("svc"), routeTable.version("svc"))).isNotNull();
+        assertThat(routeTable.resolve("/mcp/svc/sse")).isNotNull();
+    }
+
+    @Test
+    void putDoesNotInstallRouteLoadedBeforeRebuild() {
+        long version = routeTable.version("svc");
+        routeTable.replaceAll(List.of(service("other")));
+
+        routeTable.put(service("svc"), version);
+
+        assertThat(routeTable.resolve("/mcp/svc/sse")).isNull();
+        assertThat(routeTable.resolve("/mcp/other/sse")).isNotNull();
+    }
+
+    @Test
+    void removingOneServiceDoesNotAffectLoadsOfOthers() {
+        long version = routeTable.version("svc");
+        routeTable.remove("other");
+
+        routeTable.put(service("svc"), version);
+
+        assertThat(routeTable.resolve("/mcp/svc/sse")).isNotNull();
+    }
+
+    @Test
+    void removeKeepsConnectionPoolForReload() {
+        ServiceRoute route = routeTable.put(service("svc"));
+
+        routeTable.remove("svc");
+        ServiceRoute reloaded = routeTable.put(service("svc"));
+
+        assertThat(clientRegistry.size()).isEqualTo(1);
+        assertThat(reloaded.getWebClient()).isSameAs(route.getWebClient());
+    }
+
+    @Test
+    void releaseRemovesRouteAndConnectionPool() {
+        routeTable.put(service("svc"));
+
+        routeTable.release("svc");
+
+        assertThat(routeTable.resolve("/mcp/svc/sse")).isNull();
+        assertThat(clientRegistry.size()).isZero();
+    }
+
+    @Test
+    void putInactiveServiceReleasesConnectionPool() {
+        routeTable.put(service("svc"));
+        MCPServiceEntity inactive = service("svc");
+        inactive.setStatus(ServiceStatus.INACTIVE);
+
+        assertThat(routeTable.put(inactive)).isNull();
+        assertThat(routeTable.resolve("/mcp/svc/sse")).isNull();
+        assertThat(clientRegistry.size()).isZero();
+    }
+
+    @Test
+    void rebuildPrunesRemovalsAndKeepsVersionsMonotonic() {
+        long before = routeTable.version("svc");
+        routeTable.remove("svc");
+        routeTable.remove("other");
+        long removed = routeTable.version("svc");
+
+        routeTable.replaceAll(List.of(service("svc")));
+
+        assertThat(removed).isGreaterThan(before);
+        assertThat(routeTable.version("svc")).isGreaterThan(removed);
+        assertThat(routeTable.version("other")).isEqualTo(routeTable.version("svc"));
+        assertThat((Map<?, ?>) ReflectionTestUtils.getField(routeTable, "removals")).isEmpty();
+        assertThat(routeTable.put(service("svc"), removed)).isNotSameAs(routeTable.resolve("/mcp/svc/sse"));
+    }
+
+    @Test
+    void resolvesTenThousandRoutesWithCollidingHashes() {
+        // 只验证查找，不为每个服务创建连接池
+        ServiceRouteTable table = new ServiceRouteTable(new UpstreamClientRegistry(new ProxyConfig()) {
+            @Override
+            public WebClient clientFor(MCPServiceEntity service) {
+                return null;
+            }
+        }, new ObjectMapper());
+        // 256个String.hashCode完全相同的serviceId（"Aa"与"BB"哈希相同）
+        List<String> colliding = new ArrayList<>();
+        collidingIds("c-", 8, colliding);
+        List<MCPServiceEntity> services = new ArrayList<>();
+        for (int i = colliding.size(); i < 10_000; i++) {
+            services.add(service("service-" + i));
+        }
+        colliding.forEach(serviceId -> services.add(service(serviceId)));
+
+        table.replaceAll(services);
+
+        assertThat(table.size()).isEqualTo(10_000);
+        assertThat(colliding).extracting(String::hashCode).containsOnly(colliding.get(0).hashCode());
+        for (MCPServiceEntity service : services) {
+            String serviceId = service.getServiceId();
+            assertThat(table.resolve("/mcp/" + serviceId + "/sse").getServiceId()).isEqualTo(serviceId);
+            assertThat(table.resolve("/mcp/" + serviceId).getServiceId()).isEqualTo(serviceId);
+        }
+        assertThat(table.resolve("/mcp/service-10000/sse")).isNull();
+        assertThat(table.resolve("/mcp/service-1/sse")).isNull();
+        assertThat(table.resolve("/mcp/service-2560x/sse")).isNull();
+        assertThat(table.resolve("/mcp/service-256")).isNotNull();
+        assertThat(table.resolve("/mcp/c-AaBBAaBBAaBBAaBB/sse")).isNotNull();
+        assertThat(table.resolve("/mcp/c-AaBBAaBBAaBBAaBBAa/sse")).isNull();
+        assertThat(table.resolve("/mcp/c-AaBBAaBBAaBBAa/sse")).isNull();
+        assertThat(table.resolve("/mcp//sse")).isNull();
+        assertThat(table.resolve("/other/service-300/sse")).isNull();
+    }
+
+    private static void collidingIds(String prefix, int pairs, List<String> out) {
+        if (pairs == 0) {
+            out.add(prefix);
+            return;
+        }
+        collidingIds(prefix + "Aa", pairs - 1, out);
+        collidingIds(prefix + "BB", pairs - 1, out);
+    }
+
+    private static MCPServiceEntity service(String serviceId) {
+        MCPServiceEntity service = new MCPServiceEntity();
+        service.setServiceId(serviceId);
+        service.setEndpoint("http://localhost:9000");
+        service.setStatus(ServiceStatus.ACTIVE);
+        return service;
+    }
+}
@@ -0,0 +1,61 @@
+package org.jdt.mcp.gateway.proxy.route;
+
+import org.jdt.mcp.gateway.core.entity.MCPServiceEntity;
+import org.jdt.mcp.gateway.core.entity.MCPServiceInstanceEntity;
+import org.jdt.mcp.gateway.core.entity.ServiceStatus;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ServiceRouteTest {
+
+    @Test
+    void unhealthyPrimaryIsNotChosenWhileAnInstanceIsHealthy() {
+        ServiceRoute route = new ServiceRoute(service(false, true), null, null, Map.of());
+
+        assertThat(route.findInstance(UpstreamInstance.DEFAULT_INSTANCE_ID).isHealthy()).isFalse();
+        for (int i = 0; i < 100; i++) {
+            assertThat(route.choose(null).getInstanceId()).isEqualTo("b");
+        }
+    }
+
+    @Test
+    void allTargetsStayEligibleWhenNoneIsHealthy() {
+        ServiceRoute route = new ServiceRoute(service(false, false), null, null, Map.of());
+
+        boolean primaryChosen = false;
+        for (int i = 0; i < 100 && !primaryChosen; i++) {
+            primaryChosen = UpstreamInstance.DEFAULT_INSTANCE_ID.equals(route.choose(null).getInstanceId());
+        }
+        assertThat(primaryChosen).isTrue();
+    }
+
+    @Test
+    void primaryWithoutHealthResultIsHealthy() {
+        MCPServiceEntity service = service(true, true);
+        service.setHealthy(null);
+        ServiceRoute route = new ServiceRoute(service, null, null, Map.of());
+
+        assertThat(route.findInstance(UpstreamInstance.DEFAULT_INSTANCE_ID).isHealthy()).isTrue();
+    }
+
+    private static MCPServiceEntity service(boolean primaryHealthy, boolean instanceHealthy) {
+        MCPServiceInstanceEntity instance = new MCPServiceInstanceEntity();
+        instance.setServiceId("svc");
+        instance.setInstanceId("b");
+        instance.setEndpoint("http://localhost:9001");
+        instance.setEnabled(true);
+        instance.setHealthy(instanceHealthy);
+
+        MCPServiceEntity service = new MCPServiceEntity();
+        service.setServiceId("svc");
+        service.setEndpoint("http://localhost:9000");
+        service.setStatus(ServiceStatus.ACTIVE);
+        service.setHealthy(primaryHealthy);
+        service.setInstances(List.of(instance));
+        return service;
+    }
+}
@@ -0,0 +1,139 @@
+package org.jdt.mcp.gateway.proxy.sse;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 字节级SSE重写器与原先按chunk解码后正则替换的对比
+ * 流由一个endpoint事件和若干JSON消息事件组成，按8KB切成chunk，模拟上游的网络读
+ * 运行：mvn -pl proxy -am test -Pbenchmark -Dtest=SseEndpointRewriterBenchmark -Dsurefire.failIfNoSpecifiedTests=false
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SseEndpointRewriterBenchmark {
+
+    private static final int CHUNK_SIZE = 8 * 1024;
+    private static final String SERVICE_ID = "hr-service";
+    private static final Pattern LEGACY_PATTERN =
+            Pattern.compile("(data:)?/mcp/([^?\\s]+)(\\?[^\\s]*)?(\\s|$|\"|')");
+
+    @Param({"1024", "65536", "4194304"})
+    public int streamBytes;
+
+    private final DefaultDataBufferFactory bufferFactory = DefaultDataBufferFactory.sharedInstance;
+    private List<byte[]> chunks;
+    private List<DataBuffer> buffers;
+
+    @Setup(Level.Trial)
+    public void buildStream() {
+        StringBuilder stream = new StringBuilder("event: endpoint\ndata: /mcp/message?sessionId=")
+                .append("3f6c1f0e-6f0a-4a5e-9a55-0c6d1c2b7e41\n\n");
+        for (int id = 1; stream.length() < streamBytes; id++) {
+            stream.append("event: message\ndata: {\"jsonrpc\":\"2.0\",\"id\":").append(id)
+                    .append(",\"result\":{\"content\":[{\"type\":\"text\",\"text\":\"employee record ")
+                    .append(id).append(" department engineering location beijing\"}]}}\n\n");
+        }
+        byte[] bytes = stream.substring(0, streamBytes).getBytes(StandardCharsets.UTF_8);
+        chunks = new ArrayList<>();
+        for (int from = 0; from < bytes.length; from += CHUNK_SIZE) {
+            byte[] chunk = new byte[Math.min(CHUNK_SIZE, bytes.length - from)];
+            System.arraycopy(bytes, from, chunk, 0, chunk.length);
+            chunks.add(chunk);
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void wrapChunks() {
+        buffers = new ArrayList<>(chunks.size());
+        for (byte[] chunk : chunks) {
+            buffers.add(bufferFactory.wrap(chunk));
+        }
+    }
+
+    @Benchmark
+    public void byteRewriter(Blackhole blackhole) {
+        SseEndpointRewriter rewriter = new SseEndpointRewriter(bufferFactory, SERVICE_ID, blackhole::consume);
+        for (DataBuffer buffer : buffers) {
+            DataBuffer out = rewriter.rewrite(buffer);
+            if (out != null) {
+                blackhole.consume(out.readableByteCount());
+                DataBufferUtils.release(out);
+            }
+        }
+        blackhole.consume(rewriter.finish());
+    }
+
+    /**
+     * 原实现：每个chunk解码为字符串、正则替换后重新编码，跨chunk的行无法匹配
+     */
+    @Benchmark
+    public void legacyRegex(Blackhole blackhole) {
+        for (DataBuffer buffer : buffers) {
+            String content = buffer.toString(StandardCharsets.UTF_8);
+            String rewritten = rewriteLegacy(content);
+            DataBuffer out = buffer;
+            if (!content.equals(rewritten)) {
+                DataBufferUtils.release(buffer);
+                out = bufferFactory.wrap(rewritten.getBytes(StandardCharsets.UTF_8));
+            }
+            blackhole.consume(out.readableByteCount());
+            DataBufferUtils.release(out);
+        }
+    }
+
+    private static String rewriteLegacy(String content) {
+        Matcher matcher = LEGACY_PATTERN.matcher(content);
+        StringBuilder sb = new StringBuilder();
+        while (matcher.find()) {
+            String prefix = matcher.group(1) != null ? matcher.group(1) : "";
+            String pathPart = matcher.group(2);
+            String queryPart = matcher.group(3) != null ? matcher.group(3) : "";
+            String suffix = matcher.group(4);
+            String rewritten = pathPart.equals(SERVICE_ID)
+                    ? prefix + "/mcp/" + pathPart + queryPart + suffix
+                    : prefix + "/mcp/" + SERVICE_ID + "/mcp/" + pathPart + queryPart + suffix;
+            matcher.appendReplacement(sb, Matcher.quoteReplacement(rewritten));
+        }
+        matcher.appendTail(sb);
+        return sb.toString();
+    }
+
+    @Tag("benchmark")
+    @Test
+    void run() throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(SseEndpointRewriterBenchmark.class.getName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,147 @@
+package org.jdt.mcp.gateway.proxy.sse;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SseEndpointRewriterTest {
+
+    private final DefaultDataBufferFactory bufferFactory = DefaultDataBufferFactory.sharedInstance;
+    private final List<String> captured = new ArrayList<>();
+    private final SseEndpointRewriter rewriter = new SseEndpointRewriter(bufferFactory, "svc", captured::add);
+
+    @Test
+    void rewritesEndpointAndCapturesSessionId() {
+        String out = feed("event: endpoint\r\ndata: /mcp/message?sessionId=abc\r\n\r\n");
+
+        assertThat(out).isEqualTo("event: endpoint\r\ndata: /mcp/svc/mcp/message?sessionId=abc\r\n\r\n");
+        assertThat(captured).containsExactly("abc");
+    }
+
+    @Test
+    void capturesSessionIdSplitAcrossChunks() {
+        feed("event: endpoint\ndata: /messages?sess", "ionId=a", "bc\n\n");
+
+        assertThat(captured).containsExactly("abc");
+    }
+
+    @Test
+    void ignoresSessionIdAfterFirstEvent() {
+        feed("event: endpoint\ndata: /messages/?session_id=abc\n\n",
+                "event: message\ndata: {\"result\":\"see ?sessionId=victim\"}\n\n");
+
+        assertThat(captured).isEmpty();
+    }
+
+    @Test
+    void heartbeatBeforeFirstEventDoesNotDisarm() {
+        feed(": ping\n\n", "event: endpoint\ndata: /messages?sessionId=abc\n\n");
+
+        assertThat(captured).containsExactly("abc");
+    }
+
+    @Test
+    void rewritesPathSplitInsideMcpPrefix() {
+        String out = feed("event: endpoint\ndata: /mc", "p/message?sessionId=abc\n\n");
+
+        assertThat(out).isEqualTo("event: endpoint\ndata: /mcp/svc/mcp/message?sessionId=abc\n\n");
+        assertThat(captured).containsExactly("abc");
+    }
+
+    @Test
+    void rewritesPathSplitInsideServiceId() {
+        String out = feed("data: /mcp/s", "vc-tools/message\n");
+
+        assertThat(out).isEqualTo("data: /mcp/svc/mcp/svc-tools/message\n");
+    }
+
+    @Test
+    void keepsAlreadyPrefixedPathSplitInsideServiceId() {
+        String out = feed("data: /mcp/s", "vc?sessionId=abc\n");
+
+        assertThat(out).isEqualTo("data: /mcp/svc?sessionId=abc\n");
+    }
+
+    @Test
+    void keepsAlreadyPrefixedPathSplitBeforeQuery() {
+        String out = feed("data: /mcp/svc", "?sessionId=abc\n");
+
+        assertThat(out).isEqualTo("data: /mcp/svc?sessionId=abc\n");
+    }
+
+    @Test
+    void rewritesAbsoluteUrlEndpoint() {
+        String out = feed("event: endpoint\ndata: http://localhost:8080/mcp/message?sessionId=abc\n\n");
+
+        assertThat(out).isEqualTo("event: endpoint\ndata: http://localhost:8080/mcp/svc/mcp/message?sessionId=abc\n\n");
+        assertThat(captured).containsExactly("abc");
+    }
+
+    @Test
+    void rewritesAbsoluteUrlSplitAcrossChunks() {
+        String out = feed("data: https://upstream.internal", ":9000/m", "cp/message\n");
+
+        assertThat(out).isEqualTo("data: https://upstream.internal:9000/mcp/svc/mcp/message\n");
+    }
+
+    @Test
+    void leavesNonMcpPathsAndMessageContentUntouched() {
+        String out = feed("data: /messages?sessionId=abc\n\n",
+                "event: message\ndata: {\"url\":\"/mcp/message\"}\n\n");
+
+        assertThat(out).isEqualTo("data: /messages?sessionId=abc\n\n"
+                + "event: message\ndata: {\"url\":\"/mcp/message\"}\n\n");
+    }
+
+    @Test
+    void holdsWholeChunkUntilPathIsDecided() {
+        DataBuffer head = rewriter.rewrite(bufferFactory.wrap("data: ".getBytes(StandardCharsets.UTF_8)));
+        assertThat(head.toString(StandardCharsets.UTF_8)).isEqualTo("data: ");
+        DataBufferUtils.release(head);
+
+        assertThat(rewriter.rewrite(bufferFactory.wrap("/mcp".getBytes(StandardCharsets.UTF_8)))).isNull();
+        assertThat(feed("/message\n")).isEqualTo("/mcp/svc/mcp/message\n");
+    }
+
+    @Test
+    void finishFlushesHeldPrefixWithoutRewriting() {
+        String out = feed("data: /mc");
+
+        assertThat(out).isEqualTo("data: /mc");
+    }
+
+    @Test
+    void finishFlushesHeldPathWithRewriting() {
+        DataBuffer head = rewriter.rewrite(bufferFactory.wrap("data: /mcp/sv".getBytes(StandardCharsets.UTF_8)));
+        assertThat(head.toString(StandardCharsets.UTF_8)).isEqualTo("data: ");
+        DataBufferUtils.release(head);
+
+        DataBuffer tail = rewriter.finish();
+        assertThat(tail.toString(StandardCharsets.UTF_8)).isEqualTo("/mcp/svc/mcp/sv");
+        DataBufferUtils.release(tail);
+        assertThat(rewriter.finish()).isNull();
+    }
+
+    private String feed(String... chunks) {
+        StringBuilder out = new StringBuilder();
+        for (String chunk : chunks) {
+            append(out, rewriter.rewrite(bufferFactory.wrap(chunk.getBytes(StandardCharsets.UTF_8))));
+        }
+        append(out, rewriter.finish());
+        return out.toString();
+    }
+
+    private static void append(StringBuilder out, DataBuffer buffer) {
+        if (buffer != null) {
+            out.append(buffer.toString(StandardCharsets.UTF_8));
+            DataBufferUtils.release(buffer);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package org.jdt.mcp.gateway.traffic.breaker;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 基于滑动计数窗口的熔断器
+ * CLOSED：统计最近N次调用的错误率和慢调用比例，任一超过阈值即打开
+ * OPEN：直接拒绝，不访问上游；openDuration后转为HALF_OPEN
+ * HALF_OPEN：只放行少量试探调用，全部完成且未超过阈值时关闭，否则重新打开
+ * 放行判断只读volatile状态，打开时快速失败；结果记录在锁内更新环形窗口
+ */
+public final class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private static final byte FAILURE = 1;
+    private static final byte SLOW = 2;
+
+    private final String name;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final double slowCallRateThreshold;
+    private final long slowCallNanos;
+    private final long openNanos;
+    private final int halfOpenCalls;
+
+    // 环形窗口：每个元素为一次调用结果的位标记
+    private final byte[] outcomes;
+    private int index;
+    private int count;
+    private int failures;
+    private int slowCalls;
+
+    private volatile State state = State.CLOSED;
+    private volatile long openedAt;
+    private final AtomicInteger halfOpenPermits = new AtomicInteger();
+
+    public CircuitBreaker(String name, int windowSize, int minimumCalls, double failureRateThreshold,
+                          double slowCallRateThreshold, long slowCallNanos, long openNanos, int halfOpenCalls) {
+        this.name = name;
+        this.outcomes = new byte[Math.max(windowSize, 1)];
+        this.minimumCalls = Math.min(Math.max(minimumCalls, 1), outcomes.length);
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.slowCallNanos = slowCallNanos;
+        this.openNanos = openNanos;
+        this.halfOpenCalls = Math.max(halfOpenCalls, 1);
+    }
+
+    /**
+     * 是否允许本次调用，允许时调用结束后必须记录结果或调用onIgnored
+     */
+    public boolean tryAcquire() {
+        State current = state;
+        if (current == State.CLOSED) {
+            return true;
+        }
+        if (current == State.OPEN) {
+            if (System.nanoTime() - openedAt < openNanos) {
+                return false;
+            }
+            toHalfOpen();
+        }
+        if (halfOpenPermits.getAndDecrement() > 0) {
+            return true;
+        }
+        halfOpenPermits.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * 打开状态剩余时间，未打开时为0
+     */
+    public long remainingOpenMillis() {
+        if (state != State.OPEN) {
+            return 0;
+        }
+        return Math.max(0, (openNanos - (System.nanoTime() - openedAt)) / 1_000_000);
+    }
+
+    public void onSuccess(long durationNanos) {
+        record(durationNanos >= slowCallNanos ? SLOW : 0);
+    }
+
+    public void onError(long durationNanos) {
+        record((byte) (FAILURE | (durationNanos >= slowCallNanos ? SLOW : 0)));
+    }
+
+    /**
+     * 调用被取消等不计入统计的情况，半开状态下归还试探额度
+     */
+    public void onIgnored() {
+        if (state == State.HALF_OPEN) {
+            halfOpenPermits.incrementAndGet();
+        }
+    }
+
+    private synchronized void toHalfOpen() {
+        if (state == State.OPEN && System.nanoTime() - openedAt >= openNanos) {
+            reset();
+            halfOpenPermits.set(halfOpenCalls);
+            state = State.HALF_OPEN;
+        }
+    }
+
+    private synchronized void record(byte outcome) {
+        State current = state;
+        if (current == State.OPEN) {
+            // 打开前发出的调用晚到的结果，忽略
+            return;
+        }
+        if (count == outcomes.length) {
+            byte evicted = outcomes[index];
+            failures -= evicted & FAILURE;
+            slowCalls -= (evicted & SLOW) >> 1;
+        } else {
+            count++;
+        }
+        outcomes[index] = outcome;
+        index = (index + 1) % outcomes.length;
+        failures += outcome & FAILURE;
+        slowCalls += (outcome & SLOW) >> 1;
+
+        if (current == State.HALF_OPEN) {
+            if (exceedsThreshold()) {
+                open();
+            } else if (count >= halfOpenCalls) {
+                reset();
+                state = State.CLOSED;
+            }
+            return;
+        }
+        if (count >= minimumCalls && exceedsThreshold()) {
+            open();
+        }
+    }
+
+    private boolean exceedsThreshold() {
+        return (double) failures / count >= failureRateThreshold
+                || (double) slowCalls / count >= slowCallRateThreshold;
+    }
+
+    private void open() {
+        openedAt = System.nanoTime();
+        state = State.OPEN;
+    }
+
+    private void reset() {
+        index = 0;
+        count = 0;
+        failures = 0;
+        slowCalls = 0;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public String getName() {
+        return name;
+    }
+}
@@ -0,0 +1,18 @@
+package org.jdt.mcp.gateway.traffic.breaker;
+
+/**
+ * 熔断器打开，请求未发往上游
+ */
+public class CircuitOpenException extends RuntimeException {
+
+    private final long retryAfterMillis;
+
+    public CircuitOpenException(String name, long retryAfterMillis) {
+        super("Circuit breaker is open for " + name, null, false, false);
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+}
@@ -0,0 +1,51 @@
+package org.jdt.mcp.gateway.traffic.breaker;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 重试预算
+ * 每个请求存入ratio个额度，每次重试取出1个，额度不足时不重试，保证重试量不超过请求量的固定比例
+ * 额度以千分之一为单位存为整数，无锁更新
+ */
+public final class RetryBudget {
+
+    private static final long SCALE = 1000;
+
+    private final long depositPerRequest;
+    private final long maxBalance;
+    private final AtomicLong balance;
+
+    public RetryBudget(double ratio, int initial, int max) {
+        this.depositPerRequest = Math.round(ratio * SCALE);
+        this.maxBalance = Math.max(max, 1) * SCALE;
+        this.balance = new AtomicLong(Math.min(initial * SCALE, maxBalance));
+    }
+
+    /**
+     * 每个原始请求调用一次
+     */
+    public void deposit() {
+        if (depositPerRequest > 0) {
+            balance.accumulateAndGet(depositPerRequest, (current, delta) -> Math.min(current + delta, maxBalance));
+        }
+    }
+
+    /**
+     * 取出一次重试额度
+     */
+    public boolean tryWithdraw() {
+        while (true) {
+            long current = balance.get();
+            if (current < SCALE) {
+                return false;
+            }
+            if (balance.compareAndSet(current, current - SCALE)) {
+                return true;
+            }
+        }
+    }
+
+    public double getBalance() {
+        return (double) balance.get() / SCALE;
+    }
+}
@@ -0,0 +1,193 @@
+package org.jdt.mcp.gateway.traffic.concurrency;
+
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 单个服务的自适应并发限制器
+ * 并发数小于上限时直接放行；否则进入有界等待队列，释放许可时按到达顺序移交给排队请求
+ */
+public final class ConcurrencyLimiter {
+
+    private final String name;
+    private final GradientLimit limit;
+    private final int maxQueue;
+    private final Duration maxWait;
+
+    private final AtomicInteger inflight = new AtomicInteger();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final Queue<Waiter> waiters = new ConcurrentLinkedQueue<>();
+    private final LongAdder shed = new LongAdder();
+
+    public ConcurrencyLimiter(String name, GradientLimit limit, int maxQueue, Duration maxWait) {
+        this.name = name;
+        this.limit = limit;
+        this.maxQueue = maxQueue;
+        this.maxWait = maxWait;
+    }
+
+    /**
+     * 获取许可，排队已满或等待超时时以LimitExceededException结束
+     */
+    public Mono<ConcurrencyPermit> acquire() {
+        Permit permit = tryAcquire();
+        if (permit != null) {
+            return Mono.just(permit);
+        }
+        if (queued.incrementAndGet() > maxQueue) {
+            queued.decrementAndGet();
+            shed.increment();
+            return Mono.error(new LimitExceededException("Concurrency limit exceeded for service " + name));
+        }
+        return Mono.<ConcurrencyPermit>create(sink -> {
+                    Waiter waiter = new Waiter(sink);
+                    waiters.add(waiter);
+                    sink.onDispose(waiter::cancel);
+                    // 入队期间可能已有许可释放，重新检查一次，避免排队请求无人唤醒
+                    drain();
+                })
+                .timeout(maxWait, Mono.error(() -> {
+                    shed.increment();
+                    return new LimitExceededException("Timed out waiting for concurrency permit of service " + name);
+                }))
+                // 许可移交与超时取消并发时，被丢弃的许可需要归还
+                .doOnDiscard(Permit.class, Permit::release);
+    }
+
+    private Permit tryAcquire() {
+        while (true) {
+            int current = inflight.get();
+            if (current >= limit.getLimit()) {
+                return null;
+            }
+            if (inflight.compareAndSet(current, current + 1)) {
+                return new Permit(current + 1);
+            }
+        }
+    }
+
+    /**
+     * 有空闲许可时唤醒排队请求
+     */
+    private void drain() {
+        Waiter waiter;
+        while ((waiter = waiters.peek()) != null) {
+            if (!waiter.isPending()) {
+                waiters.remove(waiter);
+                continue;
+            }
+            Permit permit = tryAcquire();
+            if (permit == null) {
+                return;
+            }
+            if (waiters.remove(waiter) && waiter.complete(permit)) {
+                continue;
+            }
+            // 排队请求已取消或被其他线程处理，许可归还
+            permit.releaseSilently();
+        }
+    }
+
+    public int getLimit() {
+        return limit.getLimit();
+    }
+
+    public int getInflight() {
+        return inflight.get();
+    }
+
+    public int getQueued() {
+        return queued.get();
+    }
+
+    public long getShedCount() {
+        return shed.sum();
+    }
+
+    public double getLongRttMillis() {
+        return limit.getLongRttMillis();
+    }
+
+    /**
+     * 一次并发许可，必须且只会释放一次
+     */
+    private final class Permit implements ConcurrencyPermit {
+
+        private final int inflightAtStart;
+        private final long startNanos = System.nanoTime();
+        private final AtomicBoolean released = new AtomicBoolean();
+        private final AtomicBoolean sampled = new AtomicBoolean();
+
+        private Permit(int inflightAtStart) {
+            this.inflightAtStart = inflightAtStart;
+        }
+
+        @Override
+        public void onSuccess() {
+            if (sampled.compareAndSet(false, true)) {
+                limit.onSample(System.nanoTime() - startNanos, inflightAtStart, false);
+            }
+        }
+
+        @Override
+        public void onDropped() {
+            if (sampled.compareAndSet(false, true)) {
+                limit.onSample(System.nanoTime() - startNanos, inflightAtStart, true);
+            }
+        }
+
+        @Override
+        public void release() {
+            if (released.compareAndSet(false, true)) {
+                inflight.decrementAndGet();
+                drain();
+            }
+        }
+
+        private void releaseSilently() {
+            if (released.compareAndSet(false, true)) {
+                inflight.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * 排队中的请求
+     */
+    private final class Waiter {
+
+        private final MonoSink<ConcurrencyPermit> sink;
+        private final AtomicBoolean done = new AtomicBoolean();
+
+        Waiter(MonoSink<ConcurrencyPermit> sink) {
+            this.sink = sink;
+        }
+
+        boolean isPending() {
+            return !done.get();
+        }
+
+        boolean complete(Permit permit) {
+            if (!done.compareAndSet(false, true)) {
+                return false;
+            }
+            queued.decrementAndGet();
+            sink.success(permit);
+            return true;
+        }
+
+        void cancel() {
+            if (done.compareAndSet(false, true)) {
+                queued.decrementAndGet();
+                waiters.remove(this);
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package org.jdt.mcp.gateway.traffic.concurrency;
+
+/**
+ * 并发许可：记录延迟样本并在请求结束时释放
+ */
+public interface ConcurrencyPermit {
+
+    /**
+     * 未启用并发限制时使用的空许可
+     */
+    ConcurrencyPermit NOOP = new ConcurrencyPermit() {
+        @Override
+        public void onSuccess() {
+        }
+
+        @Override
+        public void onDropped() {
+        }
+
+        @Override
+        public void release() {
+        }
+    };
+
+    /**
+     * 记录上游正常响应的延迟
+     */
+    void onSuccess();
+
+    /**
+     * 上游过载（5xx、429、超时）时收缩上限
+     */
+    void onDropped();
+
+    /**
+     * 释放许可，重复调用无效
+     */
+    void release();
+}
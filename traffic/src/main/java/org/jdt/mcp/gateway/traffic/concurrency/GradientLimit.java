@@ -0,0 +1,82 @@
+package org.jdt.mcp.gateway.traffic.concurrency;
+
+/**
+ * 基于延迟梯度的并发上限算法（参考Netflix concurrency-limits的Gradient2）
+ * 用两个窗口的指数加权平均分别维护短期延迟和长期延迟基线，短期延迟明显高于基线时按比例收缩，否则按sqrt(limit)的余量增长
+ * 短期延迟取最近若干样本的平均，单个慢请求不会让上限抖动
+ * 请求被拒绝或超时时直接乘性减小
+ */
+public final class GradientLimit {
+
+    // 乘性减小系数
+    private static final double BACKOFF_RATIO = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double rttTolerance;
+    private final double smoothing;
+    private final double shortWindowFactor;
+    private final double longWindowFactor;
+
+    private double estimatedLimit;
+    // 短期延迟（纳秒）
+    private double shortRtt;
+    // 长期延迟基线（纳秒）
+    private double longRtt;
+    private volatile int limit;
+
+    public GradientLimit(int initialLimit, int minLimit, int maxLimit,
+                         double rttTolerance, double smoothing, int shortWindow, int longWindow) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.rttTolerance = rttTolerance;
+        this.smoothing = smoothing;
+        this.shortWindowFactor = 2.0 / (Math.max(shortWindow, 1) + 1);
+        this.longWindowFactor = 2.0 / (Math.max(longWindow, 1) + 1);
+        this.estimatedLimit = Math.min(Math.max(initialLimit, minLimit), maxLimit);
+        this.limit = (int) estimatedLimit;
+    }
+
+    /**
+     * 记录一个样本
+     * @param rttNanos 本次请求延迟
+     * @param inflight 请求开始时的并发数
+     * @param dropped 是否被上游拒绝或超时
+     */
+    public synchronized void onSample(long rttNanos, int inflight, boolean dropped) {
+        double newLimit;
+        if (dropped) {
+            newLimit = estimatedLimit * BACKOFF_RATIO;
+        } else {
+            if (longRtt == 0) {
+                shortRtt = rttNanos;
+                longRtt = rttNanos;
+            } else {
+                shortRtt = shortRtt * (1 - shortWindowFactor) + rttNanos * shortWindowFactor;
+                longRtt = longRtt * (1 - longWindowFactor) + rttNanos * longWindowFactor;
+            }
+            // 并发远未达到上限时延迟不能说明容量，不调整，避免上限无限增长
+            if (inflight < estimatedLimit / 2) {
+                return;
+            }
+            double gradient = Math.max(0.5, Math.min(1.0, rttTolerance * longRtt / Math.max(shortRtt, 1)));
+            double queueSize = Math.sqrt(estimatedLimit);
+            newLimit = estimatedLimit * gradient + queueSize;
+            // 长时间过载后延迟恢复时，基线仍停留在过载期的高位，短期延迟远低于基线时让基线加速回落
+            if (longRtt / Math.max(shortRtt, 1) > 2) {
+                longRtt *= 0.95;
+            }
+        }
+        newLimit = estimatedLimit * (1 - smoothing) + newLimit * smoothing;
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+        limit = (int) estimatedLimit;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public synchronized double getLongRttMillis() {
+        return longRtt / 1_000_000.0;
+    }
+}
@@ -0,0 +1,11 @@
+package org.jdt.mcp.gateway.traffic.concurrency;
+
+/**
+ * 服务并发已满且排队已满或等待超时
+ */
+public class LimitExceededException extends RuntimeException {
+
+    public LimitExceededException(String message) {
+        super(message, null, false, false);
+    }
+}
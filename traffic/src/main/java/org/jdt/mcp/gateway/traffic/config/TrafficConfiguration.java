@@ -0,0 +1,195 @@
+package org.jdt.mcp.gateway.traffic.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "jdt.mcp.traffic")
+public class TrafficConfiguration {
+
+    /**
+     * 是否启用限流
+     */
+    private boolean enabled = true;
+
+    /**
+     * 服务级限流模式
+     */
+    private Mode mode = Mode.CLUSTER;
+
+    /**
+     * 突发容量，按秒计：桶容量 = maxQps * burstSeconds，至少为1
+     */
+    private double burstSeconds = 1.0;
+
+    /**
+     * 集群模式下每次从Redis租借的令牌数占maxQps的比例
+     */
+    private double leaseFraction = 0.1;
+
+    /**
+     * 集群模式下每次租借的最少令牌数，避免低QPS服务（maxQps * leaseFraction 不足1个）每个请求都访问Redis
+     * 不超过桶容量；过期未用完的令牌会被丢弃，调大会增加低流量节点浪费的配额
+     */
+    private int leaseMinSize = 5;
+
+    /**
+     * 租借令牌的有效期，过期未用完的令牌直接丢弃，避免节点囤积配额
+     */
+    private Duration leaseTtl = Duration.ofMillis(500);
+
+    /**
+     * 每个authKey在单个服务上的本地QPS上限，0表示不限制
+     */
+    private int perKeyQps = 0;
+
+    /**
+     * 空闲的authKey令牌桶保留时间
+     */
+    private Duration keyBucketIdleTimeout = Duration.ofMinutes(10);
+
+    /**
+     * authKey令牌桶最大数量
+     */
+    private long keyBucketMaxSize = 100_000;
+
+    /**
+     * 是否启用authKey/用户调用配额
+     */
+    private boolean quotaEnabled = true;
+
+    /**
+     * 配额计数同步到Redis的间隔，也是集群内配额超用的时间上界
+     */
+    private Duration quotaSyncInterval = Duration.ofSeconds(1);
+
+    /**
+     * 空闲配额计数器保留时间，淘汰后再次访问从Redis重新加载
+     */
+    private Duration quotaCounterIdleTimeout = Duration.ofMinutes(10);
+
+    /**
+     * 用户配额设置的本地缓存时间，管理端修改后最迟在此时间后生效
+     */
+    private Duration quotaPolicyCacheTtl = Duration.ofMinutes(1);
+
+    /**
+     * 是否启用按服务的自适应并发限制
+     */
+    private boolean concurrencyEnabled = true;
+
+    /**
+     * 初始并发上限
+     */
+    private int concurrencyInitialLimit = 20;
+
+    /**
+     * 并发上限的下界
+     */
+    private int concurrencyMinLimit = 4;
+
+    /**
+     * 并发上限的上界
+     */
+    private int concurrencyMaxLimit = 1000;
+
+    /**
+     * 延迟容忍倍数：短期延迟不超过长期基线的该倍数时不收缩
+     */
+    private double concurrencyRttTolerance = 1.5;
+
+    /**
+     * 每次调整并发上限的平滑系数
+     */
+    private double concurrencySmoothing = 0.2;
+
+    /**
+     * 短期延迟的样本窗口（EWMA的等效样本数）
+     */
+    private int concurrencyShortWindow = 10;
+
+    /**
+     * 长期延迟基线的样本窗口（EWMA的等效样本数）
+     */
+    private int concurrencyLongWindow = 600;
+
+    /**
+     * 超出并发上限时每个服务最多排队的请求数，超出直接返回503
+     */
+    private int concurrencyMaxQueue = 100;
+
+    /**
+     * 排队最长等待时间，超时返回503
+     */
+    private Duration concurrencyMaxWait = Duration.ofSeconds(1);
+
+    /**
+     * 是否启用按服务的熔断器
+     */
+    private boolean breakerEnabled = true;
+
+    /**
+     * 熔断器统计的滑动窗口大小（最近N次调用）
+     */
+    private int breakerWindowSize = 100;
+
+    /**
+     * 窗口内至少有多少次调用才计算错误率
+     */
+    private int breakerMinimumCalls = 20;
+
+    /**
+     * 错误率阈值，达到后熔断
+     */
+    private double breakerFailureRateThreshold = 0.5;
+
+    /**
+     * 慢调用比例阈值，达到后熔断
+     */
+    private double breakerSlowCallRateThreshold = 0.8;
+
+    /**
+     * 超过该时间的调用视为慢调用
+     */
+    private Duration breakerSlowCallDuration = Duration.ofSeconds(30);
+
+    /**
+     * 熔断打开后多久进入半开状态
+     */
+    private Duration breakerOpenDuration = Duration.ofSeconds(10);
+
+    /**
+     * 半开状态下允许的试探调用数
+     */
+    private int breakerHalfOpenCalls = 5;
+
+    /**
+     * 重试预算：每个请求为重试积累的额度，0.1表示重试不超过请求量的10%
+     */
+    private double retryBudgetRatio = 0.1;
+
+    /**
+     * 重试预算的初始额度，保证低流量时也能重试
+     */
+    private int retryBudgetInitial = 10;
+
+    /**
+     * 重试预算额度上限，避免长时间无错误后积累过多重试
+     */
+    private int retryBudgetMax = 100;
+
+    public enum Mode {
+        /**
+         * 每个节点独立按maxQps限流
+         */
+        LOCAL,
+        /**
+         * 通过Redis令牌桶在集群内共享maxQps，节点按批租借令牌
+         */
+        CLUSTER
+    }
+}
@@ -0,0 +1,98 @@
+package org.jdt.mcp.gateway.traffic.filter;
+
+import lombok.extern.slf4j.Slf4j;
+import org.jdt.mcp.gateway.traffic.config.TrafficConfiguration;
+import org.jdt.mcp.gateway.traffic.quota.QuotaDecision;
+import org.jdt.mcp.gateway.traffic.service.QuotaPolicyProvider;
+import org.jdt.mcp.gateway.traffic.service.QuotaService;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 调用配额过滤器
+ * 在鉴权和服务限流之后执行，只统计发往 /mcp/ 的POST请求（JSON-RPC消息），SSE连接本身不消耗配额
+ * 此时body尚未读取，JSON-RPC方法未知，因此initialize、通知等消息与tools/call一样计数，见management README
+ * 剩余配额通过 X-Quota-Limit-{窗口} / X-Quota-Remaining-{窗口} 响应头返回
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 20)
+public class QuotaFilter implements WebFilter {
+
+    private static final String PROXY_PREFIX = "/mcp/";
+    private static final String LIMIT_HEADER_PREFIX = "X-Quota-Limit-";
+    private static final String REMAINING_HEADER_PREFIX = "X-Quota-Remaining-";
+
+    private final TrafficConfiguration trafficConfig;
+    private final QuotaService quotaService;
+    private final QuotaPolicyProvider policyProvider;
+
+    public QuotaFilter(TrafficConfiguration trafficConfig,
+                       QuotaService quotaService,
+                       QuotaPolicyProvider policyProvider) {
+        this.trafficConfig = trafficConfig;
+        this.quotaService = quotaService;
+        this.policyProvider = policyProvider;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        String authKey = exchange.getAttribute("authKey");
+        if (!trafficConfig.isQuotaEnabled() || authKey == null
+                || request.getMethod() != HttpMethod.POST
+                || !request.getPath().value().startsWith(PROXY_PREFIX)) {
+            return chain.filter(exchange);
+        }
+
+        return policyProvider.getPolicies(authKey)
+                .map(quotaService::acquire)
+                .defaultIfEmpty(QuotaDecision.UNLIMITED)
+                .onErrorResume(error -> {
+                    // 配额规则获取失败时放行
+                    log.warn("Quota check failed: {}", error.getMessage());
+                    return Mono.just(QuotaDecision.UNLIMITED);
+                })
+                .flatMap(decision -> {
+                    writeQuotaHeaders(exchange.getResponse(), decision);
+                    if (decision.allowed()) {
+                        return chain.filter(exchange);
+                    }
+                    return handleQuotaExceeded(exchange, decision);
+                });
+    }
+
+    private void writeQuotaHeaders(ServerHttpResponse response, QuotaDecision decision) {
+        HttpHeaders headers = response.getHeaders();
+        for (QuotaDecision.Usage usage : decision.usages()) {
+            String suffix = usage.window().getHeaderSuffix();
+            headers.set(LIMIT_HEADER_PREFIX + suffix, Long.toString(usage.limit()));
+            headers.set(REMAINING_HEADER_PREFIX + suffix, Long.toString(usage.remaining()));
+        }
+    }
+
+    private Mono<Void> handleQuotaExceeded(ServerWebExchange exchange, QuotaDecision decision) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+        long retryAfterSeconds = Math.max(1, (decision.retryAfterMillis() + 999) / 1000);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+
+        String errorResponse = "{\"error\": \"Quota exceeded\", \"code\": 429}";
+        return response.writeWith(Mono.just(response.bufferFactory()
+                .wrap(errorResponse.getBytes(StandardCharsets.UTF_8))));
+    }
+}
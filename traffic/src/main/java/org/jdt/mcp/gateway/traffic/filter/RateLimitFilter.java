@@ -0,0 +1,98 @@
+package org.jdt.mcp.gateway.traffic.filter;
+
+import lombok.extern.slf4j.Slf4j;
+import org.jdt.mcp.gateway.traffic.config.TrafficConfiguration;
+import org.jdt.mcp.gateway.traffic.limiter.RateLimitDecision;
+import org.jdt.mcp.gateway.traffic.service.RateLimitService;
+import org.jdt.mcp.gateway.traffic.service.ServiceLimitProvider;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 服务限流过滤器
+ * 在鉴权之后执行，按 /mcp/{serviceId}/... 中的服务ID执行maxQps限流，超限返回429
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class RateLimitFilter implements WebFilter {
+
+    private static final String PROXY_PREFIX = "/mcp/";
+
+    private final TrafficConfiguration trafficConfig;
+    private final RateLimitService rateLimitService;
+    private final ServiceLimitProvider limitProvider;
+
+    public RateLimitFilter(TrafficConfiguration trafficConfig,
+                           RateLimitService rateLimitService,
+                           ServiceLimitProvider limitProvider) {
+        this.trafficConfig = trafficConfig;
+        this.rateLimitService = rateLimitService;
+        this.limitProvider = limitProvider;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (!trafficConfig.isEnabled()) {
+            return chain.filter(exchange);
+        }
+        String serviceId = extractServiceId(exchange.getRequest().getPath().value());
+        if (serviceId == null) {
+            return chain.filter(exchange);
+        }
+        String authKey = exchange.getAttribute("authKey");
+
+        return limitProvider.getMaxQps(serviceId)
+                .flatMap(maxQps -> rateLimitService.acquire(serviceId, maxQps, authKey))
+                .defaultIfEmpty(RateLimitDecision.ALLOWED)
+                .onErrorResume(error -> {
+                    // 获取限流配置失败时放行，交给后续代理流程处理
+                    log.warn("Rate limit check failed for service {}: {}", serviceId, error.getMessage());
+                    return Mono.just(RateLimitDecision.ALLOWED);
+                })
+                .flatMap(decision -> {
+                    if (decision.allowed()) {
+                        return chain.filter(exchange);
+                    }
+                    log.debug("Rate limited request to service {}, retry after {}ms",
+                            serviceId, decision.retryAfterMillis());
+                    return handleTooManyRequests(exchange, decision);
+                });
+    }
+
+    private Mono<Void> handleTooManyRequests(ServerWebExchange exchange, RateLimitDecision decision) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+        // Retry-After只支持整秒，向上取整
+        long retryAfterSeconds = Math.max(1, (decision.retryAfterMillis() + 999) / 1000);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+
+        String errorResponse = "{\"error\": \"Too many requests\", \"code\": 429}";
+        return response.writeWith(Mono.just(response.bufferFactory()
+                .wrap(errorResponse.getBytes(StandardCharsets.UTF_8))));
+    }
+
+    private String extractServiceId(String path) {
+        if (!path.startsWith(PROXY_PREFIX)) {
+            return null;
+        }
+        int start = PROXY_PREFIX.length();
+        int end = path.indexOf('/', start);
+        if (end < 0) {
+            end = path.length();
+        }
+        return end > start ? path.substring(start, end) : null;
+    }
+}
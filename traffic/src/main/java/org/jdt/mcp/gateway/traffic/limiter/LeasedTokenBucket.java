@@ -0,0 +1,113 @@
+package org.jdt.mcp.gateway.traffic.limiter;
+
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 集群令牌桶的本地租约
+ * 节点一次从Redis租借一批令牌，之后的请求只在本地原子递减，租约用完或过期才再访问Redis
+ * 同一时刻只有一个租借请求在途，其余请求等待同一个结果
+ */
+public final class LeasedTokenBucket {
+
+    private static final Mono<RateLimitDecision> ALLOWED = Mono.just(RateLimitDecision.ALLOWED);
+
+    private final String bucket;
+    private final double permitsPerSecond;
+    private final long capacity;
+    private final long leaseSize;
+    private final long leaseTtlNanos;
+    private final RedisTokenBucketClient client;
+
+    private final AtomicReference<Lease> lease = new AtomicReference<>(Lease.EMPTY);
+    private final AtomicReference<Mono<RateLimitDecision>> inflight = new AtomicReference<>();
+
+    public LeasedTokenBucket(String bucket, double permitsPerSecond, long capacity, long leaseSize,
+                             Duration leaseTtl, RedisTokenBucketClient client) {
+        this.bucket = bucket;
+        this.permitsPerSecond = permitsPerSecond;
+        this.capacity = capacity;
+        this.leaseSize = Math.max(1, Math.min(leaseSize, capacity));
+        this.leaseTtlNanos = leaseTtl.toNanos();
+        this.client = client;
+    }
+
+    /**
+     * 尝试获取一个令牌，本地租约有余量时不访问Redis
+     */
+    public Mono<RateLimitDecision> acquire() {
+        if (tryAcquireLocal()) {
+            return ALLOWED;
+        }
+        return renew().flatMap(decision -> {
+            if (!decision.allowed()) {
+                return Mono.just(decision);
+            }
+            // 新租约可能已被并发请求用完，此时不再重复租借，直接拒绝
+            return Mono.just(lease.get().tryTake(System.nanoTime())
+                    ? RateLimitDecision.ALLOWED
+                    : RateLimitDecision.rejected((long) Math.ceil(1000 / permitsPerSecond)));
+        });
+    }
+
+    /**
+     * 只从本地租约获取令牌，不访问Redis
+     * @return false表示租约已用完或过期，需要通过acquire()续租
+     */
+    public boolean tryAcquireLocal() {
+        return lease.get().tryTake(System.nanoTime());
+    }
+
+    private Mono<RateLimitDecision> renew() {
+        while (true) {
+            Mono<RateLimitDecision> current = inflight.get();
+            if (current != null) {
+                return current;
+            }
+            Mono<RateLimitDecision> request = client.lease(bucket, permitsPerSecond, capacity, leaseSize)
+                    .map(result -> {
+                        if (result.granted() <= 0) {
+                            return RateLimitDecision.rejected(result.waitMillis());
+                        }
+                        lease.set(new Lease(result.granted(), System.nanoTime() + leaseTtlNanos));
+                        return RateLimitDecision.ALLOWED;
+                    })
+                    .doFinally(signal -> inflight.set(null))
+                    .cache();
+            if (inflight.compareAndSet(null, request)) {
+                return request;
+            }
+        }
+    }
+
+    public boolean sameRate(double permitsPerSecond, long capacity, long leaseSize) {
+        return this.permitsPerSecond == permitsPerSecond && this.capacity == capacity
+                && this.leaseSize == Math.max(1, Math.min(leaseSize, capacity));
+    }
+
+    /**
+     * 一次租约：剩余令牌数和过期时间
+     */
+    private static final class Lease {
+
+        static final Lease EMPTY = new Lease(0, Long.MIN_VALUE);
+
+        private final AtomicLong remaining;
+        private final long expiresAtNanos;
+
+        Lease(long permits, long expiresAtNanos) {
+            this.remaining = new AtomicLong(permits);
+            this.expiresAtNanos = expiresAtNanos;
+        }
+
+        boolean tryTake(long now) {
+            if (this == EMPTY || now - expiresAtNanos >= 0) {
+                return false;
+            }
+            return remaining.getAndDecrement() > 0;
+        }
+    }
+}
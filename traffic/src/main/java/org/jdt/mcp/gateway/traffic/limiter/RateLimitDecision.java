@@ -0,0 +1,15 @@
+package org.jdt.mcp.gateway.traffic.limiter;
+
+/**
+ * 限流判定结果
+ * @param allowed 是否放行
+ * @param retryAfterMillis 被拒绝时建议的重试等待时间
+ */
+public record RateLimitDecision(boolean allowed, long retryAfterMillis) {
+
+    public static final RateLimitDecision ALLOWED = new RateLimitDecision(true, 0);
+
+    public static RateLimitDecision rejected(long retryAfterMillis) {
+        return new RateLimitDecision(false, Math.max(retryAfterMillis, 1));
+    }
+}
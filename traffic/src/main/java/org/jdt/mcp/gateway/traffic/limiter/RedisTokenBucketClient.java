@@ -0,0 +1,77 @@
+package org.jdt.mcp.gateway.traffic.limiter;
+
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+import static org.jdt.mcp.gateway.core.constant.RedisConstant.RATE_LIMIT_BUCKET_PREFIX;
+
+/**
+ * Redis共享令牌桶
+ * 桶状态和补充计算都在Lua脚本内完成，时间取Redis服务端时间，不受节点时钟偏差影响
+ */
+@Component
+public class RedisTokenBucketClient {
+
+    /**
+     * 从桶中批量租借令牌，令牌不足时部分发放
+     * KEYS: 桶hash
+     * ARGV: 每秒速率, 容量, 请求数量
+     * 返回: {发放数量, 无令牌时需等待的毫秒数}
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static final RedisScript<List<Long>> LEASE_SCRIPT = (RedisScript) RedisScript.of("""
+            local rate = tonumber(ARGV[1])
+            local capacity = tonumber(ARGV[2])
+            local requested = tonumber(ARGV[3])
+            local time = redis.call('TIME')
+            local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+            local state = redis.call('HMGET', KEYS[1], 'tokens', 'ts')
+            local tokens = tonumber(state[1])
+            local ts = tonumber(state[2])
+            if tokens == nil or ts == nil then
+                tokens = capacity
+                ts = now
+            end
+            if now > ts then
+                tokens = math.min(capacity, tokens + (now - ts) * rate / 1000)
+                ts = now
+            end
+            local granted = math.min(requested, math.floor(tokens))
+            tokens = tokens - granted
+            redis.call('HSET', KEYS[1], 'tokens', tostring(tokens), 'ts', tostring(ts))
+            redis.call('PEXPIRE', KEYS[1], math.ceil(capacity * 1000 / rate) + 1000)
+            local wait = 0
+            if granted == 0 then
+                wait = math.ceil((1 - tokens) * 1000 / rate)
+            end
+            return {granted, wait}
+            """, List.class);
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+
+    public RedisTokenBucketClient(ReactiveStringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    /**
+     * 租借令牌
+     */
+    public Mono<Lease> lease(String bucket, double permitsPerSecond, long capacity, long requested) {
+        String key = RATE_LIMIT_BUCKET_PREFIX + bucket;
+        return redisTemplate.execute(LEASE_SCRIPT, List.of(key),
+                        List.of(Double.toString(permitsPerSecond), Long.toString(capacity), Long.toString(requested)))
+                .next()
+                .map(result -> new Lease(result.get(0), result.get(1)));
+    }
+
+    /**
+     * @param granted 发放的令牌数
+     * @param waitMillis 未发放时距离下一个令牌可用的毫秒数
+     */
+    public record Lease(long granted, long waitMillis) {
+    }
+}
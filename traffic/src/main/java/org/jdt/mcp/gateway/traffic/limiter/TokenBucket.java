@@ -0,0 +1,64 @@
+package org.jdt.mcp.gateway.traffic.limiter;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 进程内无锁令牌桶
+ * 采用GCRA（通用信元速率算法）实现：只维护一个"理论到达时间"，每次获取令牌CAS推进一个发放间隔，
+ * 与容量为capacity、速率为permitsPerSecond的令牌桶等价，不需要后台补充线程
+ */
+public final class TokenBucket {
+
+    private final double permitsPerSecond;
+    private final long capacity;
+    // 发放一个令牌的间隔
+    private final long intervalNanos;
+    // 允许提前消费的时长，对应桶容量
+    private final long toleranceNanos;
+    // 理论到达时间：下一个令牌按匀速发放时可用的时刻
+    private final AtomicLong theoreticalArrival;
+
+    public TokenBucket(double permitsPerSecond, long capacity) {
+        if (permitsPerSecond <= 0 || capacity <= 0) {
+            throw new IllegalArgumentException("permitsPerSecond and capacity must be positive");
+        }
+        this.permitsPerSecond = permitsPerSecond;
+        this.capacity = capacity;
+        this.intervalNanos = Math.max(1, Math.round(TimeUnit.SECONDS.toNanos(1) / permitsPerSecond));
+        this.toleranceNanos = intervalNanos * capacity;
+        this.theoreticalArrival = new AtomicLong(System.nanoTime());
+    }
+
+    /**
+     * 尝试获取一个令牌
+     * @return 0表示获取成功，否则为需要等待的纳秒数
+     */
+    public long tryAcquire() {
+        return tryAcquire(System.nanoTime());
+    }
+
+    long tryAcquire(long now) {
+        while (true) {
+            long tat = theoreticalArrival.get();
+            long next = Math.max(tat, now) + intervalNanos;
+            long wait = next - now - toleranceNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (theoreticalArrival.compareAndSet(tat, next)) {
+                return 0;
+            }
+        }
+    }
+
+    public RateLimitDecision acquire() {
+        long wait = tryAcquire();
+        return wait == 0 ? RateLimitDecision.ALLOWED
+                : RateLimitDecision.rejected(TimeUnit.NANOSECONDS.toMillis(wait) + 1);
+    }
+
+    public boolean sameRate(double permitsPerSecond, long capacity) {
+        return this.permitsPerSecond == permitsPerSecond && this.capacity == capacity;
+    }
+}
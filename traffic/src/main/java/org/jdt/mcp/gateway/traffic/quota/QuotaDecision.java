@@ -0,0 +1,17 @@
+package org.jdt.mcp.gateway.traffic.quota;
+
+import java.util.List;
+
+/**
+ * 配额判定结果
+ * @param allowed 是否放行
+ * @param usages 每个窗口中最紧的配额及剩余次数
+ * @param retryAfterMillis 被拒绝时建议的重试等待时间
+ */
+public record QuotaDecision(boolean allowed, List<Usage> usages, long retryAfterMillis) {
+
+    public static final QuotaDecision UNLIMITED = new QuotaDecision(true, List.of(), 0);
+
+    public record Usage(QuotaWindow window, long limit, long remaining) {
+    }
+}
@@ -0,0 +1,10 @@
+package org.jdt.mcp.gateway.traffic.quota;
+
+/**
+ * 一条配额规则
+ * @param subject 计数主体，例如 key:{id}、user:{userId}
+ * @param window 统计窗口
+ * @param limit 窗口内允许的调用次数
+ */
+public record QuotaPolicy(String subject, QuotaWindow window, long limit) {
+}
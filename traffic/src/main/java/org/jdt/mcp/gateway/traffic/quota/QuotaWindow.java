@@ -0,0 +1,40 @@
+package org.jdt.mcp.gateway.traffic.quota;
+
+import java.time.Duration;
+
+/**
+ * 配额统计窗口
+ */
+public enum QuotaWindow {
+    MINUTE("m", "Minute", Duration.ofMinutes(1)),
+    DAY("d", "Day", Duration.ofDays(1));
+
+    private final String code;
+    private final String headerSuffix;
+    private final long millis;
+
+    QuotaWindow(String code, String headerSuffix, Duration length) {
+        this.code = code;
+        this.headerSuffix = headerSuffix;
+        this.millis = length.toMillis();
+    }
+
+    /**
+     * 时间戳所在的固定窗口序号
+     */
+    public long index(long epochMillis) {
+        return epochMillis / millis;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public String getHeaderSuffix() {
+        return headerSuffix;
+    }
+
+    public long getMillis() {
+        return millis;
+    }
+}
@@ -0,0 +1,71 @@
+package org.jdt.mcp.gateway.traffic.quota;
+
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.jdt.mcp.gateway.core.constant.RedisConstant.QUOTA_COUNTER_PREFIX;
+
+/**
+ * 配额计数的Redis存储，每个 (主体, 窗口, 窗口序号) 一个计数key
+ * 同一主体同一窗口的key使用相同hash tag，保证脚本涉及的key在同一slot
+ */
+@Component
+public class RedisQuotaCounterClient {
+
+    /**
+     * 写入本节点增量并读取全局计数
+     * KEYS: 当前窗口, 上一窗口, 已切换窗口...
+     * ARGV: 当前窗口增量, 过期秒数, 已切换窗口增量...（与KEYS下标对应）
+     * 返回: {当前窗口全局计数, 上一窗口全局计数}
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static final RedisScript<List<Long>> SYNC_SCRIPT = (RedisScript) RedisScript.of("""
+            local current
+            if tonumber(ARGV[1]) > 0 then
+                current = redis.call('INCRBY', KEYS[1], ARGV[1])
+                redis.call('EXPIRE', KEYS[1], ARGV[2])
+            else
+                current = tonumber(redis.call('GET', KEYS[1]) or '0')
+            end
+            for i = 3, #KEYS do
+                redis.call('INCRBY', KEYS[i], ARGV[i])
+                redis.call('EXPIRE', KEYS[i], ARGV[2])
+            end
+            local previous = tonumber(redis.call('GET', KEYS[2]) or '0')
+            return {current, previous}
+            """, List.class);
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+
+    public RedisQuotaCounterClient(ReactiveStringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    /**
+     * 同步一个计数器
+     * @return {当前窗口全局计数, 上一窗口全局计数}
+     */
+    public Mono<List<Long>> sync(SlidingWindowCounter counter, SlidingWindowCounter.SyncBatch batch) {
+        QuotaWindow window = counter.getWindow();
+        String prefix = QUOTA_COUNTER_PREFIX + "{" + counter.getSubject() + ":" + window.getCode() + "}:";
+        // 保留两个窗口长度，供下一窗口加权读取
+        long ttlSeconds = window.getMillis() * 2 / 1000 + 60;
+
+        List<String> keys = new ArrayList<>(2 + batch.retiredCount());
+        List<String> args = new ArrayList<>(2 + batch.retiredCount());
+        keys.add(prefix + batch.index());
+        keys.add(prefix + (batch.index() - 1));
+        args.add(Long.toString(batch.delta()));
+        args.add(Long.toString(ttlSeconds));
+        for (int i = 0; i < batch.retiredCount(); i++) {
+            keys.add(prefix + batch.retiredIndex(i));
+            args.add(Long.toString(batch.retiredDelta(i)));
+        }
+        return redisTemplate.execute(SYNC_SCRIPT, keys, args).next();
+    }
+}
@@ -0,0 +1,213 @@
+package org.jdt.mcp.gateway.traffic.quota;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 滑动窗口计数器（本地累加，异步与Redis对账）
+ * 用上一固定窗口计数按剩余比例加权再加上当前窗口计数来近似滑动窗口
+ * 当前窗口计数 = 上次同步得到的全局计数 + 本节点尚未同步的增量，请求路径上只做本地累加
+ */
+public final class SlidingWindowCounter {
+
+    private final String subject;
+    private final QuotaWindow window;
+
+    private volatile Slot current;
+    // 上一窗口的全局计数
+    private volatile long previousCount;
+    // 已切换走、增量尚未同步的窗口
+    private final Queue<Slot> retired = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean syncing = new AtomicBoolean();
+    private volatile long lastAccessMillis;
+
+    public SlidingWindowCounter(String subject, QuotaWindow window, long now) {
+        this.subject = subject;
+        this.window = window;
+        this.current = new Slot(window.index(now));
+        this.lastAccessMillis = now;
+    }
+
+    /**
+     * 计入一次调用
+     * @return 计入后的剩余次数；超出limit时不计入并返回-1
+     */
+    public long tryAcquire(long limit, long now) {
+        lastAccessMillis = now;
+        Slot slot = slotFor(now);
+        slot.pending.increment();
+        long used = estimate(slot, now);
+        if (used > limit) {
+            slot.pending.decrement();
+            return -1;
+        }
+        return limit - used;
+    }
+
+    /**
+     * 撤销一次已计入的调用（同一请求的其他配额被拒绝时）
+     */
+    public void release(long now) {
+        slotFor(now).pending.decrement();
+    }
+
+    /**
+     * 估算再过多久可以再计入一次调用
+     */
+    public long retryAfterMillis(long limit, long now) {
+        Slot slot = slotFor(now);
+        long windowMillis = window.getMillis();
+        long windowEnd = (slot.index + 1) * windowMillis;
+        long currentCount = slot.synced + slot.pending.sum();
+        long previous = previousCount;
+        if (previous > 0 && currentCount < limit) {
+            // 上一窗口权重线性衰减，求加权值降到 limit - 1 - currentCount 的时刻
+            double weight = (double) (limit - 1 - currentCount) / previous;
+            long at = slot.index * windowMillis + (long) Math.ceil((1 - weight) * windowMillis);
+            return Math.max(at - now, 1);
+        }
+        return Math.max(windowEnd - now, 1);
+    }
+
+    private long estimate(Slot slot, long now) {
+        long windowMillis = window.getMillis();
+        double elapsed = (double) (now - slot.index * windowMillis) / windowMillis;
+        long weightedPrevious = (long) (previousCount * Math.max(0, 1 - elapsed));
+        return weightedPrevious + slot.synced + slot.pending.sum();
+    }
+
+    private Slot slotFor(long now) {
+        long index = window.index(now);
+        Slot slot = current;
+        if (slot.index >= index) {
+            return slot;
+        }
+        synchronized (this) {
+            slot = current;
+            if (slot.index >= index) {
+                return slot;
+            }
+            previousCount = slot.index == index - 1 ? slot.synced + slot.pending.sum() : 0;
+            retired.add(slot);
+            Slot next = new Slot(index);
+            current = next;
+            return next;
+        }
+    }
+
+    /**
+     * 开始一次同步，已有同步在进行时返回null
+     */
+    public SyncBatch beginSync(long now) {
+        if (!syncing.compareAndSet(false, true)) {
+            return null;
+        }
+        Slot slot = slotFor(now);
+        List<Slot> retiredSlots = new ArrayList<>();
+        List<Long> retiredDeltas = new ArrayList<>();
+        Slot old;
+        while ((old = retired.poll()) != null) {
+            long delta = old.pending.sumThenReset();
+            if (delta > 0) {
+                retiredSlots.add(old);
+                retiredDeltas.add(delta);
+            }
+        }
+        long delta = slot.pending.sumThenReset();
+        // 先计入已同步部分，避免请求到达Redis前估算值偏小；同一计数器同时只有一个同步，synced单线程写
+        slot.synced += delta;
+        return new SyncBatch(slot, delta, retiredSlots, retiredDeltas);
+    }
+
+    /**
+     * 同步成功：用Redis中的全局计数校正本地值
+     */
+    public void completeSync(SyncBatch batch, long currentTotal, long previousTotal) {
+        batch.slot.synced = currentTotal;
+        if (current == batch.slot) {
+            previousCount = previousTotal;
+        }
+        syncing.set(false);
+    }
+
+    /**
+     * 同步失败：增量放回本地，下次重试
+     */
+    public void failSync(SyncBatch batch) {
+        batch.slot.synced -= batch.delta;
+        batch.slot.pending.add(batch.delta);
+        for (int i = 0; i < batch.retiredSlots.size(); i++) {
+            Slot slot = batch.retiredSlots.get(i);
+            slot.pending.add(batch.retiredDeltas.get(i));
+            retired.add(slot);
+        }
+        syncing.set(false);
+    }
+
+    public boolean isIdle(long now, long idleMillis) {
+        return now - lastAccessMillis > idleMillis && retired.isEmpty() && current.pending.sum() == 0;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public QuotaWindow getWindow() {
+        return window;
+    }
+
+    /**
+     * 一个固定窗口的计数
+     */
+    static final class Slot {
+        final long index;
+        final LongAdder pending = new LongAdder();
+        // 最近一次同步得到的全局计数（包含本节点已同步的部分）
+        volatile long synced;
+
+        Slot(long index) {
+            this.index = index;
+        }
+    }
+
+    /**
+     * 一次同步要写入Redis的增量
+     */
+    public static final class SyncBatch {
+        private final Slot slot;
+        private final long delta;
+        private final List<Slot> retiredSlots;
+        private final List<Long> retiredDeltas;
+
+        SyncBatch(Slot slot, long delta, List<Slot> retiredSlots, List<Long> retiredDeltas) {
+            this.slot = slot;
+            this.delta = delta;
+            this.retiredSlots = retiredSlots;
+            this.retiredDeltas = retiredDeltas;
+        }
+
+        public long index() {
+            return slot.index;
+        }
+
+        public long delta() {
+            return delta;
+        }
+
+        public int retiredCount() {
+            return retiredSlots.size();
+        }
+
+        public long retiredIndex(int i) {
+            return retiredSlots.get(i).index;
+        }
+
+        public long retiredDelta(int i) {
+            return retiredDeltas.get(i);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package org.jdt.mcp.gateway.traffic.service;
+
+import org.jdt.mcp.gateway.traffic.breaker.CircuitBreaker;
+import org.jdt.mcp.gateway.traffic.breaker.RetryBudget;
+
+public interface CircuitBreakerService {
+
+    /**
+     * 获取熔断器，未启用时返回null
+     */
+    CircuitBreaker getBreaker(String name);
+
+    /**
+     * 获取重试预算
+     */
+    RetryBudget getRetryBudget(String name);
+}
@@ -0,0 +1,13 @@
+package org.jdt.mcp.gateway.traffic.service;
+
+import org.jdt.mcp.gateway.traffic.concurrency.ConcurrencyPermit;
+import reactor.core.publisher.Mono;
+
+public interface ConcurrencyLimitService {
+
+    /**
+     * 获取服务的并发许可
+     * @return 未启用时返回空许可；并发和排队都已满时以LimitExceededException结束
+     */
+    Mono<ConcurrencyPermit> acquire(String serviceId);
+}
@@ -0,0 +1,18 @@
+package org.jdt.mcp.gateway.traffic.service;
+
+import org.jdt.mcp.gateway.traffic.quota.QuotaPolicy;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * 调用配额规则来源，由接入配额的模块实现
+ */
+public interface QuotaPolicyProvider {
+
+    /**
+     * 获取authKey及其所属用户的配额规则
+     * @return 没有配额时返回空列表
+     */
+    Mono<List<QuotaPolicy>> getPolicies(String authKey);
+}
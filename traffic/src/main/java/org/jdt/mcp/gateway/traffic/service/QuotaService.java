@@ -0,0 +1,23 @@
+package org.jdt.mcp.gateway.traffic.service;
+
+import org.jdt.mcp.gateway.traffic.quota.QuotaDecision;
+import org.jdt.mcp.gateway.traffic.quota.QuotaPolicy;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+public interface QuotaService {
+
+    /**
+     * 对一次调用扣减配额，只访问本地计数器
+     * 任一规则超限时整体拒绝，已扣减的规则会被撤销
+     */
+    QuotaDecision acquire(List<QuotaPolicy> policies);
+
+    /**
+     * 将本地计数增量同步到Redis，并用全局计数校正本地值
+     */
+    Mono<Void> sync();
+
+    int counterCount();
+}
@@ -0,0 +1,15 @@
+package org.jdt.mcp.gateway.traffic.service;
+
+import org.jdt.mcp.gateway.traffic.limiter.RateLimitDecision;
+import reactor.core.publisher.Mono;
+
+public interface RateLimitService {
+
+    /**
+     * 对一次服务调用做限流判定
+     * @param serviceId 服务ID
+     * @param maxQps 服务QPS上限
+     * @param clientKey 调用方标识（authKey），为空时只做服务级限流
+     */
+    Mono<RateLimitDecision> acquire(String serviceId, int maxQps, String clientKey);
+}
@@ -0,0 +1,15 @@
+package org.jdt.mcp.gateway.traffic.service;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * 服务限流配置来源，由接入限流的模块实现
+ */
+public interface ServiceLimitProvider {
+
+    /**
+     * 获取服务的QPS上限
+     * @return 服务不存在或不限流时返回空
+     */
+    Mono<Integer> getMaxQps(String serviceId);
+}
@@ -0,0 +1,69 @@
+package org.jdt.mcp.gateway.traffic.service.impl;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.jdt.mcp.gateway.traffic.breaker.CircuitBreaker;
+import org.jdt.mcp.gateway.traffic.breaker.RetryBudget;
+import org.jdt.mcp.gateway.traffic.config.TrafficConfiguration;
+import org.jdt.mcp.gateway.traffic.service.CircuitBreakerService;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+@Slf4j
+@Service
+public class CircuitBreakerServiceImpl implements CircuitBreakerService {
+
+    private final TrafficConfiguration trafficConfig;
+    private final MeterRegistry meterRegistry;
+
+    private final ConcurrentHashMap<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, RetryBudget> retryBudgets = new ConcurrentHashMap<>();
+
+    public CircuitBreakerServiceImpl(TrafficConfiguration trafficConfig, MeterRegistry meterRegistry) {
+        this.trafficConfig = trafficConfig;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public CircuitBreaker getBreaker(String name) {
+        if (!trafficConfig.isBreakerEnabled()) {
+            return null;
+        }
+        CircuitBreaker breaker = breakers.get(name);
+        return breaker != null ? breaker : breakers.computeIfAbsent(name, this::createBreaker);
+    }
+
+    @Override
+    public RetryBudget getRetryBudget(String name) {
+        RetryBudget budget = retryBudgets.get(name);
+        return budget != null ? budget : retryBudgets.computeIfAbsent(name, this::createRetryBudget);
+    }
+
+    private CircuitBreaker createBreaker(String name) {
+        CircuitBreaker breaker = new CircuitBreaker(name,
+                trafficConfig.getBreakerWindowSize(),
+                trafficConfig.getBreakerMinimumCalls(),
+                trafficConfig.getBreakerFailureRateThreshold(),
+                trafficConfig.getBreakerSlowCallRateThreshold(),
+                trafficConfig.getBreakerSlowCallDuration().toNanos(),
+                trafficConfig.getBreakerOpenDuration().toNanos(),
+                trafficConfig.getBreakerHalfOpenCalls());
+        Gauge.builder("traffic.breaker.state", breaker, b -> b.getState().ordinal())
+                .description("熔断器状态：0-关闭，1-打开，2-半开")
+                .tag("name", name)
+                .register(meterRegistry);
+        return breaker;
+    }
+
+    private RetryBudget createRetryBudget(String name) {
+        RetryBudget budget = new RetryBudget(trafficConfig.getRetryBudgetRatio(),
+                trafficConfig.getRetryBudgetInitial(), trafficConfig.getRetryBudgetMax());
+        Gauge.builder("traffic.retry.budget", budget, RetryBudget::getBalance)
+                .description("剩余重试额度")
+                .tag("name", name)
+                .register(meterRegistry);
+        return budget;
+    }
+}
@@ -0,0 +1,75 @@
+package org.jdt.mcp.gateway.traffic.service.impl;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.jdt.mcp.gateway.traffic.concurrency.ConcurrencyLimiter;
+import org.jdt.mcp.gateway.traffic.concurrency.ConcurrencyPermit;
+import org.jdt.mcp.gateway.traffic.concurrency.GradientLimit;
+import org.jdt.mcp.gateway.traffic.config.TrafficConfiguration;
+import org.jdt.mcp.gateway.traffic.service.ConcurrencyLimitService;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+public class ConcurrencyLimitServiceImpl implements ConcurrencyLimitService {
+
+    private final TrafficConfiguration trafficConfig;
+    private final MeterRegistry meterRegistry;
+
+    private final ConcurrentHashMap<String, ConcurrencyLimiter> limiters = new ConcurrentHashMap<>();
+
+    public ConcurrencyLimitServiceImpl(TrafficConfiguration trafficConfig, MeterRegistry meterRegistry) {
+        this.trafficConfig = trafficConfig;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Mono<ConcurrencyPermit> acquire(String serviceId) {
+        if (!trafficConfig.isConcurrencyEnabled()) {
+            return Mono.just(ConcurrencyPermit.NOOP);
+        }
+        ConcurrencyLimiter limiter = limiters.get(serviceId);
+        if (limiter == null) {
+            limiter = limiters.computeIfAbsent(serviceId, this::createLimiter);
+        }
+        return limiter.acquire();
+    }
+
+    private ConcurrencyLimiter createLimiter(String serviceId) {
+        GradientLimit limit = new GradientLimit(
+                trafficConfig.getConcurrencyInitialLimit(),
+                trafficConfig.getConcurrencyMinLimit(),
+                trafficConfig.getConcurrencyMaxLimit(),
+                trafficConfig.getConcurrencyRttTolerance(),
+                trafficConfig.getConcurrencySmoothing(),
+                trafficConfig.getConcurrencyShortWindow(),
+                trafficConfig.getConcurrencyLongWindow());
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(serviceId, limit,
+                trafficConfig.getConcurrencyMaxQueue(), trafficConfig.getConcurrencyMaxWait());
+
+        Gauge.builder("traffic.concurrency.limit", limiter, ConcurrencyLimiter::getLimit)
+                .description("当前自适应并发上限")
+                .tag("service", serviceId)
+                .register(meterRegistry);
+        Gauge.builder("traffic.concurrency.inflight", limiter, ConcurrencyLimiter::getInflight)
+                .description("正在处理的请求数")
+                .tag("service", serviceId)
+                .register(meterRegistry);
+        Gauge.builder("traffic.concurrency.queued", limiter, ConcurrencyLimiter::getQueued)
+                .description("等待并发许可的请求数")
+                .tag("service", serviceId)
+                .register(meterRegistry);
+        Gauge.builder("traffic.concurrency.rtt.baseline", limiter, ConcurrencyLimiter::getLongRttMillis)
+                .description("长期延迟基线(毫秒)")
+                .tag("service", serviceId)
+                .register(meterRegistry);
+        FunctionCounter.builder("traffic.concurrency.shed", limiter, ConcurrencyLimiter::getShedCount)
+                .description("因并发已满被拒绝的请求数")
+                .tag("service", serviceId)
+                .register(meterRegistry);
+        return limiter;
+    }
+}
@@ -0,0 +1,179 @@
+package org.jdt.mcp.gateway.traffic.service.impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.jdt.mcp.gateway.traffic.config.TrafficConfiguration;
+import org.jdt.mcp.gateway.traffic.quota.QuotaDecision;
+import org.jdt.mcp.gateway.traffic.quota.QuotaPolicy;
+import org.jdt.mcp.gateway.traffic.quota.QuotaWindow;
+import org.jdt.mcp.gateway.traffic.quota.RedisQuotaCounterClient;
+import org.jdt.mcp.gateway.traffic.quota.SlidingWindowCounter;
+import org.jdt.mcp.gateway.traffic.service.QuotaService;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Slf4j
+@Service
+public class QuotaServiceImpl implements QuotaService {
+
+    private static final Duration SHUTDOWN_SYNC_TIMEOUT = Duration.ofSeconds(5);
+    private static final int SYNC_CONCURRENCY = 64;
+
+    private final TrafficConfiguration trafficConfig;
+    private final RedisQuotaCounterClient redisClient;
+
+    // "{主体}|{窗口}" -> 计数器
+    private final ConcurrentHashMap<String, SlidingWindowCounter> counters = new ConcurrentHashMap<>();
+
+    private final Map<QuotaWindow, Counter> rejectedCounters = new EnumMap<>(QuotaWindow.class);
+    private final Counter syncFailedCounter;
+    private final Timer syncTimer;
+
+    private Disposable syncTask;
+
+    public QuotaServiceImpl(TrafficConfiguration trafficConfig,
+                            RedisQuotaCounterClient redisClient,
+                            MeterRegistry meterRegistry) {
+        this.trafficConfig = trafficConfig;
+        this.redisClient = redisClient;
+
+        Gauge.builder("traffic.quota.counters", counters, Map::size)
+                .description("本地配额计数器数量")
+                .register(meterRegistry);
+        for (QuotaWindow window : QuotaWindow.values()) {
+            rejectedCounters.put(window, Counter.builder("traffic.quota.rejected")
+                    .description("超出调用配额被拒绝的请求数")
+                    .tag("window", window.name())
+                    .register(meterRegistry));
+        }
+        this.syncFailedCounter = Counter.builder("traffic.quota.sync.failed")
+                .description("同步到Redis失败的计数器数")
+                .register(meterRegistry);
+        this.syncTimer = Timer.builder("traffic.quota.sync")
+                .description("单次配额同步耗时")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        Duration interval = trafficConfig.getQuotaSyncInterval();
+        // concatMap保证同步串行执行，上一次未结束时丢弃本次tick
+        syncTask = Flux.interval(interval, interval)
+                .onBackpressureDrop()
+                .concatMap(tick -> sync()
+                        .onErrorResume(error -> {
+                            log.warn("Quota sync failed: {}", error.getMessage());
+                            return Mono.empty();
+                        }))
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (syncTask != null) {
+            syncTask.dispose();
+        }
+        try {
+            sync().block(SHUTDOWN_SYNC_TIMEOUT);
+        } catch (Exception e) {
+            log.warn("Failed to sync quota counters on shutdown: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public QuotaDecision acquire(List<QuotaPolicy> policies) {
+        if (!trafficConfig.isQuotaEnabled() || policies.isEmpty()) {
+            return QuotaDecision.UNLIMITED;
+        }
+        long now = System.currentTimeMillis();
+        Map<QuotaWindow, QuotaDecision.Usage> tightest = new EnumMap<>(QuotaWindow.class);
+        List<SlidingWindowCounter> acquired = new ArrayList<>(policies.size());
+
+        for (QuotaPolicy policy : policies) {
+            SlidingWindowCounter counter = counter(policy, now);
+            long remaining = counter.tryAcquire(policy.limit(), now);
+            if (remaining < 0) {
+                acquired.forEach(c -> c.release(now));
+                rejectedCounters.get(policy.window()).increment();
+                long retryAfter = counter.retryAfterMillis(policy.limit(), now);
+                return new QuotaDecision(false, List.of(new QuotaDecision.Usage(policy.window(), policy.limit(), 0)),
+                        retryAfter);
+            }
+            acquired.add(counter);
+            tightest.merge(policy.window(), new QuotaDecision.Usage(policy.window(), policy.limit(), remaining),
+                    (a, b) -> a.remaining() <= b.remaining() ? a : b);
+        }
+        return new QuotaDecision(true, List.copyOf(tightest.values()), 0);
+    }
+
+    private SlidingWindowCounter counter(QuotaPolicy policy, long now) {
+        String key = policy.subject() + '|' + policy.window().getCode();
+        SlidingWindowCounter counter = counters.get(key);
+        if (counter != null) {
+            return counter;
+        }
+        SlidingWindowCounter created = new SlidingWindowCounter(policy.subject(), policy.window(), now);
+        SlidingWindowCounter existing = counters.putIfAbsent(key, created);
+        if (existing != null) {
+            return existing;
+        }
+        // 新计数器立即从Redis加载全局计数，不阻塞当前请求
+        syncCounter(created, now).subscribe();
+        return created;
+    }
+
+    @Override
+    public Mono<Void> sync() {
+        if (counters.isEmpty()) {
+            return Mono.empty();
+        }
+        long now = System.currentTimeMillis();
+        long idleMillis = trafficConfig.getQuotaCounterIdleTimeout().toMillis();
+        long start = System.nanoTime();
+        return Flux.fromIterable(counters.entrySet())
+                .flatMap(entry -> syncCounter(entry.getValue(), now)
+                        .doOnSuccess(unused -> {
+                            if (entry.getValue().isIdle(now, idleMillis)) {
+                                counters.remove(entry.getKey(), entry.getValue());
+                            }
+                        }), SYNC_CONCURRENCY)
+                .then()
+                .doFinally(signal -> syncTimer.record(Duration.ofNanos(System.nanoTime() - start)));
+    }
+
+    private Mono<Void> syncCounter(SlidingWindowCounter counter, long now) {
+        SlidingWindowCounter.SyncBatch batch = counter.beginSync(now);
+        if (batch == null) {
+            return Mono.empty();
+        }
+        return redisClient.sync(counter, batch)
+                .doOnNext(result -> counter.completeSync(batch, result.get(0), result.get(1)))
+                .switchIfEmpty(Mono.fromRunnable(() -> counter.failSync(batch)))
+                .onErrorResume(error -> {
+                    counter.failSync(batch);
+                    syncFailedCounter.increment();
+                    log.debug("Failed to sync quota counter {}: {}", counter.getSubject(), error.getMessage());
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    @Override
+    public int counterCount() {
+        return counters.size();
+    }
+}
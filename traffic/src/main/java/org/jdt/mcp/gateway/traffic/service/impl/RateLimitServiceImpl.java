@@ -0,0 +1,149 @@
+package org.jdt.mcp.gateway.traffic.service.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.jdt.mcp.gateway.traffic.config.TrafficConfiguration;
+import org.jdt.mcp.gateway.traffic.limiter.LeasedTokenBucket;
+import org.jdt.mcp.gateway.traffic.limiter.RateLimitDecision;
+import org.jdt.mcp.gateway.traffic.limiter.RedisTokenBucketClient;
+import org.jdt.mcp.gateway.traffic.limiter.TokenBucket;
+import org.jdt.mcp.gateway.traffic.service.RateLimitService;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+@Slf4j
+@Service
+public class RateLimitServiceImpl implements RateLimitService {
+
+    private static final Mono<RateLimitDecision> ALLOWED = Mono.just(RateLimitDecision.ALLOWED);
+
+    private final TrafficConfiguration trafficConfig;
+    private final RedisTokenBucketClient redisClient;
+    private final MeterRegistry meterRegistry;
+
+    // 服务级令牌桶，服务数量有限，直接常驻
+    private final ConcurrentHashMap<String, TokenBucket> localBuckets = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, LeasedTokenBucket> clusterBuckets = new ConcurrentHashMap<>();
+    // (服务, authKey) 级令牌桶，空闲后淘汰
+    private final Cache<String, TokenBucket> keyBuckets;
+
+    private final Counter fallbackCounter;
+    // 拒绝计数，key为 {serviceId}|{scope}
+    private final ConcurrentHashMap<String, Counter> rejectedCounters = new ConcurrentHashMap<>();
+
+    public RateLimitServiceImpl(TrafficConfiguration trafficConfig,
+                                RedisTokenBucketClient redisClient,
+                                MeterRegistry meterRegistry) {
+        this.trafficConfig = trafficConfig;
+        this.redisClient = redisClient;
+        this.meterRegistry = meterRegistry;
+        this.keyBuckets = Caffeine.newBuilder()
+                .maximumSize(trafficConfig.getKeyBucketMaxSize())
+                .expireAfterAccess(trafficConfig.getKeyBucketIdleTimeout())
+                .build();
+        this.fallbackCounter = Counter.builder("traffic.rate_limit.fallback")
+                .description("Redis不可用时退化为本地限流的次数")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Mono<RateLimitDecision> acquire(String serviceId, int maxQps, String clientKey) {
+        if (!trafficConfig.isEnabled() || maxQps <= 0) {
+            return ALLOWED;
+        }
+
+        // 先做本地的key级限流，被拒绝的请求不消耗服务级（集群）配额
+        int perKeyQps = trafficConfig.getPerKeyQps();
+        if (perKeyQps > 0 && clientKey != null) {
+            RateLimitDecision keyDecision = keyBucket(serviceId, clientKey, perKeyQps).acquire();
+            if (!keyDecision.allowed()) {
+                return Mono.just(record(serviceId, "key", keyDecision));
+            }
+        }
+
+        if (trafficConfig.getMode() == TrafficConfiguration.Mode.LOCAL) {
+            RateLimitDecision decision = localBucket(serviceId, maxQps).acquire();
+            return decision.allowed() ? ALLOWED : Mono.just(record(serviceId, "service", decision));
+        }
+        LeasedTokenBucket bucket = clusterBucket(serviceId, maxQps);
+        // 本地租约有余量时直接放行，不组装续租和降级的响应式链
+        if (bucket.tryAcquireLocal()) {
+            return ALLOWED;
+        }
+        return bucket.acquire()
+                .onErrorResume(error -> {
+                    // Redis不可用时退化为每个节点独立按maxQps限流
+                    log.warn("Cluster rate limit unavailable for service {}, falling back to local bucket: {}",
+                            serviceId, error.getMessage());
+                    fallbackCounter.increment();
+                    return Mono.just(localBucket(serviceId, maxQps).acquire());
+                })
+                .map(decision -> record(serviceId, "service", decision));
+    }
+
+    private TokenBucket localBucket(String serviceId, int maxQps) {
+        long capacity = capacity(maxQps);
+        TokenBucket bucket = localBuckets.get(serviceId);
+        if (bucket != null && bucket.sameRate(maxQps, capacity)) {
+            return bucket;
+        }
+        return localBuckets.compute(serviceId, (id, existing) ->
+                existing != null && existing.sameRate(maxQps, capacity) ? existing : new TokenBucket(maxQps, capacity));
+    }
+
+    private LeasedTokenBucket clusterBucket(String serviceId, int maxQps) {
+        long capacity = capacity(maxQps);
+        long leaseSize = Math.max(trafficConfig.getLeaseMinSize(),
+                (long) Math.ceil(maxQps * trafficConfig.getLeaseFraction()));
+        LeasedTokenBucket bucket = clusterBuckets.get(serviceId);
+        if (bucket != null && bucket.sameRate(maxQps, capacity, leaseSize)) {
+            return bucket;
+        }
+        return clusterBuckets.compute(serviceId, (id, existing) ->
+                existing != null && existing.sameRate(maxQps, capacity, leaseSize) ? existing
+                        : new LeasedTokenBucket(id, maxQps, capacity, leaseSize, trafficConfig.getLeaseTtl(), redisClient));
+    }
+
+    private TokenBucket keyBucket(String serviceId, String clientKey, int perKeyQps) {
+        long capacity = capacity(perKeyQps);
+        String key = serviceId + '\n' + clientKey;
+        TokenBucket bucket = keyBuckets.getIfPresent(key);
+        if (bucket == null) {
+            bucket = keyBuckets.get(key, k -> new TokenBucket(perKeyQps, capacity));
+        }
+        if (!bucket.sameRate(perKeyQps, capacity)) {
+            bucket = new TokenBucket(perKeyQps, capacity);
+            keyBuckets.put(key, bucket);
+        }
+        return bucket;
+    }
+
+    private long capacity(int qps) {
+        return Math.max(1, (long) Math.ceil(qps * trafficConfig.getBurstSeconds()));
+    }
+
+    private RateLimitDecision record(String serviceId, String scope, RateLimitDecision decision) {
+        if (!decision.allowed()) {
+            rejectedCounter(serviceId, scope).increment();
+        }
+        return decision;
+    }
+
+    private Counter rejectedCounter(String serviceId, String scope) {
+        String key = serviceId + '|' + scope;
+        Counter counter = rejectedCounters.get(key);
+        if (counter == null) {
+            counter = rejectedCounters.computeIfAbsent(key, k -> Counter.builder("traffic.rate_limit.rejected")
+                    .description("被限流拒绝的请求数")
+                    .tag("service", serviceId)
+                    .tag("scope", scope)
+                    .register(meterRegistry));
+        }
+        return counter;
+    }
+}
@@ -0,0 +1,53 @@
+package org.jdt.mcp.gateway.traffic.concurrency;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GradientLimitTest {
+
+    private static final long MS = 1_000_000L;
+
+    private final GradientLimit limit = new GradientLimit(100, 4, 1000, 1.5, 0.2, 10, 600);
+
+    @Test
+    void singleSlowSampleDoesNotShrinkLimit() {
+        warmUp(10 * MS, 200);
+        int before = limit.getLimit();
+
+        // 单样本超出容忍倍数，平均后的短期延迟仍在容忍范围内
+        limit.onSample(25 * MS, limit.getLimit(), false);
+
+        assertThat(limit.getLimit()).isGreaterThanOrEqualTo(before);
+    }
+
+    @Test
+    void sustainedSlowSamplesShrinkLimit() {
+        warmUp(10 * MS, 200);
+        int before = limit.getLimit();
+
+        for (int i = 0; i < 20; i++) {
+            limit.onSample(50 * MS, limit.getLimit(), false);
+        }
+
+        assertThat(limit.getLimit()).isLessThan(before);
+    }
+
+    @Test
+    void baselineFallsBackAfterLatencyRecovers() {
+        warmUp(10 * MS, 50);
+        warmUp(100 * MS, 2000);
+        double overloaded = limit.getLongRttMillis();
+
+        warmUp(10 * MS, 100);
+
+        // 只按EWMA回落时100个样本后基线约为 10 + 90 * (1 - 2/601)^100 ≈ 74ms
+        assertThat(limit.getLongRttMillis()).isLessThan(overloaded / 2);
+    }
+
+    private void warmUp(long rttNanos, int samples) {
+        for (int i = 0; i < samples; i++) {
+            limit.onSample(rttNanos, limit.getLimit(), false);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package org.jdt.mcp.gateway.traffic.limiter;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class LeasedTokenBucketTest {
+
+    private static final int THREADS = 16;
+    private static final int ATTEMPTS_PER_THREAD = 2_000;
+    private static final long POOL = 10_000;
+    private static final long LEASE_SIZE = 50;
+
+    /**
+     * 模拟Redis中只有POOL个令牌、不补充的共享桶，租借异步返回
+     * 多线程并发获取时，放行数不能超过从Redis租到的令牌数，且Redis调用次数远少于请求数
+     */
+    @Test
+    void concurrentAcquireNeverExceedsLeasedTokens() throws Exception {
+        AtomicLong pool = new AtomicLong(POOL);
+        AtomicLong granted = new AtomicLong();
+        AtomicLong redisCalls = new AtomicLong();
+        RedisTokenBucketClient client = mock(RedisTokenBucketClient.class);
+        when(client.lease(anyString(), anyDouble(), anyLong(), anyLong())).thenAnswer(invocation -> {
+            long requested = invocation.getArgument(3);
+            return Mono.fromSupplier(() -> {
+                redisCalls.incrementAndGet();
+                long before = pool.getAndUpdate(remaining -> Math.max(0, remaining - requested));
+                long leased = Math.min(before, requested);
+                granted.addAndGet(leased);
+                return new RedisTokenBucketClient.Lease(leased, leased > 0 ? 0 : 1000);
+            }).subscribeOn(Schedulers.parallel());
+        });
+        LeasedTokenBucket bucket = new LeasedTokenBucket("svc", 100, POOL, LEASE_SIZE,
+                Duration.ofMinutes(1), client);
+
+        long allowed = acquireConcurrently(bucket);
+
+        assertThat(allowed).isPositive().isLessThanOrEqualTo(granted.get());
+        assertThat(redisCalls.get()).isLessThan((long) THREADS * ATTEMPTS_PER_THREAD / 10);
+    }
+
+    private static long acquireConcurrently(LeasedTokenBucket bucket) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Callable<Long>> tasks = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                tasks.add(() -> {
+                    long allowed = 0;
+                    for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                        if (bucket.acquire().block().allowed()) {
+                            allowed++;
+                        }
+                    }
+                    return allowed;
+                });
+            }
+            long allowed = 0;
+            for (Future<Long> result : executor.invokeAll(tasks)) {
+                allowed += result.get();
+            }
+            return allowed;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package org.jdt.mcp.gateway.traffic.limiter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.jdt.mcp.gateway.traffic.config.TrafficConfiguration;
+import org.jdt.mcp.gateway.traffic.service.impl.RateLimitServiceImpl;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 限流热路径的单次获取耗时，分别以单线程和每个CPU一个线程运行，对比无竞争与多线程竞争同一个桶
+ * 放行路径使用足够大的速率，拒绝路径使用1令牌/秒；集群租约使用立即返回的mock Redis
+ * 运行：mvn -pl traffic -am test -Pbenchmark -Dtest=RateLimiterBenchmark -Dsurefire.failIfNoSpecifiedTests=false
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RateLimiterBenchmark {
+
+    private static final int UNLIMITED_QPS = 1_000_000_000;
+
+    private TokenBucket allowingBucket;
+    private TokenBucket rejectingBucket;
+    private LeasedTokenBucket leasedBucket;
+    private RateLimitServiceImpl localService;
+    private RateLimitServiceImpl clusterService;
+
+    @Setup
+    public void setUp() {
+        allowingBucket = new TokenBucket(UNLIMITED_QPS, UNLIMITED_QPS);
+        rejectingBucket = new TokenBucket(1, 1);
+
+        RedisTokenBucketClient client = mock(RedisTokenBucketClient.class);
+        when(client.lease(anyString(), anyDouble(), anyLong(), anyLong()))
+                .thenAnswer(invocation -> Mono.just(new RedisTokenBucketClient.Lease(invocation.getArgument(3), 0)));
+        leasedBucket = new LeasedTokenBucket("svc", UNLIMITED_QPS, UNLIMITED_QPS, 10_000,
+                Duration.ofMinutes(1), client);
+
+        TrafficConfiguration localConfig = new TrafficConfiguration();
+        localConfig.setMode(TrafficConfiguration.Mode.LOCAL);
+        localConfig.setPerKeyQps(UNLIMITED_QPS);
+        localService = new RateLimitServiceImpl(localConfig, client, new SimpleMeterRegistry());
+        TrafficConfiguration clusterConfig = new TrafficConfiguration();
+        clusterConfig.setLeaseFraction(0.00001);
+        clusterService = new RateLimitServiceImpl(clusterConfig, client, new SimpleMeterRegistry());
+    }
+
+    @Benchmark
+    public long tokenBucketAllowed() {
+        return allowingBucket.tryAcquire();
+    }
+
+    @Benchmark
+    public long tokenBucketRejected() {
+        return rejectingBucket.tryAcquire();
+    }
+
+    @Benchmark
+    public RateLimitDecision leasedBucketLocalTake() {
+        return leasedBucket.acquire().block();
+    }
+
+    @Benchmark
+    public RateLimitDecision serviceLocalModeWithKeyLimit() {
+        return localService.acquire("svc", UNLIMITED_QPS, "key-a").block();
+    }
+
+    @Benchmark
+    public RateLimitDecision serviceClusterMode() {
+        return clusterService.acquire("svc", UNLIMITED_QPS, null).block();
+    }
+
+    @Tag("benchmark")
+    @Test
+    void run() throws Exception {
+        int cpus = Runtime.getRuntime().availableProcessors();
+        for (int threads : cpus > 1 ? new int[]{1, cpus} : new int[]{1}) {
+            new Runner(new OptionsBuilder()
+                    .include(RateLimiterBenchmark.class.getName())
+                    .threads(threads)
+                    .addProfiler(GCProfiler.class)
+                    .build()).run();
+        }
+    }
+}
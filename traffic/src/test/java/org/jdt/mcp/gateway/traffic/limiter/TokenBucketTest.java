@@ -0,0 +1,81 @@
+package org.jdt.mcp.gateway.traffic.limiter;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketTest {
+
+    private static final int THREADS = 16;
+
+    @Test
+    void concurrentAcquireGrantsExactlyCapacityAtFixedTime() throws Exception {
+        // 1令牌/秒，测试期间不会补充新令牌
+        TokenBucket bucket = new TokenBucket(1, 100);
+        long now = System.nanoTime();
+
+        long allowed = acquireConcurrently(() -> bucket.tryAcquire(now), 1_000);
+
+        assertThat(allowed).isEqualTo(100);
+    }
+
+    @Test
+    void concurrentAcquireGrantsRefilledTokensExactly() throws Exception {
+        TokenBucket bucket = new TokenBucket(1, 100);
+        long now = System.nanoTime();
+        acquireConcurrently(() -> bucket.tryAcquire(now), 1_000);
+
+        long later = now + TimeUnit.SECONDS.toNanos(10);
+        long allowed = acquireConcurrently(() -> bucket.tryAcquire(later), 1_000);
+
+        assertThat(allowed).isEqualTo(10);
+    }
+
+    @Test
+    void concurrentAcquireNeverExceedsRate() throws Exception {
+        TokenBucket bucket = new TokenBucket(10_000, 100);
+        long start = System.nanoTime();
+
+        long allowed = acquireConcurrently(bucket::tryAcquire, 20_000);
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+
+        assertThat(allowed).isLessThanOrEqualTo(100 + (long) Math.ceil(10_000 * elapsedSeconds));
+    }
+
+    /**
+     * @return 获取成功的次数
+     */
+    private static long acquireConcurrently(LongSupplier acquire, int attemptsPerThread) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Callable<Long>> tasks = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                tasks.add(() -> {
+                    long allowed = 0;
+                    for (int i = 0; i < attemptsPerThread; i++) {
+                        if (acquire.getAsLong() == 0) {
+                            allowed++;
+                        }
+                    }
+                    return allowed;
+                });
+            }
+            long allowed = 0;
+            for (Future<Long> result : executor.invokeAll(tasks)) {
+                allowed += result.get();
+            }
+            return allowed;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
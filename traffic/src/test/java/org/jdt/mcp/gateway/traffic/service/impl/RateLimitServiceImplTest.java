@@ -0,0 +1,111 @@
+package org.jdt.mcp.gateway.traffic.service.impl;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.jdt.mcp.gateway.traffic.config.TrafficConfiguration;
+import org.jdt.mcp.gateway.traffic.limiter.RateLimitDecision;
+import org.jdt.mcp.gateway.traffic.limiter.RedisTokenBucketClient;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RateLimitServiceImplTest {
+
+    private final TrafficConfiguration config = new TrafficConfiguration();
+    private final RedisTokenBucketClient client = mock(RedisTokenBucketClient.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void lowQpsServiceLeasesAtLeastMinimumBatch() {
+        when(client.lease(anyString(), anyDouble(), anyLong(), anyLong()))
+                .thenAnswer(invocation -> Mono.just(new RedisTokenBucketClient.Lease(invocation.getArgument(3), 0)));
+        RateLimitServiceImpl service = new RateLimitServiceImpl(config, client, meterRegistry);
+
+        for (int i = 0; i < config.getLeaseMinSize(); i++) {
+            assertThat(service.acquire("hr-service", 10, null).block().allowed()).isTrue();
+        }
+
+        // maxQps=10时 ceil(10 * 0.1) = 1，按最少租借数一次租够
+        verify(client, times(1)).lease(eq("hr-service"), anyDouble(), anyLong(), eq((long) config.getLeaseMinSize()));
+    }
+
+    @Test
+    void rejectedCounterIsRegisteredOncePerServiceAndScope() {
+        config.setMode(TrafficConfiguration.Mode.LOCAL);
+        RateLimitServiceImpl service = new RateLimitServiceImpl(config, client, meterRegistry);
+
+        int rejected = 0;
+        for (int i = 0; i < 20; i++) {
+            RateLimitDecision decision = service.acquire("svc", 1, null).block();
+            if (!decision.allowed()) {
+                rejected++;
+            }
+        }
+
+        assertThat(rejected).isPositive();
+        assertThat(meterRegistry.find("traffic.rate_limit.rejected").counters()).hasSize(1);
+        assertThat(meterRegistry.get("traffic.rate_limit.rejected").tag("service", "svc").tag("scope", "service")
+                .counter().count()).isEqualTo(rejected);
+    }
+
+    /**
+     * 多线程并发获取时，服务级放行数不超过从Redis租到的令牌数，拒绝计数与被拒绝的请求数一致
+     */
+    @Test
+    void concurrentClusterAcquireStaysWithinLeasedTokens() throws Exception {
+        AtomicLong pool = new AtomicLong(1_000);
+        AtomicLong granted = new AtomicLong();
+        when(client.lease(anyString(), anyDouble(), anyLong(), anyLong())).thenAnswer(invocation -> {
+            long requested = invocation.getArgument(3);
+            return Mono.fromSupplier(() -> {
+                long before = pool.getAndUpdate(remaining -> Math.max(0, remaining - requested));
+                long leased = Math.min(before, requested);
+                granted.addAndGet(leased);
+                return new RedisTokenBucketClient.Lease(leased, leased > 0 ? 0 : 1000);
+            }).subscribeOn(Schedulers.parallel());
+        });
+        RateLimitServiceImpl service = new RateLimitServiceImpl(config, client, meterRegistry);
+
+        int threads = 8;
+        int attempts = 1_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Callable<Long>> tasks = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            tasks.add(() -> {
+                long allowed = 0;
+                for (int i = 0; i < attempts; i++) {
+                    if (service.acquire("svc", 1_000, null).block().allowed()) {
+                        allowed++;
+                    }
+                }
+                return allowed;
+            });
+        }
+        long allowed = 0;
+        for (Future<Long> result : executor.invokeAll(tasks)) {
+            allowed += result.get();
+        }
+        executor.shutdownNow();
+
+        assertThat(allowed).isPositive().isLessThanOrEqualTo(granted.get());
+        assertThat(meterRegistry.get("traffic.rate_limit.rejected").tag("service", "svc").tag("scope", "service")
+                .counter().count()).isEqualTo((double) threads * attempts - allowed);
+    }
+}